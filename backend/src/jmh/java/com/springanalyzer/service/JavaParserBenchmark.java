@@ -0,0 +1,64 @@
+package com.springanalyzer.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Parses every Java file below {@code corpus} with the single-pass parser and with the regex
+ * parser it replaced. Point {@code corpus} at a large checkout for representative numbers:
+ * {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="JavaParserBenchmark -p corpus=/path/to/src"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JavaParserBenchmark {
+
+    @Param("src/main/java")
+    public String corpus;
+
+    private final List<String> paths = new ArrayList<>();
+    private final List<String> contents = new ArrayList<>();
+    private JavaParserService parser;
+    private RegexJavaParser regexParser;
+
+    @Setup
+    public void load() throws IOException {
+        try (Stream<Path> files = Files.walk(Path.of(corpus))) {
+            for (Path file : files.filter(path -> path.toString().endsWith(".java")).toList()) {
+                paths.add(file.toString());
+                contents.add(Files.readString(file, StandardCharsets.UTF_8));
+            }
+        }
+        if (contents.isEmpty()) {
+            throw new IllegalStateException("No Java files below " + corpus);
+        }
+        parser = new JavaParserService();
+        regexParser = new RegexJavaParser();
+    }
+
+    @Benchmark
+    public void singlePass(Blackhole blackhole) {
+        for (int i = 0; i < contents.size(); i++) {
+            blackhole.consume(parser.parseContent(contents.get(i), paths.get(i), "root"));
+        }
+    }
+
+    @Benchmark
+    public void regex(Blackhole blackhole) {
+        for (int i = 0; i < contents.size(); i++) {
+            blackhole.consume(regexParser.parse(contents.get(i), paths.get(i), "root"));
+        }
+    }
+}
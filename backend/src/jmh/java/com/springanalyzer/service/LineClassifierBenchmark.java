@@ -0,0 +1,74 @@
+package com.springanalyzer.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Counts the lines of every Java file below {@code corpus} by kind, with the byte-level
+ * classifier and by splitting the text into trimmed lines as before. Add {@code -prof gc} to the arguments to compare allocation:
+ * {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="LineClassifierBenchmark -prof gc"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LineClassifierBenchmark {
+
+    @Param("src/main/java")
+    public String corpus;
+
+    private final List<SourceBytes> files = new ArrayList<>();
+    private final List<String> contents = new ArrayList<>();
+
+    @Setup
+    public void load() throws IOException {
+        try (Stream<Path> paths = Files.walk(Path.of(corpus))) {
+            for (Path file : paths.filter(path -> path.toString().endsWith(".java")).toList()) {
+                SourceBytes bytes = SourceBytes.of(Files.readAllBytes(file));
+                files.add(bytes);
+                contents.add(bytes.decode());
+            }
+        }
+        if (files.isEmpty()) {
+            throw new IllegalStateException("No Java files below " + corpus);
+        }
+    }
+
+    @Benchmark
+    public int classifier() {
+        LineClassifier classifier = new LineClassifier();
+        for (int i = 0; i < files.size(); i++) {
+            classifier.classify(new SourceFile("File.java", files.get(i), null));
+        }
+        return classifier.getCodeLines();
+    }
+
+    @Benchmark
+    public int trimmedLines() {
+        int codeLines = 0;
+        for (String content : contents) {
+            boolean inBlockComment = false;
+            for (String line : content.lines().toList()) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty()) continue;
+                if (inBlockComment) {
+                    if (trimmed.contains("*/")) inBlockComment = false;
+                } else if (trimmed.startsWith("/*")) {
+                    if (!trimmed.contains("*/")) inBlockComment = true;
+                } else if (!trimmed.startsWith("//")) {
+                    codeLines++;
+                }
+            }
+        }
+        return codeLines;
+    }
+}
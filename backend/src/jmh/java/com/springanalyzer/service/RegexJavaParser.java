@@ -0,0 +1,268 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.entity.ClassType;
+import com.springanalyzer.entity.HttpMethod;
+import com.springanalyzer.entity.RelationshipType;
+import com.springanalyzer.service.JavaParserService.ParsedClass;
+import com.springanalyzer.service.JavaParserService.ParsedEndpoint;
+import com.springanalyzer.service.JavaParserService.TypeReference;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The regex-per-feature parser {@link JavaParserService} used before {@link JavaSourceIndexer},
+ * kept as the baseline of {@link JavaParserBenchmark}. Not used by the application.
+ */
+class RegexJavaParser {
+
+    private static final Pattern PACKAGE_PATTERN = Pattern.compile("package\\s+([\\w.]+)\\s*;");
+    private static final Pattern CLASS_PATTERN = Pattern.compile("(public\\s+)?(abstract\\s+)?(class|interface|enum)\\s+(\\w+)");
+    private static final Pattern EXTENDS_PATTERN = Pattern.compile("extends\\s+(\\w+)");
+    private static final Pattern IMPLEMENTS_PATTERN = Pattern.compile("implements\\s+([\\w,\\s]+)");
+    private static final Pattern ANNOTATION_PATTERN = Pattern.compile("@(\\w+)(?:\\([^)]*\\))?");
+    private static final Pattern FIELD_PATTERN = Pattern.compile("(private|protected|public)\\s+(?!class|interface|enum)\\w+(?:<[^>]+>)?\\s+\\w+\\s*[;=]");
+    private static final Pattern METHOD_PATTERN = Pattern.compile("(public|private|protected)\\s+(?!class)\\w+(?:<[^>]+>)?\\s+\\w+\\s*\\([^)]*\\)\\s*\\{?");
+    
+    private static final Pattern REQUEST_MAPPING_PATTERN = Pattern.compile("@(Get|Post|Put|Delete|Patch|Request)Mapping\\s*(?:\\(\\s*(?:value\\s*=\\s*)?\"([^\"]*)\"|\\(\\s*(?:value\\s*=\\s*)?'([^']*)'|\\(\\s*\"([^\"]*)\"|\\))?");
+    private static final Pattern SIMPLE_MAPPING_PATTERN = Pattern.compile("@(Get|Post|Put|Delete|Patch)Mapping(?:\\s*\\(\\s*[\"']([^\"']*)[\"']\\s*\\))?");
+    private static final Pattern METHOD_SIGNATURE_PATTERN = Pattern.compile("(public|private|protected)\\s+(\\w+(?:<[^>]+>)?)\\s+(\\w+)\\s*\\(([^)]*)\\)");
+
+    private static final Pattern CLASS_EXTENDS_PATTERN = Pattern.compile("class\\s+\\w+\\s+extends\\s+(\\w+)");
+    private static final Pattern CLASS_IMPLEMENTS_PATTERN = Pattern.compile("class\\s+\\w+(?:\\s+extends\\s+\\w+)?\\s+implements\\s+([\\w,\\s]+)");
+    private static final Pattern INJECTION_PATTERN = Pattern.compile("@(Autowired|Inject)\\s*(?:private|protected|public)?\\s*(\\w+)\\s+(\\w+)");
+    private static final Pattern CONSTRUCTOR_INJECTION_PATTERN = Pattern.compile("(?:private|protected|public)\\s+final\\s+(\\w+)\\s+(\\w+)\\s*;");
+    private static final Pattern FIELD_TYPE_PATTERN = Pattern.compile("(?:private|protected|public)\\s+(?:final\\s+)?(\\w+)(?:<[^>]+>)?\\s+(\\w+)\\s*[;=]");
+    private static final Pattern JPA_RELATION_PATTERN = Pattern.compile("@(OneToOne|OneToMany|ManyToOne|ManyToMany)");
+    private static final Pattern GENERIC_ARGUMENT_PATTERN = Pattern.compile("<(\\w+)>");
+
+    ParsedClass parse(CharSequence content, String filePath, String moduleName) {
+        ParsedClass.ParsedClassBuilder parsed = ParsedClass.builder()
+                .fullPath(filePath)
+                .moduleName(moduleName);
+
+        Matcher packageMatcher = PACKAGE_PATTERN.matcher(content);
+        if (packageMatcher.find()) {
+            parsed.packageName(packageMatcher.group(1));
+        }
+
+        ClassType classType = null;
+        Matcher classMatcher = CLASS_PATTERN.matcher(content);
+        if (classMatcher.find()) {
+            parsed.name(classMatcher.group(4));
+            String kind = classMatcher.group(3);
+            if ("interface".equals(kind)) {
+                classType = ClassType.INTERFACE;
+            } else if ("enum".equals(kind)) {
+                classType = ClassType.ENUM;
+            }
+        }
+
+        List<String> annotations = new ArrayList<>();
+        Matcher annotationMatcher = ANNOTATION_PATTERN.matcher(content);
+        while (annotationMatcher.find()) {
+            annotations.add(annotationMatcher.group(1));
+        }
+        parsed.annotations(List.copyOf(annotations));
+
+        if (classType == null) {
+            classType = determineClassType(annotations);
+        }
+        parsed.classType(classType);
+
+        Matcher extendsMatcher = EXTENDS_PATTERN.matcher(content);
+        if (extendsMatcher.find()) {
+            parsed.extendsClass(extendsMatcher.group(1));
+        }
+
+        Matcher implementsMatcher = IMPLEMENTS_PATTERN.matcher(content);
+        if (implementsMatcher.find()) {
+            String[] interfaces = implementsMatcher.group(1).split(",");
+            parsed.implementsInterfaces(Arrays.stream(interfaces)
+                    .map(String::trim)
+                    .toList());
+        }
+
+        Matcher fieldMatcher = FIELD_PATTERN.matcher(content);
+        int fieldCount = 0;
+        while (fieldMatcher.find()) fieldCount++;
+        parsed.fieldCount(fieldCount);
+
+        Matcher methodMatcher = METHOD_PATTERN.matcher(content);
+        int methodCount = 0;
+        while (methodMatcher.find()) methodCount++;
+        parsed.methodCount(methodCount);
+
+        if (classType == ClassType.REST_CONTROLLER || classType == ClassType.CONTROLLER) {
+            parsed.endpoints(parseEndpoints(content));
+        }
+
+        parsed.references(extractReferences(content, classType));
+
+        return parsed.build();
+    }
+
+    private ClassType determineClassType(List<String> annotations) {
+        for (String annotation : annotations) {
+            switch (annotation) {
+                case "RestController": return ClassType.REST_CONTROLLER;
+                case "Controller": return ClassType.CONTROLLER;
+                case "Service": return ClassType.SERVICE;
+                case "Repository": return ClassType.REPOSITORY;
+                case "Entity": return ClassType.ENTITY;
+                case "Component": return ClassType.COMPONENT;
+                case "Configuration": return ClassType.CONFIGURATION;
+            }
+        }
+        return ClassType.OTHER;
+    }
+
+    private List<ParsedEndpoint> parseEndpoints(CharSequence content) {
+        List<ParsedEndpoint> endpoints = new ArrayList<>();
+        
+        String classPath = "";
+        Pattern classMapping = Pattern.compile("@RequestMapping\\s*\\([^)]*[\"']([^\"']+)[\"'][^)]*\\)");
+        Matcher classPathMatcher = classMapping.matcher(content);
+        if (classPathMatcher.find()) {
+            classPath = classPathMatcher.group(1);
+        }
+
+        List<CharSequence> lines = lines(content);
+        for (int i = 0; i < lines.size(); i++) {
+            Matcher mappingMatcher = SIMPLE_MAPPING_PATTERN.matcher(lines.get(i));
+            
+            if (mappingMatcher.find()) {
+                String mappingType = mappingMatcher.group(1);
+                String path = mappingMatcher.group(2);
+                if (path == null || path.isEmpty()) path = "";
+                
+                if (path.length() > 200) continue;
+                
+                HttpMethod httpMethod = switch (mappingType) {
+                    case "Get" -> HttpMethod.GET;
+                    case "Post" -> HttpMethod.POST;
+                    case "Put" -> HttpMethod.PUT;
+                    case "Delete" -> HttpMethod.DELETE;
+                    case "Patch" -> HttpMethod.PATCH;
+                    default -> HttpMethod.GET;
+                };
+
+                for (int j = i + 1; j < Math.min(i + 5, lines.size()); j++) {
+                    Matcher methodSig = METHOD_SIGNATURE_PATTERN.matcher(lines.get(j));
+                    if (methodSig.find()) {
+                        endpoints.add(new ParsedEndpoint(
+                                httpMethod,
+                                normalizePath(classPath, path),
+                                methodSig.group(3),
+                                methodSig.group(2),
+                                methodSig.group(4)));
+                        break;
+                    }
+                }
+            }
+        }
+        
+        return List.copyOf(endpoints);
+    }
+
+    /**
+     * Collects the types this class refers to, in the order the relationships are resolved
+     * once all classes of the project are known.
+     */
+    private List<TypeReference> extractReferences(CharSequence content, ClassType classType) {
+        List<TypeReference> references = new ArrayList<>();
+
+        Matcher matcher = CLASS_EXTENDS_PATTERN.matcher(content);
+        if (matcher.find()) {
+            references.add(new TypeReference(RelationshipType.EXTENDS, matcher.group(1), null));
+        }
+
+        matcher = CLASS_IMPLEMENTS_PATTERN.matcher(content);
+        if (matcher.find()) {
+            for (String iface : matcher.group(1).split(",")) {
+                references.add(new TypeReference(RelationshipType.IMPLEMENTS, iface.trim(), null));
+            }
+        }
+
+        matcher = INJECTION_PATTERN.matcher(content);
+        while (matcher.find()) {
+            references.add(new TypeReference(RelationshipType.INJECTS, matcher.group(2), matcher.group(3)));
+        }
+
+        matcher = CONSTRUCTOR_INJECTION_PATTERN.matcher(content);
+        while (matcher.find()) {
+            references.add(new TypeReference(RelationshipType.INJECTS, matcher.group(1), matcher.group(2)));
+        }
+
+        if (classType == ClassType.ENTITY) {
+            references.addAll(extractJpaReferences(content));
+        }
+
+        matcher = FIELD_TYPE_PATTERN.matcher(content);
+        while (matcher.find()) {
+            references.add(new TypeReference(RelationshipType.USES, matcher.group(1), matcher.group(2)));
+        }
+
+        return List.copyOf(references);
+    }
+
+    private List<TypeReference> extractJpaReferences(CharSequence content) {
+        List<TypeReference> references = new ArrayList<>();
+
+        List<CharSequence> lines = lines(content);
+        for (int i = 0; i < lines.size(); i++) {
+            Matcher relationMatcher = JPA_RELATION_PATTERN.matcher(lines.get(i));
+            if (relationMatcher.find()) {
+                RelationshipType relType = switch (relationMatcher.group(1)) {
+                    case "OneToOne" -> RelationshipType.ONE_TO_ONE;
+                    case "OneToMany" -> RelationshipType.ONE_TO_MANY;
+                    case "ManyToOne" -> RelationshipType.MANY_TO_ONE;
+                    case "ManyToMany" -> RelationshipType.MANY_TO_MANY;
+                    default -> null;
+                };
+
+                if (relType != null) {
+                    for (int j = i + 1; j < Math.min(i + 5, lines.size()); j++) {
+                        Matcher fieldMatcher = FIELD_TYPE_PATTERN.matcher(lines.get(j));
+                        if (fieldMatcher.find()) {
+                            String typeName = fieldMatcher.group(1);
+
+                            if (typeName.equals("List") || typeName.equals("Set")) {
+                                Matcher genericMatcher = GENERIC_ARGUMENT_PATTERN.matcher(lines.get(j));
+                                if (genericMatcher.find()) {
+                                    typeName = genericMatcher.group(1);
+                                }
+                            }
+
+                            references.add(new TypeReference(relType, typeName, fieldMatcher.group(2)));
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return references;
+    }
+
+    /**
+     * Lines of the text as views into it.
+     */
+    private static List<CharSequence> lines(CharSequence content) {
+        List<CharSequence> lines = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < content.length(); i++) {
+            if (content.charAt(i) == '\n') {
+                lines.add(content.subSequence(start, i));
+                start = i + 1;
+            }
+        }
+        lines.add(content.subSequence(start, content.length()));
+        return lines;
+    }
+
+    private String normalizePath(String classPath, String methodPath) {
+        String fullPath = classPath + "/" + methodPath;
+        return "/" + fullPath.replaceAll("/+", "/").replaceAll("^/|/$", "");
+    }
+}
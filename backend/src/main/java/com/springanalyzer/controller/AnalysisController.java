@@ -1,8 +1,11 @@
 package com.springanalyzer.controller;
 
+import com.springanalyzer.dto.AnalysisQueueResponse;
 import com.springanalyzer.dto.AnalysisResponse;
 import com.springanalyzer.dto.response.ApiResponse;
-import com.springanalyzer.service.AnalysisService;
+import com.springanalyzer.entity.AnalysisJob;
+import com.springanalyzer.service.AnalysisJobService;
+import com.springanalyzer.service.AnalysisProgressService;
 import com.springanalyzer.service.AnalysisResultService;
 import com.springanalyzer.service.ExportService;
 import lombok.RequiredArgsConstructor;
@@ -10,30 +13,45 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/v1/projects/{projectId}/analysis")
 @RequiredArgsConstructor
 public class AnalysisController {
 
-    private final AnalysisService analysisService;
+    private final AnalysisJobService analysisJobService;
+    private final AnalysisProgressService analysisProgressService;
     private final AnalysisResultService analysisResultService;
     private final ExportService exportService;
 
     @PostMapping
-    public ResponseEntity<ApiResponse<String>> startAnalysis(@PathVariable Long projectId) {
-        analysisService.analyzeProjectAsync(projectId);
+    public ResponseEntity<ApiResponse<AnalysisQueueResponse.JobInfo>> startAnalysis(
+            @PathVariable Long projectId,
+            @RequestParam(value = "priority", defaultValue = "" + AnalysisJob.PRIORITY_NORMAL) int priority) {
+        AnalysisJob job = analysisJobService.submit(projectId, priority);
         return ResponseEntity.accepted()
-                .body(ApiResponse.success("Analysis started", "Project analysis has been queued"));
+                .body(ApiResponse.success(analysisJobService.toJobInfo(job), "Project analysis has been queued"));
     }
 
     @PostMapping("/sync")
     public ResponseEntity<ApiResponse<AnalysisResponse>> analyzeSync(@PathVariable Long projectId) {
-        analysisService.analyzeProject(projectId);
+        analysisJobService.submitAndWait(projectId, AnalysisJob.PRIORITY_INTERACTIVE);
         AnalysisResponse result = analysisResultService.getAnalysisResult(projectId);
         return ResponseEntity.ok(ApiResponse.success(result, "Analysis completed"));
     }
 
+    @DeleteMapping
+    public ResponseEntity<ApiResponse<AnalysisQueueResponse.JobInfo>> cancelAnalysis(@PathVariable Long projectId) {
+        AnalysisJob job = analysisJobService.cancel(projectId);
+        return ResponseEntity.ok(ApiResponse.success(analysisJobService.toJobInfo(job), "Analysis cancellation requested"));
+    }
+
+    @GetMapping(value = "/progress", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProgress(@PathVariable Long projectId) {
+        return analysisProgressService.subscribe(projectId);
+    }
+
     @GetMapping
     public ResponseEntity<ApiResponse<AnalysisResponse>> getAnalysisResult(@PathVariable Long projectId) {
         AnalysisResponse result = analysisResultService.getAnalysisResult(projectId);
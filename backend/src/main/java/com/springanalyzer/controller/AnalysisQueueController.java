@@ -0,0 +1,23 @@
+package com.springanalyzer.controller;
+
+import com.springanalyzer.dto.AnalysisQueueResponse;
+import com.springanalyzer.dto.response.ApiResponse;
+import com.springanalyzer.service.AnalysisJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/analysis/queue")
+@RequiredArgsConstructor
+public class AnalysisQueueController {
+
+    private final AnalysisJobService analysisJobService;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<AnalysisQueueResponse>> getQueueStatus() {
+        return ResponseEntity.ok(ApiResponse.success(analysisJobService.getQueueStatus()));
+    }
+}
@@ -0,0 +1,66 @@
+package com.springanalyzer.controller;
+
+import com.springanalyzer.dto.ClassGraphResponse;
+import com.springanalyzer.dto.response.ApiResponse;
+import com.springanalyzer.entity.RelationshipType;
+import com.springanalyzer.service.ClassGraphService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/projects/{projectId}/graph")
+@RequiredArgsConstructor
+public class ClassGraphController {
+
+    private final ClassGraphService classGraphService;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<ClassGraphResponse>> getSummary(@PathVariable Long projectId) {
+        return ResponseEntity.ok(ApiResponse.success(classGraphService.getSummary(projectId)));
+    }
+
+    @GetMapping("/classes/{classId}/dependencies")
+    public ResponseEntity<ApiResponse<ClassGraphResponse.Traversal>> getDependencies(
+            @PathVariable Long projectId,
+            @PathVariable Long classId,
+            @RequestParam(value = "types", required = false) List<RelationshipType> types,
+            @RequestParam(value = "depth", defaultValue = "0") int depth) {
+        return ResponseEntity.ok(ApiResponse.success(classGraphService.getReachable(projectId, classId, false, types, depth)));
+    }
+
+    @GetMapping("/classes/{classId}/dependents")
+    public ResponseEntity<ApiResponse<ClassGraphResponse.Traversal>> getDependents(
+            @PathVariable Long projectId,
+            @PathVariable Long classId,
+            @RequestParam(value = "types", required = false) List<RelationshipType> types,
+            @RequestParam(value = "depth", defaultValue = "0") int depth) {
+        return ResponseEntity.ok(ApiResponse.success(classGraphService.getReachable(projectId, classId, true, types, depth)));
+    }
+
+    @GetMapping("/path")
+    public ResponseEntity<ApiResponse<ClassGraphResponse.Path>> getShortestPath(
+            @PathVariable Long projectId,
+            @RequestParam("from") Long fromClassId,
+            @RequestParam("to") Long toClassId,
+            @RequestParam(value = "types", required = false) List<RelationshipType> types) {
+        return ResponseEntity.ok(ApiResponse.success(classGraphService.getShortestPath(projectId, fromClassId, toClassId, types)));
+    }
+
+    @GetMapping("/cycles")
+    public ResponseEntity<ApiResponse<List<List<ClassGraphResponse.ClassNode>>>> getCycles(
+            @PathVariable Long projectId,
+            @RequestParam(value = "types", required = false) List<RelationshipType> types,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return ResponseEntity.ok(ApiResponse.success(classGraphService.getCycles(projectId, types, limit)));
+    }
+
+    @GetMapping("/rankings")
+    public ResponseEntity<ApiResponse<ClassGraphResponse.Rankings>> getRankings(
+            @PathVariable Long projectId,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return ResponseEntity.ok(ApiResponse.success(classGraphService.getRankings(projectId, limit)));
+    }
+}
@@ -0,0 +1,30 @@
+package com.springanalyzer.controller;
+
+import com.springanalyzer.dto.PackageDsmResponse;
+import com.springanalyzer.dto.response.ApiResponse;
+import com.springanalyzer.service.PackageDsmService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/projects/{projectId}/dsm")
+@RequiredArgsConstructor
+public class PackageDsmController {
+
+    private final PackageDsmService packageDsmService;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<PackageDsmResponse>> getDsm(@PathVariable Long projectId) {
+        return ResponseEntity.ok(ApiResponse.success(packageDsmService.getDsm(projectId)));
+    }
+
+    @GetMapping("/tiles")
+    public ResponseEntity<ApiResponse<PackageDsmResponse.Tile>> getTile(
+            @PathVariable Long projectId,
+            @RequestParam(value = "row", defaultValue = "0") int row,
+            @RequestParam(value = "column", defaultValue = "0") int column,
+            @RequestParam(value = "size", defaultValue = "64") int size) {
+        return ResponseEntity.ok(ApiResponse.success(packageDsmService.getTile(projectId, row, column, size)));
+    }
+}
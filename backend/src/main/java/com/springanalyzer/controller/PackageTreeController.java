@@ -0,0 +1,23 @@
+package com.springanalyzer.controller;
+
+import com.springanalyzer.dto.PackageTreeResponse;
+import com.springanalyzer.dto.response.ApiResponse;
+import com.springanalyzer.service.PackageTreeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/projects/{projectId}/packages")
+@RequiredArgsConstructor
+public class PackageTreeController {
+
+    private final PackageTreeService packageTreeService;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<PackageTreeResponse>> getChildren(
+            @PathVariable Long projectId,
+            @RequestParam(value = "parent", required = false) String parent) {
+        return ResponseEntity.ok(ApiResponse.success(packageTreeService.getChildren(projectId, parent)));
+    }
+}
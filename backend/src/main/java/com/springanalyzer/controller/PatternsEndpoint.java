@@ -0,0 +1,28 @@
+package com.springanalyzer.controller;
+
+import com.springanalyzer.dto.PatternStatsResponse;
+import com.springanalyzer.service.PatternRegistry;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint at {@code /actuator/patterns} listing the analyzers' regular expressions by
+ * total match time, with their worst single match and longest input. A {@code DELETE} starts
+ * the counts over, e.g. before analyzing a project suspected of triggering backtracking.
+ */
+@Component
+@Endpoint(id = "patterns")
+public class PatternsEndpoint {
+
+    @ReadOperation
+    public PatternStatsResponse patterns() {
+        return PatternRegistry.snapshot();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        PatternRegistry.reset();
+    }
+}
@@ -1,6 +1,7 @@
 package com.springanalyzer.controller;
 
 import com.springanalyzer.dto.response.ApiResponse;
+import com.springanalyzer.dto.PathFilterRequest;
 import com.springanalyzer.dto.ProjectRequest;
 import com.springanalyzer.dto.ProjectResponse;
 import com.springanalyzer.service.ProjectService;
@@ -24,11 +25,15 @@ public class ProjectController {
     public ResponseEntity<ApiResponse<ProjectResponse>> uploadProject(
             @RequestParam("file") MultipartFile file,
             @RequestParam("name") String name,
-            @RequestParam(value = "description", required = false) String description) {
+            @RequestParam(value = "description", required = false) String description,
+            @RequestParam(value = "include", required = false) List<String> includePaths,
+            @RequestParam(value = "exclude", required = false) List<String> excludePaths) {
         
         ProjectRequest request = new ProjectRequest();
         request.setName(name);
         request.setDescription(description);
+        request.setIncludePaths(includePaths);
+        request.setExcludePaths(excludePaths);
         
         ProjectResponse response = projectService.createProject(file, request);
         return ResponseEntity
@@ -48,6 +53,22 @@ public class ProjectController {
         return ResponseEntity.ok(ApiResponse.success(project));
     }
 
+    @PutMapping(value = "/{id}/file", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponse<ProjectResponse>> replaceArchive(
+            @PathVariable Long id,
+            @RequestParam("file") MultipartFile file) {
+        ProjectResponse response = projectService.replaceArchive(id, file);
+        return ResponseEntity.ok(ApiResponse.success(response, "Project archive replaced successfully"));
+    }
+
+    @PutMapping("/{id}/path-filter")
+    public ResponseEntity<ApiResponse<ProjectResponse>> updatePathFilter(
+            @PathVariable Long id,
+            @RequestBody PathFilterRequest request) {
+        ProjectResponse response = projectService.updatePathFilter(id, request);
+        return ResponseEntity.ok(ApiResponse.success(response, "Project path filter updated successfully"));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<Void>> deleteProject(@PathVariable Long id) {
         projectService.deleteProject(id);
@@ -0,0 +1,69 @@
+package com.springanalyzer.controller;
+
+import com.springanalyzer.dto.ProjectResponse;
+import com.springanalyzer.dto.UploadInitRequest;
+import com.springanalyzer.dto.UploadSessionResponse;
+import com.springanalyzer.dto.response.ApiResponse;
+import com.springanalyzer.exception.SpringAnalyzerException;
+import com.springanalyzer.service.ChunkedUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/v1/uploads")
+@RequiredArgsConstructor
+public class UploadController {
+
+    private final ChunkedUploadService chunkedUploadService;
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<UploadSessionResponse>> initiateUpload(@Valid @RequestBody UploadInitRequest request) {
+        UploadSessionResponse response = chunkedUploadService.initiate(request);
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(ApiResponse.success(response, "Upload started"));
+    }
+
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<ApiResponse<UploadSessionResponse>> getUpload(@PathVariable String uploadId) {
+        return ResponseEntity.ok(ApiResponse.success(chunkedUploadService.getStatus(uploadId)));
+    }
+
+    /**
+     * Receives one part as the raw request body, which is streamed to disk without being buffered.
+     */
+    @PutMapping(value = "/{uploadId}/parts/{partNumber}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<ApiResponse<UploadSessionResponse.PartInfo>> uploadPart(
+            @PathVariable String uploadId,
+            @PathVariable int partNumber,
+            @RequestHeader(value = "X-Checksum-SHA256", required = false) String checksum,
+            HttpServletRequest request) {
+        try {
+            UploadSessionResponse.PartInfo part = chunkedUploadService.uploadPart(uploadId, partNumber, checksum, request.getInputStream());
+            return ResponseEntity.ok(ApiResponse.success(part));
+        } catch (IOException e) {
+            throw new SpringAnalyzerException("Failed to read part " + partNumber + ": " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<ApiResponse<ProjectResponse>> completeUpload(@PathVariable String uploadId) {
+        ProjectResponse response = chunkedUploadService.complete(uploadId);
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(ApiResponse.success(response, "Project uploaded successfully"));
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<ApiResponse<Void>> abortUpload(@PathVariable String uploadId) {
+        chunkedUploadService.abort(uploadId);
+        return ResponseEntity.ok(ApiResponse.success(null, "Upload aborted"));
+    }
+}
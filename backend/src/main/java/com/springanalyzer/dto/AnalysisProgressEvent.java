@@ -0,0 +1,21 @@
+package com.springanalyzer.dto;
+
+import lombok.Data;
+import lombok.Builder;
+
+@Data
+@Builder
+public class AnalysisProgressEvent {
+    private Long projectId;
+    private String stage;
+    private boolean finished;
+    private int filesProcessed;
+    private int filesTotal;
+    private long bytesProcessed;
+    private long bytesTotal;
+    private long bytesPerSecond;
+    private long elapsedMillis;
+    // Estimated time until the parse stage is done, null outside of it
+    private Long etaMillis;
+    private String message;
+}
@@ -0,0 +1,36 @@
+package com.springanalyzer.dto;
+
+import lombok.Data;
+import lombok.Builder;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+public class AnalysisQueueResponse {
+    private int maxConcurrent;
+    private long memoryBudget;
+    private long reservedMemory;
+    private int queueDepth;
+    private int runningCount;
+    private List<JobInfo> running;
+    private List<JobInfo> queued;
+
+    @Data
+    @Builder
+    public static class JobInfo {
+        private Long id;
+        private Long projectId;
+        private String projectName;
+        private String status;
+        private int priority;
+        private long archiveSize;
+        private Long estimatedDurationMs;
+        private Long estimatedMemory;
+        private boolean cancelRequested;
+        private String errorMessage;
+        private LocalDateTime queuedAt;
+        private LocalDateTime startedAt;
+        private LocalDateTime finishedAt;
+    }
+}
@@ -19,6 +19,7 @@ public class AnalysisResponse {
     private List<DependencyInfo> dependencies;
     private List<RelationshipInfo> relationships;
     private Map<String, ModuleSummary> moduleSummaries;
+    private List<SkippedFileInfo> skippedFiles;
 
     @Data
     @Builder
@@ -97,4 +98,13 @@ public class AnalysisResponse {
         private String type;
         private String fieldName;
     }
+
+    @Data
+    @Builder
+    public static class SkippedFileInfo {
+        private String path;
+        private String reason;
+        private long size;
+        private String detail;
+    }
 }
@@ -0,0 +1,60 @@
+package com.springanalyzer.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+public class ClassGraphResponse {
+    private int classCount;
+    // Pairs of related classes; several relationships between the same two classes are one edge
+    private int edgeCount;
+    private Map<String, Integer> relationshipTypes;
+    private int cycleCount;
+
+    @Data
+    @Builder
+    public static class ClassNode {
+        private Long id;
+        private String name;
+        private String packageName;
+        private String type;
+        // Distance from the class the query started at
+        private int depth;
+    }
+
+    @Data
+    @Builder
+    public static class Traversal {
+        private ClassNode origin;
+        private String direction;
+        private List<ClassNode> classes;
+    }
+
+    @Data
+    @Builder
+    public static class Path {
+        private ClassNode from;
+        private ClassNode to;
+        private boolean found;
+        private List<ClassNode> classes;
+    }
+
+    @Data
+    @Builder
+    public static class Rankings {
+        private List<RankedClass> fanIn;
+        private List<RankedClass> fanOut;
+    }
+
+    @Data
+    @Builder
+    public static class RankedClass {
+        private ClassNode node;
+        private int fanIn;
+        private int fanOut;
+    }
+}
@@ -28,7 +28,9 @@ public class DashboardResponse {
         private double avgFieldsPerClass;
         private int maxMethodsInClass;
         private int maxFieldsInClass;
-        private String packageStructure;
+        private int publicClasses;
+        private int publicMethods;
+        private int privateFields;
     }
 
     @Data @Builder @NoArgsConstructor @AllArgsConstructor
@@ -0,0 +1,47 @@
+package com.springanalyzer.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class PackageDsmResponse {
+    private int packageCount;
+    // Non-empty cells of the matrix, the diagonal included
+    private long dependencyCount;
+    private int layerCount;
+    private int cycleGroupCount;
+    private int maxTileSize;
+    // In matrix order: a package's position is both its row and its column
+    private List<PackageEntry> packages;
+
+    @Data
+    @Builder
+    public static class PackageEntry {
+        private int position;
+        private String name;
+        private int layer;
+        private Integer cycleGroup;
+        private int classCount;
+    }
+
+    @Data
+    @Builder
+    public static class Tile {
+        private int row;
+        private int column;
+        private int size;
+        private List<Cell> cells;
+    }
+
+    @Data
+    @Builder
+    public static class Cell {
+        private int row;
+        private int column;
+        // Relationships from classes of the row's package to classes of the column's package
+        private int weight;
+    }
+}
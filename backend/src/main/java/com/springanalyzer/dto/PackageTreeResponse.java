@@ -0,0 +1,29 @@
+package com.springanalyzer.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class PackageTreeResponse {
+    // Null for the top level
+    private Node parent;
+    private List<Node> children;
+
+    @Data
+    @Builder
+    public static class Node {
+        private String name;
+        private String simpleName;
+        private int depth;
+        // Packages directly below this one, to fetch with this one's name as the parent
+        private int childCount;
+        // Totals over this package and all packages below it
+        private int classCount;
+        private int codeLines;
+        private int endpointCount;
+        private int issueCount;
+    }
+}
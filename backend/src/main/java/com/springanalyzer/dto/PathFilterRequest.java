@@ -0,0 +1,14 @@
+package com.springanalyzer.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class PathFilterRequest {
+
+    // Gitignore-style globs; when includes are given only matching files are analyzed
+    private List<String> includePaths;
+
+    private List<String> excludePaths;
+}
@@ -0,0 +1,26 @@
+package com.springanalyzer.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class PatternStatsResponse {
+    private long totalInvocations;
+    private long totalNanos;
+    private List<PatternInfo> patterns;
+
+    @Data
+    @Builder
+    public static class PatternInfo {
+        private String name;
+        private String regex;
+        private long invocations;
+        private long totalNanos;
+        private long maxNanos;
+        private long averageNanos;
+        private long maxInputLength;
+    }
+}
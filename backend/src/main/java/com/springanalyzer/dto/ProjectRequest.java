@@ -4,6 +4,8 @@ import lombok.Data;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
+import java.util.List;
+
 @Data
 public class ProjectRequest {
 
@@ -13,4 +15,9 @@ public class ProjectRequest {
 
     @Size(max = 500, message = "Description cannot exceed 500 characters")
     private String description;
+
+    // Gitignore-style globs; when includes are given only matching files are analyzed
+    private List<String> includePaths;
+
+    private List<String> excludePaths;
 }
@@ -3,6 +3,7 @@ package com.springanalyzer.dto;
 import lombok.Data;
 import lombok.Builder;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @Builder
@@ -12,8 +13,35 @@ public class ProjectResponse {
     private String description;
     private String originalFilename;
     private Long fileSize;
+    private String archiveHash;
+    private String analyzerVersion;
+    private boolean cacheHit;
+    private Long resultsCopiedFrom;
     private String status;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private LocalDateTime analyzedAt;
+    private ArchiveProfileInfo archiveProfile;
+    private List<String> includePaths;
+    private List<String> excludePaths;
+
+    @Data
+    @Builder
+    public static class ArchiveProfileInfo {
+        private int entryCount;
+        private int javaFileCount;
+        private long javaBytes;
+        private long uncompressedBytes;
+        private int moduleCount;
+        private List<FileSize> largestFiles;
+        private long estimatedDurationMs;
+        private long estimatedMemoryBytes;
+    }
+
+    @Data
+    @Builder
+    public static class FileSize {
+        private String path;
+        private long size;
+    }
 }
@@ -0,0 +1,31 @@
+package com.springanalyzer.dto;
+
+import lombok.Data;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+@Data
+public class UploadInitRequest {
+
+    @NotBlank(message = "Project name is required")
+    @Size(min = 2, max = 100, message = "Name must be between 2 and 100 characters")
+    private String name;
+
+    @Size(max = 500, message = "Description cannot exceed 500 characters")
+    private String description;
+
+    @NotBlank(message = "File name is required")
+    private String filename;
+
+    @NotNull(message = "File size is required")
+    @Positive(message = "File size must be positive")
+    private Long size;
+
+    // Optional, defaults to app.upload.part-size
+    private Integer partSize;
+
+    // Queue an analysis as soon as the upload completes
+    private boolean analyze;
+}
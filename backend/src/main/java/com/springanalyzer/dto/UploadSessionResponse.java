@@ -0,0 +1,30 @@
+package com.springanalyzer.dto;
+
+import lombok.Data;
+import lombok.Builder;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+public class UploadSessionResponse {
+    private String uploadId;
+    private String projectName;
+    private String originalFilename;
+    private long totalSize;
+    private int partSize;
+    private int partCount;
+    private boolean analyzeOnComplete;
+    private List<PartInfo> receivedParts;
+    private List<Integer> missingParts;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    @Data
+    @Builder
+    public static class PartInfo {
+        private int partNumber;
+        private long size;
+        private String checksum;
+    }
+}
@@ -0,0 +1,64 @@
+package com.springanalyzer.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "analysis_jobs", indexes = @Index(name = "idx_analysis_jobs_status", columnList = "status"))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class AnalysisJob {
+
+    public static final int PRIORITY_NORMAL = 0;
+    public static final int PRIORITY_INTERACTIVE = 10;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "project_id", nullable = false)
+    private Project project;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private JobStatus status;
+
+    // Higher runs first
+    private int priority;
+
+    // Shorter estimated jobs run first among jobs of the same priority, then smaller archives
+    @Column(name = "archive_size")
+    private long archiveSize;
+
+    @Column(name = "estimated_duration_ms")
+    private Long estimatedDurationMs;
+
+    // Heap reserved for the job while it runs
+    @Column(name = "estimated_memory")
+    private Long estimatedMemory;
+
+    @Column(name = "cancel_requested")
+    private boolean cancelRequested;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    @Column(name = "queued_at")
+    private LocalDateTime queuedAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        queuedAt = LocalDateTime.now();
+        if (status == null) {
+            status = JobStatus.QUEUED;
+        }
+    }
+}
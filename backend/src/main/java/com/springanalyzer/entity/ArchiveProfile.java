@@ -0,0 +1,54 @@
+package com.springanalyzer.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What an uploaded archive will cost to analyze, read from its central directory at upload time.
+ */
+@Embeddable
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class ArchiveProfile {
+
+    @Column(name = "profile_entry_count")
+    private Integer entryCount;
+
+    @Column(name = "profile_java_file_count")
+    private Integer javaFileCount;
+
+    // Uncompressed size of the Java sources, which dominates parsing time and memory
+    @Column(name = "profile_java_bytes")
+    private Long javaBytes;
+
+    @Column(name = "profile_uncompressed_bytes")
+    private Long uncompressedBytes;
+
+    // Build files (pom.xml, build.gradle) below the project root, at least one
+    @Column(name = "profile_module_count")
+    private Integer moduleCount;
+
+    // One "path:size" line per file, largest first
+    @Column(name = "profile_largest_files", columnDefinition = "TEXT")
+    private String largestFiles;
+
+    public List<FileSize> largestFileList() {
+        List<FileSize> files = new ArrayList<>();
+        if (largestFiles == null || largestFiles.isEmpty()) return files;
+        for (String line : largestFiles.split("\n")) {
+            int separator = line.lastIndexOf(':');
+            files.add(new FileSize(line.substring(0, separator), Long.parseLong(line.substring(separator + 1))));
+        }
+        return files;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class FileSize {
+        private final String path;
+        private final long size;
+    }
+}
@@ -5,7 +5,7 @@ import lombok.*;
 
 @Entity
 @Table(name = "code_metrics")
-@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder(toBuilder = true)
 public class CodeMetrics {
 
     @Id
@@ -33,7 +33,4 @@ public class CodeMetrics {
     private int publicClasses;
     private int publicMethods;
     private int privateFields;
-
-    @Column(length = 2000)
-    private String packageStructure;
 }
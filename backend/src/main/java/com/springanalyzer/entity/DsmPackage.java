@@ -0,0 +1,36 @@
+package com.springanalyzer.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * A package as a row and column of the project's dependency structure matrix.
+ */
+@Entity
+@Table(name = "dsm_packages", indexes = @Index(name = "idx_dsm_packages_project", columnList = "project_id, position"))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder(toBuilder = true)
+public class DsmPackage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "project_id", nullable = false)
+    private Project project;
+
+    // Empty for the default package
+    @Column(nullable = false, length = 500)
+    private String name;
+
+    // Row and column of the package in the matrix
+    private int position;
+
+    // 0 for packages depending on no other package, otherwise one more than the highest layer depended on
+    private int layer;
+
+    // Packages depending on each other in a cycle share a group, null when the package is on none
+    private Integer cycleGroup;
+
+    private int classCount;
+}
@@ -0,0 +1,9 @@
+package com.springanalyzer.entity;
+
+public enum JobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    CANCELLED
+}
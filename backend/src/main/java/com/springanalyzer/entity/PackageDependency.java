@@ -0,0 +1,32 @@
+package com.springanalyzer.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * A non-empty cell of the project's dependency structure matrix: how many class relationships
+ * lead from the classes of the row's package to those of the column's package.
+ */
+@Entity
+@Table(name = "package_dependencies", indexes = @Index(name = "idx_package_dependencies_cell", columnList = "project_id, row_index, column_index"))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder(toBuilder = true)
+public class PackageDependency {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "project_id", nullable = false)
+    private Project project;
+
+    // Position of the depending package
+    @Column(name = "row_index")
+    private int rowIndex;
+
+    // Position of the package depended on
+    @Column(name = "column_index")
+    private int columnIndex;
+
+    private int weight;
+}
@@ -0,0 +1,41 @@
+package com.springanalyzer.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * A package of the project's package hierarchy, with totals over the package and all packages
+ * below it. Every prefix of a declared package is a node, whether or not it holds classes itself.
+ */
+@Entity
+@Table(name = "package_nodes", indexes = @Index(name = "idx_package_nodes_parent", columnList = "project_id, parent_name"))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder(toBuilder = true)
+public class PackageNode {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "project_id", nullable = false)
+    private Project project;
+
+    @Column(nullable = false, length = 500)
+    private String name;
+
+    // Empty for the top-level packages
+    @Column(name = "parent_name", nullable = false, length = 500)
+    private String parentName;
+
+    // Last segment of the name
+    @Column(nullable = false)
+    private String simpleName;
+
+    private int depth;
+    private int childCount;
+
+    private int classCount;
+    private int codeLines;
+    private int endpointCount;
+    private int issueCount;
+}
@@ -33,6 +33,36 @@ public class Project {
     @Column(name = "file_size")
     private Long fileSize;
 
+    // SHA-256 of the uploaded archive
+    @Column(name = "archive_hash", length = 64)
+    private String archiveHash;
+
+    // Archive hash and analyzer version the stored results were produced from
+    @Column(name = "analyzed_archive_hash", length = 64)
+    private String analyzedArchiveHash;
+
+    @Column(name = "analyzer_version")
+    private String analyzerVersion;
+
+    // Project whose stored results the last analysis reused, set only when it was a cache hit
+    @Column(name = "results_copied_from")
+    private Long resultsCopiedFrom;
+
+    // Include and exclude globs in gitignore syntax, one per line, applied on top of the archive's own .gitignore files
+    @Column(name = "include_paths", columnDefinition = "TEXT")
+    private String includePaths;
+
+    @Column(name = "exclude_paths", columnDefinition = "TEXT")
+    private String excludePaths;
+
+    // Signature of the path filter the stored results were produced with
+    @Column(name = "analyzed_path_filter", length = 64)
+    private String analyzedPathFilter;
+
+    // Cost estimate read from the archive when it was uploaded
+    @Embedded
+    private ArchiveProfile archiveProfile;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private ProjectStatus status;
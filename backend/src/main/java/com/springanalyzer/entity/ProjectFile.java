@@ -0,0 +1,39 @@
+package com.springanalyzer.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One entry of the file manifest recorded by each analysis, used to find the files that
+ * changed since the previous run.
+ */
+@Entity
+@Table(name = "project_files", indexes = @Index(name = "idx_project_files_project", columnList = "project_id"))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder(toBuilder = true)
+public class ProjectFile {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "project_id", nullable = false)
+    private Project project;
+
+    @Column(nullable = false, length = 1000)
+    private String path;
+
+    private long size;
+
+    // SHA-256 of the file content, hex encoded
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    // Simple name of the class declared in a Java file
+    @Column(name = "class_name")
+    private String className;
+
+    // Comma separated simple names of the types a Java file refers to
+    @Column(name = "referenced_types", length = 65535)
+    private String referencedTypes;
+}
@@ -5,7 +5,7 @@ import lombok.*;
 
 @Entity
 @Table(name = "security_issues")
-@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder(toBuilder = true)
 public class SecurityIssue {
 
     @Id
@@ -0,0 +1,14 @@
+package com.springanalyzer.entity;
+
+public enum SkipReason {
+    // Beyond app.analysis.limits.max-files
+    FILE_LIMIT,
+    // Beyond app.analysis.limits.max-total-bytes
+    TOTAL_BYTES_LIMIT,
+    // Analyzed only up to app.analysis.limits.max-file-bytes
+    TRUNCATED,
+    // Pattern matching ran longer than app.analysis.limits.file-regex-timeout-ms
+    REGEX_TIMEOUT,
+    // Not reached before app.analysis.limits.max-duration-seconds ran out
+    TIME_BUDGET
+}
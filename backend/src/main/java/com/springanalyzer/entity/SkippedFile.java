@@ -0,0 +1,34 @@
+package com.springanalyzer.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * A file the last analysis skipped or only partly analyzed because it ran into a resource limit.
+ */
+@Entity
+@Table(name = "skipped_files", indexes = @Index(name = "idx_skipped_files_project", columnList = "project_id"))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder(toBuilder = true)
+public class SkippedFile {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "project_id", nullable = false)
+    private Project project;
+
+    @Column(nullable = false, length = 1000)
+    private String path;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private SkipReason reason;
+
+    // Size of the file as listed in the archive
+    private long size;
+
+    @Column(length = 500)
+    private String detail;
+}
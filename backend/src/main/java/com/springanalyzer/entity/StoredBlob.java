@@ -0,0 +1,38 @@
+package com.springanalyzer.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * An uploaded archive stored once under its content hash and shared by every project that
+ * uploaded the same bytes.
+ */
+@Entity
+@Table(name = "stored_blobs")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class StoredBlob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // SHA-256 of the content, hex encoded
+    @Column(name = "content_hash", nullable = false, unique = true, length = 64)
+    private String contentHash;
+
+    private long size;
+
+    // Number of projects whose storage path points at this blob
+    @Column(name = "ref_count")
+    private int refCount;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
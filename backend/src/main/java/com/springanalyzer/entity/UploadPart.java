@@ -0,0 +1,31 @@
+package com.springanalyzer.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * A part of a chunked upload that was received completely and matched its checksum.
+ */
+@Entity
+@Table(name = "upload_parts", uniqueConstraints = @UniqueConstraint(columnNames = {"session_id", "part_number"}))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class UploadPart {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "session_id", nullable = false)
+    private UploadSession session;
+
+    // 1-based
+    @Column(name = "part_number")
+    private int partNumber;
+
+    private long size;
+
+    // SHA-256 of the part, hex encoded
+    @Column(nullable = false, length = 64)
+    private String checksum;
+}
@@ -0,0 +1,63 @@
+package com.springanalyzer.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A chunked upload in progress. Parts are written straight into the upload's parts file at
+ * their offset, so an interrupted upload resumes by sending only the parts that are missing.
+ */
+@Entity
+@Table(name = "upload_sessions")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class UploadSession {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "upload_id", nullable = false, unique = true, length = 36)
+    private String uploadId;
+
+    @Column(name = "project_name", nullable = false)
+    private String projectName;
+
+    @Column(length = 500)
+    private String description;
+
+    @Column(name = "original_filename", nullable = false)
+    private String originalFilename;
+
+    @Column(name = "total_size")
+    private long totalSize;
+
+    // Every part has this size except the last one, which holds the remainder
+    @Column(name = "part_size")
+    private int partSize;
+
+    @Column(name = "part_count")
+    private int partCount;
+
+    // Queue an analysis of the project once the upload completes
+    @Column(name = "analyze_on_complete")
+    private boolean analyzeOnComplete;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
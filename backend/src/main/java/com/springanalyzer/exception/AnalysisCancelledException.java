@@ -0,0 +1,8 @@
+package com.springanalyzer.exception;
+
+public class AnalysisCancelledException extends SpringAnalyzerException {
+
+    public AnalysisCancelledException(Long projectId) {
+        super("Analysis of project " + projectId + " was cancelled", "ANALYSIS_CANCELLED");
+    }
+}
@@ -0,0 +1,11 @@
+package com.springanalyzer.exception;
+
+/**
+ * Thrown from inside pattern matching when a file has used up its share of the analysis budget.
+ */
+public class BudgetExceededException extends SpringAnalyzerException {
+
+    public BudgetExceededException(String message) {
+        super(message, "BUDGET_EXCEEDED");
+    }
+}
@@ -52,6 +52,14 @@ public class GlobalExceptionHandler {
                 "Maximum upload size is 500MB", request.getRequestURI(), HttpStatus.PAYLOAD_TOO_LARGE);
     }
 
+    @ExceptionHandler(AnalysisCancelledException.class)
+    public ResponseEntity<ApiResponse<Void>> handleAnalysisCancelled(
+            AnalysisCancelledException ex, HttpServletRequest request) {
+        log.info("Analysis cancelled: {}", ex.getMessage());
+        return buildErrorResponse(ex.getMessage(), ex.getErrorCode(), ex.getDetails(), 
+                request.getRequestURI(), HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(SpringAnalyzerException.class)
     public ResponseEntity<ApiResponse<Void>> handleAppException(
             SpringAnalyzerException ex, HttpServletRequest request) {
@@ -0,0 +1,36 @@
+package com.springanalyzer.repository;
+
+import com.springanalyzer.entity.AnalysisJob;
+import com.springanalyzer.entity.JobStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AnalysisJobRepository extends JpaRepository<AnalysisJob, Long> {
+
+    /**
+     * Queued jobs by priority, then shortest estimate first. Jobs queued before {@code agedBefore}
+     * go ahead of the others of their priority, oldest first, so a large archive is not starved
+     * by a stream of small ones.
+     */
+    @Query("SELECT j FROM AnalysisJob j WHERE j.status = com.springanalyzer.entity.JobStatus.QUEUED " +
+           "ORDER BY j.priority DESC, CASE WHEN j.queuedAt < :agedBefore THEN 0 ELSE 1 END, " +
+           "CASE WHEN j.queuedAt < :agedBefore THEN j.queuedAt END ASC, " +
+           "j.estimatedDurationMs ASC NULLS LAST, j.archiveSize ASC, j.queuedAt ASC, j.id ASC")
+    List<AnalysisJob> findQueuedInRunOrder(@Param("agedBefore") LocalDateTime agedBefore, Pageable pageable);
+
+    List<AnalysisJob> findByStatusOrderByStartedAtAsc(JobStatus status);
+
+    Optional<AnalysisJob> findFirstByProject_IdAndStatusIn(Long projectId, Collection<JobStatus> statuses);
+
+    long countByStatus(JobStatus status);
+
+    void deleteByProject_Id(Long projectId);
+}
@@ -4,6 +4,7 @@ import com.springanalyzer.entity.AnalyzedClass;
 import com.springanalyzer.entity.ClassType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -15,6 +16,8 @@ public interface AnalyzedClassRepository extends JpaRepository<AnalyzedClass, Lo
     
     List<AnalyzedClass> findByProjectIdAndModuleName(Long projectId, String moduleName);
     
+    List<AnalyzedClass> findByProjectIdAndFullPathIn(Long projectId, Collection<String> fullPaths);
+    
     long countByProjectId(Long projectId);
     
     long countByProjectIdAndType(Long projectId, ClassType type);
@@ -24,5 +27,14 @@ public interface AnalyzedClassRepository extends JpaRepository<AnalyzedClass, Lo
     @org.springframework.data.jpa.repository.Query("SELECT DISTINCT c.moduleName FROM AnalyzedClass c WHERE c.project.id = :projectId")
     List<String> findDistinctModuleNamesByProjectId(@org.springframework.data.repository.query.Param("projectId") Long projectId);
     
+    @org.springframework.data.jpa.repository.Query("SELECT c.packageName AS packageName, COUNT(c) AS count FROM AnalyzedClass c WHERE c.project.id = :projectId GROUP BY c.packageName")
+    List<PackageCount> countByPackage(@org.springframework.data.repository.query.Param("projectId") Long projectId);
+    
     void deleteByProjectId(Long projectId);
+
+    interface PackageCount {
+        String getPackageName();
+
+        long getCount();
+    }
 }
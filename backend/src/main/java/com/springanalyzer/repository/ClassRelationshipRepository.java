@@ -5,6 +5,7 @@ import com.springanalyzer.entity.RelationshipType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,9 +18,27 @@ public interface ClassRelationshipRepository extends JpaRepository<ClassRelation
     List<ClassRelationship> findByTargetClass_Id(Long targetClassId);
     
     List<ClassRelationship> findByProject_IdAndType(Long projectId, RelationshipType type);
+
+    /**
+     * Source, target and type of every relationship of the project, without loading the entities.
+     */
+    @Query("SELECT cr.sourceClass.id AS sourceId, cr.targetClass.id AS targetId, cr.type AS type FROM ClassRelationship cr WHERE cr.project.id = :projectId")
+    List<Edge> findEdgesByProjectId(Long projectId);
     
     @Query("SELECT cr FROM ClassRelationship cr WHERE cr.project.id = :projectId AND (cr.sourceClass.id = :classId OR cr.targetClass.id = :classId)")
     List<ClassRelationship> findByProjectIdAndClassId(Long projectId, Long classId);
     
+    void deleteBySourceClassIdIn(Collection<Long> sourceClassIds);
+    
+    void deleteByTargetClassIdIn(Collection<Long> targetClassIds);
+    
     void deleteByProjectId(Long projectId);
+
+    interface Edge {
+        Long getSourceId();
+
+        Long getTargetId();
+
+        RelationshipType getType();
+    }
 }
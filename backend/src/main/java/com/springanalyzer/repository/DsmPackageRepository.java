@@ -0,0 +1,16 @@
+package com.springanalyzer.repository;
+
+import com.springanalyzer.entity.DsmPackage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface DsmPackageRepository extends JpaRepository<DsmPackage, Long> {
+
+    List<DsmPackage> findByProjectIdOrderByPositionAsc(Long projectId);
+
+    long countByProjectId(Long projectId);
+
+    void deleteByProjectId(Long projectId);
+}
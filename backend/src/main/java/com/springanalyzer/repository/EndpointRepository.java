@@ -3,7 +3,9 @@ package com.springanalyzer.repository;
 import com.springanalyzer.entity.Endpoint;
 import com.springanalyzer.entity.HttpMethod;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -18,6 +20,11 @@ public interface EndpointRepository extends JpaRepository<Endpoint, Long> {
     long countByProjectId(Long projectId);
     
     long countByProjectIdAndModuleName(Long projectId, String moduleName);
+
+    @Query("SELECT e.analyzedClass.packageName AS packageName, COUNT(e) AS count FROM Endpoint e WHERE e.project.id = :projectId GROUP BY e.analyzedClass.packageName")
+    List<AnalyzedClassRepository.PackageCount> countByPackage(Long projectId);
+    
+    void deleteByAnalyzedClassIdIn(Collection<Long> analyzedClassIds);
     
     void deleteByProjectId(Long projectId);
 }
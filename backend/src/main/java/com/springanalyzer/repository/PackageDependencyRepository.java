@@ -0,0 +1,19 @@
+package com.springanalyzer.repository;
+
+import com.springanalyzer.entity.PackageDependency;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface PackageDependencyRepository extends JpaRepository<PackageDependency, Long> {
+
+    List<PackageDependency> findByProjectId(Long projectId);
+
+    List<PackageDependency> findByProjectIdAndRowIndexBetweenAndColumnIndexBetween(
+            Long projectId, int rowFrom, int rowTo, int columnFrom, int columnTo);
+
+    long countByProjectId(Long projectId);
+
+    void deleteByProjectId(Long projectId);
+}
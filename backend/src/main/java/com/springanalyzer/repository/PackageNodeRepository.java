@@ -0,0 +1,19 @@
+package com.springanalyzer.repository;
+
+import com.springanalyzer.entity.PackageNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PackageNodeRepository extends JpaRepository<PackageNode, Long> {
+
+    List<PackageNode> findByProjectIdOrderByNameAsc(Long projectId);
+
+    List<PackageNode> findByProjectIdAndParentNameOrderBySimpleNameAsc(Long projectId, String parentName);
+
+    Optional<PackageNode> findByProjectIdAndName(Long projectId, String name);
+
+    void deleteByProjectId(Long projectId);
+}
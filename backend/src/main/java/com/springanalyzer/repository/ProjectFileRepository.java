@@ -0,0 +1,19 @@
+package com.springanalyzer.repository;
+
+import com.springanalyzer.entity.ProjectFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProjectFileRepository extends JpaRepository<ProjectFile, Long> {
+
+    List<ProjectFile> findByProjectId(Long projectId);
+
+    long countByProjectId(Long projectId);
+
+    void deleteByProjectIdAndPathIn(Long projectId, Collection<String> paths);
+
+    void deleteByProjectId(Long projectId);
+}
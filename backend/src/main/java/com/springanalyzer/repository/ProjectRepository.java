@@ -5,6 +5,7 @@ import com.springanalyzer.entity.ProjectStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProjectRepository extends JpaRepository<Project, Long> {
@@ -14,4 +15,7 @@ public interface ProjectRepository extends JpaRepository<Project, Long> {
     List<Project> findAllByOrderByCreatedAtDesc();
     
     boolean existsByName(String name);
+    
+    Optional<Project> findFirstByAnalyzedArchiveHashAndAnalyzerVersionAndAnalyzedPathFilterAndStatusAndIdNotOrderByAnalyzedAtDesc(
+            String analyzedArchiveHash, String analyzerVersion, String analyzedPathFilter, ProjectStatus status, Long id);
 }
@@ -4,7 +4,9 @@ import com.springanalyzer.entity.SecurityIssue;
 import com.springanalyzer.entity.IssueSeverity;
 import com.springanalyzer.entity.IssueCategory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -19,6 +21,17 @@ public interface SecurityIssueRepository extends JpaRepository<SecurityIssue, Lo
     long countByProjectId(Long projectId);
     
     long countByProjectIdAndSeverity(Long projectId, IssueSeverity severity);
+
+    @Query("SELECT i.fileName AS fileName, COUNT(i) AS count FROM SecurityIssue i WHERE i.project.id = :projectId GROUP BY i.fileName")
+    List<FileCount> countByFile(Long projectId);
+    
+    void deleteByProjectIdAndFileNameIn(Long projectId, Collection<String> fileNames);
     
     void deleteByProjectId(Long projectId);
+
+    interface FileCount {
+        String getFileName();
+
+        long getCount();
+    }
 }
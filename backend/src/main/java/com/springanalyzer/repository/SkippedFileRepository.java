@@ -0,0 +1,14 @@
+package com.springanalyzer.repository;
+
+import com.springanalyzer.entity.SkippedFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface SkippedFileRepository extends JpaRepository<SkippedFile, Long> {
+
+    List<SkippedFile> findByProjectIdOrderByPathAsc(Long projectId);
+
+    void deleteByProjectId(Long projectId);
+}
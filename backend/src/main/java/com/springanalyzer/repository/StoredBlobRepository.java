@@ -0,0 +1,12 @@
+package com.springanalyzer.repository;
+
+import com.springanalyzer.entity.StoredBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.Optional;
+
+@Repository
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, Long> {
+
+    Optional<StoredBlob> findByContentHash(String contentHash);
+}
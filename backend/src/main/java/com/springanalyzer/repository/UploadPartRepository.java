@@ -0,0 +1,19 @@
+package com.springanalyzer.repository;
+
+import com.springanalyzer.entity.UploadPart;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UploadPartRepository extends JpaRepository<UploadPart, Long> {
+
+    List<UploadPart> findBySessionIdOrderByPartNumber(Long sessionId);
+
+    Optional<UploadPart> findBySessionIdAndPartNumber(Long sessionId, int partNumber);
+
+    long countBySessionId(Long sessionId);
+
+    void deleteBySessionId(Long sessionId);
+}
@@ -0,0 +1,18 @@
+package com.springanalyzer.repository;
+
+import com.springanalyzer.entity.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, Long> {
+
+    Optional<UploadSession> findByUploadId(String uploadId);
+
+    List<UploadSession> findByUpdatedAtBefore(LocalDateTime cutoff);
+
+    boolean existsByProjectName(String projectName);
+}
@@ -0,0 +1,126 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.entity.*;
+import com.springanalyzer.repository.*;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Reuses stored results across projects. An analysis depends only on the archive content, the
+ * path filter and the analyzer, so a project whose archive hash, path filter and analyzer version
+ * match a completed analysis can take over that analysis' results instead of running it again.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnalysisCacheService {
+
+    private final ProjectRepository projectRepository;
+    private final AnalyzedClassRepository classRepository;
+    private final EndpointRepository endpointRepository;
+    private final ClassRelationshipRepository relationshipRepository;
+    private final DsmPackageRepository dsmPackageRepository;
+    private final PackageDependencyRepository packageDependencyRepository;
+    private final SecurityIssueRepository securityIssueRepository;
+    private final CodeMetricsRepository codeMetricsRepository;
+    private final PackageNodeRepository packageNodeRepository;
+    private final DependencyRepository dependencyRepository;
+    private final MicroserviceRepository microserviceRepository;
+    private final ServiceCommunicationRepository communicationRepository;
+    private final ProjectFileRepository projectFileRepository;
+    private final SkippedFileRepository skippedFileRepository;
+    private final PathFilterService pathFilterService;
+
+    /**
+     * A completed project whose results were produced from the same archive, with the same path
+     * filter, by the current analyzer version. This is the project itself when its archive did not change since its
+     * last analysis.
+     */
+    public Optional<Project> findReusable(Project project, boolean previousRunCompleted) {
+        if (project.getArchiveHash() == null) {
+            return Optional.empty();
+        }
+        String pathFilter = pathFilterService.signature(project);
+        if (previousRunCompleted
+                && project.getArchiveHash().equals(project.getAnalyzedArchiveHash())
+                && AnalysisService.ANALYZER_VERSION.equals(project.getAnalyzerVersion())
+                && pathFilter.equals(project.getAnalyzedPathFilter())) {
+            return Optional.of(project);
+        }
+        return projectRepository.findFirstByAnalyzedArchiveHashAndAnalyzerVersionAndAnalyzedPathFilterAndStatusAndIdNotOrderByAnalyzedAtDesc(
+                project.getArchiveHash(), AnalysisService.ANALYZER_VERSION, pathFilter, ProjectStatus.COMPLETED, project.getId());
+    }
+
+    /**
+     * Copies all stored results of {@code source} to {@code target}, which must have none.
+     */
+    @Transactional
+    public void copyResults(Project source, Project target) {
+        Long sourceId = source.getId();
+
+        Map<Long, AnalyzedClass> classes = new HashMap<>();
+        List<AnalyzedClass> sourceClasses = inIdOrder(classRepository.findByProjectId(sourceId), AnalyzedClass::getId);
+        List<AnalyzedClass> copiedClasses = classRepository.saveAll(sourceClasses.stream()
+                .map(c -> c.toBuilder().id(null).project(target).build())
+                .toList());
+        for (int i = 0; i < sourceClasses.size(); i++) {
+            classes.put(sourceClasses.get(i).getId(), copiedClasses.get(i));
+        }
+
+        endpointRepository.saveAll(inIdOrder(endpointRepository.findByProjectId(sourceId), Endpoint::getId).stream()
+                .map(e -> e.toBuilder().id(null).project(target).analyzedClass(copyOf(e.getAnalyzedClass(), classes)).build())
+                .toList());
+        relationshipRepository.saveAll(inIdOrder(relationshipRepository.findByProject_Id(sourceId), ClassRelationship::getId).stream()
+                .map(r -> r.toBuilder().id(null).project(target)
+                        .sourceClass(copyOf(r.getSourceClass(), classes))
+                        .targetClass(copyOf(r.getTargetClass(), classes))
+                        .build())
+                .toList());
+        dsmPackageRepository.saveAll(dsmPackageRepository.findByProjectIdOrderByPositionAsc(sourceId).stream()
+                .map(p -> p.toBuilder().id(null).project(target).build())
+                .toList());
+        packageDependencyRepository.saveAll(inIdOrder(packageDependencyRepository.findByProjectId(sourceId), PackageDependency::getId).stream()
+                .map(d -> d.toBuilder().id(null).project(target).build())
+                .toList());
+        securityIssueRepository.saveAll(inIdOrder(securityIssueRepository.findByProjectId(sourceId), SecurityIssue::getId).stream()
+                .map(i -> i.toBuilder().id(null).project(target).analyzedClass(copyOf(i.getAnalyzedClass(), classes)).build())
+                .toList());
+        codeMetricsRepository.findByProjectId(sourceId)
+                .ifPresent(m -> codeMetricsRepository.save(m.toBuilder().id(null).project(target).build()));
+        packageNodeRepository.saveAll(packageNodeRepository.findByProjectIdOrderByNameAsc(sourceId).stream()
+                .map(n -> n.toBuilder().id(null).project(target).build())
+                .toList());
+        dependencyRepository.saveAll(inIdOrder(dependencyRepository.findByProjectId(sourceId), Dependency::getId).stream()
+                .map(d -> d.toBuilder().id(null).project(target).build())
+                .toList());
+        microserviceRepository.saveAll(inIdOrder(microserviceRepository.findByProjectId(sourceId), Microservice::getId).stream()
+                .map(m -> m.toBuilder().id(null).project(target).build())
+                .toList());
+        communicationRepository.saveAll(inIdOrder(communicationRepository.findByProjectId(sourceId), ServiceCommunication::getId).stream()
+                .map(c -> c.toBuilder().id(null).project(target).build())
+                .toList());
+        projectFileRepository.saveAll(inIdOrder(projectFileRepository.findByProjectId(sourceId), ProjectFile::getId).stream()
+                .map(f -> f.toBuilder().id(null).project(target).build())
+                .toList());
+        skippedFileRepository.saveAll(skippedFileRepository.findByProjectIdOrderByPathAsc(sourceId).stream()
+                .map(f -> f.toBuilder().id(null).project(target).build())
+                .toList());
+
+        log.info("Copied results of project {} ({} classes) to project {}", sourceId, copiedClasses.size(), target.getId());
+    }
+
+    private static AnalyzedClass copyOf(AnalyzedClass original, Map<Long, AnalyzedClass> classes) {
+        return original != null ? classes.get(original.getId()) : null;
+    }
+
+    private static <T> List<T> inIdOrder(List<T> rows, Function<T, Long> id) {
+        List<T> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparing(id));
+        return sorted;
+    }
+}
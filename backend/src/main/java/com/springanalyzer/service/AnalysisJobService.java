@@ -0,0 +1,315 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.dto.AnalysisQueueResponse;
+import com.springanalyzer.entity.AnalysisJob;
+import com.springanalyzer.entity.ArchiveProfile;
+import com.springanalyzer.entity.JobStatus;
+import com.springanalyzer.entity.Project;
+import com.springanalyzer.exception.AnalysisCancelledException;
+import com.springanalyzer.exception.BadRequestException;
+import com.springanalyzer.exception.ResourceNotFoundException;
+import com.springanalyzer.exception.SpringAnalyzerException;
+import com.springanalyzer.repository.AnalysisJobRepository;
+import com.springanalyzer.repository.ProjectRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Queues analyses in the database and runs at most {@code app.analysis.max-concurrent} of them
+ * at a time. Queued jobs start by priority, then shortest estimated analysis first, then in
+ * submission order; a job queued longer than {@code app.analysis.max-queue-wait-minutes} goes
+ * ahead of the others of its priority, so small uploads cannot starve a large one. A job also
+ * waits while the memory estimated for the running jobs would exceed
+ * {@code app.analysis.memory-budget-mb} together with its own; it is admitted anyway when
+ * nothing else runs. Jobs still marked running when the application starts were interrupted by
+ * a shutdown and are queued again.
+ */
+@Service
+@Slf4j
+public class AnalysisJobService {
+
+    private static final Set<JobStatus> ACTIVE = EnumSet.of(JobStatus.QUEUED, JobStatus.RUNNING);
+
+    private final AnalysisJobRepository jobRepository;
+    private final ProjectRepository projectRepository;
+    private final AnalysisService analysisService;
+    private final AnalysisProgressService progressService;
+    private final ArchiveProfileService archiveProfileService;
+    private final int maxConcurrent;
+    private final long memoryBudget;
+    private final Duration maxQueueWait;
+    private final ExecutorService executor;
+
+    private final Map<Long, CancellationToken> runningTokens = new ConcurrentHashMap<>();
+    private final Map<Long, CompletableFuture<Void>> completions = new ConcurrentHashMap<>();
+    private final Map<Long, Long> memoryReservations = new ConcurrentHashMap<>();
+    private int running;
+    private long reservedMemory;
+
+    public AnalysisJobService(AnalysisJobRepository jobRepository,
+                              ProjectRepository projectRepository,
+                              AnalysisService analysisService,
+                              AnalysisProgressService progressService,
+                              ArchiveProfileService archiveProfileService,
+                              @Value("${app.analysis.max-concurrent:2}") int maxConcurrent,
+                              @Value("${app.analysis.memory-budget-mb:0}") long memoryBudgetMb,
+                              @Value("${app.analysis.max-queue-wait-minutes:15}") long maxQueueWaitMinutes) {
+        this.jobRepository = jobRepository;
+        this.projectRepository = projectRepository;
+        this.analysisService = analysisService;
+        this.progressService = progressService;
+        this.archiveProfileService = archiveProfileService;
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        // Without an explicit budget, analyses may use half of the heap between them
+        this.memoryBudget = memoryBudgetMb > 0 ? memoryBudgetMb * 1024 * 1024 : Runtime.getRuntime().maxMemory() / 2;
+        this.maxQueueWait = Duration.ofMinutes(Math.max(0, maxQueueWaitMinutes));
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.maxConcurrent, runnable -> {
+            Thread thread = new Thread(runnable, "analysis-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverQueue() {
+        synchronized (this) {
+            for (AnalysisJob job : jobRepository.findByStatusOrderByStartedAtAsc(JobStatus.RUNNING)) {
+                log.info("Re-queueing analysis job {} of project {} interrupted by a restart", job.getId(), job.getProject().getId());
+                job.setStatus(JobStatus.QUEUED);
+                job.setStartedAt(null);
+                job.setCancelRequested(false);
+                jobRepository.save(job);
+            }
+        }
+        dispatch();
+    }
+
+    /**
+     * Queues an analysis of the project and returns immediately.
+     */
+    public AnalysisJob submit(Long projectId, int priority) {
+        AnalysisJob job = enqueue(projectId, priority);
+        dispatch();
+        return job;
+    }
+
+    /**
+     * Queues an analysis of the project and blocks until it has finished, rethrowing its failure.
+     */
+    public void submitAndWait(Long projectId, int priority) {
+        AnalysisJob job = enqueue(projectId, priority);
+        CompletableFuture<Void> completion = completions.get(job.getId());
+        dispatch();
+        try {
+            completion.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new SpringAnalyzerException("Analysis failed", e.getCause());
+        }
+    }
+
+    /**
+     * Cancels the queued or running analysis of a project. A queued job is dropped right away,
+     * a running one stops at its next check between stages or files.
+     */
+    public synchronized AnalysisJob cancel(Long projectId) {
+        AnalysisJob job = jobRepository.findFirstByProject_IdAndStatusIn(projectId, ACTIVE)
+                .orElseThrow(() -> new ResourceNotFoundException("No queued or running analysis for project with id: " + projectId));
+
+        if (job.getStatus() == JobStatus.QUEUED) {
+            job.setStatus(JobStatus.CANCELLED);
+            job.setFinishedAt(LocalDateTime.now());
+            job = jobRepository.save(job);
+            complete(job.getId(), new AnalysisCancelledException(projectId));
+            progressService.cancelledWhileQueued(projectId);
+            log.info("Cancelled queued analysis job {} of project {}", job.getId(), projectId);
+        } else {
+            job.setCancelRequested(true);
+            job = jobRepository.save(job);
+            CancellationToken token = runningTokens.get(job.getId());
+            if (token != null) {
+                token.cancel();
+            }
+            log.info("Requested cancellation of running analysis job {} of project {}", job.getId(), projectId);
+        }
+        return job;
+    }
+
+    public AnalysisQueueResponse getQueueStatus() {
+        long reserved;
+        synchronized (this) {
+            reserved = reservedMemory;
+        }
+        List<AnalysisJob> queued = jobRepository.findQueuedInRunOrder(agedBefore(), Pageable.unpaged());
+        List<AnalysisJob> active = jobRepository.findByStatusOrderByStartedAtAsc(JobStatus.RUNNING);
+        return AnalysisQueueResponse.builder()
+                .maxConcurrent(maxConcurrent)
+                .memoryBudget(memoryBudget)
+                .reservedMemory(reserved)
+                .queueDepth(queued.size())
+                .runningCount(active.size())
+                .running(active.stream().map(this::toJobInfo).toList())
+                .queued(queued.stream().map(this::toJobInfo).toList())
+                .build();
+    }
+
+    public AnalysisQueueResponse.JobInfo toJobInfo(AnalysisJob job) {
+        return AnalysisQueueResponse.JobInfo.builder()
+                .id(job.getId())
+                .projectId(job.getProject().getId())
+                .projectName(job.getProject().getName())
+                .status(job.getStatus().name())
+                .priority(job.getPriority())
+                .archiveSize(job.getArchiveSize())
+                .estimatedDurationMs(job.getEstimatedDurationMs())
+                .estimatedMemory(job.getEstimatedMemory())
+                .cancelRequested(job.isCancelRequested())
+                .errorMessage(job.getErrorMessage())
+                .queuedAt(job.getQueuedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+
+    private synchronized AnalysisJob enqueue(Long projectId, int priority) {
+        Project project = projectRepository.findById(projectId)
+                .orElseThrow(() -> new ResourceNotFoundException("Project", projectId));
+        if (jobRepository.findFirstByProject_IdAndStatusIn(projectId, ACTIVE).isPresent()) {
+            throw new BadRequestException("Analysis of project '" + project.getName() + "' is already queued or running");
+        }
+
+        ArchiveProfile profile = project.getArchiveProfile();
+        if (profile == null && project.getStoragePath() != null) {
+            // Uploaded before archives were profiled
+            profile = archiveProfileService.profile(project);
+            project.setArchiveProfile(profile);
+            project = projectRepository.save(project);
+        }
+
+        AnalysisJob job = jobRepository.save(AnalysisJob.builder()
+                .project(project)
+                .priority(priority)
+                .archiveSize(project.getFileSize() != null ? project.getFileSize() : 0)
+                .estimatedDurationMs(archiveProfileService.estimatedDurationMs(profile))
+                .estimatedMemory(archiveProfileService.estimatedMemoryBytes(profile))
+                .build());
+        completions.put(job.getId(), new CompletableFuture<>());
+        progressService.queued(projectId);
+        log.info("Queued analysis job {} for project {} with priority {}", job.getId(), project.getName(), priority);
+        return job;
+    }
+
+    // Jobs queued before this have waited long enough to go first, none when aging is off
+    private LocalDateTime agedBefore() {
+        return maxQueueWait.isZero() ? LocalDateTime.of(1970, 1, 1, 0, 0) : LocalDateTime.now().minus(maxQueueWait);
+    }
+
+    private synchronized void dispatch() {
+        while (running < maxConcurrent) {
+            List<AnalysisJob> next = jobRepository.findQueuedInRunOrder(agedBefore(), PageRequest.of(0, 1));
+            if (next.isEmpty()) {
+                return;
+            }
+
+            AnalysisJob job = next.get(0);
+            long memory = job.getEstimatedMemory() != null ? job.getEstimatedMemory() : 0;
+            if (running > 0 && reservedMemory + memory > memoryBudget) {
+                log.debug("Analysis job {} waits for memory: {} bytes estimated, {} of {} bytes reserved",
+                        job.getId(), memory, reservedMemory, memoryBudget);
+                return;
+            }
+
+            job.setStatus(JobStatus.RUNNING);
+            job.setStartedAt(LocalDateTime.now());
+            jobRepository.save(job);
+
+            Long jobId = job.getId();
+            Long projectId = job.getProject().getId();
+            CancellationToken token = new CancellationToken(projectId);
+            runningTokens.put(jobId, token);
+            memoryReservations.put(jobId, memory);
+            reservedMemory += memory;
+            running++;
+            executor.execute(() -> run(jobId, projectId, token));
+        }
+    }
+
+    private void run(Long jobId, Long projectId, CancellationToken token) {
+        // Stays FAILED unless the analysis returns or is cancelled
+        JobStatus outcome = JobStatus.FAILED;
+        Throwable failure = null;
+        try {
+            analysisService.analyzeProject(projectId, token);
+            outcome = JobStatus.COMPLETED;
+        } catch (AnalysisCancelledException e) {
+            outcome = JobStatus.CANCELLED;
+            failure = e;
+        } catch (RuntimeException e) {
+            log.error("Analysis job {} failed for project {}", jobId, projectId, e);
+            failure = e;
+        } catch (Error e) {
+            log.error("Analysis job {} failed for project {}", jobId, projectId, e);
+            failure = e;
+            throw e;
+        } finally {
+            finish(jobId, outcome, failure);
+            dispatch();
+        }
+    }
+
+    private synchronized void finish(Long jobId, JobStatus outcome, Throwable failure) {
+        running--;
+        runningTokens.remove(jobId);
+        Long memory = memoryReservations.remove(jobId);
+        if (memory != null) {
+            reservedMemory -= memory;
+        }
+        try {
+            jobRepository.findById(jobId).ifPresent(job -> {
+                job.setStatus(outcome);
+                job.setFinishedAt(LocalDateTime.now());
+                if (outcome == JobStatus.FAILED && failure != null && failure.getMessage() != null) {
+                    String message = failure.getMessage();
+                    job.setErrorMessage(message.length() > 1000 ? message.substring(0, 1000) : message);
+                }
+                jobRepository.save(job);
+            });
+        } finally {
+            complete(jobId, failure);
+        }
+        log.info("Analysis job {} finished: {}", jobId, outcome);
+    }
+
+    private void complete(Long jobId, Throwable failure) {
+        CompletableFuture<Void> completion = completions.remove(jobId);
+        if (completion == null) return;
+        if (failure != null) {
+            completion.completeExceptionally(failure);
+        } else {
+            completion.complete(null);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,245 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.dto.AnalysisProgressEvent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Publishes the progress of running analyses to Server-Sent Event subscribers. The analysis
+ * pipeline reports stage changes and processed files through a {@link Tracker}; stage changes
+ * are sent right away, file progress at most once per {@code app.analysis.progress-interval-ms}.
+ * The last event of each project is kept so late subscribers see the current state at once;
+ * once a run finished, its final event is kept for {@code app.analysis.progress-retention-ms}
+ * only, so a subscriber arriving right after it still learns the outcome.
+ */
+@Service
+@Slf4j
+public class AnalysisProgressService {
+
+    public enum Stage {
+        QUEUED,
+        DISCOVERY,
+        PARSING,
+        RELATIONSHIPS,
+        SECURITY,
+        METRICS,
+        MICROSERVICES,
+        DEPENDENCIES,
+        COMPLETED,
+        FAILED,
+        CANCELLED;
+
+        public boolean isTerminal() {
+            return this == COMPLETED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private final long intervalMillis;
+    private final long emitterTimeoutMillis;
+    private final long retentionNanos;
+    private final Map<Long, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private final Map<Long, LastEvent> lastEvents = new ConcurrentHashMap<>();
+
+    public AnalysisProgressService(@Value("${app.analysis.progress-interval-ms:500}") long intervalMillis,
+                                   @Value("${app.analysis.progress-timeout-ms:1800000}") long emitterTimeoutMillis,
+                                   @Value("${app.analysis.progress-retention-ms:60000}") long retentionMillis) {
+        this.intervalMillis = intervalMillis;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.retentionNanos = retentionMillis * 1_000_000;
+    }
+
+    public SseEmitter subscribe(Long projectId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        evictFinished();
+        AnalysisProgressEvent last = lastEvent(projectId);
+
+        if (last != null && last.isFinished()) {
+            send(projectId, emitter, last);
+            emitter.complete();
+            return emitter;
+        }
+
+        List<SseEmitter> subscribers = emitters.computeIfAbsent(projectId, id -> new CopyOnWriteArrayList<>());
+        subscribers.add(emitter);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(e -> subscribers.remove(emitter));
+        if (last != null) {
+            send(projectId, emitter, last);
+        }
+
+        // The run may have finished while this subscriber was being registered
+        AnalysisProgressEvent latest = lastEvent(projectId);
+        if (latest != null && latest.isFinished() && subscribers.remove(emitter)) {
+            if (latest != last) {
+                send(projectId, emitter, latest);
+            }
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    public void queued(Long projectId) {
+        publish(AnalysisProgressEvent.builder()
+                .projectId(projectId)
+                .stage(Stage.QUEUED.name())
+                .message("Waiting for a free analysis slot")
+                .build());
+    }
+
+    public void cancelledWhileQueued(Long projectId) {
+        publish(AnalysisProgressEvent.builder()
+                .projectId(projectId)
+                .stage(Stage.CANCELLED.name())
+                .finished(true)
+                .message("Analysis cancelled before it started")
+                .build());
+    }
+
+    public Tracker start(Long projectId) {
+        return new Tracker(projectId);
+    }
+
+    private void publish(AnalysisProgressEvent event) {
+        Long projectId = event.getProjectId();
+        lastEvents.put(projectId, new LastEvent(event, System.nanoTime() + retentionNanos));
+        List<SseEmitter> subscribers = emitters.get(projectId);
+        if (subscribers != null) {
+            for (SseEmitter emitter : subscribers) {
+                if (send(projectId, emitter, event) && event.isFinished()) {
+                    emitter.complete();
+                }
+            }
+        }
+        if (event.isFinished()) {
+            emitters.remove(projectId);
+            evictFinished();
+        }
+    }
+
+    private AnalysisProgressEvent lastEvent(Long projectId) {
+        LastEvent last = lastEvents.get(projectId);
+        return last != null ? last.getEvent() : null;
+    }
+
+    /**
+     * Drops the final events of runs that finished longer than the retention ago. Events of
+     * running analyses never expire.
+     */
+    private void evictFinished() {
+        long now = System.nanoTime();
+        lastEvents.values().removeIf(last -> last.getEvent().isFinished() && now - last.getExpiresAt() >= 0);
+    }
+
+    private boolean send(Long projectId, SseEmitter emitter, AnalysisProgressEvent event) {
+        try {
+            emitter.send(SseEmitter.event().name("progress").data(event));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping progress subscriber of project {}: {}", projectId, e.getMessage());
+            List<SseEmitter> subscribers = emitters.get(projectId);
+            if (subscribers != null) {
+                subscribers.remove(emitter);
+            }
+            return false;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class LastEvent {
+        private final AnalysisProgressEvent event;
+        private final long expiresAt;
+    }
+
+    /**
+     * Progress of one analysis run. Not thread-safe, only the thread running the analysis reports to it.
+     */
+    public class Tracker {
+        private final Long projectId;
+        private final long startNanos = System.nanoTime();
+        private Stage stage = Stage.DISCOVERY;
+        private int filesTotal;
+        private long bytesTotal;
+        private int filesProcessed;
+        private long bytesProcessed;
+        private long parseStartNanos;
+        private long parseEndNanos;
+        private long lastPublishNanos;
+
+        private Tracker(Long projectId) {
+            this.projectId = projectId;
+            publishNow(null);
+        }
+
+        public void parsing(int files, long bytes) {
+            filesTotal = files;
+            bytesTotal = bytes;
+            parseStartNanos = System.nanoTime();
+            stage(Stage.PARSING);
+        }
+
+        public void fileProcessed(long bytes) {
+            filesProcessed++;
+            bytesProcessed += bytes;
+            if (System.nanoTime() - lastPublishNanos >= intervalMillis * 1_000_000 || filesProcessed == filesTotal) {
+                publishNow(null);
+            }
+        }
+
+        public void stage(Stage next) {
+            if (stage == Stage.PARSING) {
+                parseEndNanos = System.nanoTime();
+            }
+            stage = next;
+            publishNow(null);
+        }
+
+        public void finish(Stage terminal, String message) {
+            if (stage == Stage.PARSING) {
+                parseEndNanos = System.nanoTime();
+            }
+            stage = terminal;
+            publishNow(message);
+        }
+
+        private void publishNow(String message) {
+            long now = System.nanoTime();
+            lastPublishNanos = now;
+
+            long bytesPerSecond = 0;
+            Long eta = null;
+            if (parseStartNanos > 0) {
+                long parseNanos = Math.max(1, (parseEndNanos > 0 ? parseEndNanos : now) - parseStartNanos);
+                bytesPerSecond = bytesProcessed * 1_000_000_000L / parseNanos;
+                if (stage == Stage.PARSING && bytesPerSecond > 0) {
+                    eta = (bytesTotal - bytesProcessed) * 1000 / bytesPerSecond;
+                }
+            }
+
+            publish(AnalysisProgressEvent.builder()
+                    .projectId(projectId)
+                    .stage(stage.name())
+                    .finished(stage.isTerminal())
+                    .filesProcessed(filesProcessed)
+                    .filesTotal(filesTotal)
+                    .bytesProcessed(bytesProcessed)
+                    .bytesTotal(bytesTotal)
+                    .bytesPerSecond(bytesPerSecond)
+                    .elapsedMillis((now - startNanos) / 1_000_000)
+                    .etaMillis(eta)
+                    .message(message)
+                    .build());
+        }
+    }
+}
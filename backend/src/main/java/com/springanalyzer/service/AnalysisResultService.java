@@ -20,6 +20,7 @@ public class AnalysisResultService {
     private final EndpointRepository endpointRepository;
     private final DependencyRepository dependencyRepository;
     private final ClassRelationshipRepository relationshipRepository;
+    private final SkippedFileRepository skippedFileRepository;
 
     public AnalysisResponse getAnalysisResult(Long projectId) {
         Project project = projectRepository.findById(projectId)
@@ -57,6 +58,7 @@ public class AnalysisResultService {
                 .endpoints(endpoints.stream().map(this::toEndpointInfo).toList())
                 .dependencies(dependencies.stream().map(this::toDependencyInfo).toList())
                 .relationships(relationships.stream().map(this::toRelationshipInfo).toList())
+                .skippedFiles(skippedFileRepository.findByProjectIdOrderByPathAsc(projectId).stream().map(this::toSkippedFileInfo).toList())
                 .build();
     }
 
@@ -153,6 +155,15 @@ public class AnalysisResultService {
                 .build();
     }
 
+    private SkippedFileInfo toSkippedFileInfo(SkippedFile f) {
+        return SkippedFileInfo.builder()
+                .path(f.getPath())
+                .reason(f.getReason().name())
+                .size(f.getSize())
+                .detail(f.getDetail())
+                .build();
+    }
+
     private RelationshipInfo toRelationshipInfo(ClassRelationship r) {
         return RelationshipInfo.builder()
                 .id(r.getId())
@@ -1,18 +1,18 @@
 package com.springanalyzer.service;
 
 import com.springanalyzer.entity.*;
+import com.springanalyzer.exception.AnalysisCancelledException;
 import com.springanalyzer.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.nio.file.Path;
 import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -24,143 +24,479 @@ public class AnalysisService {
     private final EndpointRepository endpointRepository;
     private final DependencyRepository dependencyRepository;
     private final ClassRelationshipRepository relationshipRepository;
+    private final DsmPackageRepository dsmPackageRepository;
+    private final PackageDependencyRepository packageDependencyRepository;
+    private final PackageNodeRepository packageNodeRepository;
     private final SecurityIssueRepository securityIssueRepository;
     private final CodeMetricsRepository codeMetricsRepository;
-    private final FileStorageService fileStorageService;
-    private final ZipExtractionService zipExtractionService;
-    private final JavaParserService javaParserService;
+    private final ServiceCommunicationRepository communicationRepository;
+    private final MicroserviceRepository microserviceRepository;
+    private final ProjectSourceService projectSourceService;
+    private final ParallelParseService parallelParseService;
     private final PomParserService pomParserService;
     private final RelationshipService relationshipService;
+    private final PackageDsmService packageDsmService;
     private final SecurityScannerService securityScannerService;
     private final MetricsService metricsService;
+    private final FileManifestService fileManifestService;
+    private final AnalysisCacheService analysisCacheService;
     private final MicroserviceAnalyzerService microserviceAnalyzerService;
+    private final TransactionTemplate transactionTemplate;
+    private final AnalysisProgressService progressService;
+    private final ProjectFileRepository projectFileRepository;
+    private final SkippedFileRepository skippedFileRepository;
+    private final ResourceGovernor resourceGovernor;
+    private final PathFilterService pathFilterService;
+    private final SourceIoMetrics sourceIoMetrics;
 
-    @Async
-    public void analyzeProjectAsync(Long projectId) {
-        try {
-            analyzeProject(projectId);
-        } catch (Exception e) {
-            log.error("Async analysis failed for project {}", projectId, e);
-            updateProjectStatus(projectId, ProjectStatus.FAILED);
-        }
-    }
+    /**
+     * Version of what an analysis stores for a given archive. Bump it whenever a change alters
+     * the stored results, so results of older runs are neither reused nor updated incrementally.
+     */
+    public static final String ANALYZER_VERSION = "8";
 
-    @Transactional
+    // Upper bound on the number of ids or paths sent in one IN clause
+    private static final int IN_CLAUSE_CHUNK = 1000;
+
+    @Value("${app.analysis.persist-batch-size:500}")
+    private int persistBatchSize;
+
+    @Value("${app.analysis.incremental:true}")
+    private boolean incrementalEnabled;
+
+    /**
+     * Runs the analysis as a pipeline: the corpus lists the files, parser threads read and parse
+     * them ahead of this thread through a bounded window, and this thread persists the results in
+     * batches. Relationships are resolved from the references collected while parsing once all
+     * classes are stored. Each batch and each later stage commits its own transaction, so memory
+     * and transaction size no longer grow with the project.
+     * <p>
+     * Every run records a manifest of the files it saw with their content hashes. When the
+     * previous run completed, the next one compares the sources against that manifest and only
+     * re-parses and re-scans the files that were added or modified, keeping the stored results of
+     * unchanged files. Relationships of unchanged classes that refer to a changed class are
+     * resolved again. Metrics, microservices and dependencies are project-wide and always
+     * recomputed.
+     * <p>
+     * When a completed analysis of a byte-identical archive by the same analyzer version exists,
+     * its results are copied instead and the run is recorded as a cache hit.
+     * <p>
+     * Each run works within a {@link ResourceBudget}. Files that exceed it are skipped or
+     * truncated rather than failing the run, and are listed in the project's skipped files
+     * report. Skipped files stay out of the manifest, so the next run tries them again.
+     */
     public void analyzeProject(Long projectId) {
+        analyzeProject(projectId, CancellationToken.NONE);
+    }
+
+    /**
+     * Runs the analysis, checking {@code cancellation} between stages and between files. A
+     * cancelled run removes its partial results and leaves the project unanalyzed.
+     */
+    public void analyzeProject(Long projectId, CancellationToken cancellation) {
         Project project = projectRepository.findById(projectId)
                 .orElseThrow(() -> new RuntimeException("Project not found"));
 
+        boolean previousRunCompleted = project.getStatus() == ProjectStatus.COMPLETED;
         updateProjectStatus(projectId, ProjectStatus.ANALYZING);
-        Path extractedPath = null;
+        AnalysisProgressService.Tracker progress = progressService.start(projectId);
 
-        try {
-            Path zipPath = fileStorageService.getFilePath(project.getStoragePath());
-            extractedPath = zipExtractionService.extract(zipPath, project.getName());
-
-            clearPreviousAnalysis(projectId);
+        if (reuseResults(project, previousRunCompleted, progress)) {
+            return;
+        }
 
+        ResourceBudget budget = resourceGovernor.newBudget();
+        SourceIoMetrics.Run memory = sourceIoMetrics.startRun(projectSourceService.getIoMode());
+        try (SourceCorpus corpus = projectSourceService.open(project, budget)) {
             // Detect modules (for microservices/multi-module projects)
-            List<ZipExtractionService.ModuleInfo> modules = zipExtractionService.findModules(extractedPath);
+            List<ProjectSourceService.ModuleInfo> modules = corpus.getModules();
             log.info("Detected {} module(s) in project {}", modules.size(), project.getName());
-            for (ZipExtractionService.ModuleInfo module : modules) {
-                log.info("  - Module: {} at {}", module.getName(), module.getPath());
+            for (ProjectSourceService.ModuleInfo module : modules) {
+                log.info("  - Module: {} at {}", module.getName(), module.getPath().isEmpty() ? "/" : module.getPath());
             }
 
-            List<Path> javaFiles = zipExtractionService.findJavaFiles(extractedPath);
-            log.info("Found {} Java files in project {}", javaFiles.size(), project.getName());
+            List<SourceCorpus.FileInfo> trackedFiles = corpus.files().stream()
+                    .filter(file -> FileManifestService.isTracked(file.getPath()))
+                    .toList();
+            Map<String, String> hashes = fileManifestService.fingerprint(corpus, trackedFiles);
+            Map<String, ProjectFile> previousManifest = incrementalEnabled && previousRunCompleted
+                    && ANALYZER_VERSION.equals(project.getAnalyzerVersion())
+                    ? fileManifestService.load(projectId) : Map.of();
+            FileManifestService.ChangeSet changes = previousManifest.isEmpty()
+                    ? null : fileManifestService.diff(previousManifest, hashes);
+            if (changes != null && changes.affectsModules()) {
+                log.info("Build files of project {} changed, analyzing all files", project.getName());
+                changes = null;
+            }
 
-            Map<String, AnalyzedClass> classMap = new HashMap<>();
-            for (Path javaFile : javaFiles) {
-                String moduleName = zipExtractionService.getModuleForFile(javaFile, modules, extractedPath);
-                AnalyzedClass saved = processJavaFile(javaFile, project, moduleName);
-                if (saved != null) {
-                    classMap.put(saved.getName(), saved);
-                }
+            cancellation.throwIfCancelled();
+            List<SourceCorpus.FileInfo> javaFiles = corpus.javaFiles();
+            log.info("Found {} Java files in project {}", javaFiles.size(), project.getName());
+            if (changes == null) {
+                transactionTemplate.executeWithoutResult(status -> clearPreviousAnalysis(projectId));
+            } else {
+                FileManifestService.ChangeSet stale = changes;
+                log.info("Incremental analysis of project {}: {} added, {} modified, {} deleted of {} tracked files",
+                        project.getName(), changes.getAdded().size(), changes.getModified().size(),
+                        changes.getDeleted().size(), hashes.size());
+                transactionTemplate.executeWithoutResult(status -> removeStaleResults(projectId, stale.stale()));
+                javaFiles = javaFiles.stream().filter(file -> stale.isChanged(file.getPath())).toList();
             }
 
-            relationshipService.analyzeRelationships(project, javaFiles, classMap);
-            log.info("Analyzed relationships for {} classes", classMap.size());
+            cancellation.throwIfCancelled();
+            progress.parsing(javaFiles.size(), javaFiles.stream().mapToLong(SourceCorpus.FileInfo::getSize).sum());
+            ClassWriter writer = new ClassWriter(project, cancellation, progress);
+            parallelParseService.parse(corpus, javaFiles, hashes, writer::add);
+            writer.flush();
+
+            cancellation.throwIfCancelled();
+            progress.stage(AnalysisProgressService.Stage.RELATIONSHIPS);
+            SymbolTable symbols;
+            List<JavaParserService.ParsedClass> relationshipSources;
+            if (changes == null) {
+                symbols = writer.symbols;
+                relationshipSources = writer.parsedClasses;
+            } else {
+                symbols = loadSymbolTable(projectId, corpus);
+                relationshipSources = new ArrayList<>(writer.parsedClasses);
+                relationshipSources.addAll(reparseDependents(projectId, corpus, hashes, changes, previousManifest, writer.parsedClasses));
+            }
+            transactionTemplate.executeWithoutResult(status ->
+                    relationshipService.analyzeRelationships(project, relationshipSources, symbols));
+            log.info("Analyzed relationships for {} classes", symbols.size());
+            transactionTemplate.executeWithoutResult(status -> packageDsmService.computeDsm(project));
 
-            List<SecurityIssue> issues = securityScannerService.scanProject(project, extractedPath, classMap);
+            cancellation.throwIfCancelled();
+            progress.stage(AnalysisProgressService.Stage.SECURITY);
+            FileManifestService.ChangeSet scanned = changes;
+            List<SecurityIssue> issues = transactionTemplate.execute(status -> scanned == null
+                    ? securityScannerService.scanProject(project, corpus, symbols)
+                    : securityScannerService.scanFiles(project, corpus, trackedFiles.stream()
+                            .filter(file -> scanned.isChanged(file.getPath())).toList(), symbols));
             log.info("Found {} security issues", issues.size());
 
-            metricsService.calculateMetrics(project, extractedPath);
+            cancellation.throwIfCancelled();
+            progress.stage(AnalysisProgressService.Stage.METRICS);
+            transactionTemplate.executeWithoutResult(status -> metricsService.calculateMetrics(project, corpus));
             log.info("Calculated code metrics");
 
+            cancellation.throwIfCancelled();
+            progress.stage(AnalysisProgressService.Stage.MICROSERVICES);
             // Analyze microservices architecture
-            microserviceAnalyzerService.analyzeProject(project, extractedPath);
+            transactionTemplate.executeWithoutResult(status -> microserviceAnalyzerService.analyzeProject(project, corpus));
             log.info("Analyzed microservices architecture");
 
+            cancellation.throwIfCancelled();
+            progress.stage(AnalysisProgressService.Stage.DEPENDENCIES);
             // Parse dependencies for all modules
-            for (ZipExtractionService.ModuleInfo module : modules) {
-                if (module.getPomFile() != null && java.nio.file.Files.exists(module.getPomFile())) {
-                    List<Dependency> dependencies = pomParserService.parsePom(module.getPomFile(), project, module.getName());
+            for (ProjectSourceService.ModuleInfo module : modules) {
+                if (module.getPomFile() != null && corpus.exists(module.getPomFile())) {
+                    List<Dependency> dependencies = pomParserService.parsePom(corpus, module.getPomFile(), project, module.getName());
                     dependencyRepository.saveAll(dependencies);
                     log.info("Found {} dependencies in module {}", dependencies.size(), module.getName());
                 }
             }
 
-            project.setStatus(ProjectStatus.COMPLETED);
-            project.setAnalyzedAt(LocalDateTime.now());
-            projectRepository.save(project);
+            FileManifestService.ChangeSet recorded = changes;
+            transactionTemplate.executeWithoutResult(status -> {
+                recordManifest(project, trackedFiles, hashes, recorded, writer.parsedClasses, budget);
+                recordSkippedFiles(project, budget);
+            });
 
-            log.info("Analysis completed for project: {}", project.getName());
+            markCompleted(project, null);
 
-        } catch (Exception e) {
+            log.info("Analysis completed for project: {} ({} files read, {} served from the corpus cache; {})",
+                    project.getName(), corpus.getLoadCount(), corpus.getCacheHitCount(), memory.finish());
+            progress.finish(AnalysisProgressService.Stage.COMPLETED, "Analysis completed");
+
+        } catch (AnalysisCancelledException e) {
+            log.info("Analysis cancelled for project {}", project.getName());
+            transactionTemplate.executeWithoutResult(status -> clearPreviousAnalysis(projectId));
+            updateProjectStatus(projectId, ProjectStatus.UPLOADED);
+            progress.finish(AnalysisProgressService.Stage.CANCELLED, e.getMessage());
+            throw e;
+        } catch (Exception | Error e) {
             log.error("Analysis failed for project {}", project.getName(), e);
             updateProjectStatus(projectId, ProjectStatus.FAILED);
+            progress.finish(AnalysisProgressService.Stage.FAILED, e.getMessage());
             throw e;
         } finally {
-            if (extractedPath != null) {
-                zipExtractionService.cleanup(extractedPath);
+            memory.finish();
+        }
+    }
+
+    /**
+     * Completes the run from stored results when the archive and analyzer version match a
+     * completed analysis, either of this project or of another one whose results are copied.
+     * Returns false when there is nothing to reuse.
+     */
+    private boolean reuseResults(Project project, boolean previousRunCompleted, AnalysisProgressService.Tracker progress) {
+        try {
+            Project source = analysisCacheService.findReusable(project, previousRunCompleted).orElse(null);
+            if (source == null) {
+                return false;
+            }
+            if (!source.getId().equals(project.getId())) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    clearPreviousAnalysis(project.getId());
+                    analysisCacheService.copyResults(source, project);
+                });
             }
+            markCompleted(project, source.getId());
+            log.info("Analysis of project {} reused the results of project {} for the same archive", project.getName(), source.getName());
+            progress.finish(AnalysisProgressService.Stage.COMPLETED, "Reused results of an identical archive");
+            return true;
+        } catch (RuntimeException | Error e) {
+            log.error("Reusing analysis results failed for project {}", project.getName(), e);
+            updateProjectStatus(project.getId(), ProjectStatus.FAILED);
+            progress.finish(AnalysisProgressService.Stage.FAILED, e.getMessage());
+            throw e;
         }
     }
 
-    private AnalyzedClass processJavaFile(Path file, Project project, String moduleName) {
-        JavaParserService.ParsedClass parsed = javaParserService.parseJavaFile(file);
-        if (parsed == null || parsed.getName() == null) return null;
+    private void markCompleted(Project project, Long reusedFrom) {
+        project.setStatus(ProjectStatus.COMPLETED);
+        project.setAnalyzedAt(LocalDateTime.now());
+        project.setAnalyzedArchiveHash(project.getArchiveHash());
+        project.setAnalyzerVersion(ANALYZER_VERSION);
+        project.setAnalyzedPathFilter(pathFilterService.signature(project));
+        project.setResultsCopiedFrom(reusedFrom);
+        projectRepository.save(project);
+    }
 
-        AnalyzedClass analyzedClass = AnalyzedClass.builder()
-                .project(project)
-                .name(parsed.getName())
-                .packageName(parsed.getPackageName())
-                .fullPath(parsed.getFullPath())
-                .type(parsed.getClassType())
-                .annotations(String.join(",", parsed.getAnnotations()))
-                .extendsClass(parsed.getExtendsClass())
-                .implementsInterfaces(String.join(",", parsed.getImplementsInterfaces()))
-                .fieldCount(parsed.getFieldCount())
-                .methodCount(parsed.getMethodCount())
-                .moduleName(moduleName)
-                .build();
+    /**
+     * Persist stage of the pipeline. Collects parse results in input order and writes them in
+     * batches of {@code persist-batch-size}, classes first and then their endpoints, one
+     * transaction per batch.
+     */
+    private class ClassWriter {
+        private final Project project;
+        private final CancellationToken cancellation;
+        private final AnalysisProgressService.Tracker progress;
+        private final List<JavaParserService.ParsedClass> batch = new ArrayList<>();
+        private final List<JavaParserService.ParsedClass> parsedClasses = new ArrayList<>();
+        private final SymbolTable symbols = new SymbolTable();
 
-        AnalyzedClass saved = classRepository.save(analyzedClass);
+        ClassWriter(Project project, CancellationToken cancellation, AnalysisProgressService.Tracker progress) {
+            this.project = project;
+            this.cancellation = cancellation;
+            this.progress = progress;
+        }
 
-        for (JavaParserService.ParsedEndpoint pe : parsed.getEndpoints()) {
-            Endpoint endpoint = Endpoint.builder()
+        void add(SourceCorpus.FileInfo file, JavaParserService.ParsedClass parsed) {
+            cancellation.throwIfCancelled();
+            progress.fileProcessed(file.getSize());
+            if (parsed == null || parsed.getName() == null) return;
+            batch.add(parsed);
+            if (batch.size() >= persistBatchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) return;
+            List<AnalyzedClass> saved = transactionTemplate.execute(status -> saveParsedClasses(batch, project));
+            saved.forEach(symbols::add);
+            parsedClasses.addAll(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Persists parse results in input order, classes first and then their endpoints.
+     */
+    private List<AnalyzedClass> saveParsedClasses(List<JavaParserService.ParsedClass> valid, Project project) {
+        List<AnalyzedClass> classes = new ArrayList<>(valid.size());
+        for (JavaParserService.ParsedClass parsed : valid) {
+            classes.add(AnalyzedClass.builder()
                     .project(project)
-                    .analyzedClass(saved)
-                    .httpMethod(pe.getHttpMethod())
-                    .path(pe.getPath())
-                    .methodName(pe.getMethodName())
-                    .returnType(pe.getReturnType())
-                    .parameters(pe.getParameters())
-                    .moduleName(moduleName)
-                    .build();
-            endpointRepository.save(endpoint);
+                    .name(parsed.getName())
+                    .packageName(parsed.getPackageName())
+                    .fullPath(parsed.getFullPath())
+                    .type(parsed.getClassType())
+                    .annotations(String.join(",", parsed.getAnnotations()))
+                    .extendsClass(parsed.getExtendsClass())
+                    .implementsInterfaces(String.join(",", parsed.getImplementsInterfaces()))
+                    .fieldCount(parsed.getFieldCount())
+                    .methodCount(parsed.getMethodCount())
+                    .moduleName(parsed.getModuleName())
+                    .build());
+        }
+        List<AnalyzedClass> saved = classRepository.saveAll(classes);
+
+        List<Endpoint> endpoints = new ArrayList<>();
+        for (int i = 0; i < valid.size(); i++) {
+            JavaParserService.ParsedClass parsed = valid.get(i);
+            for (JavaParserService.ParsedEndpoint pe : parsed.getEndpoints()) {
+                endpoints.add(Endpoint.builder()
+                        .project(project)
+                        .analyzedClass(saved.get(i))
+                        .httpMethod(pe.getHttpMethod())
+                        .path(pe.getPath())
+                        .methodName(pe.getMethodName())
+                        .returnType(pe.getReturnType())
+                        .parameters(pe.getParameters())
+                        .moduleName(parsed.getModuleName())
+                        .build());
+            }
         }
+        endpointRepository.saveAll(endpoints);
         return saved;
     }
 
+    /**
+     * Removes everything stored for files that were modified or deleted since the previous run,
+     * including relationships pointing at their classes, and the project-wide results that are
+     * recomputed on every run.
+     */
+    private void removeStaleResults(Long projectId, Set<String> stalePaths) {
+        inChunks(new ArrayList<>(stalePaths), paths -> securityIssueRepository.deleteByProjectIdAndFileNameIn(projectId, paths));
+        inChunks(classIds(projectId, stalePaths), ids -> {
+            relationshipRepository.deleteBySourceClassIdIn(ids);
+            relationshipRepository.deleteByTargetClassIdIn(ids);
+            endpointRepository.deleteByAnalyzedClassIdIn(ids);
+            classRepository.deleteAll(classRepository.findAllById(ids));
+        });
+        codeMetricsRepository.deleteByProjectId(projectId);
+        packageNodeRepository.deleteByProjectId(projectId);
+        dependencyRepository.deleteByProjectId(projectId);
+        dsmPackageRepository.deleteByProjectId(projectId);
+        packageDependencyRepository.deleteByProjectId(projectId);
+    }
+
+    /**
+     * Parses again the unchanged classes whose relationships may resolve differently now: those
+     * that refer to, or share the name of, a class that was added, modified or deleted. Their
+     * stored outgoing relationships are removed so they can be resolved again.
+     */
+    private List<JavaParserService.ParsedClass> reparseDependents(Long projectId, SourceCorpus corpus,
+                                                                 Map<String, String> hashes,
+                                                                 FileManifestService.ChangeSet changes,
+                                                                 Map<String, ProjectFile> previousManifest,
+                                                                 List<JavaParserService.ParsedClass> changed) {
+        Set<String> affectedNames = new HashSet<>();
+        for (String path : changes.stale()) {
+            ProjectFile before = previousManifest.get(path);
+            if (before.getClassName() != null) {
+                affectedNames.add(before.getClassName());
+            }
+        }
+        for (JavaParserService.ParsedClass parsed : changed) {
+            affectedNames.add(parsed.getName());
+        }
+
+        List<SourceCorpus.FileInfo> dependents = corpus.javaFiles().stream()
+                .filter(file -> !changes.isChanged(file.getPath()))
+                .filter(file -> dependsOn(previousManifest.get(file.getPath()), affectedNames))
+                .toList();
+        if (dependents.isEmpty()) return List.of();
+
+        log.info("Resolving relationships again for {} unchanged dependent classes", dependents.size());
+        List<String> dependentPaths = dependents.stream().map(SourceCorpus.FileInfo::getPath).toList();
+        transactionTemplate.executeWithoutResult(status ->
+                inChunks(classIds(projectId, dependentPaths), relationshipRepository::deleteBySourceClassIdIn));
+
+        return parallelParseService.parseAll(corpus, dependents, hashes).stream()
+                .filter(parsed -> parsed != null && parsed.getName() != null)
+                .toList();
+    }
+
+    private static boolean dependsOn(ProjectFile entry, Set<String> affectedNames) {
+        if (entry == null || entry.getClassName() == null) return false;
+        if (affectedNames.contains(entry.getClassName())) return true;
+        if (entry.getReferencedTypes() == null || entry.getReferencedTypes().isEmpty()) return false;
+        for (String type : entry.getReferencedTypes().split(",")) {
+            if (affectedNames.contains(type)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Symbol table of the stored classes of the project, filled in file order like a full run does.
+     */
+    private SymbolTable loadSymbolTable(Long projectId, SourceCorpus corpus) {
+        Map<String, AnalyzedClass> byPath = new HashMap<>();
+        for (AnalyzedClass analyzedClass : classRepository.findByProjectId(projectId)) {
+            byPath.put(analyzedClass.getFullPath(), analyzedClass);
+        }
+        SymbolTable symbols = new SymbolTable();
+        for (SourceCorpus.FileInfo file : corpus.javaFiles()) {
+            AnalyzedClass analyzedClass = byPath.get(file.getPath());
+            if (analyzedClass != null) {
+                symbols.add(analyzedClass);
+            }
+        }
+        return symbols;
+    }
+
+    private void recordManifest(Project project, List<SourceCorpus.FileInfo> trackedFiles, Map<String, String> hashes,
+                                FileManifestService.ChangeSet changes, List<JavaParserService.ParsedClass> parsedClasses,
+                                ResourceBudget budget) {
+        Map<String, SourceCorpus.FileInfo> files = new HashMap<>();
+        for (SourceCorpus.FileInfo file : trackedFiles) {
+            if (!budget.isSkipped(file.getPath())) {
+                files.put(file.getPath(), file);
+            }
+        }
+        Map<String, JavaParserService.ParsedClass> parsedByPath = new HashMap<>();
+        for (JavaParserService.ParsedClass parsed : parsedClasses) {
+            parsedByPath.put(parsed.getFullPath(), parsed);
+        }
+
+        if (changes == null) {
+            fileManifestService.record(project, files.keySet(), hashes, files, parsedByPath);
+        } else {
+            inChunks(new ArrayList<>(changes.stale()), paths -> fileManifestService.remove(project.getId(), paths));
+            Set<String> written = new TreeSet<>(changes.getAdded());
+            written.addAll(changes.getModified());
+            written.retainAll(files.keySet());
+            fileManifestService.record(project, written, hashes, files, parsedByPath);
+        }
+    }
+
+    /**
+     * Replaces the skipped files report with the files this run left out or truncated.
+     */
+    private void recordSkippedFiles(Project project, ResourceBudget budget) {
+        skippedFileRepository.deleteByProjectId(project.getId());
+        List<SkippedFile> skipped = budget.getSkippedFiles();
+        if (skipped.isEmpty()) return;
+        skippedFileRepository.saveAll(skipped.stream().map(file -> file.toBuilder().project(project).build()).toList());
+        log.warn("Analysis of project {} skipped or truncated {} file(s) to stay within its resource limits",
+                project.getName(), skipped.size());
+    }
+
+    private List<Long> classIds(Long projectId, Collection<String> paths) {
+        List<Long> ids = new ArrayList<>();
+        inChunks(new ArrayList<>(paths), chunk -> {
+            for (AnalyzedClass analyzedClass : classRepository.findByProjectIdAndFullPathIn(projectId, chunk)) {
+                ids.add(analyzedClass.getId());
+            }
+        });
+        return ids;
+    }
+
+    private static <T> void inChunks(List<T> values, Consumer<List<T>> action) {
+        for (int from = 0; from < values.size(); from += IN_CLAUSE_CHUNK) {
+            action.accept(values.subList(from, Math.min(values.size(), from + IN_CLAUSE_CHUNK)));
+        }
+    }
+
     @Transactional
     public void clearPreviousAnalysis(Long projectId) {
         securityIssueRepository.deleteByProjectId(projectId);
         codeMetricsRepository.deleteByProjectId(projectId);
+        packageNodeRepository.deleteByProjectId(projectId);
         relationshipRepository.deleteByProjectId(projectId);
+        dsmPackageRepository.deleteByProjectId(projectId);
+        packageDependencyRepository.deleteByProjectId(projectId);
         endpointRepository.deleteByProjectId(projectId);
         classRepository.deleteByProjectId(projectId);
         dependencyRepository.deleteByProjectId(projectId);
+        communicationRepository.deleteByProjectId(projectId);
+        microserviceRepository.deleteByProjectId(projectId);
+        projectFileRepository.deleteByProjectId(projectId);
+        skippedFileRepository.deleteByProjectId(projectId);
     }
 
     private void updateProjectStatus(Long projectId, ProjectStatus status) {
@@ -0,0 +1,112 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.entity.ArchiveProfile;
+import com.springanalyzer.entity.Project;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Estimates what an analysis will cost before it starts. The profile comes from the archive's
+ * central directory and covers the files the project's {@link PathFilter} selects, so nothing but
+ * the .gitignore files is inflated. Time and memory are derived from it with a linear model over
+ * the amount of Java source, calibrated by the {@code app.analysis.estimate.*} properties.
+ */
+@Service
+@Slf4j
+public class ArchiveProfileService {
+
+    private static final int LARGEST_FILES = 5;
+
+    private final FileStorageService fileStorageService;
+    private final PathFilterService pathFilterService;
+    private final long baseMs;
+    private final long sourceBytesPerMs;
+    private final long baseMemoryBytes;
+    private final long memoryPerSourceByte;
+
+    public ArchiveProfileService(FileStorageService fileStorageService,
+                                 PathFilterService pathFilterService,
+                                 @Value("${app.analysis.estimate.base-ms:500}") long baseMs,
+                                 @Value("${app.analysis.estimate.source-bytes-per-ms:70}") long sourceBytesPerMs,
+                                 @Value("${app.analysis.estimate.base-memory-mb:32}") long baseMemoryMb,
+                                 @Value("${app.analysis.estimate.memory-per-source-byte:40}") long memoryPerSourceByte) {
+        this.fileStorageService = fileStorageService;
+        this.pathFilterService = pathFilterService;
+        this.baseMs = baseMs;
+        this.sourceBytesPerMs = Math.max(1, sourceBytesPerMs);
+        this.baseMemoryBytes = baseMemoryMb * 1024 * 1024;
+        this.memoryPerSourceByte = memoryPerSourceByte;
+    }
+
+    /**
+     * Profile of a project's stored archive, or null when its central directory cannot be read;
+     * the analysis itself then reports what is wrong with the archive.
+     */
+    public ArchiveProfile profile(Project project) {
+        String storagePath = project.getStoragePath();
+        PathFilter filter = pathFilterService.forProject(project);
+        long start = System.nanoTime();
+        try (ZipSourceProvider provider = new ZipSourceProvider(fileStorageService.getFilePath(storagePath))) {
+            ArchiveProfile profile = profile(filter.select(provider.listFiles(), PathFilter.reader(provider)));
+            log.debug("Profiled archive {} in {} ms: {} entries, {} Java files",
+                    storagePath, (System.nanoTime() - start) / 1_000_000, profile.getEntryCount(), profile.getJavaFileCount());
+            return profile;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not profile archive {}: {}", storagePath, e.getMessage());
+            return null;
+        }
+    }
+
+    static ArchiveProfile profile(List<SourceProvider.Entry> files) {
+        int javaFiles = 0;
+        long javaBytes = 0;
+        long uncompressedBytes = 0;
+        Set<String> moduleDirectories = new HashSet<>();
+
+        for (SourceProvider.Entry entry : files) {
+            String fileName = entry.getFileName();
+            uncompressedBytes += entry.getSize();
+            if (fileName.endsWith(".java")) {
+                javaFiles++;
+                javaBytes += entry.getSize();
+            } else if (fileName.equals("pom.xml") || fileName.equals("build.gradle") || fileName.equals("build.gradle.kts")) {
+                moduleDirectories.add(ProjectSourceService.parentOf(entry.getPath()));
+            }
+        }
+
+        String largest = files.stream()
+                .sorted(Comparator.comparingLong(SourceProvider.Entry::getSize).reversed())
+                .limit(LARGEST_FILES)
+                .map(e -> e.getPath() + ":" + e.getSize())
+                .collect(Collectors.joining("\n"));
+
+        return ArchiveProfile.builder()
+                .entryCount(files.size())
+                .javaFileCount(javaFiles)
+                .javaBytes(javaBytes)
+                .uncompressedBytes(uncompressedBytes)
+                .moduleCount(Math.max(1, moduleDirectories.size()))
+                .largestFiles(largest)
+                .build();
+    }
+
+    public long estimatedDurationMs(ArchiveProfile profile) {
+        if (profile == null || profile.getJavaBytes() == null) return 0;
+        return baseMs + profile.getJavaBytes() / sourceBytesPerMs;
+    }
+
+    /**
+     * Heap an analysis is expected to hold at its peak: parsed classes and their relationships
+     * grow with the amount of source.
+     */
+    public long estimatedMemoryBytes(ArchiveProfile profile) {
+        if (profile == null || profile.getJavaBytes() == null) return 0;
+        return baseMemoryBytes + profile.getJavaBytes() * memoryPerSourceByte;
+    }
+}
@@ -0,0 +1,58 @@
+package com.springanalyzer.service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Finds the next byte of interest in a buffer for {@link LineClassifier}: one of three given bytes
+ * or a line terminator. The classifier uses it to skip over comments, literals and the rest of
+ * a line once it is known to hold code, where nothing else matters. Bytes are compared eight at
+ * a time within a {@code long}.
+ */
+final class ByteScanner {
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long NEWLINES = '\n' * ONES;
+    private static final long RETURNS = '\r' * ONES;
+
+    private ByteScanner() {
+    }
+
+    /**
+     * Index of the first byte from {@code from} that is {@code first}, {@code second},
+     * {@code third}, {@code '\n'} or {@code '\r'}, {@code to} when there is none.
+     */
+    static int nextStop(ByteBuffer buffer, int from, int to, byte first, byte second, byte third) {
+        long firsts = broadcast(first);
+        long seconds = broadcast(second);
+        long thirds = broadcast(third);
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long word = buffer.getLong(i);
+            long stops = zeroBytes(word ^ firsts) | zeroBytes(word ^ seconds) | zeroBytes(word ^ thirds)
+                    | zeroBytes(word ^ NEWLINES) | zeroBytes(word ^ RETURNS);
+            if (stops != 0) {
+                int index = buffer.order() == ByteOrder.BIG_ENDIAN
+                        ? Long.numberOfLeadingZeros(stops) : Long.numberOfTrailingZeros(stops);
+                return i + (index >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b == first || b == second || b == third || b == '\n' || b == '\r') return i;
+        }
+        return to;
+    }
+
+    private static long broadcast(byte b) {
+        return (b & 0xFFL) * ONES;
+    }
+
+    /**
+     * The high bit of each byte that is zero, and no other bit.
+     */
+    private static long zeroBytes(long word) {
+        return ~(((word & LOW_BITS) + LOW_BITS) | word | LOW_BITS);
+    }
+}
@@ -0,0 +1,38 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.exception.AnalysisCancelledException;
+
+/**
+ * Cooperative cancellation flag for one analysis run. The analysis checks it between
+ * stages and between files and stops with {@link AnalysisCancelledException} once set.
+ */
+public class CancellationToken {
+
+    public static final CancellationToken NONE = new CancellationToken(null) {
+        @Override
+        public void cancel() {
+            throw new UnsupportedOperationException("Cannot cancel an uncancellable analysis");
+        }
+    };
+
+    private final Long projectId;
+    private volatile boolean cancelled;
+
+    public CancellationToken(Long projectId) {
+        this.projectId = projectId;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void throwIfCancelled() {
+        if (cancelled) {
+            throw new AnalysisCancelledException(projectId);
+        }
+    }
+}
@@ -0,0 +1,451 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.dto.ProjectRequest;
+import com.springanalyzer.dto.ProjectResponse;
+import com.springanalyzer.dto.UploadInitRequest;
+import com.springanalyzer.dto.UploadSessionResponse;
+import com.springanalyzer.entity.AnalysisJob;
+import com.springanalyzer.entity.UploadPart;
+import com.springanalyzer.entity.UploadSession;
+import com.springanalyzer.exception.BadRequestException;
+import com.springanalyzer.exception.ResourceNotFoundException;
+import com.springanalyzer.exception.SpringAnalyzerException;
+import com.springanalyzer.repository.UploadPartRepository;
+import com.springanalyzer.repository.UploadSessionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Resumable uploads of large archives. A client initiates an upload, sends the parts in any
+ * order and as often as needed, and completes it. Each part is streamed from the request body
+ * straight into its slot of a preallocated file, so no part is buffered or copied, and is
+ * checked against the SHA-256 the client sent with it. The SHA-256 of the whole file is kept
+ * running as the parts arrive, so completing does not read the file again before it links it
+ * into the blob store and creates the project.
+ */
+@Service
+@Slf4j
+public class ChunkedUploadService {
+
+    private static final int MIN_PART_SIZE = 64 * 1024;
+    private static final int MAX_PART_SIZE = 64 * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final UploadSessionRepository sessionRepository;
+    private final UploadPartRepository partRepository;
+    private final FileStorageService fileStorageService;
+    private final ProjectService projectService;
+    private final AnalysisJobService analysisJobService;
+    private final TransactionTemplate transactionTemplate;
+    private final int defaultPartSize;
+    private final long sessionTtlHours;
+
+    // Uploads currently being completed, so a retried request cannot complete one twice
+    private final Set<String> completing = ConcurrentHashMap.newKeySet();
+
+    // Locks and running SHA-256 of each upload, by upload id
+    private final Map<String, UploadState> uploads = new ConcurrentHashMap<>();
+
+    public ChunkedUploadService(UploadSessionRepository sessionRepository,
+                                UploadPartRepository partRepository,
+                                FileStorageService fileStorageService,
+                                ProjectService projectService,
+                                AnalysisJobService analysisJobService,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${app.upload.part-size:8388608}") int defaultPartSize,
+                                @Value("${app.upload.session-ttl-hours:24}") long sessionTtlHours) {
+        this.sessionRepository = sessionRepository;
+        this.partRepository = partRepository;
+        this.fileStorageService = fileStorageService;
+        this.projectService = projectService;
+        this.analysisJobService = analysisJobService;
+        this.transactionTemplate = transactionTemplate;
+        this.defaultPartSize = defaultPartSize;
+        this.sessionTtlHours = sessionTtlHours;
+    }
+
+    public UploadSessionResponse initiate(UploadInitRequest request) {
+        purgeExpired();
+        fileStorageService.validateArchive(request.getFilename(), request.getSize());
+        projectService.checkNameAvailable(request.getName());
+        if (sessionRepository.existsByProjectName(request.getName())) {
+            throw new BadRequestException("An upload for project '" + request.getName() + "' is already in progress");
+        }
+
+        int partSize = request.getPartSize() != null ? request.getPartSize() : defaultPartSize;
+        if (partSize < MIN_PART_SIZE || partSize > MAX_PART_SIZE) {
+            throw new BadRequestException("Part size must be between " + MIN_PART_SIZE + " and " + MAX_PART_SIZE + " bytes");
+        }
+
+        String uploadId = UUID.randomUUID().toString();
+        Path partsFile = fileStorageService.getPartsFile(uploadId);
+        try (RandomAccessFile file = new RandomAccessFile(partsFile.toFile(), "rw")) {
+            file.setLength(request.getSize());
+        } catch (IOException e) {
+            throw new SpringAnalyzerException("Failed to allocate upload file: " + e.getMessage());
+        }
+
+        UploadSession session = sessionRepository.save(UploadSession.builder()
+                .uploadId(uploadId)
+                .projectName(request.getName())
+                .description(request.getDescription())
+                .originalFilename(request.getFilename())
+                .totalSize(request.getSize())
+                .partSize(partSize)
+                .partCount((int) ((request.getSize() + partSize - 1) / partSize))
+                .analyzeOnComplete(request.isAnalyze())
+                .build());
+        log.info("Started upload {} of {} ({} bytes in {} parts) for project {}",
+                uploadId, request.getFilename(), request.getSize(), session.getPartCount(), request.getName());
+        return toResponse(session, List.of());
+    }
+
+    public UploadSessionResponse getStatus(String uploadId) {
+        UploadSession session = findSession(uploadId);
+        return toResponse(session, partRepository.findBySessionIdOrderByPartNumber(session.getId()));
+    }
+
+    /**
+     * Writes part {@code partNumber} from {@code body} into its slot of the upload file. The part
+     * is recorded only when it has exactly the expected length and, if given, the expected
+     * checksum; otherwise it has to be sent again.
+     */
+    public UploadSessionResponse.PartInfo uploadPart(String uploadId, int partNumber, String expectedChecksum, InputStream body) {
+        UploadSession session = findSession(uploadId);
+        if (partNumber < 1 || partNumber > session.getPartCount()) {
+            throw new BadRequestException("Part number must be between 1 and " + session.getPartCount());
+        }
+
+        // Held until the part is recorded: completing waits for the parts being written, and no
+        // part is written into a file that is being linked into the blob store
+        UploadState upload = uploads.computeIfAbsent(uploadId, id -> new UploadState());
+        if (!upload.lock.readLock().tryLock()) {
+            throw new BadRequestException("Upload " + uploadId + " is being completed");
+        }
+        try {
+            if (completing.contains(uploadId)) {
+                throw new BadRequestException("Upload " + uploadId + " is being completed");
+            }
+            return writePart(upload, session, partNumber, expectedChecksum, body);
+        } finally {
+            upload.lock.readLock().unlock();
+        }
+    }
+
+    private UploadSessionResponse.PartInfo writePart(UploadState upload, UploadSession session, int partNumber,
+                                                     String expectedChecksum, InputStream body) {
+        MessageDigest continued = claimPart(upload, session, partNumber);
+        long offset = (long) (partNumber - 1) * session.getPartSize();
+        long expectedSize = Math.min(session.getPartSize(), session.getTotalSize() - offset);
+        MessageDigest digest = sha256();
+        long written = 0;
+        String checksum;
+        boolean recorded = false;
+        try {
+            try (FileChannel channel = FileChannel.open(fileStorageService.getPartsFile(session.getUploadId()), StandardOpenOption.WRITE)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    if (written + read > expectedSize) {
+                        throw new BadRequestException("Part " + partNumber + " is larger than " + expectedSize + " bytes");
+                    }
+                    digest.update(buffer, 0, read);
+                    if (continued != null) continued.update(buffer, 0, read);
+                    ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                    while (chunk.hasRemaining()) {
+                        written += channel.write(chunk, offset + written);
+                    }
+                }
+            } catch (IOException e) {
+                throw new SpringAnalyzerException("Failed to write part " + partNumber + ": " + e.getMessage());
+            }
+
+            if (written != expectedSize) {
+                throw new BadRequestException("Part " + partNumber + " has " + written + " bytes, expected " + expectedSize);
+            }
+            checksum = HexFormat.of().formatHex(digest.digest());
+            if (expectedChecksum != null && !expectedChecksum.equalsIgnoreCase(checksum)) {
+                throw new BadRequestException("Checksum mismatch for part " + partNumber);
+            }
+
+            long partSize = written;
+            transactionTemplate.executeWithoutResult(status -> {
+                partRepository.save(UploadPart.builder()
+                        .session(session)
+                        .partNumber(partNumber)
+                        .size(partSize)
+                        .checksum(checksum)
+                        .build());
+                session.setUpdatedAt(LocalDateTime.now());
+                sessionRepository.save(session);
+            });
+            recorded = true;
+        } finally {
+            upload.release(partNumber, continued, recorded);
+        }
+        catchUp(upload, session);
+        return UploadSessionResponse.PartInfo.builder()
+                .partNumber(partNumber)
+                .size(written)
+                .checksum(checksum)
+                .build();
+    }
+
+    /**
+     * Checks that every part arrived, links the file into the blob store and creates the project,
+     * queueing its analysis when the upload asked for it. The upload and its file are dropped only
+     * once the project exists; if creating it fails, the blob reference is given up again and the
+     * upload can be completed once more.
+     */
+    public ProjectResponse complete(String uploadId) {
+        if (!completing.add(uploadId)) {
+            throw new BadRequestException("Upload " + uploadId + " is already being completed");
+        }
+        UploadState upload = uploads.computeIfAbsent(uploadId, id -> new UploadState());
+        upload.lock.writeLock().lock();
+        try {
+            UploadSession session = findSession(uploadId);
+            List<Integer> missing = missingParts(session, partRepository.findBySessionIdOrderByPartNumber(session.getId()));
+            if (!missing.isEmpty()) {
+                throw new BadRequestException("Upload is missing parts " + missing);
+            }
+            projectService.checkNameAvailable(session.getProjectName());
+
+            String contentHash = catchUp(upload, session);
+            if (contentHash == null) {
+                throw new BadRequestException("Upload " + uploadId + " is still receiving parts");
+            }
+
+            Path partsFile = fileStorageService.getPartsFile(uploadId);
+            ProjectRequest request = new ProjectRequest();
+            request.setName(session.getProjectName());
+            request.setDescription(session.getDescription());
+            // The blob reference is dropped again when creating the project rolls back
+            ProjectResponse project = transactionTemplate.execute(status -> {
+                FileStorageService.StoredFile stored;
+                try {
+                    stored = fileStorageService.commitLink(partsFile, contentHash, session.getTotalSize());
+                } catch (IOException e) {
+                    throw new SpringAnalyzerException("Failed to store upload: " + e.getMessage());
+                }
+                return projectService.createProject(request, session.getOriginalFilename(), stored);
+            });
+            deleteSession(session);
+            deletePartsFile(uploadId);
+            uploads.remove(uploadId);
+            log.info("Completed upload {} as project {}", uploadId, project.getName());
+
+            if (session.isAnalyzeOnComplete()) {
+                analysisJobService.submit(project.getId(), AnalysisJob.PRIORITY_NORMAL);
+            }
+            return project;
+        } finally {
+            upload.lock.writeLock().unlock();
+            completing.remove(uploadId);
+        }
+    }
+
+    public void abort(String uploadId) {
+        UploadSession session = findSession(uploadId);
+        deleteSession(session);
+        deletePartsFile(uploadId);
+        uploads.remove(uploadId);
+        log.info("Aborted upload {}", uploadId);
+    }
+
+    /**
+     * Drops uploads that received nothing for {@code app.upload.session-ttl-hours}.
+     */
+    private void purgeExpired() {
+        for (UploadSession session : sessionRepository.findByUpdatedAtBefore(LocalDateTime.now().minusHours(sessionTtlHours))) {
+            log.info("Dropping upload {} of project {}, no parts received for {} hours",
+                    session.getUploadId(), session.getProjectName(), sessionTtlHours);
+            deleteSession(session);
+            deletePartsFile(session.getUploadId());
+            uploads.remove(session.getUploadId());
+        }
+    }
+
+    /**
+     * Gives up the previously received copy of the part, whose slot is about to be overwritten,
+     * and returns a copy of the running digest to receive the part when it continues the digest.
+     * A part the digest already covers restarts it before any byte is written. This runs under
+     * the lock {@link #catchUp} reads under, so no slot is read back while it is being rewritten.
+     */
+    private MessageDigest claimPart(UploadState upload, UploadSession session, int partNumber) {
+        synchronized (upload) {
+            if (upload.writing.contains(partNumber)) {
+                throw new BadRequestException("Part " + partNumber + " is already being received");
+            }
+            partRepository.findBySessionIdAndPartNumber(session.getId(), partNumber).ifPresent(partRepository::delete);
+            upload.writing.add(partNumber);
+            if (partNumber < upload.nextPart) {
+                upload.restart();
+            }
+            if (partNumber != upload.nextPart) return null;
+            upload.receiving = copy(upload.digest);
+            return upload.receiving;
+        }
+    }
+
+    /**
+     * Adds the parts that arrived ahead of the digest and now continue it, reading them back from
+     * the file. After a restart this reads every part received so far. Returns the SHA-256 of the
+     * whole file once every part is covered, or {@code null} while parts are missing or one is
+     * still being received.
+     */
+    private String catchUp(UploadState upload, UploadSession session) {
+        synchronized (upload) {
+            if (upload.receiving != null) return null;
+            if (upload.nextPart <= session.getPartCount()) {
+                Path partsFile = fileStorageService.getPartsFile(session.getUploadId());
+                try (FileChannel channel = FileChannel.open(partsFile, StandardOpenOption.READ)) {
+                    ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                    for (UploadPart part : partRepository.findBySessionIdOrderByPartNumber(session.getId())) {
+                        if (part.getPartNumber() < upload.nextPart) continue;
+                        if (part.getPartNumber() > upload.nextPart) break;
+                        long position = (long) (part.getPartNumber() - 1) * session.getPartSize();
+                        long end = position + part.getSize();
+                        while (position < end) {
+                            buffer.clear().limit((int) Math.min(BUFFER_SIZE, end - position));
+                            int read = channel.read(buffer, position);
+                            if (read < 0) throw new IOException("Unexpected end of file");
+                            upload.digest.update(buffer.flip());
+                            position += read;
+                        }
+                        upload.nextPart++;
+                    }
+                } catch (IOException e) {
+                    // The digest may hold half a part now, so the next attempt starts over
+                    upload.restart();
+                    throw new SpringAnalyzerException("Failed to read upload file: " + e.getMessage());
+                }
+            }
+            if (upload.nextPart <= session.getPartCount()) return null;
+            return HexFormat.of().formatHex(copy(upload.digest).digest());
+        }
+    }
+
+    private void deleteSession(UploadSession session) {
+        transactionTemplate.executeWithoutResult(status -> {
+            partRepository.deleteBySessionId(session.getId());
+            sessionRepository.deleteById(session.getId());
+        });
+    }
+
+    private void deletePartsFile(String uploadId) {
+        try {
+            Files.deleteIfExists(fileStorageService.getPartsFile(uploadId));
+        } catch (IOException e) {
+            log.warn("Failed to delete parts file of upload {}", uploadId, e);
+        }
+    }
+
+    private UploadSession findSession(String uploadId) {
+        return sessionRepository.findByUploadId(uploadId)
+                .orElseThrow(() -> new ResourceNotFoundException("Upload not found with id: " + uploadId));
+    }
+
+    private static MessageDigest copy(MessageDigest digest) {
+        try {
+            return (MessageDigest) digest.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new SpringAnalyzerException("SHA-256 digest cannot be copied", e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new SpringAnalyzerException("SHA-256 not available", e);
+        }
+    }
+
+    private static List<Integer> missingParts(UploadSession session, List<UploadPart> parts) {
+        boolean[] received = new boolean[session.getPartCount() + 1];
+        for (UploadPart part : parts) {
+            received[part.getPartNumber()] = true;
+        }
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 1; i <= session.getPartCount(); i++) {
+            if (!received[i]) missing.add(i);
+        }
+        return missing;
+    }
+
+    private UploadSessionResponse toResponse(UploadSession session, List<UploadPart> parts) {
+        return UploadSessionResponse.builder()
+                .uploadId(session.getUploadId())
+                .projectName(session.getProjectName())
+                .originalFilename(session.getOriginalFilename())
+                .totalSize(session.getTotalSize())
+                .partSize(session.getPartSize())
+                .partCount(session.getPartCount())
+                .analyzeOnComplete(session.isAnalyzeOnComplete())
+                .receivedParts(parts.stream()
+                        .map(part -> UploadSessionResponse.PartInfo.builder()
+                                .partNumber(part.getPartNumber())
+                                .size(part.getSize())
+                                .checksum(part.getChecksum())
+                                .build())
+                        .toList())
+                .missingParts(missingParts(session, parts))
+                .createdAt(session.getCreatedAt())
+                .updatedAt(session.getUpdatedAt())
+                .build();
+    }
+
+    /**
+     * Per-upload state: the lock that keeps part writes and completion apart, the parts being
+     * written, and the SHA-256 of the leading parts of the file, those before {@code nextPart}.
+     * The next part is added while it is being received, into a copy that replaces the digest
+     * once the part has been recorded, so a part that turns out to be wrong leaves the digest as
+     * it was. The digest fields are guarded by the object's monitor.
+     */
+    private static final class UploadState {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Set<Integer> writing = new HashSet<>();
+        private MessageDigest digest = sha256();
+        private int nextPart = 1;
+        private MessageDigest receiving;
+
+        synchronized void restart() {
+            digest = sha256();
+            nextPart = 1;
+            receiving = null;
+        }
+
+        /**
+         * Ends the write of a part, adding it to the digest when it was received into a copy of
+         * it and recorded. A restart while the part was being received leaves the copy behind.
+         */
+        synchronized void release(int partNumber, MessageDigest continued, boolean recorded) {
+            writing.remove(partNumber);
+            if (continued == null || receiving != continued) return;
+            if (recorded) {
+                digest = continued;
+                nextPart++;
+            }
+            receiving = null;
+        }
+    }
+}
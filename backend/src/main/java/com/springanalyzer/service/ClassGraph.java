@@ -0,0 +1,354 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.entity.AnalyzedClass;
+import com.springanalyzer.entity.RelationshipType;
+import com.springanalyzer.repository.ClassRelationshipRepository;
+
+import java.util.*;
+
+/**
+ * Immutable graph of a project's classes and their relationships, held in compressed sparse row
+ * form: vertices are the indexes of the classes in id order, and the edges leaving vertex
+ * {@code v} are {@code outTargets[outOffsets[v]]} up to {@code outTargets[outOffsets[v + 1]]},
+ * sorted by target. Incoming edges are held the same way. Relationships between the same two
+ * classes make one edge, with a bit set in the edge's type mask for each type.
+ * <p>
+ * All algorithms work on the primitive arrays with array-backed queues and stacks, and run in
+ * time linear in the part of the graph they visit.
+ */
+public final class ClassGraph {
+
+    public static final int ALL_TYPES = (1 << RelationshipType.values().length) - 1;
+
+    private final Object stamp;
+    private final long[] classIds;
+    private final String[] names;
+    private final String[] packageNames;
+    private final String[] types;
+    private final Map<Long, Integer> vertexByClassId;
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final int[] outTypes;
+    private final int[] inOffsets;
+    private final int[] inSources;
+    private final int[] inTypes;
+    private final Map<RelationshipType, Integer> relationshipCounts;
+
+    private ClassGraph(Object stamp, List<AnalyzedClass> classes, Map<Long, Integer> vertexByClassId,
+                       int[] sources, int[] targets, int[] typeMasks, int edgeCount, Map<RelationshipType, Integer> relationshipCounts) {
+        this.stamp = stamp;
+        int n = classes.size();
+        classIds = new long[n];
+        names = new String[n];
+        packageNames = new String[n];
+        types = new String[n];
+        this.vertexByClassId = vertexByClassId;
+        for (int v = 0; v < n; v++) {
+            AnalyzedClass analyzedClass = classes.get(v);
+            classIds[v] = analyzedClass.getId();
+            names[v] = analyzedClass.getName();
+            packageNames[v] = analyzedClass.getPackageName();
+            types[v] = analyzedClass.getType() != null ? analyzedClass.getType().name() : null;
+        }
+        outOffsets = new int[n + 1];
+        outTargets = new int[edgeCount];
+        outTypes = new int[edgeCount];
+        inOffsets = new int[n + 1];
+        inSources = new int[edgeCount];
+        inTypes = new int[edgeCount];
+        fill(sources, targets, typeMasks, edgeCount, outOffsets, outTargets, outTypes);
+        fill(targets, sources, typeMasks, edgeCount, inOffsets, inSources, inTypes);
+        this.relationshipCounts = relationshipCounts;
+    }
+
+    /**
+     * Builds the graph of the given classes from their relationships. Relationships of classes
+     * not given and relationships of a class to itself are left out.
+     */
+    static ClassGraph build(Object stamp, List<AnalyzedClass> classes, List<ClassRelationshipRepository.Edge> relationships) {
+        List<AnalyzedClass> sorted = new ArrayList<>(classes);
+        sorted.sort(Comparator.comparing(AnalyzedClass::getId));
+        Map<Long, Integer> vertices = new HashMap<>(sorted.size() * 2);
+        for (int v = 0; v < sorted.size(); v++) {
+            vertices.put(sorted.get(v).getId(), v);
+        }
+
+        // Source, target and type packed into one long each, so that sorting them groups the
+        // relationships between the same two classes together
+        long[] keys = new long[relationships.size()];
+        Map<RelationshipType, Integer> counts = new EnumMap<>(RelationshipType.class);
+        int count = 0;
+        for (ClassRelationshipRepository.Edge relationship : relationships) {
+            counts.merge(relationship.getType(), 1, Integer::sum);
+            Integer source = vertices.get(relationship.getSourceId());
+            Integer target = vertices.get(relationship.getTargetId());
+            if (source == null || target == null || source.equals(target)) continue;
+            keys[count++] = ((long) source << 36) | ((long) target << 4) | relationship.getType().ordinal();
+        }
+        Arrays.sort(keys, 0, count);
+
+        int[] sources = new int[count];
+        int[] targets = new int[count];
+        int[] typeMasks = new int[count];
+        int edges = 0;
+        long previous = -1;
+        for (int i = 0; i < count; i++) {
+            long pair = keys[i] >>> 4;
+            if (pair != previous) {
+                sources[edges] = (int) (pair >>> 32);
+                targets[edges] = (int) (pair & 0xFFFFFFFFL);
+                edges++;
+                previous = pair;
+            }
+            typeMasks[edges - 1] |= 1 << (int) (keys[i] & 0xF);
+        }
+        return new ClassGraph(stamp, sorted, vertices, sources, targets, typeMasks, edges, counts);
+    }
+
+    /**
+     * Counting sort of the edges by {@code from} into CSR arrays, keeping their order otherwise.
+     */
+    static void fill(int[] from, int[] to, int[] typeMasks, int edgeCount, int[] offsets, int[] adjacent, int[] adjacentTypes) {
+        for (int i = 0; i < edgeCount; i++) {
+            offsets[from[i] + 1]++;
+        }
+        for (int v = 0; v + 1 < offsets.length; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+        for (int i = 0; i < edgeCount; i++) {
+            int slot = next[from[i]]++;
+            adjacent[slot] = to[i];
+            adjacentTypes[slot] = typeMasks[i];
+        }
+    }
+
+    public static int typeMask(Collection<RelationshipType> types) {
+        if (types == null || types.isEmpty()) return ALL_TYPES;
+        int mask = 0;
+        for (RelationshipType type : types) mask |= 1 << type.ordinal();
+        return mask;
+    }
+
+    Object getStamp() {
+        return stamp;
+    }
+
+    public int vertexCount() {
+        return classIds.length;
+    }
+
+    public int edgeCount() {
+        return outTargets.length;
+    }
+
+    /**
+     * Number of stored relationships of each type, counting every field.
+     */
+    public Map<RelationshipType, Integer> getRelationshipCounts() {
+        return relationshipCounts;
+    }
+
+    /**
+     * Vertex of a class, -1 when the class is not in the graph.
+     */
+    public int vertexOf(long classId) {
+        Integer vertex = vertexByClassId.get(classId);
+        return vertex != null ? vertex : -1;
+    }
+
+    public long classId(int vertex) {
+        return classIds[vertex];
+    }
+
+    public String name(int vertex) {
+        return names[vertex];
+    }
+
+    public String packageName(int vertex) {
+        return packageNames[vertex];
+    }
+
+    public String type(int vertex) {
+        return types[vertex];
+    }
+
+    public int outDegree(int vertex) {
+        return outOffsets[vertex + 1] - outOffsets[vertex];
+    }
+
+    public int inDegree(int vertex) {
+        return inOffsets[vertex + 1] - inOffsets[vertex];
+    }
+
+    /**
+     * Vertices reachable from {@code start} over edges of the given types, following them
+     * forwards for dependencies or backwards for dependents, in breadth-first order without
+     * {@code start} itself. {@code depths} receives the distance of each, and {@code maxDepth}
+     * of 0 or less means no limit.
+     */
+    public int[] reachable(int start, boolean dependents, int typeMask, int maxDepth, int[] depths) {
+        int[] offsets = dependents ? inOffsets : outOffsets;
+        int[] adjacent = dependents ? inSources : outTargets;
+        int[] adjacentTypes = dependents ? inTypes : outTypes;
+        int[] depth = new int[vertexCount()];
+        Arrays.fill(depth, -1);
+        int[] queue = new int[vertexCount()];
+        int head = 0;
+        int tail = 0;
+        depth[start] = 0;
+        queue[tail++] = start;
+        while (head < tail) {
+            int v = queue[head++];
+            if (maxDepth > 0 && depth[v] >= maxDepth) continue;
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int w = adjacent[e];
+                if ((adjacentTypes[e] & typeMask) == 0 || depth[w] >= 0) continue;
+                depth[w] = depth[v] + 1;
+                queue[tail++] = w;
+            }
+        }
+        int[] found = Arrays.copyOfRange(queue, 1, tail);
+        if (depths != null) {
+            for (int i = 0; i < found.length; i++) depths[i] = depth[found[i]];
+        }
+        return found;
+    }
+
+    /**
+     * A shortest path from {@code from} to {@code to} over edges of the given types, both ends
+     * included, or null when there is none.
+     */
+    public int[] shortestPath(int from, int to, int typeMask) {
+        int[] previous = new int[vertexCount()];
+        Arrays.fill(previous, -1);
+        int[] queue = new int[vertexCount()];
+        int head = 0;
+        int tail = 0;
+        previous[from] = from;
+        queue[tail++] = from;
+        while (head < tail && previous[to] < 0) {
+            int v = queue[head++];
+            for (int e = outOffsets[v]; e < outOffsets[v + 1]; e++) {
+                int w = outTargets[e];
+                if ((outTypes[e] & typeMask) == 0 || previous[w] >= 0) continue;
+                previous[w] = v;
+                queue[tail++] = w;
+            }
+        }
+        if (previous[to] < 0) return null;
+        int length = 1;
+        for (int v = to; v != from; v = previous[v]) length++;
+        int[] path = new int[length];
+        for (int v = to, i = length - 1; i >= 0; v = previous[v], i--) path[i] = v;
+        return path;
+    }
+
+    /**
+     * Strongly connected components of more than one class, that is the classes on dependency
+     * cycles, largest first.
+     */
+    public List<int[]> cycles(int typeMask) {
+        List<int[]> cycles = new ArrayList<>();
+        for (int[] component : stronglyConnected(outOffsets, outTargets, outTypes, typeMask)) {
+            if (component.length > 1) cycles.add(component);
+        }
+        cycles.sort(Comparator.comparingInt((int[] component) -> component.length).reversed());
+        return cycles;
+    }
+
+    /**
+     * Strongly connected components of a graph in CSR form, following only edges whose type mask
+     * shares a bit with {@code typeMask}, or every edge when {@code adjacentTypes} is null. Each
+     * component comes after all components it has an edge to, so the list is in reverse
+     * topological order of the condensed graph. Tarjan's algorithm with an explicit stack, so
+     * deep graphs cannot overflow the thread's stack.
+     */
+    static List<int[]> stronglyConnected(int[] offsets, int[] adjacent, int[] adjacentTypes, int typeMask) {
+        int n = offsets.length - 1;
+        int[] index = new int[n];
+        Arrays.fill(index, -1);
+        int[] lowLink = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int stackSize = 0;
+        // Depth-first search state: the vertex and the next of its edges to follow
+        int[] callVertex = new int[n];
+        int[] callEdge = new int[n];
+        int nextIndex = 0;
+        List<int[]> components = new ArrayList<>();
+
+        for (int root = 0; root < n; root++) {
+            if (index[root] >= 0) continue;
+            int depth = 0;
+            callVertex[0] = root;
+            callEdge[0] = offsets[root];
+            index[root] = lowLink[root] = nextIndex++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            while (depth >= 0) {
+                int v = callVertex[depth];
+                if (callEdge[depth] < offsets[v + 1]) {
+                    int e = callEdge[depth]++;
+                    int w = adjacent[e];
+                    if (adjacentTypes != null && (adjacentTypes[e] & typeMask) == 0) continue;
+                    if (index[w] < 0) {
+                        index[w] = lowLink[w] = nextIndex++;
+                        stack[stackSize++] = w;
+                        onStack[w] = true;
+                        depth++;
+                        callVertex[depth] = w;
+                        callEdge[depth] = offsets[w];
+                    } else if (onStack[w]) {
+                        lowLink[v] = Math.min(lowLink[v], index[w]);
+                    }
+                    continue;
+                }
+                if (lowLink[v] == index[v]) {
+                    int start = stackSize;
+                    do {
+                        start--;
+                        onStack[stack[start]] = false;
+                    } while (stack[start] != v);
+                    components.add(Arrays.copyOfRange(stack, start, stackSize));
+                    stackSize = start;
+                }
+                depth--;
+                if (depth >= 0) {
+                    int parent = callVertex[depth];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[v]);
+                }
+            }
+        }
+        return components;
+    }
+
+    /**
+     * The {@code limit} vertices with the most incoming, or outgoing, edges, most first, ties in
+     * vertex order. Vertices without any are left out.
+     */
+    public int[] topByDegree(boolean incoming, int limit) {
+        int[] offsets = incoming ? inOffsets : outOffsets;
+        // Bucket the vertices by degree, then read the buckets from the highest down
+        int maxDegree = 0;
+        for (int v = 0; v < vertexCount(); v++) {
+            maxDegree = Math.max(maxDegree, offsets[v + 1] - offsets[v]);
+        }
+        int[] bucketStart = new int[maxDegree + 2];
+        for (int v = 0; v < vertexCount(); v++) {
+            bucketStart[maxDegree - (offsets[v + 1] - offsets[v]) + 1]++;
+        }
+        for (int d = 0; d <= maxDegree; d++) {
+            bucketStart[d + 1] += bucketStart[d];
+        }
+        int[] ordered = new int[vertexCount()];
+        for (int v = 0; v < vertexCount(); v++) {
+            ordered[bucketStart[maxDegree - (offsets[v + 1] - offsets[v])]++] = v;
+        }
+        int size = 0;
+        while (size < Math.min(limit, ordered.length) && offsets[ordered[size] + 1] > offsets[ordered[size]]) {
+            size++;
+        }
+        return Arrays.copyOf(ordered, size);
+    }
+}
@@ -0,0 +1,165 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.dto.ClassGraphResponse;
+import com.springanalyzer.entity.Project;
+import com.springanalyzer.entity.RelationshipType;
+import com.springanalyzer.exception.BadRequestException;
+import com.springanalyzer.exception.ResourceNotFoundException;
+import com.springanalyzer.repository.AnalyzedClassRepository;
+import com.springanalyzer.repository.ClassRelationshipRepository;
+import com.springanalyzer.repository.ProjectRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Serves graph queries over a project's class relationships from a {@link ClassGraph} built on
+ * first use and kept for the most recently used projects. A graph is built again once the
+ * project's status or analysis time changes, so a new analysis run is never answered from the
+ * previous run's graph.
+ */
+@Service
+@Slf4j
+public class ClassGraphService {
+
+    private final ProjectRepository projectRepository;
+    private final AnalyzedClassRepository classRepository;
+    private final ClassRelationshipRepository relationshipRepository;
+    private final Map<Long, ClassGraph> graphs;
+
+    public ClassGraphService(ProjectRepository projectRepository,
+                             AnalyzedClassRepository classRepository,
+                             ClassRelationshipRepository relationshipRepository,
+                             @Value("${app.analysis.graph-cache.max-projects:8}") int maxProjects) {
+        this.projectRepository = projectRepository;
+        this.classRepository = classRepository;
+        this.relationshipRepository = relationshipRepository;
+        this.graphs = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ClassGraph> eldest) {
+                return size() > maxProjects;
+            }
+        });
+    }
+
+    public ClassGraph getGraph(Long projectId) {
+        Project project = projectRepository.findById(projectId)
+                .orElseThrow(() -> new ResourceNotFoundException("Project not found"));
+        List<Object> stamp = Arrays.asList(project.getStatus(), project.getAnalyzedAt());
+        ClassGraph graph = graphs.get(projectId);
+        if (graph != null && graph.getStamp().equals(stamp)) {
+            return graph;
+        }
+        long start = System.nanoTime();
+        graph = ClassGraph.build(stamp, classRepository.findByProjectId(projectId),
+                relationshipRepository.findEdgesByProjectId(projectId));
+        log.info("Built class graph of project {} with {} classes and {} edges in {} ms", projectId,
+                graph.vertexCount(), graph.edgeCount(), (System.nanoTime() - start) / 1_000_000);
+        graphs.put(projectId, graph);
+        return graph;
+    }
+
+    public ClassGraphResponse getSummary(Long projectId) {
+        ClassGraph graph = getGraph(projectId);
+        Map<String, Integer> relationshipTypes = new LinkedHashMap<>();
+        graph.getRelationshipCounts().forEach((type, count) -> relationshipTypes.put(type.name(), count));
+        return ClassGraphResponse.builder()
+                .classCount(graph.vertexCount())
+                .edgeCount(graph.edgeCount())
+                .relationshipTypes(relationshipTypes)
+                .cycleCount(graph.cycles(ClassGraph.ALL_TYPES).size())
+                .build();
+    }
+
+    /**
+     * Classes the given class depends on, directly or not, or that depend on it, nearest first.
+     */
+    public ClassGraphResponse.Traversal getReachable(Long projectId, Long classId, boolean dependents,
+                                                     List<RelationshipType> types, int maxDepth) {
+        ClassGraph graph = getGraph(projectId);
+        int start = vertex(graph, classId);
+        int[] depths = new int[graph.vertexCount()];
+        int[] found = graph.reachable(start, dependents, ClassGraph.typeMask(types), maxDepth, depths);
+        List<ClassGraphResponse.ClassNode> classes = new ArrayList<>(found.length);
+        for (int i = 0; i < found.length; i++) {
+            classes.add(node(graph, found[i], depths[i]));
+        }
+        return ClassGraphResponse.Traversal.builder()
+                .origin(node(graph, start, 0))
+                .direction(dependents ? "dependents" : "dependencies")
+                .classes(classes)
+                .build();
+    }
+
+    public ClassGraphResponse.Path getShortestPath(Long projectId, Long fromClassId, Long toClassId, List<RelationshipType> types) {
+        ClassGraph graph = getGraph(projectId);
+        int from = vertex(graph, fromClassId);
+        int to = vertex(graph, toClassId);
+        int[] path = graph.shortestPath(from, to, ClassGraph.typeMask(types));
+        List<ClassGraphResponse.ClassNode> classes = new ArrayList<>();
+        if (path != null) {
+            for (int i = 0; i < path.length; i++) classes.add(node(graph, path[i], i));
+        }
+        return ClassGraphResponse.Path.builder()
+                .from(node(graph, from, 0))
+                .to(node(graph, to, path != null ? path.length - 1 : -1))
+                .found(path != null)
+                .classes(classes)
+                .build();
+    }
+
+    public List<List<ClassGraphResponse.ClassNode>> getCycles(Long projectId, List<RelationshipType> types, int limit) {
+        ClassGraph graph = getGraph(projectId);
+        List<List<ClassGraphResponse.ClassNode>> cycles = new ArrayList<>();
+        for (int[] component : graph.cycles(ClassGraph.typeMask(types))) {
+            if (cycles.size() >= limit) break;
+            List<ClassGraphResponse.ClassNode> classes = new ArrayList<>(component.length);
+            for (int vertex : component) classes.add(node(graph, vertex, 0));
+            cycles.add(classes);
+        }
+        return cycles;
+    }
+
+    public ClassGraphResponse.Rankings getRankings(Long projectId, int limit) {
+        if (limit <= 0) {
+            throw new BadRequestException("limit must be positive");
+        }
+        ClassGraph graph = getGraph(projectId);
+        return ClassGraphResponse.Rankings.builder()
+                .fanIn(ranked(graph, graph.topByDegree(true, limit)))
+                .fanOut(ranked(graph, graph.topByDegree(false, limit)))
+                .build();
+    }
+
+    private static List<ClassGraphResponse.RankedClass> ranked(ClassGraph graph, int[] vertices) {
+        List<ClassGraphResponse.RankedClass> ranked = new ArrayList<>(vertices.length);
+        for (int vertex : vertices) {
+            ranked.add(ClassGraphResponse.RankedClass.builder()
+                    .node(node(graph, vertex, 0))
+                    .fanIn(graph.inDegree(vertex))
+                    .fanOut(graph.outDegree(vertex))
+                    .build());
+        }
+        return ranked;
+    }
+
+    private static int vertex(ClassGraph graph, Long classId) {
+        int vertex = classId != null ? graph.vertexOf(classId) : -1;
+        if (vertex < 0) {
+            throw new ResourceNotFoundException("Class not found: " + classId);
+        }
+        return vertex;
+    }
+
+    private static ClassGraphResponse.ClassNode node(ClassGraph graph, int vertex, int depth) {
+        return ClassGraphResponse.ClassNode.builder()
+                .id(graph.classId(vertex))
+                .name(graph.name(vertex))
+                .packageName(graph.packageName(vertex))
+                .type(graph.type(vertex))
+                .depth(depth)
+                .build();
+    }
+}
@@ -19,7 +19,7 @@ public class DashboardService {
     private final AnalyzedClassRepository classRepository;
     private final EndpointRepository endpointRepository;
     private final DependencyRepository dependencyRepository;
-    private final ClassRelationshipRepository relationshipRepository;
+    private final ClassGraphService classGraphService;
     private final SecurityIssueRepository securityIssueRepository;
     private final CodeMetricsRepository codeMetricsRepository;
 
@@ -54,7 +54,9 @@ public class DashboardService {
                 .avgFieldsPerClass(m.getAvgFieldsPerClass())
                 .maxMethodsInClass(m.getMaxMethodsInClass())
                 .maxFieldsInClass(m.getMaxFieldsInClass())
-                .packageStructure(m.getPackageStructure())
+                .publicClasses(m.getPublicClasses())
+                .publicMethods(m.getPublicMethods())
+                .privateFields(m.getPrivateFields())
                 .build())
             .orElse(null);
     }
@@ -104,7 +106,6 @@ public class DashboardService {
         List<AnalyzedClass> classes = classRepository.findByProjectId(projectId);
         List<Endpoint> endpoints = endpointRepository.findByProjectId(projectId);
         List<Dependency> dependencies = dependencyRepository.findByProjectId(projectId);
-        List<ClassRelationship> relationships = relationshipRepository.findByProject_Id(projectId);
         List<SecurityIssue> issues = securityIssueRepository.findByProjectId(projectId);
 
         Map<String, Integer> classTypeDistribution = classes.stream()
@@ -119,9 +120,9 @@ public class DashboardService {
             .collect(Collectors.groupingBy(d -> d.getScope() != null ? d.getScope() : "compile", 
                 Collectors.collectingAndThen(Collectors.counting(), Long::intValue)));
 
-        Map<String, Integer> relationshipTypes = relationships.stream()
-            .collect(Collectors.groupingBy(r -> r.getType().name(), 
-                Collectors.collectingAndThen(Collectors.counting(), Long::intValue)));
+        Map<String, Integer> relationshipTypes = new HashMap<>();
+        classGraphService.getGraph(projectId).getRelationshipCounts()
+            .forEach((type, count) -> relationshipTypes.put(type.name(), count));
 
         Map<String, Integer> securityBySeverity = issues.stream()
             .collect(Collectors.groupingBy(i -> i.getSeverity().name(), 
@@ -0,0 +1,104 @@
+package com.springanalyzer.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Serves project files from a directory on disk, used when the archive has been extracted.
+ * Files are read into arrays of their exact size, or memory-mapped when asked to and large
+ * enough for mapping to pay off.
+ */
+@Slf4j
+public class DirectorySourceProvider implements SourceProvider {
+
+    // Below this size mapping a file costs more than reading it
+    static final int MIN_MAPPED_BYTES = 64 * 1024;
+
+    private final Path root;
+    private final Runnable onClose;
+    private List<Entry> files;
+
+    public DirectorySourceProvider(Path root, Runnable onClose) {
+        this.root = root;
+        this.onClose = onClose;
+    }
+
+    @Override
+    public List<Entry> listFiles() {
+        if (files == null) {
+            List<Entry> found = new ArrayList<>();
+            try {
+                Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        if (attrs.isRegularFile()) {
+                            found.add(new Entry(toRelative(file), attrs.size()));
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                log.error("Error scanning project directory {}", root, e);
+            }
+            files = Collections.unmodifiableList(found);
+        }
+        return files;
+    }
+
+    @Override
+    public boolean exists(String path) {
+        return Files.isRegularFile(root.resolve(path));
+    }
+
+    @Override
+    public String readString(String path) throws IOException {
+        return Files.readString(root.resolve(path));
+    }
+
+    @Override
+    public byte[] readBytes(String path, int limit) throws IOException {
+        try (FileChannel channel = FileChannel.open(root.resolve(path), StandardOpenOption.READ)) {
+            return read(channel, (int) Math.min(channel.size(), limit));
+        }
+    }
+
+    @Override
+    public SourceBytes readSource(String path, int limit, boolean mapped) throws IOException {
+        try (FileChannel channel = FileChannel.open(root.resolve(path), StandardOpenOption.READ)) {
+            int size = (int) Math.min(channel.size(), limit);
+            if (mapped && size >= MIN_MAPPED_BYTES) {
+                // The mapping stays valid after the channel is closed, until the buffer is collected
+                return SourceBytes.mapped(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            }
+            return SourceBytes.of(read(channel, size));
+        }
+    }
+
+    private static byte[] read(FileChannel channel, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // Read until full or end of file
+        }
+        return buffer.hasRemaining() ? Arrays.copyOf(buffer.array(), buffer.position()) : buffer.array();
+    }
+
+    @Override
+    public void close() {
+        if (onClose != null) {
+            onClose.run();
+        }
+    }
+
+    private String toRelative(Path file) {
+        return root.relativize(file).toString().replace("\\", "/");
+    }
+}
@@ -0,0 +1,179 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.entity.Project;
+import com.springanalyzer.entity.ProjectFile;
+import com.springanalyzer.exception.SpringAnalyzerException;
+import com.springanalyzer.repository.ProjectFileRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Records which files an analysis saw and what they contained, so the next analysis of the
+ * same project only has to redo the work for files that were added, modified or deleted.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FileManifestService {
+
+    private final ProjectFileRepository projectFileRepository;
+    private final ParallelParseService parallelParseService;
+
+    /**
+     * Files whose content feeds the per-file analysis stages, plus the build files that decide
+     * module membership.
+     */
+    public static boolean isTracked(String path) {
+        return path.endsWith(".java") || path.endsWith(".properties") || path.endsWith(".yml") || isBuildFile(path);
+    }
+
+    private static boolean isBuildFile(String path) {
+        return path.equals("pom.xml") || path.endsWith("/pom.xml");
+    }
+
+    /**
+     * Content hashes of the given files, computed on the parser pool. Unreadable files are left out.
+     */
+    public Map<String, String> fingerprint(SourceCorpus corpus, List<SourceCorpus.FileInfo> files) {
+        List<String> hashes = parallelParseService.map(files, file -> {
+            try {
+                return sha256(corpus.source(file.getPath()));
+            } catch (IOException e) {
+                log.warn("Failed to read file for hashing: {}", file.getPath(), e);
+                return null;
+            }
+        }, "Hashed");
+
+        Map<String, String> result = new LinkedHashMap<>();
+        for (int i = 0; i < files.size(); i++) {
+            if (hashes.get(i) != null) {
+                result.put(files.get(i).getPath(), hashes.get(i));
+            }
+        }
+        return result;
+    }
+
+    public Map<String, ProjectFile> load(Long projectId) {
+        Map<String, ProjectFile> manifest = new HashMap<>();
+        for (ProjectFile file : projectFileRepository.findByProjectId(projectId)) {
+            manifest.put(file.getPath(), file);
+        }
+        return manifest;
+    }
+
+    public ChangeSet diff(Map<String, ProjectFile> previous, Map<String, String> current) {
+        ChangeSet changes = new ChangeSet();
+        current.forEach((path, hash) -> {
+            ProjectFile before = previous.get(path);
+            if (before == null) {
+                changes.added.add(path);
+            } else if (!before.getContentHash().equals(hash)) {
+                changes.modified.add(path);
+            }
+        });
+        for (String path : previous.keySet()) {
+            if (!current.containsKey(path)) {
+                changes.deleted.add(path);
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Writes the manifest entries of all files in {@code paths}, replacing what was recorded for them before.
+     */
+    public void record(Project project, Collection<String> paths, Map<String, String> hashes,
+                       Map<String, SourceCorpus.FileInfo> files, Map<String, JavaParserService.ParsedClass> parsedByPath) {
+        List<ProjectFile> entries = new ArrayList<>();
+        for (String path : paths) {
+            String hash = hashes.get(path);
+            if (hash == null) continue;
+
+            JavaParserService.ParsedClass parsed = parsedByPath.get(path);
+            entries.add(ProjectFile.builder()
+                    .project(project)
+                    .path(path)
+                    .size(files.get(path).getSize())
+                    .contentHash(hash)
+                    .className(parsed != null ? parsed.getName() : null)
+                    .referencedTypes(parsed != null ? String.join(",", referencedTypes(parsed)) : null)
+                    .build());
+        }
+        projectFileRepository.saveAll(entries);
+    }
+
+    public void remove(Long projectId, Collection<String> paths) {
+        if (!paths.isEmpty()) {
+            projectFileRepository.deleteByProjectIdAndPathIn(projectId, paths);
+        }
+    }
+
+    public static Set<String> referencedTypes(JavaParserService.ParsedClass parsed) {
+        Set<String> types = new TreeSet<>();
+        for (JavaParserService.TypeReference reference : parsed.getReferences()) {
+            types.add(reference.getSimpleName());
+        }
+        return types;
+    }
+
+    public static String sha256(String content) {
+        MessageDigest digest = sha256Digest();
+        return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Hash of a file's bytes, computed without decoding it.
+     */
+    public static String sha256(SourceFile file) {
+        MessageDigest digest = sha256Digest();
+        file.digest(digest);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new SpringAnalyzerException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Paths that differ between the recorded manifest and the current sources.
+     */
+    @Getter
+    public static class ChangeSet {
+        private final Set<String> added = new TreeSet<>();
+        private final Set<String> modified = new TreeSet<>();
+        private final Set<String> deleted = new TreeSet<>();
+
+        public boolean isChanged(String path) {
+            return added.contains(path) || modified.contains(path);
+        }
+
+        /**
+         * Paths whose previous results are no longer valid.
+         */
+        public Set<String> stale() {
+            Set<String> stale = new TreeSet<>(modified);
+            stale.addAll(deleted);
+            return stale;
+        }
+
+        /**
+         * A changed build file can move files between modules, which the per-file results depend on.
+         */
+        public boolean affectsModules() {
+            return added.stream().anyMatch(FileManifestService::isBuildFile)
+                    || stale().stream().anyMatch(FileManifestService::isBuildFile);
+        }
+    }
+}
@@ -1,47 +1,231 @@
 package com.springanalyzer.service;
 
+import com.springanalyzer.entity.StoredBlob;
+import com.springanalyzer.repository.StoredBlobRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 import com.springanalyzer.exception.BadRequestException;
 import com.springanalyzer.exception.SpringAnalyzerException;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.nio.file.FileSystemException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.HexFormat;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+/**
+ * Content-addressed store for uploaded archives. Each distinct archive is kept once under
+ * {@code blobs/<2 hex chars>/<sha-256>.zip} and reference-counted across the projects pointing
+ * at it; the file is removed when the last of them lets go. Storage paths written before the
+ * store was content-addressed are plain file names and are deleted directly.
+ * <p>
+ * Reference counts commit on their own, but follow the transaction of the caller, if any: a
+ * reference taken is dropped again when that transaction rolls back, and a reference released
+ * is only dropped once it commits, so a project row never points at a blob it gave up.
+ */
 @Service
+@Slf4j
 public class FileStorageService {
 
+    private static final String BLOB_DIR = "blobs";
+    private static final String STAGING_DIR = "staging";
+    private static final String PARTS_DIR = "parts";
+    public static final long MAX_ARCHIVE_SIZE = 500L * 1024 * 1024;
+
     private final Path uploadDir;
+    private final StoredBlobRepository blobRepository;
+    private final TransactionTemplate blobTransaction;
 
-    public FileStorageService(@Value("${app.upload.dir:uploads}") String uploadDir) {
+    public FileStorageService(@Value("${app.upload.dir:uploads}") String uploadDir,
+                              StoredBlobRepository blobRepository,
+                              PlatformTransactionManager transactionManager) {
         this.uploadDir = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.blobRepository = blobRepository;
+        // Reference counts commit on their own so concurrent uploads of the same content see each other,
+        // and so they can still be updated after the caller's transaction completed
+        this.blobTransaction = new TransactionTemplate(transactionManager);
+        this.blobTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
         createDirectory(this.uploadDir);
+        createDirectory(this.uploadDir.resolve(BLOB_DIR));
+        createDirectory(this.uploadDir.resolve(PARTS_DIR));
+        clearStaging();
     }
 
-    public String store(MultipartFile file) {
+    /**
+     * Stores the upload and computes the SHA-256 of its content while it is being copied, so the
+     * archive is read only once. An archive that is already stored is not written a second time;
+     * the returned storage path then points at the existing blob.
+     */
+    public StoredFile store(MultipartFile file) {
         validateFile(file);
-        
-        String filename = UUID.randomUUID() + "_" + sanitizeFilename(file.getOriginalFilename());
-        Path targetPath = uploadDir.resolve(filename);
-        
-        try {
-            Files.copy(file.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
-            return filename;
+
+        Path staged = uploadDir.resolve(STAGING_DIR).resolve(UUID.randomUUID() + ".zip");
+        createDirectory(staged.getParent());
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            long size = Files.copy(in, staged, StandardCopyOption.REPLACE_EXISTING);
+            return commit(staged, HexFormat.of().formatHex(digest.digest()), size);
         } catch (IOException e) {
             throw new SpringAnalyzerException("Failed to store file: " + e.getMessage());
+        } finally {
+            deleteQuietly(staged);
+        }
+    }
+
+    /**
+     * Moves a fully written file into the blob store, or leaves it in place when a blob with the
+     * same content exists, and takes a reference on the blob. The reference is dropped again if
+     * the caller's transaction rolls back.
+     */
+    public synchronized StoredFile commit(Path staged, String contentHash, long size) throws IOException {
+        String storagePath = blobPath(contentHash);
+        Path target = getFilePath(storagePath);
+        boolean existing = blobTransaction.execute(status -> {
+            StoredBlob blob = blobRepository.findByContentHash(contentHash).orElse(null);
+            if (blob != null) {
+                blob.setRefCount(blob.getRefCount() + 1);
+                blobRepository.save(blob);
+                return true;
+            }
+            blobRepository.save(StoredBlob.builder().contentHash(contentHash).size(size).refCount(1).build());
+            return false;
+        });
+
+        if (existing && Files.exists(target)) {
+            log.info("Archive {} is already stored, reusing it", contentHash);
+        } else {
+            try {
+                createDirectory(target.getParent());
+                Files.move(staged, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException | RuntimeException e) {
+                releaseNow(storagePath);
+                throw e;
+            }
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        releaseNow(storagePath);
+                    }
+                }
+            });
+        }
+        return new StoredFile(storagePath, contentHash, size, existing);
+    }
+
+    /**
+     * Like {@link #commit}, but leaves {@code file} where it is: the blob store receives a hard
+     * link to it, or a copy where the file system cannot link files, so the caller can keep the
+     * file until it knows the stored archive is in use. Should the caller's transaction roll back
+     * while another project keeps the blob, the file gets its own copy again, so writing to it
+     * cannot change the stored archive.
+     */
+    public StoredFile commitLink(Path file, String contentHash, long size) throws IOException {
+        Path staged = uploadDir.resolve(STAGING_DIR).resolve(UUID.randomUUID() + ".zip");
+        createDirectory(staged.getParent());
+        StoredFile stored;
+        try {
+            try {
+                Files.createLink(staged, file);
+            } catch (UnsupportedOperationException | FileSystemException e) {
+                Files.copy(file, staged);
+            }
+            stored = commit(staged, contentHash, size);
+        } finally {
+            deleteQuietly(staged);
         }
+        if (!stored.isDeduplicated() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            Path target = getFilePath(stored.getFilename());
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        unlink(file, target);
+                    }
+                }
+            });
+        }
+        return stored;
+    }
+
+    /**
+     * File that receives the parts of a chunked upload. It lives outside the staging area so
+     * unfinished uploads survive a restart.
+     */
+    public Path getPartsFile(String uploadId) {
+        return uploadDir.resolve(PARTS_DIR).resolve(uploadId + ".zip");
     }
 
     public Path getFilePath(String filename) {
         return uploadDir.resolve(filename).normalize();
     }
 
-    public void delete(String filename) {
+    /**
+     * Drops one reference to the stored archive and deletes it when no project uses it anymore.
+     * Within a transaction this happens once the transaction commits, and not at all if it rolls
+     * back.
+     */
+    public void release(String storagePath) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    releaseNow(storagePath);
+                }
+            });
+        } else {
+            releaseNow(storagePath);
+        }
+    }
+
+    private synchronized void releaseNow(String storagePath) {
+        String contentHash = contentHashOf(storagePath);
+        if (contentHash == null) {
+            delete(storagePath);
+            return;
+        }
+
+        boolean unused = blobTransaction.execute(status -> {
+            StoredBlob blob = blobRepository.findByContentHash(contentHash).orElse(null);
+            if (blob == null) return true;
+            if (blob.getRefCount() > 1) {
+                blob.setRefCount(blob.getRefCount() - 1);
+                blobRepository.save(blob);
+                return false;
+            }
+            blobRepository.delete(blob);
+            return true;
+        });
+        if (unused) {
+            delete(storagePath);
+            log.info("Deleted archive {} after its last project was removed", contentHash);
+        }
+    }
+
+    public boolean exists(String filename) {
+        return Files.exists(getFilePath(filename));
+    }
+
+    private void delete(String filename) {
         try {
             Path filePath = getFilePath(filename);
             Files.deleteIfExists(filePath);
@@ -50,28 +234,87 @@ public class FileStorageService {
         }
     }
 
-    public boolean exists(String filename) {
-        return Files.exists(getFilePath(filename));
+    private static String blobPath(String contentHash) {
+        return BLOB_DIR + "/" + contentHash.substring(0, 2) + "/" + contentHash + ".zip";
+    }
+
+    private static String contentHashOf(String storagePath) {
+        if (!storagePath.startsWith(BLOB_DIR + "/")) return null;
+        String name = storagePath.substring(storagePath.lastIndexOf('/') + 1);
+        return name.endsWith(".zip") ? name.substring(0, name.length() - 4) : null;
     }
 
     private void validateFile(MultipartFile file) {
         if (file.isEmpty()) {
             throw new BadRequestException("File is empty");
         }
-        
-        String filename = file.getOriginalFilename();
+        validateArchive(file.getOriginalFilename(), file.getSize());
+    }
+
+    public void validateArchive(String filename, long size) {
+        if (size <= 0) {
+            throw new BadRequestException("File is empty");
+        }
+
         if (filename == null || !filename.toLowerCase().endsWith(".zip")) {
             throw new BadRequestException("Only ZIP files are allowed");
         }
-        
-        long maxSize = 500 * 1024 * 1024; // 500MB
-        if (file.getSize() > maxSize) {
+
+        if (size > MAX_ARCHIVE_SIZE) {
             throw new BadRequestException("File size exceeds 500MB limit");
         }
     }
 
-    private String sanitizeFilename(String filename) {
-        return filename.replaceAll("[^a-zA-Z0-9._-]", "_");
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new SpringAnalyzerException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Removes files left in the staging area by uploads interrupted by a shutdown.
+     */
+    private void clearStaging() {
+        Path staging = uploadDir.resolve(STAGING_DIR);
+        if (!Files.isDirectory(staging)) return;
+        try (Stream<Path> files = Files.list(staging)) {
+            files.forEach(FileStorageService::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("Failed to clear upload staging directory {}", staging, e);
+        }
+    }
+
+    private synchronized void unlink(Path file, Path target) {
+        try {
+            if (!Files.exists(target) || !Files.isSameFile(file, target)) return;
+            Path copy = file.resolveSibling(file.getFileName() + ".copy");
+            Files.copy(file, copy, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(copy, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to separate {} from stored archive {}", file, target, e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete {}", path, e);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class StoredFile {
+        // Storage path relative to the upload directory
+        private final String filename;
+        // SHA-256 of the archive, hex encoded
+        private final String contentHash;
+        private final long size;
+        // Whether the same archive was already stored
+        private final boolean deduplicated;
     }
 
     private void createDirectory(Path path) {
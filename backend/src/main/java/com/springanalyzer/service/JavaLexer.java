@@ -0,0 +1,227 @@
+package com.springanalyzer.service;
+
+/**
+ * Tokenizer over Java source text for {@link JavaSourceIndexer}. Comments and whitespace are
+ * skipped, string, text block and character literals come back as single tokens, so nothing
+ * inside them is ever mistaken for code. Tokens are not materialized: the lexer exposes the kind
+ * and bounds of the current token only, and text is copied out only for the names the caller
+ * keeps.
+ */
+final class JavaLexer {
+
+    enum Token {
+        IDENTIFIER,
+        STRING,
+        CHARACTER,
+        NUMBER,
+        SYMBOL,
+        EOF
+    }
+
+    private final String source;
+    private final int limit;
+    private int position;
+    private Token token;
+    private int start;
+    private int end;
+    private int previousEnd;
+
+    JavaLexer(String source) {
+        this(source, 0, source.length());
+    }
+
+    JavaLexer(String source, int from, int to) {
+        this.source = source;
+        this.limit = to;
+        this.position = from;
+    }
+
+    Token token() {
+        return token;
+    }
+
+    int start() {
+        return start;
+    }
+
+    int end() {
+        return end;
+    }
+
+    boolean isSymbol(char symbol) {
+        return token == Token.SYMBOL && source.charAt(start) == symbol;
+    }
+
+    boolean isIdentifier(String identifier) {
+        return token == Token.IDENTIFIER && end - start == identifier.length()
+                && source.startsWith(identifier, start);
+    }
+
+    /**
+     * End of the token before the current one, which is where a construct read up to the
+     * current token ends.
+     */
+    int previousEnd() {
+        return previousEnd;
+    }
+
+    String text() {
+        return source.substring(start, end);
+    }
+
+    /**
+     * Content of the current string or text block literal, with the common escapes resolved.
+     */
+    String stringValue() {
+        boolean textBlock = end - start >= 6 && source.startsWith("\"\"\"", start);
+        int from = start + (textBlock ? 3 : 1);
+        int to = Math.max(from, end - (textBlock ? 3 : 1));
+        StringBuilder value = new StringBuilder(to - from);
+        for (int i = from; i < to; i++) {
+            char c = source.charAt(i);
+            if (c == '\\' && i + 1 < to) {
+                char escaped = source.charAt(++i);
+                value.append(switch (escaped) {
+                    case 'n' -> '\n';
+                    case 't' -> '\t';
+                    case 'r' -> '\r';
+                    default -> escaped;
+                });
+            } else {
+                value.append(c);
+            }
+        }
+        return value.toString();
+    }
+
+    /**
+     * Continues lexing at {@code offset}, which must be the start of a token seen before.
+     */
+    Token reset(int offset) {
+        position = offset;
+        next();
+        int before = offset;
+        while (before > 0 && Character.isWhitespace(source.charAt(before - 1))) before--;
+        previousEnd = before;
+        return token;
+    }
+
+    Token next() {
+        previousEnd = end;
+        skipWhitespaceAndComments();
+        start = position;
+        if (position >= limit) {
+            end = limit;
+            return token = Token.EOF;
+        }
+        char c = source.charAt(position);
+        if (isIdentifierStart(c)) {
+            position++;
+            while (position < limit && isIdentifierPart(source.charAt(position))) position++;
+            token = Token.IDENTIFIER;
+        } else if (isDigit(c) || (c == '.' && position + 1 < limit && isDigit(source.charAt(position + 1)))) {
+            skipNumber();
+            token = Token.NUMBER;
+        } else if (c == '"') {
+            skipString();
+            token = Token.STRING;
+        } else if (c == '\'') {
+            skipQuoted('\'');
+            token = Token.CHARACTER;
+        } else {
+            position++;
+            token = Token.SYMBOL;
+        }
+        end = position;
+        return token;
+    }
+
+    private void skipWhitespaceAndComments() {
+        while (position < limit) {
+            char c = source.charAt(position);
+            if (c == ' ' || c == '\n' || c == '\t' || c == '\r' || c == '\f') {
+                position++;
+            } else if (c == '/' && position + 1 < limit && source.charAt(position + 1) == '/') {
+                int newline = source.indexOf('\n', position + 2);
+                position = newline < 0 || newline > limit ? limit : newline + 1;
+            } else if (c == '/' && position + 1 < limit && source.charAt(position + 1) == '*') {
+                int close = source.indexOf("*/", position + 2);
+                position = close < 0 || close + 2 > limit ? limit : close + 2;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void skipNumber() {
+        position++;
+        while (position < limit) {
+            char c = source.charAt(position);
+            if (isIdentifierPart(c) || c == '.') {
+                position++;
+            } else if ((c == '+' || c == '-') && "eEpP".indexOf(source.charAt(position - 1)) >= 0) {
+                position++;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void skipString() {
+        if (position + 2 < limit && source.charAt(position + 1) == '"' && source.charAt(position + 2) == '"') {
+            // Text block, up to the next unescaped triple quote
+            position += 3;
+            while (position < limit) {
+                char c = source.charAt(position);
+                if (c == '\\') {
+                    position += 2;
+                } else if (c == '"' && position + 2 < limit && source.charAt(position + 1) == '"' && source.charAt(position + 2) == '"') {
+                    position += 3;
+                    return;
+                } else {
+                    position++;
+                }
+            }
+            position = limit;
+            return;
+        }
+        skipQuoted('"');
+    }
+
+    // An unterminated literal ends at the end of its line, so one stray quote cannot swallow the file
+    private void skipQuoted(char quote) {
+        position++;
+        while (position < limit) {
+            char c = source.charAt(position);
+            if (c == '\\') {
+                position += 2;
+            } else if (c == quote) {
+                position++;
+                return;
+            } else if (c == '\n') {
+                return;
+            } else {
+                position++;
+            }
+        }
+        position = limit;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isIdentifierStart(char c) {
+        if (c < 128) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == '$';
+        }
+        return Character.isJavaIdentifierStart(c);
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        if (c < 128) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '$';
+        }
+        return Character.isJavaIdentifierPart(c);
+    }
+}
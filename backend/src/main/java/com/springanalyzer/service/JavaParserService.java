@@ -1,106 +1,116 @@
 package com.springanalyzer.service;
 
 import com.springanalyzer.entity.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
+/**
+ * Turns a Java source file into a {@link ParsedClass}. The file is read once by
+ * {@link JavaSourceIndexer}, and everything here is derived from the declarations it finds, so
+ * text in comments and string literals never counts as code.
+ */
 @Service
 @Slf4j
 public class JavaParserService {
 
-    private static final Pattern PACKAGE_PATTERN = Pattern.compile("package\\s+([\\w.]+)\\s*;");
-    private static final Pattern CLASS_PATTERN = Pattern.compile("(public\\s+)?(abstract\\s+)?(class|interface|enum)\\s+(\\w+)");
-    private static final Pattern EXTENDS_PATTERN = Pattern.compile("extends\\s+(\\w+)");
-    private static final Pattern IMPLEMENTS_PATTERN = Pattern.compile("implements\\s+([\\w,\\s]+)");
-    private static final Pattern ANNOTATION_PATTERN = Pattern.compile("@(\\w+)(?:\\([^)]*\\))?");
-    private static final Pattern FIELD_PATTERN = Pattern.compile("(private|protected|public)\\s+(?!class|interface|enum)\\w+(?:<[^>]+>)?\\s+\\w+\\s*[;=]");
-    private static final Pattern METHOD_PATTERN = Pattern.compile("(public|private|protected)\\s+(?!class)\\w+(?:<[^>]+>)?\\s+\\w+\\s*\\([^)]*\\)\\s*\\{?");
-    
-    private static final Pattern REQUEST_MAPPING_PATTERN = Pattern.compile("@(Get|Post|Put|Delete|Patch|Request)Mapping\\s*(?:\\(\\s*(?:value\\s*=\\s*)?\"([^\"]*)\"|\\(\\s*(?:value\\s*=\\s*)?'([^']*)'|\\(\\s*\"([^\"]*)\"|\\))?");
-    private static final Pattern SIMPLE_MAPPING_PATTERN = Pattern.compile("@(Get|Post|Put|Delete|Patch)Mapping(?:\\s*\\(\\s*[\"']([^\"']*)[\"']\\s*\\))?");
-    private static final Pattern METHOD_SIGNATURE_PATTERN = Pattern.compile("(public|private|protected)\\s+(\\w+(?:<[^>]+>)?)\\s+(\\w+)\\s*\\(([^)]*)\\)");
-
-    public ParsedClass parseJavaFile(Path file) {
+    /**
+     * Version of the results this parser produces; bump it whenever a {@link ParsedClass} for the
+     * same source changes, as it keys the entries of {@link ParseCacheService}.
+     */
+    public static final String PARSER_VERSION = "3";
+
+    private static final int MAX_ENDPOINT_PATH_LENGTH = 200;
+    private static final TrackedPattern REPEATED_SLASHES_PATTERN = PatternRegistry.compile("parser.repeated-slashes", "/+");
+    private static final TrackedPattern EDGE_SLASHES_PATTERN = PatternRegistry.compile("parser.edge-slashes", "^/|/$");
+
+    /**
+     * Parses a single file of the corpus. Safe to call from several threads at once. Returns
+     * {@code null}, and records the file in the run's budget, when the file is not reached within
+     * the time budget.
+     */
+    public ParsedClass parseJavaFile(SourceCorpus corpus, SourceCorpus.FileInfo file) {
+        ResourceBudget budget = corpus.getBudget();
+        if (budget.skipIfExpired(file.getPath(), file.getSize())) {
+            return null;
+        }
         try {
-            String content = Files.readString(file);
-            return parseContent(content, file.toString());
+            String content = corpus.read(file.getPath());
+            return parseContent(content, file.getPath(), file.getModuleName());
         } catch (IOException e) {
-            log.error("Failed to parse file: {}", file, e);
+            log.error("Failed to parse file: {}", file.getPath(), e);
             return null;
         }
     }
 
-    private ParsedClass parseContent(String content, String filePath) {
-        ParsedClass parsed = new ParsedClass();
-        parsed.setFullPath(filePath);
+    ParsedClass parseContent(String content, String filePath, String moduleName) {
+        JavaSourceIndex index = JavaSourceIndexer.index(content);
+        ParsedClass.ParsedClassBuilder parsed = ParsedClass.builder()
+                .fullPath(filePath)
+                .moduleName(moduleName)
+                .packageName(index.getPackageName());
 
-        Matcher packageMatcher = PACKAGE_PATTERN.matcher(content);
-        if (packageMatcher.find()) {
-            parsed.setPackageName(packageMatcher.group(1));
-        }
-
-        Matcher classMatcher = CLASS_PATTERN.matcher(content);
-        if (classMatcher.find()) {
-            parsed.setName(classMatcher.group(4));
-            String classType = classMatcher.group(3);
-            if ("interface".equals(classType)) {
-                parsed.setClassType(ClassType.INTERFACE);
-            } else if ("enum".equals(classType)) {
-                parsed.setClassType(ClassType.ENUM);
-            }
+        List<String> annotations = new ArrayList<>(index.getAnnotations().size());
+        for (JavaSourceIndex.AnnotationUse annotation : index.getAnnotations()) {
+            annotations.add(annotation.getSimpleName());
         }
+        parsed.annotations(List.copyOf(annotations));
 
-        List<String> annotations = new ArrayList<>();
-        Matcher annotationMatcher = ANNOTATION_PATTERN.matcher(content);
-        while (annotationMatcher.find()) {
-            annotations.add(annotationMatcher.group(1));
+        List<String> imports = new ArrayList<>(index.getImports().size());
+        for (JavaSourceIndex.ImportDeclaration declaration : index.getImports()) {
+            if (declaration.isStaticImport()) continue;
+            imports.add(declaration.isOnDemand() ? declaration.getName() + ".*" : declaration.getName());
         }
-        parsed.setAnnotations(annotations);
+        parsed.imports(List.copyOf(imports));
 
-        if (parsed.getClassType() == null) {
-            parsed.setClassType(determineClassType(annotations));
+        JavaSourceIndex.TypeDeclaration type = index.primaryType(filePath);
+        if (type == null) {
+            return parsed.build();
         }
 
-        Matcher extendsMatcher = EXTENDS_PATTERN.matcher(content);
-        if (extendsMatcher.find()) {
-            parsed.setExtendsClass(extendsMatcher.group(1));
-        }
+        ClassType classType = switch (type.getKind()) {
+            case INTERFACE, ANNOTATION -> ClassType.INTERFACE;
+            case ENUM -> ClassType.ENUM;
+            default -> determineClassType(type.getAnnotations());
+        };
+        parsed.name(type.getName()).classType(classType);
 
-        Matcher implementsMatcher = IMPLEMENTS_PATTERN.matcher(content);
-        if (implementsMatcher.find()) {
-            String[] interfaces = implementsMatcher.group(1).split(",");
-            parsed.setImplementsInterfaces(Arrays.stream(interfaces)
-                    .map(String::trim)
-                    .toList());
+        if (!type.getExtendsTypes().isEmpty()) {
+            parsed.extendsClass(type.getExtendsTypes().get(0).getSimpleName());
         }
+        parsed.implementsInterfaces(type.getImplementsTypes().stream()
+                .map(JavaSourceIndex.TypeName::getSimpleName)
+                .toList());
 
-        Matcher fieldMatcher = FIELD_PATTERN.matcher(content);
         int fieldCount = 0;
-        while (fieldMatcher.find()) fieldCount++;
-        parsed.setFieldCount(fieldCount);
-
-        Matcher methodMatcher = METHOD_PATTERN.matcher(content);
         int methodCount = 0;
-        while (methodMatcher.find()) methodCount++;
-        parsed.setMethodCount(methodCount);
+        for (JavaSourceIndex.TypeDeclaration declared : index.getTypes()) {
+            for (JavaSourceIndex.FieldDeclaration field : declared.getFields()) {
+                fieldCount += field.getNames().size();
+            }
+            for (JavaSourceIndex.MethodDeclaration method : declared.getMethods()) {
+                if (!method.isConstructor()) methodCount++;
+            }
+        }
+        parsed.fieldCount(fieldCount).methodCount(methodCount);
 
-        if (parsed.getClassType() == ClassType.REST_CONTROLLER || parsed.getClassType() == ClassType.CONTROLLER) {
-            parsed.setEndpoints(parseEndpoints(content));
+        if (classType == ClassType.REST_CONTROLLER || classType == ClassType.CONTROLLER) {
+            parsed.endpoints(parseEndpoints(index, type));
         }
 
-        return parsed;
+        parsed.references(extractReferences(index, type, classType));
+
+        return parsed.build();
     }
 
-    private ClassType determineClassType(List<String> annotations) {
-        for (String annotation : annotations) {
-            switch (annotation) {
+    private ClassType determineClassType(List<JavaSourceIndex.AnnotationUse> annotations) {
+        for (JavaSourceIndex.AnnotationUse annotation : annotations) {
+            switch (annotation.getSimpleName()) {
                 case "RestController": return ClassType.REST_CONTROLLER;
                 case "Controller": return ClassType.CONTROLLER;
                 case "Service": return ClassType.SERVICE;
@@ -113,111 +123,200 @@ public class JavaParserService {
         return ClassType.OTHER;
     }
 
-    private List<ParsedEndpoint> parseEndpoints(String content) {
+    /**
+     * Endpoints of the controller's methods. The base path comes from a {@code @RequestMapping}
+     * on the controller itself; a method annotated with {@code @RequestMapping} is mapped for the
+     * HTTP methods it names, or GET when it names none.
+     */
+    private List<ParsedEndpoint> parseEndpoints(JavaSourceIndex index, JavaSourceIndex.TypeDeclaration controller) {
         List<ParsedEndpoint> endpoints = new ArrayList<>();
-        
-        String classPath = "";
-        Pattern classMapping = Pattern.compile("@RequestMapping\\s*\\([^)]*[\"']([^\"']+)[\"'][^)]*\\)");
-        Matcher classPathMatcher = classMapping.matcher(content);
-        if (classPathMatcher.find()) {
-            classPath = classPathMatcher.group(1);
-        }
-
-        String[] lines = content.split("\n");
-        for (int i = 0; i < lines.length; i++) {
-            String line = lines[i].trim();
-            Matcher mappingMatcher = SIMPLE_MAPPING_PATTERN.matcher(line);
-            
-            if (mappingMatcher.find()) {
-                String mappingType = mappingMatcher.group(1);
-                String path = mappingMatcher.group(2);
-                if (path == null || path.isEmpty()) path = "";
-                
-                if (path.length() > 200) continue;
-                
-                HttpMethod httpMethod = switch (mappingType) {
-                    case "Get" -> HttpMethod.GET;
-                    case "Post" -> HttpMethod.POST;
-                    case "Put" -> HttpMethod.PUT;
-                    case "Delete" -> HttpMethod.DELETE;
-                    case "Patch" -> HttpMethod.PATCH;
-                    default -> HttpMethod.GET;
-                };
-
-                for (int j = i + 1; j < Math.min(i + 5, lines.length); j++) {
-                    Matcher methodSig = METHOD_SIGNATURE_PATTERN.matcher(lines[j]);
-                    if (methodSig.find()) {
-                        ParsedEndpoint endpoint = new ParsedEndpoint();
-                        endpoint.setHttpMethod(httpMethod);
-                        endpoint.setPath(normalizePath(classPath, path));
-                        endpoint.setMethodName(methodSig.group(3));
-                        endpoint.setReturnType(methodSig.group(2));
-                        endpoint.setParameters(methodSig.group(4));
-                        endpoints.add(endpoint);
-                        break;
+
+        List<String> classPaths = List.of("");
+        JavaSourceIndex.AnnotationUse classMapping = JavaSourceIndex.findAnnotation(controller.getAnnotations(), "RequestMapping");
+        if (classMapping != null) {
+            List<String> paths = mappingPaths(index, classMapping);
+            if (!paths.isEmpty()) classPaths = paths;
+        }
+
+        for (JavaSourceIndex.MethodDeclaration method : controller.getMethods()) {
+            if (method.isConstructor()) continue;
+            for (JavaSourceIndex.AnnotationUse annotation : method.getAnnotations()) {
+                List<HttpMethod> httpMethods = httpMethods(index, annotation);
+                if (httpMethods.isEmpty()) continue;
+
+                List<String> methodPaths = mappingPaths(index, annotation);
+                for (String classPath : classPaths) {
+                    for (String methodPath : methodPaths.isEmpty() ? List.of("") : methodPaths) {
+                        if (methodPath.length() > MAX_ENDPOINT_PATH_LENGTH) continue;
+                        for (HttpMethod httpMethod : httpMethods) {
+                            endpoints.add(new ParsedEndpoint(
+                                    httpMethod,
+                                    normalizePath(classPath, methodPath),
+                                    method.getName(),
+                                    method.getReturnType().getText(),
+                                    method.getParameters()));
+                        }
                     }
                 }
             }
         }
-        
-        return endpoints;
+
+        return List.copyOf(endpoints);
+    }
+
+    private static List<HttpMethod> httpMethods(JavaSourceIndex index, JavaSourceIndex.AnnotationUse annotation) {
+        return switch (annotation.getSimpleName()) {
+            case "GetMapping" -> List.of(HttpMethod.GET);
+            case "PostMapping" -> List.of(HttpMethod.POST);
+            case "PutMapping" -> List.of(HttpMethod.PUT);
+            case "DeleteMapping" -> List.of(HttpMethod.DELETE);
+            case "PatchMapping" -> List.of(HttpMethod.PATCH);
+            case "RequestMapping" -> {
+                List<HttpMethod> methods = new ArrayList<>();
+                for (String name : index.annotationValues(annotation, "method")) {
+                    Arrays.stream(HttpMethod.values()).filter(m -> m.name().equals(name)).findFirst().ifPresent(methods::add);
+                }
+                yield methods.isEmpty() ? List.of(HttpMethod.GET) : methods;
+            }
+            default -> List.of();
+        };
+    }
+
+    private static List<String> mappingPaths(JavaSourceIndex index, JavaSourceIndex.AnnotationUse annotation) {
+        List<String> paths = index.annotationStrings(annotation, "value");
+        return paths.isEmpty() ? index.annotationStrings(annotation, "path") : paths;
+    }
+
+    /**
+     * Collects the types this class refers to, in the order the relationships are resolved
+     * once all classes of the project are known. Fields of nested types count for the file's
+     * class.
+     */
+    private List<TypeReference> extractReferences(JavaSourceIndex index, JavaSourceIndex.TypeDeclaration type, ClassType classType) {
+        List<TypeReference> references = new ArrayList<>();
+
+        if (type.getKind() == JavaSourceIndex.TypeKind.CLASS && !type.getExtendsTypes().isEmpty()) {
+            references.add(new TypeReference(RelationshipType.EXTENDS, type.getExtendsTypes().get(0).getName(), null));
+        }
+        if (type.getKind() != JavaSourceIndex.TypeKind.INTERFACE) {
+            for (JavaSourceIndex.TypeName implemented : type.getImplementsTypes()) {
+                references.add(new TypeReference(RelationshipType.IMPLEMENTS, implemented.getName(), null));
+            }
+        }
+
+        List<JavaSourceIndex.FieldDeclaration> fields = new ArrayList<>();
+        for (JavaSourceIndex.TypeDeclaration declared : index.getTypes()) {
+            fields.addAll(declared.getFields());
+        }
+
+        for (JavaSourceIndex.FieldDeclaration field : fields) {
+            if (field.hasAnnotation("Autowired") || field.hasAnnotation("Inject")) {
+                addForEachName(references, RelationshipType.INJECTS, field.getType().getName(), field);
+            }
+        }
+        // Constructor injection: final fields set by a (generated) constructor
+        for (JavaSourceIndex.FieldDeclaration field : fields) {
+            if (field.isFinal() && !field.isStatic() && !field.isInitialized()) {
+                addForEachName(references, RelationshipType.INJECTS, field.getType().getName(), field);
+            }
+        }
+
+        if (classType == ClassType.ENTITY) {
+            for (JavaSourceIndex.FieldDeclaration field : fields) {
+                RelationshipType relType = jpaRelationship(field);
+                if (relType == null) continue;
+                String typeName = field.getType().getName();
+                String simpleName = field.getType().getSimpleName();
+                if ((simpleName.equals("List") || simpleName.equals("Set")) && !field.getType().getArguments().isEmpty()) {
+                    typeName = field.getType().getArguments().get(0);
+                }
+                addForEachName(references, relType, typeName, field);
+            }
+        }
+
+        for (JavaSourceIndex.FieldDeclaration field : fields) {
+            if (!field.isStatic()) {
+                addForEachName(references, RelationshipType.USES, field.getType().getName(), field);
+            }
+        }
+
+        return List.copyOf(references);
+    }
+
+    private static RelationshipType jpaRelationship(JavaSourceIndex.FieldDeclaration field) {
+        for (JavaSourceIndex.AnnotationUse annotation : field.getAnnotations()) {
+            switch (annotation.getSimpleName()) {
+                case "OneToOne": return RelationshipType.ONE_TO_ONE;
+                case "OneToMany": return RelationshipType.ONE_TO_MANY;
+                case "ManyToOne": return RelationshipType.MANY_TO_ONE;
+                case "ManyToMany": return RelationshipType.MANY_TO_MANY;
+            }
+        }
+        return null;
+    }
+
+    private static void addForEachName(List<TypeReference> references, RelationshipType type, String typeName,
+                                       JavaSourceIndex.FieldDeclaration field) {
+        for (String name : field.getNames()) {
+            references.add(new TypeReference(type, typeName, name));
+        }
     }
 
     private String normalizePath(String classPath, String methodPath) {
         String fullPath = classPath + "/" + methodPath;
-        return "/" + fullPath.replaceAll("/+", "/").replaceAll("^/|/$", "");
+        return "/" + EDGE_SLASHES_PATTERN.replaceAll(REPEATED_SLASHES_PATTERN.replaceAll(fullPath, "/"), "");
     }
 
+    /**
+     * Immutable result of parsing one file, so results can be handed between threads freely.
+     */
+    @Getter
+    @Builder
     public static class ParsedClass {
-        private String name;
-        private String packageName;
-        private String fullPath;
-        private ClassType classType;
-        private List<String> annotations = new ArrayList<>();
-        private String extendsClass;
-        private List<String> implementsInterfaces = new ArrayList<>();
-        private int fieldCount;
-        private int methodCount;
-        private List<ParsedEndpoint> endpoints = new ArrayList<>();
-
-        public String getName() { return name; }
-        public void setName(String name) { this.name = name; }
-        public String getPackageName() { return packageName; }
-        public void setPackageName(String packageName) { this.packageName = packageName; }
-        public String getFullPath() { return fullPath; }
-        public void setFullPath(String fullPath) { this.fullPath = fullPath; }
-        public ClassType getClassType() { return classType; }
-        public void setClassType(ClassType classType) { this.classType = classType; }
-        public List<String> getAnnotations() { return annotations; }
-        public void setAnnotations(List<String> annotations) { this.annotations = annotations; }
-        public String getExtendsClass() { return extendsClass; }
-        public void setExtendsClass(String extendsClass) { this.extendsClass = extendsClass; }
-        public List<String> getImplementsInterfaces() { return implementsInterfaces; }
-        public void setImplementsInterfaces(List<String> implementsInterfaces) { this.implementsInterfaces = implementsInterfaces; }
-        public int getFieldCount() { return fieldCount; }
-        public void setFieldCount(int fieldCount) { this.fieldCount = fieldCount; }
-        public int getMethodCount() { return methodCount; }
-        public void setMethodCount(int methodCount) { this.methodCount = methodCount; }
-        public List<ParsedEndpoint> getEndpoints() { return endpoints; }
-        public void setEndpoints(List<ParsedEndpoint> endpoints) { this.endpoints = endpoints; }
+        private final String name;
+        private final String packageName;
+        private final String fullPath;
+        private final String moduleName;
+        // Single-type imports, and on-demand imports ending in ".*"; static imports are left out
+        @Builder.Default
+        private final List<String> imports = List.of();
+        private final ClassType classType;
+        @Builder.Default
+        private final List<String> annotations = List.of();
+        private final String extendsClass;
+        @Builder.Default
+        private final List<String> implementsInterfaces = List.of();
+        private final int fieldCount;
+        private final int methodCount;
+        @Builder.Default
+        private final List<ParsedEndpoint> endpoints = List.of();
+        @Builder.Default
+        private final List<TypeReference> references = List.of();
     }
 
+    @Getter
+    @AllArgsConstructor
     public static class ParsedEndpoint {
-        private HttpMethod httpMethod;
-        private String path;
-        private String methodName;
-        private String returnType;
-        private String parameters;
-
-        public HttpMethod getHttpMethod() { return httpMethod; }
-        public void setHttpMethod(HttpMethod httpMethod) { this.httpMethod = httpMethod; }
-        public String getPath() { return path; }
-        public void setPath(String path) { this.path = path; }
-        public String getMethodName() { return methodName; }
-        public void setMethodName(String methodName) { this.methodName = methodName; }
-        public String getReturnType() { return returnType; }
-        public void setReturnType(String returnType) { this.returnType = returnType; }
-        public String getParameters() { return parameters; }
-        public void setParameters(String parameters) { this.parameters = parameters; }
+        private final HttpMethod httpMethod;
+        private final String path;
+        private final String methodName;
+        private final String returnType;
+        private final String parameters;
+    }
+
+    /**
+     * A type named in a class, still unresolved, together with the relationship it implies. The
+     * name is qualified when the source qualifies it.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class TypeReference {
+        private final RelationshipType type;
+        private final String typeName;
+        private final String fieldName;
+
+        public String getSimpleName() {
+            return typeName.substring(typeName.lastIndexOf('.') + 1);
+        }
     }
 }
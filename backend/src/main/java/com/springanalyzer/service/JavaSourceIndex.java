@@ -0,0 +1,252 @@
+package com.springanalyzer.service;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Declarations of one Java source file, as found by {@link JavaSourceIndexer}: package, imports,
+ * every type declared at member level with its fields and methods, and every annotation outside
+ * of method bodies, parameter annotations included. Offsets are character positions in the
+ * source; method bodies and initializers are skipped, so types declared inside them are not
+ * listed.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class JavaSourceIndex {
+
+    public enum TypeKind {
+        CLASS,
+        INTERFACE,
+        ENUM,
+        RECORD,
+        ANNOTATION
+    }
+
+    private final String source;
+    private final String packageName;
+    private final List<ImportDeclaration> imports;
+    // Outer types before the types nested in them
+    private final List<TypeDeclaration> types;
+    private final List<AnnotationUse> annotations;
+
+    /**
+     * The top-level type named after the file, or the first top-level type when none is.
+     */
+    public TypeDeclaration primaryType(String path) {
+        String fileName = path.substring(path.lastIndexOf('/') + 1);
+        String typeName = fileName.endsWith(".java") ? fileName.substring(0, fileName.length() - 5) : fileName;
+        TypeDeclaration first = null;
+        for (TypeDeclaration type : types) {
+            if (type.getParent() != null) continue;
+            if (type.getName().equals(typeName)) return type;
+            if (first == null) first = type;
+        }
+        return first;
+    }
+
+    /**
+     * Values of an annotation attribute: string literals, with concatenated literals joined, and
+     * the last segment of constant names such as {@code RequestMethod.POST}. An unnamed argument
+     * is the {@code value} attribute.
+     */
+    public List<String> annotationValues(AnnotationUse annotation, String attribute) {
+        return annotationValues(annotation, attribute, true);
+    }
+
+    /**
+     * String literals of an annotation attribute, with concatenated literals joined. Constants
+     * have no value known from the source alone and are left out.
+     */
+    public List<String> annotationStrings(AnnotationUse annotation, String attribute) {
+        return annotationValues(annotation, attribute, false);
+    }
+
+    private List<String> annotationValues(AnnotationUse annotation, String attribute, boolean constants) {
+        List<String> values = new ArrayList<>();
+        if (annotation.getArgumentsStart() < 0) return values;
+
+        JavaLexer lexer = new JavaLexer(source, annotation.getArgumentsStart() + 1, annotation.getArgumentsEnd());
+        String current = "value";
+        // Last segment of the constant name being read
+        String constant = null;
+        boolean concatenated = false;
+        for (JavaLexer.Token token = lexer.next(); token != JavaLexer.Token.EOF; token = lexer.next()) {
+            if (token == JavaLexer.Token.IDENTIFIER) {
+                constant = lexer.text();
+            } else if (token == JavaLexer.Token.STRING) {
+                if (current.equals(attribute)) {
+                    String value = lexer.stringValue();
+                    if (concatenated && !values.isEmpty()) {
+                        values.set(values.size() - 1, values.get(values.size() - 1) + value);
+                    } else {
+                        values.add(value);
+                    }
+                }
+                concatenated = false;
+            } else if (lexer.isSymbol('=') && constant != null) {
+                current = constant;
+                constant = null;
+            } else if (lexer.isSymbol('+')) {
+                // A constant in a concatenation has no known value, the literals around it are joined
+                constant = null;
+                concatenated = true;
+            } else if (!lexer.isSymbol('.')) {
+                if (constants && constant != null && current.equals(attribute)) {
+                    values.add(constant);
+                }
+                constant = null;
+            }
+        }
+        // The lexer stops at the closing parenthesis, which ends the last constant
+        if (constants && constant != null && current.equals(attribute)) {
+            values.add(constant);
+        }
+        return values;
+    }
+
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PACKAGE)
+    public static class ImportDeclaration {
+        private final String name;
+        private final boolean staticImport;
+        // import a.b.*;
+        private final boolean onDemand;
+    }
+
+    @Getter
+    public static class TypeDeclaration {
+        private final TypeKind kind;
+        private final String name;
+        private final int modifiers;
+        private final List<AnnotationUse> annotations;
+        // Type declaration this one is nested in, null for a top-level type
+        private final TypeDeclaration parent;
+        private final int start;
+        private final List<TypeName> extendsTypes = new ArrayList<>();
+        private final List<TypeName> implementsTypes = new ArrayList<>();
+        private final List<FieldDeclaration> fields = new ArrayList<>();
+        private final List<MethodDeclaration> methods = new ArrayList<>();
+        private int end;
+
+        TypeDeclaration(TypeKind kind, String name, int modifiers, List<AnnotationUse> annotations, TypeDeclaration parent, int start) {
+            this.kind = kind;
+            this.name = name;
+            this.modifiers = modifiers;
+            this.annotations = annotations;
+            this.parent = parent;
+            this.start = start;
+        }
+
+        void setEnd(int end) {
+            this.end = end;
+        }
+
+        public boolean isPublic() {
+            return Modifier.isPublic(modifiers);
+        }
+
+        public boolean hasAnnotation(String simpleName) {
+            return findAnnotation(annotations, simpleName) != null;
+        }
+    }
+
+    /**
+     * A type as written in a declaration, without its type arguments, which are listed separately.
+     */
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PACKAGE)
+    public static class TypeName {
+        // Possibly qualified, e.g. "List" or "java.util.List"
+        private final String name;
+        // Raw names of the type arguments, wildcard bounds included
+        private final List<String> arguments;
+        // Source text with whitespace collapsed, e.g. "ResponseEntity<List<User>>"
+        private final String text;
+
+        public String getSimpleName() {
+            return name.substring(name.lastIndexOf('.') + 1);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PACKAGE)
+    public static class FieldDeclaration {
+        private final int modifiers;
+        private final List<AnnotationUse> annotations;
+        private final TypeName type;
+        // One per declarator: int a, b;
+        private final List<String> names;
+        private final boolean initialized;
+        private final int start;
+        private final int end;
+
+        public boolean isStatic() {
+            return Modifier.isStatic(modifiers);
+        }
+
+        public boolean isFinal() {
+            return Modifier.isFinal(modifiers);
+        }
+
+        public boolean isPrivate() {
+            return Modifier.isPrivate(modifiers);
+        }
+
+        public boolean hasAnnotation(String simpleName) {
+            return findAnnotation(annotations, simpleName) != null;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PACKAGE)
+    public static class MethodDeclaration {
+        private final int modifiers;
+        private final List<AnnotationUse> annotations;
+        // Null for a constructor
+        private final TypeName returnType;
+        private final String name;
+        // Parameter list without the parentheses, whitespace collapsed
+        private final String parameters;
+        private final int start;
+        private final int end;
+        // Offsets of the braces of the body, -1 for an abstract or interface method
+        private final int bodyStart;
+        private final int bodyEnd;
+
+        public boolean isConstructor() {
+            return returnType == null;
+        }
+
+        public boolean isPublic() {
+            return Modifier.isPublic(modifiers);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PACKAGE)
+    public static class AnnotationUse {
+        // As written, possibly qualified
+        private final String name;
+        private final int start;
+        private final int end;
+        // Offsets of the parentheses around the arguments, -1 without arguments
+        private final int argumentsStart;
+        private final int argumentsEnd;
+
+        public String getSimpleName() {
+            return name.substring(name.lastIndexOf('.') + 1);
+        }
+    }
+
+    public static AnnotationUse findAnnotation(List<AnnotationUse> annotations, String simpleName) {
+        for (AnnotationUse annotation : annotations) {
+            if (annotation.getSimpleName().equals(simpleName)) return annotation;
+        }
+        return null;
+    }
+}
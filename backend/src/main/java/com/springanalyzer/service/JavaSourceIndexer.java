@@ -0,0 +1,530 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.service.JavaSourceIndex.*;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the {@link JavaSourceIndex} of a source file in one linear pass over the tokens of
+ * {@link JavaLexer}. It follows the declaration structure only: method bodies, initializers and
+ * field initializers are skipped by matching their brackets, so no expression is ever parsed and
+ * the cost stays proportional to the length of the file. Code that does not compile is indexed
+ * as far as it can be; a token that fits no declaration is stepped over.
+ */
+final class JavaSourceIndexer {
+
+    private final String source;
+    private final JavaLexer lexer;
+    private String packageName;
+    private final List<ImportDeclaration> imports = new ArrayList<>();
+    private final List<TypeDeclaration> types = new ArrayList<>();
+    private final List<AnnotationUse> annotations = new ArrayList<>();
+
+    // Modifiers and annotations read by the last call to readModifiers
+    private int modifiers;
+    private List<AnnotationUse> modifierAnnotations;
+
+    private JavaSourceIndexer(String source) {
+        this.source = source;
+        this.lexer = new JavaLexer(source);
+    }
+
+    static JavaSourceIndex index(String source) {
+        JavaSourceIndexer indexer = new JavaSourceIndexer(source);
+        indexer.compilationUnit();
+        return new JavaSourceIndex(source, indexer.packageName, indexer.imports, indexer.types, indexer.annotations);
+    }
+
+    private void compilationUnit() {
+        lexer.next();
+        while (lexer.token() != JavaLexer.Token.EOF) {
+            int start = lexer.start();
+            readModifiers();
+            if (lexer.isIdentifier("package")) {
+                lexer.next();
+                packageName = qualifiedName();
+                skipPast(';');
+            } else if (lexer.isIdentifier("import")) {
+                importDeclaration();
+            } else if (!typeDeclaration(start, null)) {
+                if (lexer.isSymbol('{')) {
+                    skipBalanced('{', '}');
+                } else {
+                    lexer.next();
+                }
+            }
+        }
+    }
+
+    private void importDeclaration() {
+        boolean staticImport = false;
+        if (lexer.next() == JavaLexer.Token.IDENTIFIER && lexer.isIdentifier("static")) {
+            staticImport = true;
+            lexer.next();
+        }
+        String name = qualifiedName();
+        boolean onDemand = false;
+        if (lexer.isSymbol('.')) {
+            lexer.next();
+            onDemand = lexer.isSymbol('*');
+        }
+        if (name != null) {
+            imports.add(new ImportDeclaration(name, staticImport, onDemand));
+        }
+        skipPast(';');
+    }
+
+    /**
+     * Reads a type declaration starting at the current token, which follows its modifiers.
+     * Returns false, without consuming anything, when the token does not start one.
+     */
+    private boolean typeDeclaration(int start, TypeDeclaration parent) {
+        TypeKind kind;
+        if (lexer.isSymbol('@')) {
+            lexer.next();
+            kind = TypeKind.ANNOTATION;
+        } else if (lexer.isIdentifier("class")) {
+            kind = TypeKind.CLASS;
+        } else if (lexer.isIdentifier("interface")) {
+            kind = TypeKind.INTERFACE;
+        } else if (lexer.isIdentifier("enum")) {
+            kind = TypeKind.ENUM;
+        } else if (lexer.isIdentifier("record") && isRecordHeader()) {
+            kind = TypeKind.RECORD;
+        } else {
+            return false;
+        }
+
+        if (lexer.next() != JavaLexer.Token.IDENTIFIER) return true;
+        TypeDeclaration type = new TypeDeclaration(kind, lexer.text(), modifiers, modifierAnnotations, parent, start);
+        types.add(type);
+        lexer.next();
+
+        if (lexer.isSymbol('<')) {
+            typeArguments();
+        }
+        if (kind == TypeKind.RECORD && lexer.isSymbol('(')) {
+            skipBalanced('(', ')');
+        }
+        while (lexer.token() != JavaLexer.Token.EOF && !lexer.isSymbol('{') && !lexer.isSymbol(';')) {
+            if (lexer.isIdentifier("extends")) {
+                lexer.next();
+                typeList(type.getExtendsTypes());
+            } else if (lexer.isIdentifier("implements")) {
+                lexer.next();
+                typeList(type.getImplementsTypes());
+            } else {
+                lexer.next();
+            }
+        }
+        if (lexer.isSymbol('{')) {
+            typeBody(type);
+        } else {
+            type.setEnd(lexer.end());
+        }
+        return true;
+    }
+
+    // "record" is only a keyword in front of a name and a component list
+    private boolean isRecordHeader() {
+        int record = lexer.start();
+        boolean header = lexer.next() == JavaLexer.Token.IDENTIFIER
+                && (lexer.next() == JavaLexer.Token.SYMBOL && (lexer.isSymbol('(') || lexer.isSymbol('<')));
+        lexer.reset(record);
+        return header;
+    }
+
+    private void typeList(List<TypeName> list) {
+        while (true) {
+            TypeName type = typeName();
+            if (type == null) return;
+            list.add(type);
+            if (!lexer.isSymbol(',')) return;
+            lexer.next();
+        }
+    }
+
+    private void typeBody(TypeDeclaration type) {
+        lexer.next();
+        if (type.getKind() == TypeKind.ENUM) {
+            enumConstants();
+        }
+        while (lexer.token() != JavaLexer.Token.EOF && !lexer.isSymbol('}')) {
+            member(type);
+        }
+        type.setEnd(lexer.end());
+        lexer.next();
+    }
+
+    private void enumConstants() {
+        while (lexer.token() != JavaLexer.Token.EOF && !lexer.isSymbol('}')) {
+            if (lexer.isSymbol(';')) {
+                lexer.next();
+                return;
+            }
+            readModifiers();
+            if (lexer.token() == JavaLexer.Token.IDENTIFIER) {
+                lexer.next();
+                if (lexer.isSymbol('(')) skipBalanced('(', ')');
+                if (lexer.isSymbol('{')) skipBalanced('{', '}');
+            }
+            if (!lexer.isSymbol(',')) {
+                if (lexer.isSymbol(';')) lexer.next();
+                return;
+            }
+            lexer.next();
+        }
+    }
+
+    private void member(TypeDeclaration type) {
+        if (lexer.isSymbol(';')) {
+            lexer.next();
+            return;
+        }
+        int start = lexer.start();
+        readModifiers();
+        int memberModifiers = modifiers;
+        List<AnnotationUse> memberAnnotations = modifierAnnotations;
+
+        if (lexer.isSymbol('{')) {
+            // Instance or static initializer
+            skipBalanced('{', '}');
+            return;
+        }
+        if (typeDeclaration(start, type)) return;
+        if (lexer.isSymbol('<')) {
+            // Type parameters of a generic method or constructor
+            typeArguments();
+        }
+
+        TypeName declared = typeName();
+        if (declared == null) {
+            if (!lexer.isSymbol('}')) lexer.next();
+            return;
+        }
+        if (lexer.isSymbol('(')) {
+            method(type, memberModifiers, memberAnnotations, null, declared.getName(), start);
+        } else if (lexer.token() == JavaLexer.Token.IDENTIFIER) {
+            String name = lexer.text();
+            lexer.next();
+            if (lexer.isSymbol('(')) {
+                method(type, memberModifiers, memberAnnotations, declared, name, start);
+            } else {
+                field(type, memberModifiers, memberAnnotations, declared, name, start);
+            }
+        } else if (!lexer.isSymbol('}')) {
+            lexer.next();
+        }
+    }
+
+    private void method(TypeDeclaration type, int methodModifiers, List<AnnotationUse> methodAnnotations,
+                        TypeName returnType, String name, int start) {
+        int parametersStart = lexer.start();
+        int parametersEnd = parameterList();
+        String parameters = collapseWhitespace(parametersStart + 1, parametersEnd);
+
+        // Throws clause, or the default value of an annotation member
+        int bodyStart = -1;
+        int bodyEnd = -1;
+        int end = lexer.start();
+        boolean defaultValue = false;
+        while (lexer.token() != JavaLexer.Token.EOF && !lexer.isSymbol('}')) {
+            if (lexer.isSymbol('{') && !defaultValue) {
+                bodyStart = lexer.start();
+                bodyEnd = skipBalanced('{', '}');
+                end = bodyEnd + 1;
+                break;
+            }
+            if (lexer.isSymbol('{')) {
+                skipBalanced('{', '}');
+                continue;
+            }
+            if (lexer.isSymbol(';')) {
+                end = lexer.end();
+                lexer.next();
+                break;
+            }
+            defaultValue |= lexer.isIdentifier("default");
+            lexer.next();
+        }
+        type.getMethods().add(new MethodDeclaration(methodModifiers, methodAnnotations, returnType, name, parameters,
+                start, end, bodyStart, bodyEnd));
+    }
+
+    private void field(TypeDeclaration type, int fieldModifiers, List<AnnotationUse> fieldAnnotations,
+                       TypeName declared, String firstName, int start) {
+        List<String> names = List.of(firstName);
+        boolean initialized = false;
+        int end = lexer.start();
+        while (lexer.token() != JavaLexer.Token.EOF) {
+            while (lexer.isSymbol('[') || lexer.isSymbol(']')) {
+                lexer.next();
+            }
+            if (lexer.isSymbol('=')) {
+                initialized = true;
+                skipInitializer();
+            }
+            if (lexer.isSymbol(',') && lexer.next() == JavaLexer.Token.IDENTIFIER) {
+                if (names.size() == 1) names = new ArrayList<>(names);
+                names.add(lexer.text());
+                lexer.next();
+                continue;
+            }
+            if (lexer.isSymbol(';')) {
+                end = lexer.end();
+                lexer.next();
+            }
+            break;
+        }
+        type.getFields().add(new FieldDeclaration(fieldModifiers, fieldAnnotations, declared, names, initialized, start, end));
+    }
+
+    /**
+     * Skips from the opening parenthesis of a parameter list past the closing one, indexing the
+     * parameters' annotations, and returns the offset of the closing parenthesis.
+     */
+    private int parameterList() {
+        int depth = 0;
+        while (lexer.token() != JavaLexer.Token.EOF) {
+            if (lexer.isSymbol('(')) {
+                depth++;
+            } else if (lexer.isSymbol(')') && --depth == 0) {
+                int at = lexer.start();
+                lexer.next();
+                return at;
+            } else if (lexer.isSymbol('@') && depth == 1) {
+                int at = lexer.start();
+                if (lexer.next() == JavaLexer.Token.IDENTIFIER) {
+                    annotation(at);
+                }
+                continue;
+            }
+            lexer.next();
+        }
+        return source.length();
+    }
+
+    /**
+     * Skips a field initializer up to the comma before the next declarator, or the semicolon.
+     * A comma at bracket depth 0 can still belong to type arguments, as in
+     * {@code new HashMap<K, V>()}, so it only ends the initializer when a declarator follows.
+     */
+    private void skipInitializer() {
+        lexer.next();
+        int depth = 0;
+        while (lexer.token() != JavaLexer.Token.EOF) {
+            if (depth == 0 && (lexer.isSymbol(';') || lexer.isSymbol('}'))) return;
+            if (depth == 0 && lexer.isSymbol(',')) {
+                int comma = lexer.start();
+                boolean declarator = lexer.next() == JavaLexer.Token.IDENTIFIER
+                        && lexer.next() == JavaLexer.Token.SYMBOL
+                        && (lexer.isSymbol('=') || lexer.isSymbol(',') || lexer.isSymbol(';') || lexer.isSymbol('['));
+                lexer.reset(comma);
+                if (declarator) return;
+            } else if (lexer.isSymbol('(') || lexer.isSymbol('[') || lexer.isSymbol('{')) {
+                depth++;
+            } else if (lexer.isSymbol(')') || lexer.isSymbol(']') || lexer.isSymbol('}')) {
+                depth--;
+            }
+            lexer.next();
+        }
+    }
+
+    private void readModifiers() {
+        int flags = 0;
+        List<AnnotationUse> found = null;
+        while (true) {
+            if (lexer.isSymbol('@')) {
+                int at = lexer.start();
+                if (lexer.next() != JavaLexer.Token.IDENTIFIER || lexer.isIdentifier("interface")) {
+                    lexer.reset(at);
+                    break;
+                }
+                if (found == null) found = new ArrayList<>(2);
+                found.add(annotation(at));
+            } else if (lexer.token() == JavaLexer.Token.IDENTIFIER) {
+                int flag = modifierFlag();
+                if (flag < 0) break;
+                flags |= flag;
+                lexer.next();
+            } else {
+                break;
+            }
+        }
+        modifiers = flags;
+        modifierAnnotations = found == null ? List.of() : found;
+    }
+
+    // Modifier bit of the current identifier, 0 for modifiers without one and -1 for other identifiers
+    private int modifierFlag() {
+        return switch (source.charAt(lexer.start())) {
+            case 'p' -> lexer.isIdentifier("public") ? Modifier.PUBLIC
+                    : lexer.isIdentifier("private") ? Modifier.PRIVATE
+                    : lexer.isIdentifier("protected") ? Modifier.PROTECTED : -1;
+            case 's' -> lexer.isIdentifier("static") ? Modifier.STATIC
+                    : lexer.isIdentifier("synchronized") ? Modifier.SYNCHRONIZED
+                    : lexer.isIdentifier("strictfp") ? Modifier.STRICT
+                    : lexer.isIdentifier("sealed") ? 0 : -1;
+            case 'f' -> lexer.isIdentifier("final") ? Modifier.FINAL : -1;
+            case 'a' -> lexer.isIdentifier("abstract") ? Modifier.ABSTRACT : -1;
+            case 'n' -> lexer.isIdentifier("native") ? Modifier.NATIVE : -1;
+            case 't' -> lexer.isIdentifier("transient") ? Modifier.TRANSIENT : -1;
+            case 'v' -> lexer.isIdentifier("volatile") ? Modifier.VOLATILE : -1;
+            case 'd' -> lexer.isIdentifier("default") ? 0 : -1;
+            default -> -1;
+        };
+    }
+
+    /**
+     * Reads an annotation whose name is the current token; {@code at} is the offset of its '@'.
+     */
+    private AnnotationUse annotation(int at) {
+        String name = qualifiedName();
+        int end = lexer.previousEnd();
+        int argumentsStart = -1;
+        int argumentsEnd = -1;
+        if (lexer.isSymbol('(')) {
+            argumentsStart = lexer.start();
+            argumentsEnd = skipBalanced('(', ')');
+            end = argumentsEnd + 1;
+        }
+        AnnotationUse annotation = new AnnotationUse(name, at, end, argumentsStart, argumentsEnd);
+        annotations.add(annotation);
+        return annotation;
+    }
+
+    /**
+     * Reads a type as used in a declaration: annotations, qualified name, type arguments and
+     * array dimensions. Returns null when the current token cannot start a type.
+     */
+    private TypeName typeName() {
+        while (lexer.isSymbol('@')) {
+            int at = lexer.start();
+            if (lexer.next() != JavaLexer.Token.IDENTIFIER) {
+                lexer.reset(at);
+                return null;
+            }
+            annotation(at);
+        }
+        if (lexer.token() != JavaLexer.Token.IDENTIFIER) return null;
+
+        int start = lexer.start();
+        String name = qualifiedName();
+        List<String> arguments = List.of();
+        if (lexer.isSymbol('<')) {
+            arguments = typeArguments();
+        }
+        // Member type of a parameterized type, as in Outer<T>.Inner
+        while (lexer.isSymbol('.')) {
+            int dot = lexer.start();
+            if (lexer.next() != JavaLexer.Token.IDENTIFIER) {
+                lexer.reset(dot);
+                break;
+            }
+            name = name + "." + qualifiedName();
+            arguments = lexer.isSymbol('<') ? typeArguments() : List.of();
+        }
+        while (lexer.isSymbol('[')) {
+            lexer.next();
+            if (lexer.isSymbol(']')) lexer.next();
+        }
+        return new TypeName(name, arguments, collapseWhitespace(start, lexer.previousEnd()));
+    }
+
+    /**
+     * Reads type arguments or type parameters from the opening '<' through the matching '>' and
+     * returns the names of the outermost ones; for {@code ? extends T} that is T.
+     */
+    private List<String> typeArguments() {
+        List<String> arguments = null;
+        boolean expectArgument = true;
+        int depth = 1;
+        lexer.next();
+        while (lexer.token() != JavaLexer.Token.EOF && depth > 0) {
+            if (lexer.isSymbol('<')) {
+                depth++;
+            } else if (lexer.isSymbol('>')) {
+                depth--;
+            } else if (lexer.isSymbol(',') && depth == 1) {
+                expectArgument = true;
+            } else if (lexer.isSymbol(';') || lexer.isSymbol('{') || lexer.isSymbol('(') || lexer.isSymbol('=')) {
+                // Not type arguments after all, as in a comparison
+                break;
+            } else if (lexer.token() == JavaLexer.Token.IDENTIFIER && depth == 1 && expectArgument
+                    && !lexer.isIdentifier("extends") && !lexer.isIdentifier("super")) {
+                if (arguments == null) arguments = new ArrayList<>(2);
+                arguments.add(qualifiedName());
+                expectArgument = false;
+                continue;
+            }
+            lexer.next();
+        }
+        return arguments == null ? List.of() : arguments;
+    }
+
+    /**
+     * Reads a dotted name starting at the current identifier, leaving a trailing ".*" or ".<"
+     * unread. Returns null when the current token is not an identifier.
+     */
+    private String qualifiedName() {
+        if (lexer.token() != JavaLexer.Token.IDENTIFIER) return null;
+        String first = lexer.text();
+        // Built from the tokens, as whitespace and comments may sit between them
+        StringBuilder name = null;
+        while (lexer.next() == JavaLexer.Token.SYMBOL && lexer.isSymbol('.')) {
+            int dot = lexer.start();
+            if (lexer.next() != JavaLexer.Token.IDENTIFIER) {
+                lexer.reset(dot);
+                break;
+            }
+            if (name == null) name = new StringBuilder(first);
+            name.append('.').append(source, lexer.start(), lexer.end());
+        }
+        return name != null ? name.toString() : first;
+    }
+
+    /**
+     * Skips from the current opening bracket past the matching closing one and returns the
+     * closing bracket's offset, or the end of the source when it is missing.
+     */
+    private int skipBalanced(char open, char close) {
+        int depth = 0;
+        while (lexer.token() != JavaLexer.Token.EOF) {
+            if (lexer.isSymbol(open)) {
+                depth++;
+            } else if (lexer.isSymbol(close) && --depth == 0) {
+                int at = lexer.start();
+                lexer.next();
+                return at;
+            }
+            lexer.next();
+        }
+        return source.length();
+    }
+
+    private void skipPast(char symbol) {
+        while (lexer.token() != JavaLexer.Token.EOF) {
+            boolean found = lexer.isSymbol(symbol);
+            lexer.next();
+            if (found) return;
+        }
+    }
+
+    private String collapseWhitespace(int from, int to) {
+        StringBuilder text = new StringBuilder(Math.max(0, to - from));
+        boolean space = false;
+        for (int i = from; i < to; i++) {
+            char c = source.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = text.length() > 0;
+            } else {
+                if (space) text.append(' ');
+                text.append(c);
+                space = false;
+            }
+        }
+        return text.toString();
+    }
+}
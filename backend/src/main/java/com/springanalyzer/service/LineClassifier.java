@@ -0,0 +1,471 @@
+package com.springanalyzer.service;
+
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Counts the lines of Java files by kind in one pass over each file, without splitting it into
+ * lines: a line holding any code is a code line, a line holding only comments a comment line and
+ * a line holding only whitespace a blank line. Lines end at {@code \n}, {@code \r} or
+ * {@code \r\n}, as for {@link String#lines()}. Comment markers inside string, character and text
+ * block literals are ignored, and block comments may start and end anywhere on a line.
+ * <p>
+ * Once a line is known to hold code, the classifier only looks for what starts a comment or a
+ * literal, skipping ahead with a {@link ByteScanner}, and it skips the bodies of comments and
+ * literals the same way. Files not decoded yet are read from their bytes, which works for any
+ * UTF-8 content since the bytes of a multi-byte character never fall in the ASCII range where
+ * all the syntax lies. The tokens of lines that start with an annotation or with {@code public},
+ * {@code private} or {@code package} are read up to the end of the declaration, which gives the
+ * package of each file and counts of public types, public methods and private fields by their
+ * explicit modifiers. An instance accumulates over the files of one run and is not thread-safe.
+ */
+final class LineClassifier {
+
+    private static final int CODE = 0;
+    private static final int BLOCK_COMMENT = 1;
+    private static final int STRING = 2;
+    private static final int CHARACTER = 3;
+    private static final int TEXT_BLOCK = 4;
+
+    private static final int NONE = 0;
+    private static final int PUBLIC = 1;
+    private static final int PRIVATE = 2;
+
+    private static final String[] MODIFIERS = {
+            "static", "final", "abstract", "synchronized", "native", "transient", "volatile",
+            "strictfp", "default", "sealed"
+    };
+
+    // ASCII letters, digits, '_' and '$'; other characters are all taken as letters
+    private static final boolean[] WORD_PARTS = new boolean[0x80];
+
+    static {
+        for (int c = 0; c < WORD_PARTS.length; c++) {
+            WORD_PARTS[c] = Character.isLetterOrDigit(c) || c == '_' || c == '$';
+        }
+    }
+
+    @Getter
+    private int totalLines;
+    @Getter
+    private int codeLines;
+    @Getter
+    private int commentLines;
+    @Getter
+    private int blankLines;
+    @Getter
+    private int publicClasses;
+    @Getter
+    private int publicMethods;
+    @Getter
+    private int privateFields;
+    @Getter
+    private int maxPackageDepth;
+    @Getter
+    private final Set<String> packages = new HashSet<>();
+    // Package declared by the file classified last, null if it has none
+    @Getter
+    private String filePackage;
+
+    // Declaration being read since its public or private modifier
+    private int visibility;
+    // Words of the declaration other than modifiers, outside of type arguments
+    private int words;
+    private int angles;
+    private boolean record;
+    // After '@' or a '.' in an annotation name
+    private boolean annotationName;
+    // After an annotation name, where '(' opens its arguments
+    private boolean annotation;
+    private int annotationParens;
+    private StringBuilder packageName;
+
+    void classify(SourceFile file) {
+        SourceBytes bytes = file.undecodedBytes();
+        classify(bytes != null ? new ByteText(bytes.buffer(), bytes.size()) : new CharText(file.getContent()));
+    }
+
+    private void classify(Text text) {
+        int length = text.length;
+        int mode = CODE;
+        boolean lineOpen = false;
+        boolean hasCode = false;
+        boolean hasComment = false;
+        // Before the first code of the line, which decides whether its tokens are read
+        boolean lineStart = true;
+        boolean tokens = false;
+        resetDeclaration();
+        packageName = null;
+        filePackage = null;
+
+        int i = 0;
+        while (i < length) {
+            int c = text.at(i);
+            if (c == '\n' || c == '\r') {
+                countLine(hasCode, hasComment);
+                lineOpen = hasCode = hasComment = tokens = false;
+                lineStart = true;
+                // Plain literals cannot span lines, an unterminated one ends here
+                if (mode == STRING || mode == CHARACTER) mode = CODE;
+                i += c == '\r' && text.peek(i + 1) == '\n' ? 2 : 1;
+                continue;
+            }
+            lineOpen = true;
+            if (c <= ' ') {
+                i = whitespaceEnd(text, i + 1);
+                continue;
+            }
+            switch (mode) {
+                case BLOCK_COMMENT -> {
+                    hasComment = true;
+                    if (c == '*' && text.peek(i + 1) == '/') {
+                        mode = CODE;
+                        i += 2;
+                    } else {
+                        i = text.nextStop(i + 1, '*', '*', '*');
+                    }
+                }
+                case STRING, CHARACTER -> {
+                    if (c == (mode == STRING ? '"' : '\'')) {
+                        mode = CODE;
+                        i++;
+                    } else if (c == '\\') {
+                        i = skipEscape(text, i);
+                    } else {
+                        i = mode == STRING ? text.nextStop(i + 1, '"', '\\', '\\') : text.nextStop(i + 1, '\'', '\\', '\\');
+                    }
+                }
+                case TEXT_BLOCK -> {
+                    hasCode = true;
+                    if (c == '"' && text.peek(i + 1) == '"' && text.peek(i + 2) == '"') {
+                        mode = CODE;
+                        i += 3;
+                    } else if (c == '\\') {
+                        i = skipEscape(text, i);
+                    } else {
+                        i = text.nextStop(i + 1, '"', '\\', '\\');
+                    }
+                }
+                default -> {
+                    if (c == '/' && text.peek(i + 1) == '/') {
+                        hasComment = true;
+                        i = text.nextStop(i + 2, '\n', '\n', '\n');
+                        continue;
+                    }
+                    if (c == '/' && text.peek(i + 1) == '*') {
+                        hasComment = true;
+                        mode = BLOCK_COMMENT;
+                        i += 2;
+                        continue;
+                    }
+                    hasCode = true;
+                    if (lineStart) {
+                        lineStart = false;
+                        tokens = isDeclarationPending() || startsDeclaration(text, i, c);
+                    }
+                    if (c == '"') {
+                        if (tokens) otherToken();
+                        if (text.peek(i + 1) == '"' && text.peek(i + 2) == '"') {
+                            mode = TEXT_BLOCK;
+                            i += 3;
+                        } else {
+                            mode = STRING;
+                            i++;
+                        }
+                    } else if (c == '\'') {
+                        if (tokens) otherToken();
+                        mode = CHARACTER;
+                        i++;
+                    } else if (!tokens) {
+                        // Nothing but comments and literals can change how the rest of the line counts
+                        i = text.nextStop(i + 1, '/', '"', '\'');
+                    } else if (isWordPart(c)) {
+                        int end = wordEnd(text, i);
+                        if (c >= '0' && c <= '9') {
+                            otherToken();
+                        } else {
+                            word(text, i, end);
+                        }
+                        i = end;
+                    } else {
+                        symbol(c);
+                        i++;
+                    }
+                }
+            }
+        }
+        if (lineOpen) countLine(hasCode, hasComment);
+    }
+
+    /**
+     * Whether the first code of a line may start a declaration, so that the tokens of the line
+     * are read: an annotation or the {@code public}, {@code private} or {@code package} keyword.
+     */
+    private static boolean startsDeclaration(Text text, int at, int c) {
+        if (c == '@') return true;
+        if (c != 'p') return false;
+        int end = wordEnd(text, at);
+        return text.is(at, end, "public") || text.is(at, end, "private") || text.is(at, end, "package");
+    }
+
+    private boolean isDeclarationPending() {
+        return visibility != NONE || packageName != null || annotationName || annotation || annotationParens > 0;
+    }
+
+    private static int whitespaceEnd(Text text, int from) {
+        int end = from;
+        for (int c; end < text.length && (c = text.at(end)) <= ' ' && c != '\n' && c != '\r'; end++) {
+        }
+        return end;
+    }
+
+    private static int wordEnd(Text text, int from) {
+        int end = from + 1;
+        while (end < text.length && isWordPart(text.at(end))) end++;
+        return end;
+    }
+
+    private void countLine(boolean hasCode, boolean hasComment) {
+        totalLines++;
+        if (hasCode) {
+            codeLines++;
+        } else if (hasComment) {
+            commentLines++;
+        } else {
+            blankLines++;
+        }
+    }
+
+    private static int skipEscape(Text text, int at) {
+        int next = text.peek(at + 1);
+        return next < 0 || next == '\n' || next == '\r' ? at + 1 : at + 2;
+    }
+
+    private void word(Text text, int from, int to) {
+        if (annotationParens > 0) return;
+        if (packageName != null) {
+            text.append(packageName, from, to);
+            return;
+        }
+        if (annotationName) {
+            annotationName = false;
+            if (text.is(from, to, "interface")) {
+                typeDeclared();
+            } else {
+                annotation = true;
+            }
+            return;
+        }
+        annotation = false;
+        if (text.is(from, to, "package")) {
+            packageName = new StringBuilder();
+        } else if (text.is(from, to, "public")) {
+            startDeclaration(PUBLIC);
+        } else if (text.is(from, to, "private")) {
+            startDeclaration(PRIVATE);
+        } else if (visibility != NONE && angles == 0 && !isModifier(text, from, to)) {
+            if (record || text.is(from, to, "class") || text.is(from, to, "interface") || text.is(from, to, "enum")) {
+                typeDeclared();
+            } else if (words == 0 && text.is(from, to, "record")) {
+                // A record is declared by the name that follows
+                record = true;
+            } else {
+                words++;
+            }
+        }
+    }
+
+    private void symbol(int c) {
+        if (annotationParens > 0) {
+            if (c == '(') annotationParens++;
+            if (c == ')') annotationParens--;
+            return;
+        }
+        if (packageName != null) {
+            if (c == '.') {
+                packageName.append('.');
+            } else if (c == ';') {
+                packageDeclared();
+            }
+            return;
+        }
+        if (c == '@') {
+            annotationName = true;
+            return;
+        }
+        if (annotation && c == '.') {
+            annotation = false;
+            annotationName = true;
+            return;
+        }
+        if (annotation && c == '(') {
+            annotation = false;
+            annotationParens = 1;
+            return;
+        }
+        otherToken();
+        if (visibility == NONE) return;
+        switch (c) {
+            case '<' -> angles++;
+            case '>' -> angles = Math.max(0, angles - 1);
+            case '(' -> {
+                // A constructor has its name only
+                if (visibility == PUBLIC && angles == 0 && words >= 2) publicMethods++;
+                resetDeclaration();
+            }
+            case ';', '=' -> {
+                if (visibility == PRIVATE && angles == 0 && words >= 2) privateFields++;
+                resetDeclaration();
+            }
+            case '{', '}' -> resetDeclaration();
+            default -> {
+            }
+        }
+    }
+
+    private void otherToken() {
+        if (annotationParens > 0) return;
+        annotation = false;
+        annotationName = false;
+    }
+
+    private void startDeclaration(int visibility) {
+        resetDeclaration();
+        this.visibility = visibility;
+    }
+
+    private void typeDeclared() {
+        if (visibility == PUBLIC) publicClasses++;
+        resetDeclaration();
+    }
+
+    private void resetDeclaration() {
+        visibility = NONE;
+        words = 0;
+        angles = 0;
+        record = false;
+        annotationName = false;
+        annotation = false;
+        annotationParens = 0;
+    }
+
+    private void packageDeclared() {
+        if (!packageName.isEmpty()) {
+            String name = packageName.toString();
+            packages.add(name);
+            filePackage = name;
+            int depth = 1;
+            for (int i = 0; i < name.length(); i++) {
+                if (name.charAt(i) == '.') depth++;
+            }
+            maxPackageDepth = Math.max(maxPackageDepth, depth);
+        }
+        packageName = null;
+    }
+
+    private static boolean isModifier(Text text, int from, int to) {
+        for (String modifier : MODIFIERS) {
+            if (text.is(from, to, modifier)) return true;
+        }
+        return false;
+    }
+
+    private static boolean isWordPart(int c) {
+        return c >= WORD_PARTS.length || WORD_PARTS[c];
+    }
+
+    /**
+     * Content of a file as characters or as unsigned bytes.
+     */
+    private abstract static class Text {
+        final int length;
+
+        Text(int length) {
+            this.length = length;
+        }
+
+        abstract int at(int index);
+
+        /**
+         * Index of the next of three characters or line terminator, the length when there is none.
+         */
+        abstract int nextStop(int from, char first, char second, char third);
+
+        abstract void append(StringBuilder target, int from, int to);
+
+        int peek(int index) {
+            return index < length ? at(index) : -1;
+        }
+
+        boolean is(int from, int to, String keyword) {
+            if (to - from != keyword.length()) return false;
+            for (int i = 0; i < keyword.length(); i++) {
+                if (at(from + i) != keyword.charAt(i)) return false;
+            }
+            return true;
+        }
+    }
+
+    private static final class ByteText extends Text {
+        private final ByteBuffer buffer;
+        // The array behind a heap buffer, read directly; null for a mapped file
+        private final byte[] array;
+        private final int offset;
+
+        ByteText(ByteBuffer buffer, int length) {
+            super(length);
+            this.buffer = buffer;
+            this.array = buffer.hasArray() ? buffer.array() : null;
+            this.offset = buffer.hasArray() ? buffer.arrayOffset() : 0;
+        }
+
+        @Override
+        int at(int index) {
+            return (array != null ? array[offset + index] : buffer.get(index)) & 0xFF;
+        }
+
+        @Override
+        int nextStop(int from, char first, char second, char third) {
+            return ByteScanner.nextStop(buffer, from, length, (byte) first, (byte) second, (byte) third);
+        }
+
+        @Override
+        void append(StringBuilder target, int from, int to) {
+            byte[] bytes = new byte[to - from];
+            buffer.get(from, bytes);
+            target.append(new String(bytes, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static final class CharText extends Text {
+        private final String content;
+
+        CharText(String content) {
+            super(content.length());
+            this.content = content;
+        }
+
+        @Override
+        int at(int index) {
+            return content.charAt(index);
+        }
+
+        @Override
+        int nextStop(int from, char first, char second, char third) {
+            for (int i = from; i < length; i++) {
+                char c = content.charAt(i);
+                if (c == first || c == second || c == third || c == '\n' || c == '\r') return i;
+            }
+            return length;
+        }
+
+        @Override
+        void append(StringBuilder target, int from, int to) {
+            target.append(content, from, to);
+        }
+    }
+}
@@ -8,9 +8,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.nio.file.*;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -19,64 +17,40 @@ public class MetricsService {
 
     private final CodeMetricsRepository metricsRepository;
     private final AnalyzedClassRepository classRepository;
+    private final PackageTreeService packageTreeService;
 
-    public CodeMetrics calculateMetrics(Project project, Path extractedPath) {
+    public CodeMetrics calculateMetrics(Project project, SourceCorpus corpus) {
         CodeMetrics metrics = CodeMetrics.builder()
             .project(project)
             .build();
 
         try {
-            List<Path> javaFiles = Files.walk(extractedPath)
-                .filter(p -> p.toString().endsWith(".java"))
-                .collect(Collectors.toList());
+            List<SourceCorpus.FileInfo> javaFiles = corpus.javaFiles();
 
             metrics.setTotalFiles(javaFiles.size());
 
-            int totalLines = 0, codeLines = 0, commentLines = 0, blankLines = 0;
-            Set<String> packages = new HashSet<>();
-            int maxDepth = 0;
-
-            for (Path file : javaFiles) {
-                List<String> lines = Files.readAllLines(file);
-                boolean inBlockComment = false;
-
-                for (String line : lines) {
-                    totalLines++;
-                    String trimmed = line.trim();
-
-                    if (trimmed.isEmpty()) {
-                        blankLines++;
-                    } else if (inBlockComment) {
-                        commentLines++;
-                        if (trimmed.contains("*/")) {
-                            inBlockComment = false;
-                        }
-                    } else if (trimmed.startsWith("/*")) {
-                        commentLines++;
-                        if (!trimmed.contains("*/")) {
-                            inBlockComment = true;
-                        }
-                    } else if (trimmed.startsWith("//")) {
-                        commentLines++;
-                    } else {
-                        codeLines++;
-                    }
-
-                    if (trimmed.startsWith("package ")) {
-                        String pkg = trimmed.substring(8).replace(";", "").trim();
-                        packages.add(pkg);
-                        int depth = pkg.split("\\.").length;
-                        maxDepth = Math.max(maxDepth, depth);
-                    }
+            LineClassifier lines = new LineClassifier();
+            Map<String, String> filePackages = new HashMap<>();
+            Map<String, Integer> packageLines = new HashMap<>();
+            for (SourceCorpus.FileInfo file : javaFiles) {
+                int codeLines = lines.getCodeLines();
+                lines.classify(corpus.source(file.getPath()));
+                if (lines.getFilePackage() != null) {
+                    filePackages.put(file.getPath(), lines.getFilePackage());
+                    packageLines.merge(lines.getFilePackage(), lines.getCodeLines() - codeLines, Integer::sum);
                 }
             }
+            Set<String> packages = lines.getPackages();
 
-            metrics.setTotalLines(totalLines);
-            metrics.setCodeLines(codeLines);
-            metrics.setCommentLines(commentLines);
-            metrics.setBlankLines(blankLines);
+            metrics.setTotalLines(lines.getTotalLines());
+            metrics.setCodeLines(lines.getCodeLines());
+            metrics.setCommentLines(lines.getCommentLines());
+            metrics.setBlankLines(lines.getBlankLines());
             metrics.setTotalPackages(packages.size());
-            metrics.setMaxPackageDepth(maxDepth);
+            metrics.setMaxPackageDepth(lines.getMaxPackageDepth());
+            metrics.setPublicClasses(lines.getPublicClasses());
+            metrics.setPublicMethods(lines.getPublicMethods());
+            metrics.setPrivateFields(lines.getPrivateFields());
 
             List<AnalyzedClass> classes = classRepository.findByProjectId(project.getId());
             if (!classes.isEmpty()) {
@@ -91,7 +65,7 @@ public class MetricsService {
                 metrics.setMaxFieldsInClass(maxFields);
             }
 
-            metrics.setPackageStructure(buildPackageTree(packages));
+            packageTreeService.buildTree(project, filePackages, packageLines);
 
         } catch (IOException e) {
             log.error("Failed to calculate metrics", e);
@@ -99,33 +73,4 @@ public class MetricsService {
 
         return metricsRepository.save(metrics);
     }
-
-    private String buildPackageTree(Set<String> packages) {
-        Map<String, Set<String>> tree = new TreeMap<>();
-        
-        for (String pkg : packages) {
-            String[] parts = pkg.split("\\.");
-            StringBuilder current = new StringBuilder();
-            for (int i = 0; i < parts.length; i++) {
-                String parent = current.toString();
-                current.append(i > 0 ? "." : "").append(parts[i]);
-                tree.computeIfAbsent(parent, k -> new TreeSet<>()).add(parts[i]);
-            }
-        }
-
-        StringBuilder sb = new StringBuilder();
-        buildTreeString(tree, "", sb, 0);
-        return sb.toString();
-    }
-
-    private void buildTreeString(Map<String, Set<String>> tree, String current, StringBuilder sb, int depth) {
-        Set<String> children = tree.get(current);
-        if (children == null) return;
-
-        for (String child : children) {
-            sb.append("  ".repeat(depth)).append(child).append("\n");
-            String next = current.isEmpty() ? child : current + "." + child;
-            buildTreeString(tree, next, sb, depth + 1);
-        }
-    }
 }
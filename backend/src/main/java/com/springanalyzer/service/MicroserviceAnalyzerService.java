@@ -8,12 +8,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
-import java.nio.file.*;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -26,78 +22,143 @@ public class MicroserviceAnalyzerService {
     private final EndpointRepository endpointRepository;
 
     // Patterns for detecting microservice components
-    private static final Pattern FEIGN_CLIENT_PATTERN = Pattern.compile(
+    private static final TrackedPattern FEIGN_CLIENT_PATTERN = PatternRegistry.compile(
+            "microservice.feign-client",
             "@FeignClient\\s*\\(\\s*(?:name\\s*=\\s*|value\\s*=\\s*)?[\"']([^\"']+)[\"']"
     );
-    private static final Pattern FEIGN_CLIENT_URL_PATTERN = Pattern.compile(
+    private static final TrackedPattern FEIGN_CLIENT_URL_PATTERN = PatternRegistry.compile(
+            "microservice.feign-client-url",
             "@FeignClient\\s*\\([^)]*url\\s*=\\s*[\"']([^\"']+)[\"']"
     );
-    private static final Pattern REST_TEMPLATE_PATTERN = Pattern.compile(
+    private static final TrackedPattern REST_TEMPLATE_PATTERN = PatternRegistry.compile(
+            "microservice.rest-template",
             "restTemplate\\s*\\.\\s*(getForObject|postForObject|exchange|getForEntity|postForEntity|put|delete)\\s*\\("
     );
-    private static final Pattern REST_TEMPLATE_URL_PATTERN = Pattern.compile(
+    private static final TrackedPattern REST_TEMPLATE_URL_PATTERN = PatternRegistry.compile(
+            "microservice.rest-template-url",
             "restTemplate\\s*\\.\\s*\\w+\\s*\\([^)]*[\"']([^\"']+)[\"']"
     );
-    private static final Pattern WEB_CLIENT_PATTERN = Pattern.compile(
-            "WebClient|webClient"
-    );
-    private static final Pattern WEB_CLIENT_URL_PATTERN = Pattern.compile(
+    private static final List<String> WEB_CLIENT_NAMES = List.of("WebClient", "webClient");
+    private static final TrackedPattern WEB_CLIENT_URL_PATTERN = PatternRegistry.compile(
+            "microservice.web-client-url",
             "\\.uri\\s*\\([^)]*[\"']([^\"']+)[\"']"
     );
-    private static final Pattern KAFKA_LISTENER_PATTERN = Pattern.compile(
+    private static final TrackedPattern KAFKA_LISTENER_PATTERN = PatternRegistry.compile(
+            "microservice.kafka-listener",
             "@KafkaListener\\s*\\([^)]*topics?\\s*=\\s*[{]?\\s*[\"']([^\"']+)[\"']"
     );
-    private static final Pattern KAFKA_TEMPLATE_PATTERN = Pattern.compile(
+    private static final TrackedPattern KAFKA_TEMPLATE_PATTERN = PatternRegistry.compile(
+            "microservice.kafka-template",
             "kafkaTemplate\\s*\\.\\s*send\\s*\\([^)]*[\"']([^\"']+)[\"']"
     );
-    private static final Pattern RABBIT_LISTENER_PATTERN = Pattern.compile(
+    private static final TrackedPattern RABBIT_LISTENER_PATTERN = PatternRegistry.compile(
+            "microservice.rabbit-listener",
             "@RabbitListener\\s*\\([^)]*queues?\\s*=\\s*[{]?\\s*[\"']([^\"']+)[\"']"
     );
-    private static final Pattern RABBIT_TEMPLATE_PATTERN = Pattern.compile(
+    private static final TrackedPattern RABBIT_TEMPLATE_PATTERN = PatternRegistry.compile(
+            "microservice.rabbit-template",
             "rabbitTemplate\\s*\\.\\s*(convertAndSend|send)\\s*\\([^)]*[\"']([^\"']+)[\"']"
     );
-    private static final Pattern APPLICATION_NAME_PATTERN = Pattern.compile(
+    private static final TrackedPattern APPLICATION_NAME_PATTERN = PatternRegistry.compile(
+            "microservice.application-name",
             "spring\\.application\\.name\\s*=\\s*(.+)"
     );
-    private static final Pattern SERVER_PORT_PATTERN = Pattern.compile(
+    private static final TrackedPattern SERVER_PORT_PATTERN = PatternRegistry.compile(
+            "microservice.server-port",
             "server\\.port\\s*=\\s*(\\d+)"
     );
-    private static final Pattern YAML_APP_NAME_PATTERN = Pattern.compile(
+    private static final TrackedPattern YAML_APP_NAME_PATTERN = PatternRegistry.compile(
+            "microservice.yaml-app-name",
             "name:\\s*([\\w-]+)"
     );
-    private static final Pattern YAML_PORT_PATTERN = Pattern.compile(
+    private static final TrackedPattern YAML_PORT_PATTERN = PatternRegistry.compile(
+            "microservice.yaml-port",
             "port:\\s*(\\d+)"
     );
     // Gateway route patterns
-    private static final Pattern GATEWAY_ROUTE_PATTERN = Pattern.compile(
+    private static final TrackedPattern GATEWAY_ROUTE_PATTERN = PatternRegistry.compile(
+            "microservice.gateway-route",
             "spring\\.cloud\\.gateway\\.routes\\[\\d+\\]\\.uri\\s*=\\s*(.+)"
     );
-    private static final Pattern GATEWAY_ROUTE_ID_PATTERN = Pattern.compile(
+    private static final TrackedPattern GATEWAY_ROUTE_ID_PATTERN = PatternRegistry.compile(
+            "microservice.gateway-route-id",
             "spring\\.cloud\\.gateway\\.routes\\[\\d+\\]\\.id\\s*=\\s*(.+)"
     );
     // Load balancer pattern
-    private static final Pattern LOAD_BALANCED_PATTERN = Pattern.compile(
-            "@LoadBalanced|lb://|LoadBalancerClient"
-    );
+    private static final List<String> LOAD_BALANCED_NAMES = List.of("@LoadBalanced", "lb://", "LoadBalancerClient");
     // Circuit breaker patterns
-    private static final Pattern CIRCUIT_BREAKER_PATTERN = Pattern.compile(
-            "@CircuitBreaker|Resilience4j|HystrixCommand|@HystrixCommand"
-    );
+    private static final List<String> CIRCUIT_BREAKER_NAMES = List.of("@CircuitBreaker", "Resilience4j", "HystrixCommand");
     // Eureka patterns
-    private static final Pattern EUREKA_URL_PATTERN = Pattern.compile(
+    private static final TrackedPattern EUREKA_URL_PATTERN = PatternRegistry.compile(
+            "microservice.eureka-url",
             "eureka\\.client\\.service-url\\.defaultZone\\s*=\\s*(.+)"
     );
     // Database patterns
-    private static final Pattern DATABASE_URL_PATTERN = Pattern.compile(
+    private static final TrackedPattern DATABASE_URL_PATTERN = PatternRegistry.compile(
+            "microservice.database-url",
             "spring\\.datasource\\.url\\s*=\\s*jdbc:(\\w+):"
     );
     // gRPC patterns
-    private static final Pattern GRPC_PATTERN = Pattern.compile(
-            "@GrpcService|@GrpcClient|ManagedChannel|ServerBuilder"
+    private static final List<String> GRPC_NAMES = List.of("@GrpcService", "@GrpcClient", "ManagedChannel", "ServerBuilder");
+    private static final TrackedPattern MAPPING_ANNOTATION_PATTERN = PatternRegistry.compile(
+            "microservice.mapping-annotation",
+            "@(Get|Post|Put|Delete|Patch|Request)Mapping"
+    );
+    private static final TrackedPattern FEIGN_METHOD_PATTERN = PatternRegistry.compile(
+            "microservice.feign-method",
+            "@(Get|Post|Put|Delete|Patch)Mapping\\s*\\([^)]*[\"']([^\"']*)[\"']"
+    );
+    private static final TrackedPattern METHOD_DECLARATION_PATTERN = PatternRegistry.compile(
+            "microservice.method-declaration",
+            "\\s*(public|private|protected)?\\s*\\w+\\s+(\\w+)\\s*\\("
+    );
+    private static final TrackedPattern PACKAGE_DECLARATION_PATTERN = PatternRegistry.compile(
+            "microservice.package-declaration",
+            "package\\s+([\\w.]+)"
+    );
+    private static final TrackedPattern ACTIVE_PROFILES_PATTERN = PatternRegistry.compile(
+            "microservice.active-profiles",
+            "spring\\.profiles\\.active\\s*=\\s*(.+)"
+    );
+    private static final TrackedPattern YAML_ROUTE_URI_PATTERN = PatternRegistry.compile(
+            "microservice.yaml-route-uri",
+            "uri:\\s*(lb://[\\w-]+|http[s]?://[^\\s]+)"
+    );
+    private static final TrackedPattern YAML_EUREKA_URL_PATTERN = PatternRegistry.compile(
+            "microservice.yaml-eureka-url",
+            "defaultZone:\\s*([^\\s]+)"
+    );
+    private static final TrackedPattern POM_ARTIFACT_PATTERN = PatternRegistry.compile(
+            "microservice.pom-artifact",
+            "<artifactId>([^<]+)</artifactId>"
+    );
+    private static final TrackedPattern GRADLE_DEPENDENCY_PATTERN = PatternRegistry.compile(
+            "microservice.gradle-dependency",
+            "['\"]([\\w.-]+:[\\w.-]+)(?::[\\w.-]+)?['\"]"
+    );
+    private static final TrackedPattern PLACEHOLDER_PATTERN = PatternRegistry.compile(
+            "microservice.placeholder",
+            "\\$\\{([^}]+)\\}"
+    );
+    private static final TrackedPattern GATEWAY_YAML_ROUTE_PATTERN = PatternRegistry.compile(
+            "microservice.gateway-yaml-route",
+            "uri:\\s*(lb://([\\w-]+)|http[s]?://([^\\s]+))"
+    );
+    private static final TrackedPattern URL_SCHEME_PATTERN = PatternRegistry.compile(
+            "microservice.url-scheme",
+            "https?://"
+    );
+    private static final TrackedPattern HOST_DELIMITER_PATTERN = PatternRegistry.compile(
+            "microservice.host-delimiter",
+            "[:/]"
+    );
+    private static final TrackedPattern IP_ADDRESS_PATTERN = PatternRegistry.compile(
+            "microservice.ip-address",
+            "\\d+\\.\\d+\\.\\d+\\.\\d+"
     );
 
     @Transactional
-    public List<Microservice> analyzeProject(Project project, Path extractedPath) {
+    public List<Microservice> analyzeProject(Project project, SourceCorpus source) {
         log.info("Starting microservice analysis for project: {}", project.getName());
         
         // Clear previous microservice data
@@ -108,18 +169,18 @@ public class MicroserviceAnalyzerService {
         
         try {
             // Find all modules (directories with pom.xml or build.gradle)
-            List<Path> modules = findModules(extractedPath);
+            List<String> modules = findModules(source);
             
             if (modules.isEmpty()) {
                 // Single module project
-                Microservice service = analyzeModule(project, extractedPath, extractedPath);
+                Microservice service = analyzeModule(project, source, "");
                 if (service != null) {
                     microservices.add(service);
                 }
             } else {
                 // Multi-module project
-                for (Path module : modules) {
-                    Microservice service = analyzeModule(project, module, extractedPath);
+                for (String module : modules) {
+                    Microservice service = analyzeModule(project, source, module);
                     if (service != null) {
                         microservices.add(service);
                     }
@@ -130,15 +191,13 @@ public class MicroserviceAnalyzerService {
             microserviceRepository.saveAll(microservices);
 
             // Analyze inter-service communications
-            List<ServiceCommunication> communications = analyzeServiceCommunications(project, extractedPath, microservices);
+            List<ServiceCommunication> communications = analyzeServiceCommunications(project, source, microservices);
             
             // Also detect gateway routes
             for (Microservice ms : microservices) {
                 if (Boolean.TRUE.equals(ms.getHasGateway()) || ms.getServiceType() == ServiceType.API_GATEWAY) {
-                    Path modulePath = ms.getModulePath() != null && !ms.getModulePath().isEmpty()
-                            ? extractedPath.resolve(ms.getModulePath())
-                            : extractedPath;
-                    communications.addAll(detectGatewayRoutes(project, modulePath, ms.getName()));
+                    String modulePath = ms.getModulePath() != null ? ms.getModulePath() : "";
+                    communications.addAll(detectGatewayRoutes(project, source, modulePath, ms.getName()));
                 }
             }
             
@@ -154,46 +213,54 @@ public class MicroserviceAnalyzerService {
         return microservices;
     }
 
-    private List<Path> findModules(Path rootPath) throws IOException {
-        List<Path> modules = new ArrayList<>();
-        
-        try (Stream<Path> walk = Files.walk(rootPath, 3)) {
-            List<Path> pomFiles = walk
-                    .filter(p -> p.getFileName().toString().equals("pom.xml"))
-                    .filter(p -> !p.equals(rootPath.resolve("pom.xml")))
-                    .collect(Collectors.toList());
-            
-            for (Path pom : pomFiles) {
-                modules.add(pom.getParent());
+    private List<String> findModules(SourceCorpus source) {
+        List<String> modules = new ArrayList<>();
+        List<String> gradleModules = new ArrayList<>();
+
+        // Same depth limit as a three level directory walk, maven and gradle modules in one pass
+        for (SourceCorpus.FileInfo file : source.files()) {
+            String path = file.getPath();
+            if (depth(path) > 3) continue;
+            if (file.getFileName().equals("pom.xml") && !path.equals("pom.xml")) {
+                modules.add(ProjectSourceService.parentOf(path));
+            } else if (file.getFileName().equals("build.gradle") && !path.equals("build.gradle")) {
+                gradleModules.add(ProjectSourceService.parentOf(path));
             }
         }
 
         // Also check for gradle modules
-        try (Stream<Path> walk = Files.walk(rootPath, 3)) {
-            List<Path> gradleFiles = walk
-                    .filter(p -> p.getFileName().toString().equals("build.gradle"))
-                    .filter(p -> !p.equals(rootPath.resolve("build.gradle")))
-                    .collect(Collectors.toList());
-            
-            for (Path gradle : gradleFiles) {
-                if (!modules.contains(gradle.getParent())) {
-                    modules.add(gradle.getParent());
-                }
+        for (String module : gradleModules) {
+            if (!modules.contains(module)) {
+                modules.add(module);
             }
         }
 
         return modules;
     }
 
-    private Microservice analyzeModule(Project project, Path modulePath, Path rootPath) {
+    private int depth(String path) {
+        int depth = 1;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == '/') depth++;
+        }
+        return depth;
+    }
+
+    private List<String> javaFilesUnder(SourceCorpus source, String modulePath) {
+        return source.javaFilesUnder(modulePath).stream()
+                .map(SourceCorpus.FileInfo::getPath)
+                .collect(Collectors.toList());
+    }
+
+    private Microservice analyzeModule(Project project, SourceCorpus source, String modulePath) {
         try {
-            String moduleName = modulePath.equals(rootPath) 
+            String moduleName = modulePath.isEmpty() 
                     ? project.getName() 
-                    : modulePath.getFileName().toString();
+                    : modulePath.substring(modulePath.lastIndexOf('/') + 1);
 
             // Find Spring Boot main class
-            Path mainClass = findSpringBootMainClass(modulePath);
-            if (mainClass == null && !modulePath.equals(rootPath)) {
+            String mainClass = findSpringBootMainClass(source, modulePath);
+            if (mainClass == null && !modulePath.isEmpty()) {
                 // Not a Spring Boot module
                 return null;
             }
@@ -201,10 +268,10 @@ public class MicroserviceAnalyzerService {
             Microservice.MicroserviceBuilder builder = Microservice.builder()
                     .project(project)
                     .name(moduleName)
-                    .modulePath(rootPath.relativize(modulePath).toString());
+                    .modulePath(modulePath);
 
             // Parse application properties/yml
-            Map<String, String> config = parseApplicationConfig(modulePath);
+            Map<String, String> config = parseApplicationConfig(source, modulePath);
             builder.applicationName(config.getOrDefault("applicationName", moduleName));
             builder.serverPort(config.getOrDefault("serverPort", "8080"));
             builder.profiles(config.getOrDefault("profiles", ""));
@@ -213,11 +280,11 @@ public class MicroserviceAnalyzerService {
             builder.databaseType(config.get("databaseType"));
 
             // Detect service type from dependencies
-            ServiceType serviceType = detectServiceType(modulePath);
+            ServiceType serviceType = detectServiceType(source, modulePath);
             builder.serviceType(serviceType);
 
             // Detect Spring Cloud components
-            Set<String> dependencies = parseDependencies(modulePath);
+            Set<String> dependencies = parseDependencies(source, modulePath);
             builder.hasEurekaClient(dependencies.contains("spring-cloud-starter-netflix-eureka-client"));
             builder.hasConfigClient(dependencies.contains("spring-cloud-starter-config"));
             builder.hasGateway(dependencies.contains("spring-cloud-starter-gateway") 
@@ -228,7 +295,7 @@ public class MicroserviceAnalyzerService {
             builder.dependencies(String.join(",", dependencies));
 
             // Detect communication methods by scanning source files
-            CommunicationMethodsResult commMethods = detectCommunicationMethods(modulePath);
+            CommunicationMethodsResult commMethods = detectCommunicationMethods(source, modulePath);
             builder.hasRestTemplate(commMethods.hasRestTemplate);
             builder.hasWebClient(commMethods.hasWebClient);
             builder.hasKafka(commMethods.hasKafka);
@@ -246,18 +313,17 @@ public class MicroserviceAnalyzerService {
 
             // Get base package
             if (mainClass != null) {
-                String content = Files.readString(mainClass);
-                Pattern packagePattern = Pattern.compile("package\\s+([\\w.]+)");
-                Matcher matcher = packagePattern.matcher(content);
+                String content = source.read(mainClass);
+                TrackedMatcher matcher = PACKAGE_DECLARATION_PATTERN.matcher(content);
                 if (matcher.find()) {
                     builder.basePackage(matcher.group(1));
                 }
             }
 
             // Count classes and endpoints for this module
-            int classCount = countJavaFiles(modulePath);
+            int classCount = countJavaFiles(source, modulePath);
             builder.classCount(classCount);
-            builder.endpointCount(countEndpoints(modulePath));
+            builder.endpointCount(countEndpoints(source, modulePath));
 
             return builder.build();
 
@@ -267,61 +333,57 @@ public class MicroserviceAnalyzerService {
         }
     }
 
-    private Path findSpringBootMainClass(Path modulePath) throws IOException {
-        try (Stream<Path> walk = Files.walk(modulePath)) {
-            return walk
-                    .filter(p -> p.toString().endsWith(".java"))
-                    .filter(this::isSpringBootMainClass)
-                    .findFirst()
-                    .orElse(null);
-        }
+    private String findSpringBootMainClass(SourceCorpus source, String modulePath) {
+        return javaFilesUnder(source, modulePath).stream()
+                .filter(file -> isSpringBootMainClass(source, file))
+                .findFirst()
+                .orElse(null);
     }
 
-    private boolean isSpringBootMainClass(Path javaFile) {
+    private boolean isSpringBootMainClass(SourceCorpus source, String javaFile) {
         try {
-            String content = Files.readString(javaFile);
-            return content.contains("@SpringBootApplication") 
-                    || (content.contains("@EnableAutoConfiguration") && content.contains("main("));
+            SourceFile file = source.source(javaFile);
+            return file.contains("@SpringBootApplication") 
+                    || (file.contains("@EnableAutoConfiguration") && file.contains("main("));
         } catch (IOException e) {
             return false;
         }
     }
 
-    private Map<String, String> parseApplicationConfig(Path modulePath) {
+    private Map<String, String> parseApplicationConfig(SourceCorpus source, String modulePath) {
         Map<String, String> config = new HashMap<>();
         
         // Check application.properties
-        Path propsFile = modulePath.resolve("src/main/resources/application.properties");
-        if (Files.exists(propsFile)) {
+        String propsFile = ProjectSourceService.resolve(modulePath, "src/main/resources/application.properties");
+        if (source.exists(propsFile)) {
             try {
-                String content = Files.readString(propsFile);
-                Matcher nameMatcher = APPLICATION_NAME_PATTERN.matcher(content);
+                String content = source.read(propsFile);
+                TrackedMatcher nameMatcher = APPLICATION_NAME_PATTERN.matcher(content);
                 if (nameMatcher.find()) {
                     config.put("applicationName", nameMatcher.group(1).trim());
                 }
-                Matcher portMatcher = SERVER_PORT_PATTERN.matcher(content);
+                TrackedMatcher portMatcher = SERVER_PORT_PATTERN.matcher(content);
                 if (portMatcher.find()) {
                     config.put("serverPort", portMatcher.group(1));
                 }
                 // Extract profiles
-                Pattern profilePattern = Pattern.compile("spring\\.profiles\\.active\\s*=\\s*(.+)");
-                Matcher profileMatcher = profilePattern.matcher(content);
+                TrackedMatcher profileMatcher = ACTIVE_PROFILES_PATTERN.matcher(content);
                 if (profileMatcher.find()) {
                     config.put("profiles", profileMatcher.group(1).trim());
                 }
                 // Extract Eureka URL
-                Matcher eurekaMatcher = EUREKA_URL_PATTERN.matcher(content);
+                TrackedMatcher eurekaMatcher = EUREKA_URL_PATTERN.matcher(content);
                 if (eurekaMatcher.find()) {
                     config.put("eurekaServiceUrl", eurekaMatcher.group(1).trim());
                 }
                 // Extract database type
-                Matcher dbMatcher = DATABASE_URL_PATTERN.matcher(content);
+                TrackedMatcher dbMatcher = DATABASE_URL_PATTERN.matcher(content);
                 if (dbMatcher.find()) {
                     config.put("databaseType", dbMatcher.group(1).toUpperCase());
                 }
                 // Extract gateway routes
                 StringBuilder routes = new StringBuilder();
-                Matcher routeMatcher = GATEWAY_ROUTE_PATTERN.matcher(content);
+                TrackedMatcher routeMatcher = GATEWAY_ROUTE_PATTERN.matcher(content);
                 while (routeMatcher.find()) {
                     if (routes.length() > 0) routes.append(",");
                     routes.append(routeMatcher.group(1).trim());
@@ -335,15 +397,15 @@ public class MicroserviceAnalyzerService {
         }
 
         // Check application.yml
-        Path ymlFile = modulePath.resolve("src/main/resources/application.yml");
-        if (Files.exists(ymlFile)) {
+        String ymlFile = ProjectSourceService.resolve(modulePath, "src/main/resources/application.yml");
+        if (source.exists(ymlFile)) {
             try {
-                String content = Files.readString(ymlFile);
-                Matcher nameMatcher = YAML_APP_NAME_PATTERN.matcher(content);
+                String content = source.read(ymlFile);
+                TrackedMatcher nameMatcher = YAML_APP_NAME_PATTERN.matcher(content);
                 if (nameMatcher.find() && !config.containsKey("applicationName")) {
                     config.put("applicationName", nameMatcher.group(1));
                 }
-                Matcher portMatcher = YAML_PORT_PATTERN.matcher(content);
+                TrackedMatcher portMatcher = YAML_PORT_PATTERN.matcher(content);
                 if (portMatcher.find() && !config.containsKey("serverPort")) {
                     config.put("serverPort", portMatcher.group(1));
                 }
@@ -351,8 +413,7 @@ public class MicroserviceAnalyzerService {
                 if (content.contains("cloud:") && content.contains("gateway:")) {
                     config.put("hasGatewayConfig", "true");
                     // Extract routes from YAML - simplified parsing
-                    Pattern yamlRoutePattern = Pattern.compile("uri:\\s*(lb://[\\w-]+|http[s]?://[^\\s]+)");
-                    Matcher yamlRouteMatcher = yamlRoutePattern.matcher(content);
+                    TrackedMatcher yamlRouteMatcher = YAML_ROUTE_URI_PATTERN.matcher(content);
                     StringBuilder yamlRoutes = new StringBuilder();
                     while (yamlRouteMatcher.find()) {
                         if (yamlRoutes.length() > 0) yamlRoutes.append(",");
@@ -364,8 +425,7 @@ public class MicroserviceAnalyzerService {
                 }
                 // Extract eureka from YAML
                 if (content.contains("eureka:") && content.contains("defaultZone:")) {
-                    Pattern yamlEurekaPattern = Pattern.compile("defaultZone:\\s*([^\\s]+)");
-                    Matcher yamlEurekaMatcher = yamlEurekaPattern.matcher(content);
+                    TrackedMatcher yamlEurekaMatcher = YAML_EUREKA_URL_PATTERN.matcher(content);
                     if (yamlEurekaMatcher.find() && !config.containsKey("eurekaServiceUrl")) {
                         config.put("eurekaServiceUrl", yamlEurekaMatcher.group(1));
                     }
@@ -389,77 +449,73 @@ public class MicroserviceAnalyzerService {
         Set<String> methods = new HashSet<>();
     }
 
-    private CommunicationMethodsResult detectCommunicationMethods(Path modulePath) {
+    private CommunicationMethodsResult detectCommunicationMethods(SourceCorpus source, String modulePath) {
         CommunicationMethodsResult result = new CommunicationMethodsResult();
         
-        try (Stream<Path> walk = Files.walk(modulePath)) {
-            List<Path> javaFiles = walk
-                    .filter(p -> p.toString().endsWith(".java"))
-                    .filter(p -> !p.toString().contains("/test/") && !p.toString().contains("\\test\\"))
-                    .collect(Collectors.toList());
-            
-            for (Path file : javaFiles) {
-                try {
-                    String content = Files.readString(file);
-                    
-                    // Check for RestTemplate
-                    if (content.contains("RestTemplate")) {
-                        result.hasRestTemplate = true;
-                        result.methods.add("REST_TEMPLATE");
-                    }
-                    
-                    // Check for WebClient
-                    if (WEB_CLIENT_PATTERN.matcher(content).find()) {
-                        result.hasWebClient = true;
-                        result.methods.add("WEB_CLIENT");
-                    }
-                    
-                    // Check for Feign
-                    if (content.contains("@FeignClient")) {
-                        result.methods.add("FEIGN_CLIENT");
-                    }
-                    
-                    // Check for Kafka
-                    if (content.contains("@KafkaListener") || content.contains("KafkaTemplate")) {
-                        result.hasKafka = true;
-                        result.methods.add("KAFKA");
-                    }
-                    
-                    // Check for RabbitMQ
-                    if (content.contains("@RabbitListener") || content.contains("RabbitTemplate") || content.contains("@RabbitHandler")) {
-                        result.hasRabbitmq = true;
-                        result.methods.add("RABBITMQ");
-                    }
-                    
-                    // Check for gRPC
-                    if (GRPC_PATTERN.matcher(content).find()) {
-                        result.hasGrpc = true;
-                        result.methods.add("GRPC");
-                    }
-                    
-                    // Check for Circuit Breaker
-                    if (CIRCUIT_BREAKER_PATTERN.matcher(content).find()) {
-                        result.hasCircuitBreaker = true;
-                    }
-                    
-                    // Check for Load Balancer
-                    if (LOAD_BALANCED_PATTERN.matcher(content).find()) {
-                        result.methods.add("LOAD_BALANCED");
-                    }
-                    
-                } catch (IOException e) {
-                    log.debug("Error reading file: {}", file, e);
+        List<String> javaFiles = javaFilesUnder(source, modulePath).stream()
+                .filter(p -> !p.contains("/test/"))
+                .collect(Collectors.toList());
+        
+        for (String file : javaFiles) {
+            try {
+                // Literal lookups only, answered from the bytes without decoding the file
+                SourceFile content = source.source(file);
+                
+                // Check for RestTemplate
+                if (content.contains("RestTemplate")) {
+                    result.hasRestTemplate = true;
+                    result.methods.add("REST_TEMPLATE");
+                }
+                
+                // Check for WebClient
+                if (containsAny(content, WEB_CLIENT_NAMES)) {
+                    result.hasWebClient = true;
+                    result.methods.add("WEB_CLIENT");
+                }
+                
+                // Check for Feign
+                if (content.contains("@FeignClient")) {
+                    result.methods.add("FEIGN_CLIENT");
+                }
+                
+                // Check for Kafka
+                if (content.contains("@KafkaListener") || content.contains("KafkaTemplate")) {
+                    result.hasKafka = true;
+                    result.methods.add("KAFKA");
+                }
+                
+                // Check for RabbitMQ
+                if (content.contains("@RabbitListener") || content.contains("RabbitTemplate") || content.contains("@RabbitHandler")) {
+                    result.hasRabbitmq = true;
+                    result.methods.add("RABBITMQ");
                 }
+                
+                // Check for gRPC
+                if (containsAny(content, GRPC_NAMES)) {
+                    result.hasGrpc = true;
+                    result.methods.add("GRPC");
+                }
+                
+                // Check for Circuit Breaker
+                if (containsAny(content, CIRCUIT_BREAKER_NAMES)) {
+                    result.hasCircuitBreaker = true;
+                }
+                
+                // Check for Load Balancer
+                if (containsAny(content, LOAD_BALANCED_NAMES)) {
+                    result.methods.add("LOAD_BALANCED");
+                }
+                
+            } catch (IOException e) {
+                log.debug("Error reading file: {}", file, e);
             }
-        } catch (IOException e) {
-            log.debug("Error walking module path", e);
         }
         
         return result;
     }
 
-    private ServiceType detectServiceType(Path modulePath) {
-        Set<String> dependencies = parseDependencies(modulePath);
+    private ServiceType detectServiceType(SourceCorpus source, String modulePath) {
+        Set<String> dependencies = parseDependencies(source, modulePath);
         
         if (dependencies.contains("spring-cloud-starter-gateway") 
                 || dependencies.contains("spring-cloud-starter-netflix-zuul")) {
@@ -488,36 +544,30 @@ public class MicroserviceAnalyzerService {
         }
 
         // Check for scheduled service
-        try {
-            boolean hasScheduled = Files.walk(modulePath)
-                    .filter(p -> p.toString().endsWith(".java"))
-                    .anyMatch(p -> {
-                        try {
-                            return Files.readString(p).contains("@Scheduled");
-                        } catch (IOException e) {
-                            return false;
-                        }
-                    });
-            if (hasScheduled) {
-                return ServiceType.SCHEDULED_SERVICE;
-            }
-        } catch (IOException e) {
-            log.debug("Error checking for scheduled tasks", e);
+        boolean hasScheduled = javaFilesUnder(source, modulePath).stream()
+                .anyMatch(p -> {
+                    try {
+                        return source.source(p).contains("@Scheduled");
+                    } catch (IOException e) {
+                        return false;
+                    }
+                });
+        if (hasScheduled) {
+            return ServiceType.SCHEDULED_SERVICE;
         }
 
         return ServiceType.UNKNOWN;
     }
 
-    private Set<String> parseDependencies(Path modulePath) {
+    private Set<String> parseDependencies(SourceCorpus source, String modulePath) {
         Set<String> dependencies = new HashSet<>();
         
         // Parse pom.xml
-        Path pomFile = modulePath.resolve("pom.xml");
-        if (Files.exists(pomFile)) {
+        String pomFile = ProjectSourceService.resolve(modulePath, "pom.xml");
+        if (source.exists(pomFile)) {
             try {
-                String content = Files.readString(pomFile);
-                Pattern artifactPattern = Pattern.compile("<artifactId>([^<]+)</artifactId>");
-                Matcher matcher = artifactPattern.matcher(content);
+                String content = source.read(pomFile);
+                TrackedMatcher matcher = POM_ARTIFACT_PATTERN.matcher(content);
                 while (matcher.find()) {
                     dependencies.add(matcher.group(1));
                 }
@@ -527,12 +577,11 @@ public class MicroserviceAnalyzerService {
         }
 
         // Parse build.gradle
-        Path gradleFile = modulePath.resolve("build.gradle");
-        if (Files.exists(gradleFile)) {
+        String gradleFile = ProjectSourceService.resolve(modulePath, "build.gradle");
+        if (source.exists(gradleFile)) {
             try {
-                String content = Files.readString(gradleFile);
-                Pattern depPattern = Pattern.compile("['\"]([\\w.-]+:[\\w.-]+)(?::[\\w.-]+)?['\"]");
-                Matcher matcher = depPattern.matcher(content);
+                String content = source.read(gradleFile);
+                TrackedMatcher matcher = GRADLE_DEPENDENCY_PATTERN.matcher(content);
                 while (matcher.find()) {
                     String[] parts = matcher.group(1).split(":");
                     if (parts.length >= 2) {
@@ -547,91 +596,78 @@ public class MicroserviceAnalyzerService {
         return dependencies;
     }
 
-    private int countJavaFiles(Path modulePath) {
-        try (Stream<Path> walk = Files.walk(modulePath)) {
-            return (int) walk
-                    .filter(p -> p.toString().endsWith(".java"))
-                    .filter(p -> !p.toString().contains("/test/"))
-                    .count();
-        } catch (IOException e) {
-            return 0;
-        }
+    private int countJavaFiles(SourceCorpus source, String modulePath) {
+        return (int) javaFilesUnder(source, modulePath).stream()
+                .filter(p -> !p.contains("/test/"))
+                .count();
     }
 
-    private int countEndpoints(Path modulePath) {
+    private int countEndpoints(SourceCorpus source, String modulePath) {
         int count = 0;
-        try (Stream<Path> walk = Files.walk(modulePath)) {
-            List<Path> javaFiles = walk
-                    .filter(p -> p.toString().endsWith(".java"))
-                    .filter(p -> !p.toString().contains("/test/"))
-                    .collect(Collectors.toList());
-            
-            for (Path file : javaFiles) {
-                String content = Files.readString(file);
-                if (content.contains("@RestController") || content.contains("@Controller")) {
-                    Pattern mappingPattern = Pattern.compile("@(Get|Post|Put|Delete|Patch|Request)Mapping");
-                    Matcher matcher = mappingPattern.matcher(content);
+        List<String> javaFiles = javaFilesUnder(source, modulePath).stream()
+                .filter(p -> !p.contains("/test/"))
+                .collect(Collectors.toList());
+
+        for (String file : javaFiles) {
+            try {
+                SourceFile sourceFile = source.source(file);
+                if (sourceFile.containsOutsideComments("@RestController") || sourceFile.containsOutsideComments("@Controller")) {
+                    TrackedMatcher matcher = MAPPING_ANNOTATION_PATTERN.matcher(sourceFile.getContent());
                     while (matcher.find()) {
-                        count++;
+                        if (!sourceFile.isComment(matcher.start())) count++;
                     }
                 }
+            } catch (IOException e) {
+                log.debug("Error counting endpoints", e);
             }
-        } catch (IOException e) {
-            log.debug("Error counting endpoints", e);
         }
         return count;
     }
 
     private List<ServiceCommunication> analyzeServiceCommunications(
-            Project project, Path rootPath, List<Microservice> microservices) {
+            Project project, SourceCorpus source, List<Microservice> microservices) {
         
         List<ServiceCommunication> communications = new ArrayList<>();
         
-        try (Stream<Path> walk = Files.walk(rootPath)) {
-            List<Path> javaFiles = walk
-                    .filter(p -> p.toString().endsWith(".java"))
-                    .filter(p -> !p.toString().contains("/test/"))
-                    .collect(Collectors.toList());
+        List<String> javaFiles = javaFilesUnder(source, "").stream()
+                .filter(p -> !p.contains("/test/"))
+                .collect(Collectors.toList());
 
-            for (Path file : javaFiles) {
-                try {
-                    String content = Files.readString(file);
-                    String className = extractClassName(file);
-                    String sourceService = findServiceForFile(file, rootPath, microservices);
+        for (String file : javaFiles) {
+            try {
+                SourceFile sourceFile = source.source(file);
+                String className = extractClassName(file);
+                String sourceService = findServiceForFile(file, microservices);
 
-                    // Detect Feign clients
-                    communications.addAll(detectFeignClients(project, content, className, sourceService));
-                    
-                    // Detect RestTemplate calls
-                    communications.addAll(detectRestTemplateCalls(project, content, className, sourceService));
-                    
-                    // Detect WebClient calls
-                    communications.addAll(detectWebClientCalls(project, content, className, sourceService));
-                    
-                    // Detect Kafka communications
-                    communications.addAll(detectKafkaCommunications(project, content, className, sourceService));
-                    
-                    // Detect RabbitMQ communications
-                    communications.addAll(detectRabbitMQCommunications(project, content, className, sourceService));
+                // Detect Feign clients
+                communications.addAll(detectFeignClients(project, sourceFile, className, sourceService));
+                
+                // Detect RestTemplate calls
+                communications.addAll(detectRestTemplateCalls(project, sourceFile, className, sourceService));
+                
+                // Detect WebClient calls
+                communications.addAll(detectWebClientCalls(project, sourceFile, className, sourceService));
+                
+                // Detect Kafka communications
+                communications.addAll(detectKafkaCommunications(project, sourceFile, className, sourceService));
+                
+                // Detect RabbitMQ communications
+                communications.addAll(detectRabbitMQCommunications(project, sourceFile, className, sourceService));
 
-                } catch (IOException e) {
-                    log.debug("Error reading file: {}", file, e);
-                }
+            } catch (IOException e) {
+                log.debug("Error reading file: {}", file, e);
             }
-        } catch (IOException e) {
-            log.error("Error walking directory", e);
         }
 
         return communications;
     }
 
-    private String extractClassName(Path file) {
-        String fileName = file.getFileName().toString();
+    private String extractClassName(String file) {
+        String fileName = file.substring(file.lastIndexOf('/') + 1);
         return fileName.replace(".java", "");
     }
 
-    private String findServiceForFile(Path file, Path rootPath, List<Microservice> microservices) {
-        String filePath = rootPath.relativize(file).toString();
+    private String findServiceForFile(String filePath, List<Microservice> microservices) {
         
         for (Microservice service : microservices) {
             if (service.getModulePath() != null && !service.getModulePath().isEmpty()) {
@@ -646,18 +682,20 @@ public class MicroserviceAnalyzerService {
     }
 
     private List<ServiceCommunication> detectFeignClients(
-            Project project, String content, String className, String sourceService) {
+            Project project, SourceFile source, String className, String sourceService) {
         
         List<ServiceCommunication> comms = new ArrayList<>();
         
-        if (content.contains("@FeignClient")) {
-            Matcher matcher = FEIGN_CLIENT_PATTERN.matcher(content);
+        if (source.contains("@FeignClient")) {
+            String content = source.getContent();
+            TrackedMatcher matcher = FEIGN_CLIENT_PATTERN.matcher(content);
             while (matcher.find()) {
+                if (source.isComment(matcher.start())) continue;
                 String targetService = matcher.group(1);
                 
                 // Also try to get the URL if specified
                 String url = null;
-                Matcher urlMatcher = FEIGN_CLIENT_URL_PATTERN.matcher(content);
+                TrackedMatcher urlMatcher = FEIGN_CLIENT_URL_PATTERN.matcher(content);
                 if (urlMatcher.find()) {
                     url = urlMatcher.group(1);
                 }
@@ -680,9 +718,9 @@ public class MicroserviceAnalyzerService {
             }
             
             // Extract methods in the Feign interface
-            Pattern methodPattern = Pattern.compile("@(Get|Post|Put|Delete|Patch)Mapping\\s*\\([^)]*[\"']([^\"']*)[\"']");
-            Matcher methodMatcher = methodPattern.matcher(content);
+            TrackedMatcher methodMatcher = FEIGN_METHOD_PATTERN.matcher(content);
             while (methodMatcher.find()) {
+                if (source.isComment(methodMatcher.start())) continue;
                 String httpMethod = methodMatcher.group(1).toUpperCase();
                 String path = methodMatcher.group(2);
                 // Add individual endpoint communications
@@ -700,18 +738,20 @@ public class MicroserviceAnalyzerService {
     }
 
     private List<ServiceCommunication> detectRestTemplateCalls(
-            Project project, String content, String className, String sourceService) {
+            Project project, SourceFile source, String className, String sourceService) {
         
         List<ServiceCommunication> comms = new ArrayList<>();
         
-        if (content.contains("RestTemplate") || content.contains("restTemplate")) {
+        if (source.contains("RestTemplate") || source.contains("restTemplate")) {
+            String content = source.getContent();
             // Check if using @LoadBalanced
             boolean isLoadBalanced = content.contains("@LoadBalanced") || content.contains("lb://");
             
-            Matcher urlMatcher = REST_TEMPLATE_URL_PATTERN.matcher(content);
+            TrackedMatcher urlMatcher = REST_TEMPLATE_URL_PATTERN.matcher(content);
             Set<String> processedUrls = new HashSet<>();
             
             while (urlMatcher.find()) {
+                if (source.isComment(urlMatcher.start())) continue;
                 String url = urlMatcher.group(1);
                 if (processedUrls.contains(url)) continue;
                 processedUrls.add(url);
@@ -757,15 +797,17 @@ public class MicroserviceAnalyzerService {
     }
 
     private List<ServiceCommunication> detectWebClientCalls(
-            Project project, String content, String className, String sourceService) {
+            Project project, SourceFile source, String className, String sourceService) {
         
         List<ServiceCommunication> comms = new ArrayList<>();
         
-        if (WEB_CLIENT_PATTERN.matcher(content).find()) {
-            Matcher urlMatcher = WEB_CLIENT_URL_PATTERN.matcher(content);
+        if (containsAny(source, WEB_CLIENT_NAMES)) {
+            String content = source.getContent();
+            TrackedMatcher urlMatcher = WEB_CLIENT_URL_PATTERN.matcher(content);
             Set<String> processedUrls = new HashSet<>();
             
             while (urlMatcher.find()) {
+                if (source.isComment(urlMatcher.start())) continue;
                 String url = urlMatcher.group(1);
                 if (processedUrls.contains(url)) continue;
                 processedUrls.add(url);
@@ -819,9 +861,9 @@ public class MicroserviceAnalyzerService {
         // Handle http:// URLs
         if (url.startsWith("http://") || url.startsWith("https://")) {
             try {
-                String host = url.replaceFirst("https?://", "").split("[:/]")[0];
+                String host = HOST_DELIMITER_PATTERN.split(URL_SCHEME_PATTERN.replaceFirst(url, ""))[0];
                 // Check if it looks like a service name (not an IP or localhost)
-                if (!host.matches("\\d+\\.\\d+\\.\\d+\\.\\d+") && !host.equals("localhost")) {
+                if (!IP_ADDRESS_PATTERN.matches(host) && !host.equals("localhost")) {
                     return host;
                 }
             } catch (Exception e) {
@@ -831,8 +873,7 @@ public class MicroserviceAnalyzerService {
         
         // Handle ${} placeholders
         if (url.contains("${")) {
-            Pattern placeholderPattern = Pattern.compile("\\$\\{([^}]+)\\}");
-            Matcher m = placeholderPattern.matcher(url);
+            TrackedMatcher m = PLACEHOLDER_PATTERN.matcher(url);
             if (m.find()) {
                 String placeholder = m.group(1);
                 // Extract meaningful name from placeholder like ${user-service.url}
@@ -846,13 +887,18 @@ public class MicroserviceAnalyzerService {
     }
 
     private List<ServiceCommunication> detectKafkaCommunications(
-            Project project, String content, String className, String sourceService) {
+            Project project, SourceFile source, String className, String sourceService) {
         
         List<ServiceCommunication> comms = new ArrayList<>();
+        if (!source.contains("@KafkaListener") && !source.contains("kafkaTemplate")) {
+            return comms;
+        }
+        String content = source.getContent();
         
         // Kafka listeners (consumers)
-        Matcher listenerMatcher = KAFKA_LISTENER_PATTERN.matcher(content);
+        TrackedMatcher listenerMatcher = KAFKA_LISTENER_PATTERN.matcher(content);
         while (listenerMatcher.find()) {
+            if (source.isComment(listenerMatcher.start())) continue;
             String topic = listenerMatcher.group(1);
             
             // Try to find the method name
@@ -871,9 +917,10 @@ public class MicroserviceAnalyzerService {
         }
         
         // Kafka template (producer)
-        Matcher templateMatcher = KAFKA_TEMPLATE_PATTERN.matcher(content);
+        TrackedMatcher templateMatcher = KAFKA_TEMPLATE_PATTERN.matcher(content);
         Set<String> processedTopics = new HashSet<>();
         while (templateMatcher.find()) {
+            if (source.isComment(templateMatcher.start())) continue;
             String topic = templateMatcher.group(1);
             if (processedTopics.contains(topic)) continue;
             processedTopics.add(topic);
@@ -893,13 +940,18 @@ public class MicroserviceAnalyzerService {
     }
 
     private List<ServiceCommunication> detectRabbitMQCommunications(
-            Project project, String content, String className, String sourceService) {
+            Project project, SourceFile source, String className, String sourceService) {
         
         List<ServiceCommunication> comms = new ArrayList<>();
+        if (!source.contains("@RabbitListener") && !source.contains("rabbitTemplate")) {
+            return comms;
+        }
+        String content = source.getContent();
         
         // RabbitMQ listeners (consumers)
-        Matcher listenerMatcher = RABBIT_LISTENER_PATTERN.matcher(content);
+        TrackedMatcher listenerMatcher = RABBIT_LISTENER_PATTERN.matcher(content);
         while (listenerMatcher.find()) {
+            if (source.isComment(listenerMatcher.start())) continue;
             String queue = listenerMatcher.group(1);
             String methodName = extractMethodNameAfterAnnotation(content, listenerMatcher.end());
             
@@ -916,9 +968,10 @@ public class MicroserviceAnalyzerService {
         }
         
         // RabbitMQ template (producer)
-        Matcher templateMatcher = RABBIT_TEMPLATE_PATTERN.matcher(content);
+        TrackedMatcher templateMatcher = RABBIT_TEMPLATE_PATTERN.matcher(content);
         Set<String> processedExchanges = new HashSet<>();
         while (templateMatcher.find()) {
+            if (source.isComment(templateMatcher.start())) continue;
             String exchange = templateMatcher.group(2);
             if (processedExchanges.contains(exchange)) continue;
             processedExchanges.add(exchange);
@@ -937,11 +990,16 @@ public class MicroserviceAnalyzerService {
         return comms;
     }
     
+    private static boolean containsAny(SourceFile file, List<String> names) {
+        for (String name : names) {
+            if (file.contains(name)) return true;
+        }
+        return false;
+    }
+
     private String extractMethodNameAfterAnnotation(String content, int position) {
         // Find the method declaration after the annotation
-        String remaining = content.substring(position);
-        Pattern methodPattern = Pattern.compile("\\s*(public|private|protected)?\\s*\\w+\\s+(\\w+)\\s*\\(");
-        Matcher m = methodPattern.matcher(remaining);
+        TrackedMatcher m = METHOD_DECLARATION_PATTERN.matcher(content).region(position, content.length());
         if (m.find()) {
             return m.group(2);
         }
@@ -950,22 +1008,19 @@ public class MicroserviceAnalyzerService {
 
     // Additional method to detect gateway routes as communications
     public List<ServiceCommunication> detectGatewayRoutes(
-            Project project, Path modulePath, String sourceService) {
+            Project project, SourceCorpus source, String modulePath, String sourceService) {
         
         List<ServiceCommunication> comms = new ArrayList<>();
         
         try {
             // Check application.yml for gateway routes
-            Path ymlFile = modulePath.resolve("src/main/resources/application.yml");
-            if (Files.exists(ymlFile)) {
-                String content = Files.readString(ymlFile);
+            String ymlFile = ProjectSourceService.resolve(modulePath, "src/main/resources/application.yml");
+            if (source.exists(ymlFile)) {
+                String content = source.read(ymlFile);
                 
                 // Parse gateway routes from YAML
-                Pattern routeUriPattern = Pattern.compile("uri:\\s*(lb://([\\w-]+)|http[s]?://([^\\s]+))");
-                Pattern routeIdPattern = Pattern.compile("id:\\s*([\\w-]+)");
-                Pattern predicatePattern = Pattern.compile("Path=([^\\s,]+)");
                 
-                Matcher uriMatcher = routeUriPattern.matcher(content);
+                TrackedMatcher uriMatcher = GATEWAY_YAML_ROUTE_PATTERN.matcher(content);
                 while (uriMatcher.find()) {
                     String fullUri = uriMatcher.group(1);
                     String serviceName = uriMatcher.group(2); // lb:// service name
@@ -989,10 +1044,10 @@ public class MicroserviceAnalyzerService {
             }
             
             // Check application.properties for gateway routes
-            Path propsFile = modulePath.resolve("src/main/resources/application.properties");
-            if (Files.exists(propsFile)) {
-                String content = Files.readString(propsFile);
-                Matcher routeMatcher = GATEWAY_ROUTE_PATTERN.matcher(content);
+            String propsFile = ProjectSourceService.resolve(modulePath, "src/main/resources/application.properties");
+            if (source.exists(propsFile)) {
+                String content = source.read(propsFile);
+                TrackedMatcher routeMatcher = GATEWAY_ROUTE_PATTERN.matcher(content);
                 while (routeMatcher.find()) {
                     String uri = routeMatcher.group(1).trim();
                     String serviceName = extractServiceNameFromUrl(uri);
@@ -0,0 +1,232 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.dto.PackageDsmResponse;
+import com.springanalyzer.entity.AnalyzedClass;
+import com.springanalyzer.entity.DsmPackage;
+import com.springanalyzer.entity.PackageDependency;
+import com.springanalyzer.entity.Project;
+import com.springanalyzer.exception.BadRequestException;
+import com.springanalyzer.exception.ResourceNotFoundException;
+import com.springanalyzer.repository.AnalyzedClassRepository;
+import com.springanalyzer.repository.ClassRelationshipRepository;
+import com.springanalyzer.repository.DsmPackageRepository;
+import com.springanalyzer.repository.PackageDependencyRepository;
+import com.springanalyzer.repository.ProjectRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Aggregates class relationships into a package dependency structure matrix. Only the non-empty
+ * cells are stored, and packages are ordered by layer so that a package comes after every package
+ * it depends on: outside of a cycle group, every cell lies below the diagonal.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PackageDsmService {
+
+    // Largest tile edge served at once, so a client never asks for the whole matrix of a large project
+    public static final int MAX_TILE_SIZE = 256;
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT_PACKAGE =
+            "INSERT INTO dsm_packages (project_id, name, position, layer, cycle_group, class_count) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_DEPENDENCY =
+            "INSERT INTO package_dependencies (project_id, row_index, column_index, weight) VALUES (?, ?, ?, ?)";
+
+    private final ProjectRepository projectRepository;
+    private final AnalyzedClassRepository classRepository;
+    private final ClassRelationshipRepository relationshipRepository;
+    private final DsmPackageRepository packageRepository;
+    private final PackageDependencyRepository dependencyRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Replaces the stored matrix of the project with one computed from its current classes and
+     * relationships. A cell weighs the number of relationships from classes of the row's package
+     * to classes of the column's package; the diagonal counts those within a package.
+     */
+    public void computeDsm(Project project) {
+        Long projectId = project.getId();
+        packageRepository.deleteByProjectId(projectId);
+        dependencyRepository.deleteByProjectId(projectId);
+
+        Map<String, Integer> packageIndex = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        Map<Long, Integer> packageOfClass = new HashMap<>();
+        int[] classCounts = new int[16];
+        for (AnalyzedClass analyzedClass : classRepository.findByProjectId(projectId)) {
+            String name = analyzedClass.getPackageName() != null ? analyzedClass.getPackageName() : "";
+            int index = packageIndex.computeIfAbsent(name, n -> {
+                names.add(n);
+                return names.size() - 1;
+            });
+            if (index == classCounts.length) classCounts = Arrays.copyOf(classCounts, index * 2);
+            classCounts[index]++;
+            packageOfClass.put(analyzedClass.getId(), index);
+        }
+        int n = names.size();
+        if (n == 0) return;
+
+        // Weights keyed by row << 32 | column
+        Map<Long, Integer> weights = new HashMap<>();
+        for (ClassRelationshipRepository.Edge edge : relationshipRepository.findEdgesByProjectId(projectId)) {
+            Integer row = packageOfClass.get(edge.getSourceId());
+            Integer column = packageOfClass.get(edge.getTargetId());
+            if (row == null || column == null) continue;
+            weights.merge((long) row << 32 | column, 1, Integer::sum);
+        }
+
+        List<int[]> components = stronglyConnected(n, weights.keySet());
+        int[] componentOf = new int[n];
+        for (int c = 0; c < components.size(); c++) {
+            for (int p : components.get(c)) componentOf[p] = c;
+        }
+        // Components come after those they depend on, so every dependency's layer is known already
+        int[] componentLayer = new int[components.size()];
+        List<List<Integer>> dependenciesOf = new ArrayList<>(components.size());
+        for (int c = 0; c < components.size(); c++) dependenciesOf.add(new ArrayList<>());
+        for (long key : weights.keySet()) {
+            int from = componentOf[(int) (key >>> 32)];
+            int to = componentOf[(int) key];
+            if (from != to) dependenciesOf.get(from).add(to);
+        }
+        for (int c = 0; c < components.size(); c++) {
+            int layer = 0;
+            for (int dependency : dependenciesOf.get(c)) layer = Math.max(layer, componentLayer[dependency] + 1);
+            componentLayer[c] = layer;
+        }
+
+        // By layer, members of a cycle group next to each other, then by name
+        String[] firstName = new String[components.size()];
+        for (int c = 0; c < components.size(); c++) {
+            for (int p : components.get(c)) {
+                if (firstName[c] == null || names.get(p).compareTo(firstName[c]) < 0) firstName[c] = names.get(p);
+            }
+        }
+        Integer[] order = new Integer[n];
+        for (int p = 0; p < n; p++) order[p] = p;
+        Arrays.sort(order, Comparator.<Integer>comparingInt(p -> componentLayer[componentOf[p]])
+                .thenComparing(p -> firstName[componentOf[p]])
+                .thenComparing(names::get));
+
+        int[] position = new int[n];
+        Integer[] cycleGroup = new Integer[n];
+        int[] componentGroup = new int[components.size()];
+        int cycleGroups = 0;
+        for (int i = 0; i < n; i++) {
+            int p = order[i];
+            position[p] = i;
+            int c = componentOf[p];
+            if (components.get(c).length > 1) {
+                if (componentGroup[c] == 0) componentGroup[c] = ++cycleGroups;
+                cycleGroup[p] = componentGroup[c];
+            }
+        }
+
+        List<Object[]> packageRows = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int p = order[i];
+            packageRows.add(new Object[]{projectId, names.get(p), i, componentLayer[componentOf[p]], cycleGroup[p], classCounts[p]});
+        }
+        List<Object[]> dependencyRows = new ArrayList<>(weights.size());
+        weights.forEach((key, weight) -> dependencyRows.add(new Object[]{
+                projectId, position[(int) (key >>> 32)], position[(int) (long) key], weight}));
+        dependencyRows.sort(Comparator.<Object[]>comparingInt(row -> (int) row[1]).thenComparingInt(row -> (int) row[2]));
+        for (int from = 0; from < packageRows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(INSERT_PACKAGE, packageRows.subList(from, Math.min(from + BATCH_SIZE, packageRows.size())));
+        }
+        for (int from = 0; from < dependencyRows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(INSERT_DEPENDENCY, dependencyRows.subList(from, Math.min(from + BATCH_SIZE, dependencyRows.size())));
+        }
+        log.info("Computed package DSM of project {}: {} packages, {} dependencies, {} cycle groups",
+                projectId, n, weights.size(), cycleGroups);
+    }
+
+    public PackageDsmResponse getDsm(Long projectId) {
+        requireProject(projectId);
+        List<DsmPackage> packages = packageRepository.findByProjectIdOrderByPositionAsc(projectId);
+        int layers = 0;
+        Set<Integer> cycleGroups = new HashSet<>();
+        List<PackageDsmResponse.PackageEntry> entries = new ArrayList<>(packages.size());
+        for (DsmPackage dsmPackage : packages) {
+            layers = Math.max(layers, dsmPackage.getLayer() + 1);
+            if (dsmPackage.getCycleGroup() != null) cycleGroups.add(dsmPackage.getCycleGroup());
+            entries.add(PackageDsmResponse.PackageEntry.builder()
+                    .position(dsmPackage.getPosition())
+                    .name(dsmPackage.getName())
+                    .layer(dsmPackage.getLayer())
+                    .cycleGroup(dsmPackage.getCycleGroup())
+                    .classCount(dsmPackage.getClassCount())
+                    .build());
+        }
+        return PackageDsmResponse.builder()
+                .packageCount(packages.size())
+                .dependencyCount(dependencyRepository.countByProjectId(projectId))
+                .layerCount(layers)
+                .cycleGroupCount(cycleGroups.size())
+                .maxTileSize(MAX_TILE_SIZE)
+                .packages(entries)
+                .build();
+    }
+
+    /**
+     * The non-empty cells of the {@code size} by {@code size} square whose top left cell is at
+     * the given row and column.
+     */
+    public PackageDsmResponse.Tile getTile(Long projectId, int row, int column, int size) {
+        if (row < 0 || column < 0) {
+            throw new BadRequestException("row and column must not be negative");
+        }
+        if (size <= 0 || size > MAX_TILE_SIZE) {
+            throw new BadRequestException("size must be between 1 and " + MAX_TILE_SIZE);
+        }
+        requireProject(projectId);
+        List<PackageDsmResponse.Cell> cells = new ArrayList<>();
+        for (PackageDependency dependency : dependencyRepository.findByProjectIdAndRowIndexBetweenAndColumnIndexBetween(
+                projectId, row, row + size - 1, column, column + size - 1)) {
+            cells.add(PackageDsmResponse.Cell.builder()
+                    .row(dependency.getRowIndex())
+                    .column(dependency.getColumnIndex())
+                    .weight(dependency.getWeight())
+                    .build());
+        }
+        cells.sort(Comparator.comparingInt(PackageDsmResponse.Cell::getRow).thenComparingInt(PackageDsmResponse.Cell::getColumn));
+        return PackageDsmResponse.Tile.builder()
+                .row(row)
+                .column(column)
+                .size(size)
+                .cells(cells)
+                .build();
+    }
+
+    private void requireProject(Long projectId) {
+        if (!projectRepository.existsById(projectId)) {
+            throw new ResourceNotFoundException("Project not found");
+        }
+    }
+
+    private static List<int[]> stronglyConnected(int n, Set<Long> pairs) {
+        int[] from = new int[pairs.size()];
+        int[] to = new int[pairs.size()];
+        int edges = 0;
+        for (long key : pairs) {
+            int row = (int) (key >>> 32);
+            int column = (int) key;
+            if (row == column) continue;
+            from[edges] = row;
+            to[edges] = column;
+            edges++;
+        }
+        int[] offsets = new int[n + 1];
+        int[] adjacent = new int[edges];
+        ClassGraph.fill(from, to, new int[edges], edges, offsets, adjacent, new int[edges]);
+        return ClassGraph.stronglyConnected(offsets, adjacent, null, 0);
+    }
+}
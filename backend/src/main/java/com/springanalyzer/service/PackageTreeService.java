@@ -0,0 +1,149 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.dto.PackageTreeResponse;
+import com.springanalyzer.entity.PackageNode;
+import com.springanalyzer.entity.Project;
+import com.springanalyzer.exception.ResourceNotFoundException;
+import com.springanalyzer.repository.AnalyzedClassRepository;
+import com.springanalyzer.repository.EndpointRepository;
+import com.springanalyzer.repository.PackageNodeRepository;
+import com.springanalyzer.repository.ProjectRepository;
+import com.springanalyzer.repository.SecurityIssueRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Stores the package hierarchy of a project with the classes, code lines, endpoints and security
+ * issues of every package summed over the packages below it, and serves it one level at a time.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PackageTreeService {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT_NODE = "INSERT INTO package_nodes (project_id, name, parent_name, simple_name, depth, "
+            + "child_count, class_count, code_lines, endpoint_count, issue_count) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Slots of the counts kept per package
+    private static final int CLASSES = 0;
+    private static final int LINES = 1;
+    private static final int ENDPOINTS = 2;
+    private static final int ISSUES = 3;
+    private static final int CHILDREN = 4;
+
+    private final ProjectRepository projectRepository;
+    private final AnalyzedClassRepository classRepository;
+    private final EndpointRepository endpointRepository;
+    private final SecurityIssueRepository securityIssueRepository;
+    private final PackageNodeRepository packageNodeRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Replaces the stored tree of the project. Counts are collected per declared package, then
+     * every package adds its totals to its parent, deepest packages first, so each node is
+     * complete before it is added to the one above. Classes, lines and issues of files in the
+     * default package, and issues in files other than Java sources, belong to no node.
+     *
+     * @param filePackages package declared by each Java file, by path
+     * @param codeLines    code lines of the files of each package
+     */
+    public void buildTree(Project project, Map<String, String> filePackages, Map<String, Integer> codeLines) {
+        Long projectId = project.getId();
+        packageNodeRepository.deleteByProjectId(projectId);
+
+        Map<String, int[]> counts = new HashMap<>();
+        for (AnalyzedClassRepository.PackageCount row : classRepository.countByPackage(projectId)) {
+            add(counts, row.getPackageName(), CLASSES, row.getCount());
+        }
+        codeLines.forEach((packageName, lines) -> add(counts, packageName, LINES, lines));
+        for (AnalyzedClassRepository.PackageCount row : endpointRepository.countByPackage(projectId)) {
+            add(counts, row.getPackageName(), ENDPOINTS, row.getCount());
+        }
+        for (SecurityIssueRepository.FileCount row : securityIssueRepository.countByFile(projectId)) {
+            add(counts, filePackages.get(row.getFileName()), ISSUES, row.getCount());
+        }
+        for (String name : new ArrayList<>(counts.keySet())) {
+            for (int dot = name.lastIndexOf('.'); dot > 0; dot = name.lastIndexOf('.', dot - 1)) {
+                if (counts.putIfAbsent(name.substring(0, dot), new int[CHILDREN + 1]) != null) break;
+            }
+        }
+
+        List<String> names = new ArrayList<>(counts.keySet());
+        names.sort(Comparator.comparingInt(PackageTreeService::depth).reversed().thenComparing(Comparator.naturalOrder()));
+        for (String name : names) {
+            int dot = name.lastIndexOf('.');
+            if (dot < 0) continue;
+            int[] node = counts.get(name);
+            int[] parent = counts.get(name.substring(0, dot));
+            for (int slot = CLASSES; slot < CHILDREN; slot++) parent[slot] += node[slot];
+            parent[CHILDREN]++;
+        }
+
+        List<Object[]> rows = new ArrayList<>(names.size());
+        for (int i = names.size() - 1; i >= 0; i--) {
+            String name = names.get(i);
+            int[] node = counts.get(name);
+            int dot = name.lastIndexOf('.');
+            rows.add(new Object[]{projectId, name, dot < 0 ? "" : name.substring(0, dot), name.substring(dot + 1), depth(name),
+                    node[CHILDREN], node[CLASSES], node[LINES], node[ENDPOINTS], node[ISSUES]});
+        }
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(INSERT_NODE, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+        log.info("Stored package tree of project {} with {} packages", projectId, rows.size());
+    }
+
+    /**
+     * The packages directly below the given one, or the top-level packages when it is blank.
+     */
+    public PackageTreeResponse getChildren(Long projectId, String parentName) {
+        if (!projectRepository.existsById(projectId)) {
+            throw new ResourceNotFoundException("Project not found");
+        }
+        PackageTreeResponse.Node parent = null;
+        String parentKey = parentName != null ? parentName.trim() : "";
+        if (!parentKey.isEmpty()) {
+            parent = packageNodeRepository.findByProjectIdAndName(projectId, parentKey)
+                    .map(PackageTreeService::toNode)
+                    .orElseThrow(() -> new ResourceNotFoundException("Package not found: " + parentKey));
+        }
+        return PackageTreeResponse.builder()
+                .parent(parent)
+                .children(packageNodeRepository.findByProjectIdAndParentNameOrderBySimpleNameAsc(projectId, parentKey).stream()
+                        .map(PackageTreeService::toNode)
+                        .toList())
+                .build();
+    }
+
+    private static void add(Map<String, int[]> counts, String packageName, int slot, long count) {
+        if (packageName == null || packageName.isEmpty()) return;
+        counts.computeIfAbsent(packageName, name -> new int[CHILDREN + 1])[slot] += (int) count;
+    }
+
+    private static int depth(String name) {
+        int depth = 1;
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) == '.') depth++;
+        }
+        return depth;
+    }
+
+    private static PackageTreeResponse.Node toNode(PackageNode node) {
+        return PackageTreeResponse.Node.builder()
+                .name(node.getName())
+                .simpleName(node.getSimpleName())
+                .depth(node.getDepth())
+                .childCount(node.getChildCount())
+                .classCount(node.getClassCount())
+                .codeLines(node.getCodeLines())
+                .endpointCount(node.getEndpointCount())
+                .issueCount(node.getIssueCount())
+                .build();
+    }
+}
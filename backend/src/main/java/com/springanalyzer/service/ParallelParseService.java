@@ -0,0 +1,140 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.exception.SpringAnalyzerException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Read and parse stage of the analysis pipeline. Java files are read and parsed on a fixed
+ * pool of worker threads shared by all analyses, so the number of parser threads stays bounded
+ * however many projects are analyzed at once. Results are delivered in input order, which keeps
+ * the persisted output identical whatever the degree of parallelism.
+ */
+@Service
+@Slf4j
+public class ParallelParseService {
+
+    private final ParseCacheService parseCacheService;
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final int queueCapacity;
+
+    public ParallelParseService(ParseCacheService parseCacheService,
+                                @Value("${app.analysis.parse-threads:0}") int parseThreads,
+                                @Value("${app.analysis.queue-capacity:0}") int queueCapacity) {
+        this.parseCacheService = parseCacheService;
+        this.parallelism = parseThreads > 0 ? parseThreads : Runtime.getRuntime().availableProcessors();
+        this.queueCapacity = queueCapacity > 0 ? queueCapacity : parallelism * 4;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "parser-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Parsing Java sources on {} thread(s)", parallelism);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Parses the given files and hands each file with its result to {@code sink} on the calling
+     * thread, in input order. At most {@code queue-capacity} files are read or parsed ahead of the
+     * sink, so a slow sink holds back reading and parsing instead of letting results pile up.
+     * The result is {@code null} for files that could not be read. Files whose content hash is
+     * given by {@code hashes} are looked up in the {@link ParseCacheService} first.
+     */
+    public void parse(SourceCorpus corpus, List<SourceCorpus.FileInfo> files, Map<String, String> hashes,
+                      BiConsumer<SourceCorpus.FileInfo, JavaParserService.ParsedClass> sink) {
+        process(files, file -> parseCacheService.parse(corpus, file, hashes.get(file.getPath())), sink, "Parsed");
+    }
+
+    /**
+     * Parses the given files and returns the results in input order.
+     */
+    public List<JavaParserService.ParsedClass> parseAll(SourceCorpus corpus, List<SourceCorpus.FileInfo> files,
+                                                        Map<String, String> hashes) {
+        return map(files, file -> parseCacheService.parse(corpus, file, hashes.get(file.getPath())), "Parsed");
+    }
+
+    /**
+     * Applies {@code task} to every item on the worker pool and returns the results in input order.
+     */
+    public <F, T> List<T> map(List<F> items, Function<F, T> task, String description) {
+        List<T> results = new ArrayList<>(items.size());
+        process(items, task, (item, result) -> results.add(result), description);
+        return results;
+    }
+
+    private <F, T> void process(List<F> items, Function<F, T> task, BiConsumer<F, T> sink, String description) {
+        long start = System.nanoTime();
+        AtomicLong taskNanos = new AtomicLong();
+        long sinkNanos = 0;
+
+        Deque<Future<T>> inFlight = new ArrayDeque<>(queueCapacity);
+        int next = 0;
+        int done = 0;
+        try {
+            while (done < items.size()) {
+                while (next < items.size() && inFlight.size() < queueCapacity) {
+                    F item = items.get(next++);
+                    inFlight.add(executor.submit(() -> {
+                        long taskStart = System.nanoTime();
+                        try {
+                            return task.apply(item);
+                        } finally {
+                            taskNanos.addAndGet(System.nanoTime() - taskStart);
+                        }
+                    }));
+                }
+
+                F item = items.get(done++);
+                T result = await(inFlight.poll(), item);
+                long sinkStart = System.nanoTime();
+                sink.accept(item, result);
+                sinkNanos += System.nanoTime() - sinkStart;
+            }
+        } finally {
+            inFlight.forEach(f -> f.cancel(true));
+        }
+
+        long wallNanos = Math.max(1, System.nanoTime() - start);
+        log.info("{} {} files in {} ms on {} thread(s) (workers {} ms, consumer {} ms), speedup {}x over running the stages serially",
+                description, items.size(), TimeUnit.NANOSECONDS.toMillis(wallNanos), parallelism,
+                TimeUnit.NANOSECONDS.toMillis(taskNanos.get()), TimeUnit.NANOSECONDS.toMillis(sinkNanos),
+                String.format("%.2f", (double) (taskNanos.get() + sinkNanos) / wallNanos));
+    }
+
+    private <T> T await(Future<T> future, Object item) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SpringAnalyzerException("Parsing interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new SpringAnalyzerException("Failed to process " + item, e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
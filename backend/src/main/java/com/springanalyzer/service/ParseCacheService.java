@@ -0,0 +1,388 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.entity.ClassType;
+import com.springanalyzer.entity.HttpMethod;
+import com.springanalyzer.entity.RelationshipType;
+import com.springanalyzer.exception.SpringAnalyzerException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Disk-backed cache of parse results shared by all projects. A result depends only on the content
+ * of the file, its name, which picks the primary type, and the parser, so an entry is keyed by
+ * the content hash, the file name and {@link JavaParserService#PARSER_VERSION}; path and module
+ * are filled in again on every hit. Entries are kept in a compact binary form under
+ * {@code <dir>/<2 hex chars>/<key>.bin} and survive restarts. The cache is bounded by
+ * {@code max-size-mb}: the least recently used entries are evicted first, recency being kept in
+ * the file modification times so that the order survives restarts as well.
+ * <p>
+ * Published meters: {@code analysis.parse.cache.requests} tagged {@code result=hit|miss},
+ * {@code analysis.parse.cache.saved}, the source bytes hits spared the parser,
+ * {@code analysis.parse.cache.evictions}, and the gauges {@code analysis.parse.cache.size} and
+ * {@code analysis.parse.cache.entries}.
+ */
+@Service
+@Slf4j
+public class ParseCacheService {
+
+    private static final int MAGIC = 0x53415043;
+    private static final int FORMAT_VERSION = 2;
+    private static final String ENTRY_SUFFIX = ".bin";
+
+    private final JavaParserService javaParserService;
+    private final Path directory;
+    private final long maxBytes;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter savedBytes;
+    private final Counter evictions;
+    // Entry sizes by key, least recently used first
+    private final LinkedHashMap<String, Integer> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    public ParseCacheService(JavaParserService javaParserService,
+                             MeterRegistry registry,
+                             @Value("${app.analysis.parse-cache.dir:uploads/parse-cache}") String directory,
+                             @Value("${app.analysis.parse-cache.max-size-mb:256}") long maxSizeMb) {
+        this.javaParserService = javaParserService;
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.maxBytes = Math.max(0, maxSizeMb) * 1024 * 1024;
+        this.hits = requests(registry, "hit");
+        this.misses = requests(registry, "miss");
+        this.savedBytes = Counter.builder("analysis.parse.cache.saved")
+                .description("Source bytes not parsed thanks to parse cache hits")
+                .baseUnit("bytes")
+                .register(registry);
+        this.evictions = Counter.builder("analysis.parse.cache.evictions")
+                .description("Parse cache entries evicted to stay within the size bound")
+                .register(registry);
+        Gauge.builder("analysis.parse.cache.size", this, ParseCacheService::getSizeBytes)
+                .description("Bytes taken by the parse cache on disk")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("analysis.parse.cache.entries", this, ParseCacheService::getEntryCount)
+                .description("Entries in the parse cache")
+                .register(registry);
+        if (isEnabled()) {
+            load();
+        }
+    }
+
+    public boolean isEnabled() {
+        return maxBytes > 0;
+    }
+
+    /**
+     * Parses a file of the corpus, or takes the result from the cache when a file with the same
+     * content and name was parsed before by the same parser version. Without a content hash the
+     * file is parsed and nothing is cached.
+     */
+    public JavaParserService.ParsedClass parse(SourceCorpus corpus, SourceCorpus.FileInfo file, String contentHash) {
+        if (!isEnabled() || contentHash == null) {
+            return javaParserService.parseJavaFile(corpus, file);
+        }
+        String key = key(contentHash, file.getFileName());
+        JavaParserService.ParsedClass cached = lookup(key, file);
+        if (cached != null) {
+            hits.increment();
+            savedBytes.increment(file.getSize());
+            return cached;
+        }
+        misses.increment();
+        JavaParserService.ParsedClass parsed = javaParserService.parseJavaFile(corpus, file);
+        if (parsed != null) {
+            store(key, parsed);
+        }
+        return parsed;
+    }
+
+    public synchronized long getSizeBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    private JavaParserService.ParsedClass lookup(String key, SourceCorpus.FileInfo file) {
+        synchronized (this) {
+            if (entries.get(key) == null) return null;
+        }
+        Path path = entryPath(key);
+        try {
+            JavaParserService.ParsedClass parsed = decode(Files.readAllBytes(path), file);
+            Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+            return parsed;
+        } catch (IOException e) {
+            // Evicted in between, removed from outside or unreadable: parse again
+            log.debug("Dropping parse cache entry {}: {}", key, e.toString());
+            forget(key);
+            return null;
+        }
+    }
+
+    private void store(String key, JavaParserService.ParsedClass parsed) {
+        byte[] bytes = encode(parsed);
+        if (bytes.length > maxBytes) return;
+        Path path = entryPath(key);
+        try {
+            Files.createDirectories(path.getParent());
+            Path temporary = Files.createTempFile(path.getParent(), key, ".tmp");
+            try {
+                Files.write(temporary, bytes);
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to write parse cache entry {}: {}", key, e.toString());
+            return;
+        }
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            Integer previous = entries.put(key, bytes.length);
+            totalBytes += bytes.length - (previous != null ? previous : 0);
+            evictOverflow(evicted);
+        }
+        delete(evicted);
+    }
+
+    private synchronized void forget(String key) {
+        Integer size = entries.remove(key);
+        if (size != null) totalBytes -= size;
+    }
+
+    /**
+     * Removes least recently used entries from the index until the cache fits its bound, adding
+     * their keys to {@code evicted} for the caller to delete outside of the lock.
+     */
+    private void evictOverflow(List<String> evicted) {
+        Iterator<Map.Entry<String, Integer>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Integer> entry = eldest.next();
+            totalBytes -= entry.getValue();
+            evicted.add(entry.getKey());
+            eldest.remove();
+        }
+    }
+
+    private void delete(List<String> keys) {
+        for (String key : keys) {
+            evictions.increment();
+            try {
+                Files.deleteIfExists(entryPath(key));
+            } catch (IOException e) {
+                log.warn("Failed to delete parse cache entry {}: {}", key, e.toString());
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the index from the entries on disk, oldest first, and drops temporary files left
+     * by writes that were interrupted.
+     */
+    private void load() {
+        List<Path> files;
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> walk = Files.walk(directory, 2)) {
+                files = walk.filter(Files::isRegularFile).toList();
+            }
+        } catch (IOException e) {
+            throw new SpringAnalyzerException("Failed to open the parse cache at " + directory, e);
+        }
+
+        Map<Path, FileTime> modified = new HashMap<>();
+        List<Path> entryFiles = new ArrayList<>();
+        for (Path file : files) {
+            try {
+                if (file.getFileName().toString().endsWith(ENTRY_SUFFIX)) {
+                    modified.put(file, Files.getLastModifiedTime(file));
+                    entryFiles.add(file);
+                } else {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException e) {
+                log.warn("Skipping parse cache file {}: {}", file, e.toString());
+            }
+        }
+        entryFiles.sort(Comparator.comparing(modified::get));
+
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            for (Path file : entryFiles) {
+                String name = file.getFileName().toString();
+                try {
+                    int size = (int) Files.size(file);
+                    entries.put(name.substring(0, name.length() - ENTRY_SUFFIX.length()), size);
+                    totalBytes += size;
+                } catch (IOException e) {
+                    log.warn("Skipping parse cache file {}: {}", file, e.toString());
+                }
+            }
+            evictOverflow(evicted);
+        }
+        delete(evicted);
+        log.info("Parse cache at {}: {} entries, {} KB of at most {} MB",
+                directory, entries.size(), totalBytes / 1024, maxBytes / (1024 * 1024));
+    }
+
+    private Path entryPath(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + ENTRY_SUFFIX);
+    }
+
+    private static String key(String contentHash, String fileName) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((JavaParserService.PARSER_VERSION + '\n' + fileName + '\n' + contentHash)
+                    .getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static Counter requests(MeterRegistry registry, String result) {
+        return Counter.builder("analysis.parse.cache.requests")
+                .description("Parse cache lookups")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    static byte[] encode(JavaParserService.ParsedClass parsed) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            out.writeInt(MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            writeString(out, parsed.getName());
+            writeString(out, parsed.getPackageName());
+            writeStrings(out, parsed.getImports());
+            writeString(out, parsed.getClassType() != null ? parsed.getClassType().name() : null);
+            writeStrings(out, parsed.getAnnotations());
+            writeString(out, parsed.getExtendsClass());
+            writeStrings(out, parsed.getImplementsInterfaces());
+            writeVarInt(out, parsed.getFieldCount());
+            writeVarInt(out, parsed.getMethodCount());
+            writeVarInt(out, parsed.getEndpoints().size());
+            for (JavaParserService.ParsedEndpoint endpoint : parsed.getEndpoints()) {
+                writeString(out, endpoint.getHttpMethod().name());
+                writeString(out, endpoint.getPath());
+                writeString(out, endpoint.getMethodName());
+                writeString(out, endpoint.getReturnType());
+                writeString(out, endpoint.getParameters());
+            }
+            writeVarInt(out, parsed.getReferences().size());
+            for (JavaParserService.TypeReference reference : parsed.getReferences()) {
+                writeString(out, reference.getType().name());
+                writeString(out, reference.getTypeName());
+                writeString(out, reference.getFieldName());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    static JavaParserService.ParsedClass decode(byte[] bytes, SourceCorpus.FileInfo file) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != MAGIC || in.readByte() != FORMAT_VERSION) {
+            throw new IOException("Not a parse cache entry");
+        }
+        try {
+            JavaParserService.ParsedClass.ParsedClassBuilder parsed = JavaParserService.ParsedClass.builder()
+                    .fullPath(file.getPath())
+                    .moduleName(file.getModuleName())
+                    .name(readString(in))
+                    .packageName(readString(in))
+                    .imports(readStrings(in));
+            String classType = readString(in);
+            parsed.classType(classType != null ? ClassType.valueOf(classType) : null)
+                    .annotations(readStrings(in))
+                    .extendsClass(readString(in))
+                    .implementsInterfaces(readStrings(in))
+                    .fieldCount(readVarInt(in))
+                    .methodCount(readVarInt(in));
+            int endpointCount = readVarInt(in);
+            List<JavaParserService.ParsedEndpoint> endpoints = new ArrayList<>(endpointCount);
+            for (int i = 0; i < endpointCount; i++) {
+                endpoints.add(new JavaParserService.ParsedEndpoint(HttpMethod.valueOf(readString(in)),
+                        readString(in), readString(in), readString(in), readString(in)));
+            }
+            int referenceCount = readVarInt(in);
+            List<JavaParserService.TypeReference> references = new ArrayList<>(referenceCount);
+            for (int i = 0; i < referenceCount; i++) {
+                references.add(new JavaParserService.TypeReference(RelationshipType.valueOf(readString(in)),
+                        readString(in), readString(in)));
+            }
+            return parsed.endpoints(List.copyOf(endpoints))
+                    .references(List.copyOf(references))
+                    .build();
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IOException("Corrupt parse cache entry", e);
+        }
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        writeVarInt(out, values.size());
+        for (String value : values) writeString(out, value);
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int count = readVarInt(in);
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) values.add(readString(in));
+        return List.copyOf(values);
+    }
+
+    // Length plus one, 0 for null, then the UTF-8 bytes
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = readVarInt(in) - 1;
+        if (length < 0) return null;
+        if (length > in.available()) throw new IOException("Truncated parse cache entry");
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed length in parse cache entry");
+    }
+}
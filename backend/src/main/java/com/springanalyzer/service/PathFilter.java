@@ -0,0 +1,270 @@
+package com.springanalyzer.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Decides which files of an archive an analysis looks at, using gitignore rules: built-in
+ * defaults, the {@code .gitignore} files found in the archive and the project's own exclude
+ * globs, in increasing order of precedence. Build output directories ({@code target/},
+ * {@code build/}, ...) are excluded next to each build file only, so a package that happens to
+ * share their name is kept. When the project has include globs, only files matching one of them
+ * are kept.
+ * <p>
+ * Directories are decided once each, parents first, and nothing below an excluded directory is
+ * looked at again, which also means a file cannot be re-included from inside one, as in git.
+ * An instance is immutable and is applied to the file list of a run before any analyzer sees it.
+ */
+@Slf4j
+public class PathFilter {
+
+    public static final String GITIGNORE = ".gitignore";
+
+    // Anything longer is not a hand-written ignore file, the rest of it is not read
+    static final int MAX_GITIGNORE_BYTES = 256 * 1024;
+
+    private final List<Rule> defaultRules;
+    private final List<String> outputDirectories;
+    private final List<Rule> excludeRules;
+    private final List<Rule> includeRules;
+
+    PathFilter(List<String> defaults, List<String> outputDirectories, List<String> excludes, List<String> includes) {
+        this.defaultRules = compile(defaults, "");
+        this.outputDirectories = List.copyOf(outputDirectories);
+        this.excludeRules = compile(excludes, "");
+        this.includeRules = compile(includes, "");
+    }
+
+    /**
+     * Reads the content of a {@code .gitignore} file of the archive.
+     */
+    @FunctionalInterface
+    public interface GitignoreReader {
+        String read(String path) throws IOException;
+    }
+
+    /**
+     * Reads the {@code .gitignore} files of the filtered listing from the provider that listed it.
+     */
+    public static GitignoreReader reader(SourceProvider provider) {
+        return path -> new String(provider.readBytes(path, MAX_GITIGNORE_BYTES), StandardCharsets.UTF_8);
+    }
+
+    public static boolean isGitignore(String path) {
+        return path.equals(GITIGNORE) || path.endsWith("/" + GITIGNORE);
+    }
+
+    /**
+     * The entries this filter keeps, in their original order.
+     */
+    public List<SourceProvider.Entry> select(List<SourceProvider.Entry> entries, GitignoreReader reader) {
+        Selection selection = new Selection(new ArrayList<>(defaultRules));
+
+        for (SourceProvider.Entry entry : entries) {
+            String fileName = entry.getFileName();
+            if (fileName.equals("pom.xml") || fileName.equals("build.gradle") || fileName.equals("build.gradle.kts")) {
+                String directory = ProjectSourceService.parentOf(entry.getPath());
+                for (String output : outputDirectories) {
+                    selection.rules.add(Rule.compile("/" + output + "/", directory));
+                }
+            }
+        }
+
+        // Shallow .gitignore files first, so deeper ones take precedence; one inside an excluded directory does not count
+        entries.stream()
+                .map(SourceProvider.Entry::getPath)
+                .filter(PathFilter::isGitignore)
+                .sorted(Comparator.comparingInt(PathFilter::depth).thenComparing(Comparator.naturalOrder()))
+                .forEach(path -> {
+                    String directory = ProjectSourceService.parentOf(path);
+                    if (!directory.isEmpty() && selection.isExcludedDirectory(directory)) return;
+                    try {
+                        selection.rules.addAll(compileGitignore(path, reader.read(path).lines().toList(), directory));
+                        selection.excludedDirectories.clear();
+                    } catch (IOException e) {
+                        log.warn("Could not read {}: {}", path, e.getMessage());
+                    }
+                });
+        selection.rules.addAll(excludeRules);
+        selection.excludedDirectories.clear();
+
+        List<SourceProvider.Entry> selected = new ArrayList<>(entries.size());
+        for (SourceProvider.Entry entry : entries) {
+            if (selection.accepts(entry.getPath())) {
+                selected.add(entry);
+            }
+        }
+        if (selected.size() < entries.size()) {
+            log.debug("Path filter kept {} of {} files, {} directories pruned",
+                    selected.size(), entries.size(), selection.excludedDirectories.values().stream().filter(Boolean::booleanValue).count());
+        }
+        return selected.size() == entries.size() ? entries : selected;
+    }
+
+    private class Selection {
+        private final List<Rule> rules;
+        // Decision per directory, so each directory is matched against the rules once
+        private final Map<String, Boolean> excludedDirectories = new HashMap<>();
+
+        Selection(List<Rule> rules) {
+            this.rules = rules;
+        }
+
+        boolean accepts(String path) {
+            String directory = ProjectSourceService.parentOf(path);
+            if (!directory.isEmpty() && isExcludedDirectory(directory)) return false;
+            if (isExcluded(path, false)) return false;
+            if (includeRules.isEmpty()) return true;
+            for (Rule rule : includeRules) {
+                if (rule.matches(path, false) || matchesParent(rule, directory)) return true;
+            }
+            return false;
+        }
+
+        boolean isExcludedDirectory(String directory) {
+            Boolean excluded = excludedDirectories.get(directory);
+            if (excluded == null) {
+                String parent = ProjectSourceService.parentOf(directory);
+                excluded = (!parent.isEmpty() && isExcludedDirectory(parent)) || isExcluded(directory, true);
+                excludedDirectories.put(directory, excluded);
+            }
+            return excluded;
+        }
+
+        // The last matching rule decides, a negated one re-including the path
+        private boolean isExcluded(String path, boolean directory) {
+            boolean excluded = false;
+            for (Rule rule : rules) {
+                if (excluded == rule.negated && rule.matches(path, directory)) {
+                    excluded = !rule.negated;
+                }
+            }
+            return excluded;
+        }
+
+        private boolean matchesParent(Rule rule, String directory) {
+            for (String dir = directory; !dir.isEmpty(); dir = ProjectSourceService.parentOf(dir)) {
+                if (rule.matches(dir, true)) return true;
+            }
+            return false;
+        }
+    }
+
+    private static List<Rule> compile(List<String> patterns, String base) {
+        List<Rule> rules = new ArrayList<>();
+        for (String line : patterns) {
+            String pattern = line.strip();
+            if (pattern.isEmpty() || pattern.startsWith("#")) continue;
+            rules.add(Rule.compile(pattern, base));
+        }
+        return rules;
+    }
+
+    /**
+     * Like {@link #compile}, but skips a line that is not a valid pattern, as git does, so one bad
+     * line in an archive's {@code .gitignore} does not fail its analysis.
+     */
+    private static List<Rule> compileGitignore(String path, List<String> lines, String base) {
+        List<Rule> rules = new ArrayList<>();
+        for (String line : lines) {
+            String pattern = line.strip();
+            if (pattern.isEmpty() || pattern.startsWith("#")) continue;
+            try {
+                rules.add(Rule.compile(pattern, base));
+            } catch (PatternSyntaxException e) {
+                log.warn("Ignoring invalid pattern '{}' in {}", pattern, path);
+            }
+        }
+        return rules;
+    }
+
+    private static int depth(String path) {
+        int depth = 0;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == '/') depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * One gitignore pattern, relative to the directory of the file it came from.
+     */
+    private static final class Rule {
+        private final String base;
+        private final boolean negated;
+        private final boolean directoryOnly;
+        // Matched against the whole path below base instead of the last segment
+        private final boolean anchored;
+        private final Pattern regex;
+
+        private Rule(String base, boolean negated, boolean directoryOnly, boolean anchored, Pattern regex) {
+            this.base = base;
+            this.negated = negated;
+            this.directoryOnly = directoryOnly;
+            this.anchored = anchored;
+            this.regex = regex;
+        }
+
+        static Rule compile(String pattern, String base) {
+            boolean negated = pattern.startsWith("!");
+            if (negated) pattern = pattern.substring(1);
+            if (pattern.startsWith("\\")) pattern = pattern.substring(1);
+            boolean directoryOnly = pattern.endsWith("/");
+            if (directoryOnly) pattern = pattern.substring(0, pattern.length() - 1);
+            boolean anchored = pattern.contains("/");
+            if (pattern.startsWith("/")) pattern = pattern.substring(1);
+            return new Rule(base, negated, directoryOnly, anchored, Pattern.compile(toRegex(pattern)));
+        }
+
+        boolean matches(String path, boolean directory) {
+            if (directoryOnly && !directory) return false;
+            String relative;
+            if (base.isEmpty()) {
+                relative = path;
+            } else if (path.startsWith(base + "/")) {
+                relative = path.substring(base.length() + 1);
+            } else {
+                return false;
+            }
+            String subject = anchored ? relative : relative.substring(relative.lastIndexOf('/') + 1);
+            return regex.matcher(subject).matches();
+        }
+
+        private static String toRegex(String glob) {
+            StringBuilder regex = new StringBuilder();
+            for (int i = 0; i < glob.length(); i++) {
+                char c = glob.charAt(i);
+                if (c == '*') {
+                    if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                        boolean leadingSlash = i + 2 < glob.length() && glob.charAt(i + 2) == '/';
+                        regex.append(leadingSlash ? "(?:.*/)?" : ".*");
+                        i += leadingSlash ? 2 : 1;
+                    } else {
+                        regex.append("[^/]*");
+                    }
+                } else if (c == '?') {
+                    regex.append("[^/]");
+                } else if (c == '[') {
+                    int end = glob.indexOf(']', i + 1);
+                    if (end < 0) {
+                        regex.append("\\[");
+                    } else {
+                        String set = glob.substring(i + 1, end);
+                        regex.append('[').append(set.startsWith("!") ? "^" + set.substring(1) : set).append(']');
+                        i = end;
+                    }
+                } else if ("\\.^$+{}()|".indexOf(c) >= 0) {
+                    regex.append('\\').append(c);
+                } else {
+                    regex.append(c);
+                }
+            }
+            return regex.toString();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.entity.Project;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds the {@link PathFilter} of a project from the built-in defaults and the project's own
+ * include and exclude globs. The defaults only name directories that cannot hold a Java package
+ * (VCS and IDE metadata, dependency caches, generated sources); build output directories are
+ * matched next to a build file instead, see {@link PathFilter}.
+ */
+@Service
+public class PathFilterService {
+
+    private final List<String> defaults;
+    private final List<String> outputDirectories;
+
+    public PathFilterService(
+            @Value("${app.analysis.path-filter.defaults:.git/,.svn/,.hg/,.idea/,.vscode/,.gradle/,.mvn/,node_modules/,bower_components/,generated-sources/,generated-test-sources/}") List<String> defaults,
+            @Value("${app.analysis.path-filter.output-directories:target,build,out,bin}") List<String> outputDirectories) {
+        this.defaults = List.copyOf(defaults);
+        this.outputDirectories = List.copyOf(outputDirectories);
+    }
+
+    public PathFilter forProject(Project project) {
+        return forGlobs(project.getIncludePaths(), project.getExcludePaths());
+    }
+
+    public PathFilter forGlobs(String includePaths, String excludePaths) {
+        return new PathFilter(defaults, outputDirectories, lines(excludePaths), lines(includePaths));
+    }
+
+    /**
+     * Identifies the rules a project's files are selected with, so stored results are only reused
+     * by an analysis that would select the same files. The archive's own .gitignore files are
+     * covered by the archive hash.
+     */
+    public String signature(Project project) {
+        return FileManifestService.sha256(String.join("\n", defaults) + "\n\0" + String.join("\n", outputDirectories)
+                + "\n\0" + nullToEmpty(project.getExcludePaths()) + "\n\0" + nullToEmpty(project.getIncludePaths()));
+    }
+
+    /**
+     * Globs as stored on a project, one per line, or null when there are none.
+     */
+    public static String join(List<String> globs) {
+        if (globs == null) return null;
+        List<String> kept = globs.stream().map(String::strip).filter(glob -> !glob.isEmpty()).toList();
+        return kept.isEmpty() ? null : String.join("\n", kept);
+    }
+
+    public static List<String> lines(String globs) {
+        return globs == null ? List.of() : Arrays.asList(globs.split("\n"));
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
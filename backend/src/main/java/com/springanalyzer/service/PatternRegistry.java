@@ -0,0 +1,58 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.dto.PatternStatsResponse;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every regular expression the analyzers run, compiled once under a stable name. Each pattern
+ * counts its matches and how long they took, so the {@code patterns} actuator endpoint can show
+ * which ones dominate analysis time and which inputs make them backtrack. Analyzers hold the
+ * returned {@link TrackedPattern} in a constant instead of compiling on every call.
+ */
+public final class PatternRegistry {
+
+    private static final Map<String, TrackedPattern> PATTERNS = new ConcurrentHashMap<>();
+
+    private PatternRegistry() {
+    }
+
+    static TrackedPattern compile(String name, String regex) {
+        return compile(name, regex, 0);
+    }
+
+    /**
+     * The pattern registered under {@code name}, compiling it on first use. Registering a
+     * different expression under a name already taken is a programming error.
+     */
+    static TrackedPattern compile(String name, String regex, int flags) {
+        TrackedPattern pattern = PATTERNS.computeIfAbsent(name, key -> new TrackedPattern(key, regex, flags));
+        if (!pattern.pattern().pattern().equals(regex) || pattern.pattern().flags() != flags) {
+            throw new IllegalStateException("Pattern " + name + " is already registered with a different expression");
+        }
+        return pattern;
+    }
+
+    /**
+     * Statistics of every registered pattern, the most expensive first.
+     */
+    public static PatternStatsResponse snapshot() {
+        List<PatternStatsResponse.PatternInfo> patterns = PATTERNS.values().stream()
+                .map(TrackedPattern::stats)
+                .sorted(Comparator.comparingLong(PatternStatsResponse.PatternInfo::getTotalNanos).reversed()
+                        .thenComparing(PatternStatsResponse.PatternInfo::getName))
+                .toList();
+        return PatternStatsResponse.builder()
+                .totalInvocations(patterns.stream().mapToLong(PatternStatsResponse.PatternInfo::getInvocations).sum())
+                .totalNanos(patterns.stream().mapToLong(PatternStatsResponse.PatternInfo::getTotalNanos).sum())
+                .patterns(patterns)
+                .build();
+    }
+
+    public static void reset() {
+        PATTERNS.values().forEach(TrackedPattern::reset);
+    }
+}
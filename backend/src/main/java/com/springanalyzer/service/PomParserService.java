@@ -6,18 +6,16 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 @Service
 @Slf4j
 public class PomParserService {
 
-    private static final Pattern DEPENDENCY_PATTERN = Pattern.compile(
+    private static final TrackedPattern DEPENDENCY_PATTERN = PatternRegistry.compile(
+            "pom.dependency",
             "<dependency>\\s*" +
             "<groupId>([^<]+)</groupId>\\s*" +
             "<artifactId>([^<]+)</artifactId>\\s*" +
@@ -27,16 +25,16 @@ public class PomParserService {
             Pattern.DOTALL
     );
 
-    public List<Dependency> parsePom(Path pomFile, Project project) {
-        return parsePom(pomFile, project, "main");
+    public List<Dependency> parsePom(SourceCorpus corpus, String pomFile, Project project) {
+        return parsePom(corpus, pomFile, project, "main");
     }
 
-    public List<Dependency> parsePom(Path pomFile, Project project, String moduleName) {
+    public List<Dependency> parsePom(SourceCorpus corpus, String pomFile, Project project, String moduleName) {
         List<Dependency> dependencies = new ArrayList<>();
         
         try {
-            String content = Files.readString(pomFile);
-            Matcher matcher = DEPENDENCY_PATTERN.matcher(content);
+            String content = corpus.read(pomFile);
+            TrackedMatcher matcher = DEPENDENCY_PATTERN.matcher(content);
             
             while (matcher.find()) {
                 Dependency dep = Dependency.builder()
@@ -1,18 +1,24 @@
 package com.springanalyzer.service;
 
+import com.springanalyzer.dto.PathFilterRequest;
 import com.springanalyzer.dto.ProjectRequest;
 import com.springanalyzer.dto.ProjectResponse;
+import com.springanalyzer.entity.ArchiveProfile;
+import com.springanalyzer.entity.JobStatus;
 import com.springanalyzer.entity.Project;
 import com.springanalyzer.entity.ProjectStatus;
 import com.springanalyzer.exception.BadRequestException;
 import com.springanalyzer.exception.ResourceNotFoundException;
+import com.springanalyzer.repository.AnalysisJobRepository;
 import com.springanalyzer.repository.ProjectRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,24 +26,37 @@ import java.util.stream.Collectors;
 public class ProjectService {
 
     private final ProjectRepository projectRepository;
+    private final AnalysisJobRepository analysisJobRepository;
     private final FileStorageService fileStorageService;
+    private final AnalysisService analysisService;
+    private final ArchiveProfileService archiveProfileService;
+    private final PathFilterService pathFilterService;
 
     @Transactional
     public ProjectResponse createProject(MultipartFile file, ProjectRequest request) {
-        if (projectRepository.existsByName(request.getName())) {
-            throw new BadRequestException("Project with name '" + request.getName() + "' already exists");
-        }
+        checkNameAvailable(request.getName());
 
-        String storagePath = fileStorageService.store(file);
+        FileStorageService.StoredFile stored = fileStorageService.store(file);
+        return createProject(request, file.getOriginalFilename(), stored);
+    }
 
+    /**
+     * Creates a project for an archive that is already in the store.
+     */
+    @Transactional
+    public ProjectResponse createProject(ProjectRequest request, String originalFilename, FileStorageService.StoredFile stored) {
         Project project = Project.builder()
                 .name(request.getName())
                 .description(request.getDescription())
-                .originalFilename(file.getOriginalFilename())
-                .storagePath(storagePath)
-                .fileSize(file.getSize())
+                .originalFilename(originalFilename)
+                .storagePath(stored.getFilename())
+                .fileSize(stored.getSize())
+                .archiveHash(stored.getContentHash())
+                .includePaths(checkGlobs(request.getIncludePaths()))
+                .excludePaths(checkGlobs(request.getExcludePaths()))
                 .status(ProjectStatus.UPLOADED)
                 .build();
+        project.setArchiveProfile(archiveProfileService.profile(project));
 
         Project saved = projectRepository.save(project);
         return toResponse(saved);
@@ -58,12 +77,64 @@ public class ProjectService {
     @Transactional
     public void deleteProject(Long id) {
         Project project = findById(id);
-        
-        if (project.getStoragePath() != null) {
-            fileStorageService.delete(project.getStoragePath());
+
+        if (analysisJobRepository.findFirstByProject_IdAndStatusIn(id, EnumSet.of(JobStatus.QUEUED, JobStatus.RUNNING)).isPresent()) {
+            throw new BadRequestException("Project '" + project.getName() + "' has a queued or running analysis, cancel it first");
         }
-        
+        analysisJobRepository.deleteByProject_Id(id);
+        // Every analysis result refers to the project, the files it was read from included
+        analysisService.clearPreviousAnalysis(id);
         projectRepository.delete(project);
+
+        // Released once the deletion commits
+        if (project.getStoragePath() != null) {
+            fileStorageService.release(project.getStoragePath());
+        }
+    }
+
+    /**
+     * Replaces the uploaded archive of a project. Results of the previous analysis are kept, so
+     * the next analysis only has to redo the files that differ between the two archives.
+     */
+    @Transactional
+    public ProjectResponse replaceArchive(Long id, MultipartFile file) {
+        Project project = findById(id);
+
+        if (analysisJobRepository.findFirstByProject_IdAndStatusIn(id, EnumSet.of(JobStatus.QUEUED, JobStatus.RUNNING)).isPresent()) {
+            throw new BadRequestException("Project '" + project.getName() + "' has a queued or running analysis, cancel it first");
+        }
+
+        String previousPath = project.getStoragePath();
+        FileStorageService.StoredFile stored = fileStorageService.store(file);
+        project.setStoragePath(stored.getFilename());
+        project.setOriginalFilename(file.getOriginalFilename());
+        project.setFileSize(stored.getSize());
+        project.setArchiveHash(stored.getContentHash());
+        project.setArchiveProfile(archiveProfileService.profile(project));
+        Project saved = projectRepository.save(project);
+
+        if (previousPath != null) {
+            fileStorageService.release(previousPath);
+        }
+        return toResponse(saved);
+    }
+
+    /**
+     * Replaces the include and exclude globs of a project. They take effect with the next
+     * analysis, which only redoes the files that enter or leave the selection.
+     */
+    @Transactional
+    public ProjectResponse updatePathFilter(Long id, PathFilterRequest request) {
+        Project project = findById(id);
+
+        if (analysisJobRepository.findFirstByProject_IdAndStatusIn(id, EnumSet.of(JobStatus.QUEUED, JobStatus.RUNNING)).isPresent()) {
+            throw new BadRequestException("Project '" + project.getName() + "' has a queued or running analysis, cancel it first");
+        }
+
+        project.setIncludePaths(checkGlobs(request.getIncludePaths()));
+        project.setExcludePaths(checkGlobs(request.getExcludePaths()));
+        project.setArchiveProfile(archiveProfileService.profile(project));
+        return toResponse(projectRepository.save(project));
     }
 
     @Transactional
@@ -73,6 +144,22 @@ public class ProjectService {
         return toResponse(projectRepository.save(project));
     }
 
+    public void checkNameAvailable(String name) {
+        if (projectRepository.existsByName(name)) {
+            throw new BadRequestException("Project with name '" + name + "' already exists");
+        }
+    }
+
+    private String checkGlobs(List<String> globs) {
+        String joined = PathFilterService.join(globs);
+        try {
+            pathFilterService.forGlobs(joined, null);
+        } catch (PatternSyntaxException e) {
+            throw new BadRequestException("Invalid path glob: " + e.getPattern());
+        }
+        return joined;
+    }
+
     private Project findById(Long id) {
         return projectRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Project not found with id: " + id));
@@ -85,10 +172,35 @@ public class ProjectService {
                 .description(project.getDescription())
                 .originalFilename(project.getOriginalFilename())
                 .fileSize(project.getFileSize())
+                .archiveHash(project.getArchiveHash())
+                .analyzerVersion(project.getAnalyzerVersion())
+                .cacheHit(project.getResultsCopiedFrom() != null)
+                .resultsCopiedFrom(project.getResultsCopiedFrom())
                 .status(project.getStatus().name())
                 .createdAt(project.getCreatedAt())
                 .updatedAt(project.getUpdatedAt())
                 .analyzedAt(project.getAnalyzedAt())
+                .archiveProfile(toProfileInfo(project.getArchiveProfile()))
+                .includePaths(PathFilterService.lines(project.getIncludePaths()))
+                .excludePaths(PathFilterService.lines(project.getExcludePaths()))
+                .build();
+    }
+
+    private ProjectResponse.ArchiveProfileInfo toProfileInfo(ArchiveProfile profile) {
+        if (profile == null || profile.getEntryCount() == null) {
+            return null;
+        }
+        return ProjectResponse.ArchiveProfileInfo.builder()
+                .entryCount(profile.getEntryCount())
+                .javaFileCount(profile.getJavaFileCount())
+                .javaBytes(profile.getJavaBytes())
+                .uncompressedBytes(profile.getUncompressedBytes())
+                .moduleCount(profile.getModuleCount())
+                .largestFiles(profile.largestFileList().stream()
+                        .map(f -> ProjectResponse.FileSize.builder().path(f.getPath()).size(f.getSize()).build())
+                        .toList())
+                .estimatedDurationMs(archiveProfileService.estimatedDurationMs(profile))
+                .estimatedMemoryBytes(archiveProfileService.estimatedMemoryBytes(profile))
                 .build();
     }
 }
@@ -0,0 +1,178 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.entity.Project;
+import com.springanalyzer.exception.SpringAnalyzerException;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipException;
+
+@Service
+@Slf4j
+public class ProjectSourceService {
+
+    public enum SourceMode {
+        ARCHIVE,
+        EXTRACT
+    }
+
+    /**
+     * How file content is held: BYTES keeps the raw bytes, memory-mapped for large extracted
+     * files, and decodes them when an analyzer first needs text; STRING decodes every file as
+     * soon as it is read, as {@code Files.readString} would, and is kept for comparison.
+     */
+    public enum IoMode {
+        BYTES,
+        STRING
+    }
+
+    private static final String SRC_MAIN_JAVA = "src/main/java/";
+
+    private final FileStorageService fileStorageService;
+    private final ZipExtractionService zipExtractionService;
+    private final PathFilterService pathFilterService;
+    private final SourceIoMetrics sourceIoMetrics;
+    private final SourceMode sourceMode;
+    @Getter
+    private final IoMode ioMode;
+
+    public ProjectSourceService(FileStorageService fileStorageService,
+                                ZipExtractionService zipExtractionService,
+                                PathFilterService pathFilterService,
+                                SourceIoMetrics sourceIoMetrics,
+                                @Value("${app.analysis.source-mode:archive}") String sourceMode,
+                                @Value("${app.analysis.io-mode:bytes}") String ioMode) {
+        this.fileStorageService = fileStorageService;
+        this.zipExtractionService = zipExtractionService;
+        this.pathFilterService = pathFilterService;
+        this.sourceIoMetrics = sourceIoMetrics;
+        this.sourceMode = SourceMode.valueOf(sourceMode.trim().toUpperCase());
+        this.ioMode = IoMode.valueOf(ioMode.trim().toUpperCase());
+    }
+
+    /**
+     * Opens the uploaded archive of a project and indexes its files for one analysis run.
+     * Files the project's path filter excludes, and files beyond the file count or total size
+     * of the budget, are left out of the corpus.
+     */
+    public SourceCorpus open(Project project, ResourceBudget budget) {
+        PathFilter filter = pathFilterService.forProject(project);
+        SourceProvider provider = openProvider(project, budget, filter);
+        try {
+            List<SourceProvider.Entry> entries = budget.admit(filter.select(provider.listFiles(), PathFilter.reader(provider)));
+            return new SourceCorpus(provider, entries, findModules(provider, entries), budget, ioMode, sourceIoMetrics);
+        } catch (RuntimeException e) {
+            provider.close();
+            throw e;
+        }
+    }
+
+    /**
+     * In archive mode entries are read in place, in extract mode (or when the archive has
+     * no readable central directory) the archive is extracted to disk and removed again
+     * when the provider is closed.
+     */
+    private SourceProvider openProvider(Project project, ResourceBudget budget, PathFilter filter) {
+        Path zipPath = fileStorageService.getFilePath(project.getStoragePath());
+
+        if (sourceMode == SourceMode.ARCHIVE) {
+            try {
+                return new ZipSourceProvider(zipPath);
+            } catch (ZipException e) {
+                log.warn("Cannot read archive of project {} in place, falling back to extraction: {}",
+                        project.getName(), e.getMessage());
+            } catch (IOException e) {
+                throw new SpringAnalyzerException("Failed to open ZIP: " + e.getMessage());
+            }
+        }
+
+        Path extractedPath = zipExtractionService.extract(zipPath, project.getName(), budget, filter);
+        return new DirectorySourceProvider(extractedPath, () -> zipExtractionService.cleanup(extractedPath));
+    }
+
+    /**
+     * Find all modules (directories containing pom.xml)
+     */
+    private List<ModuleInfo> findModules(SourceProvider source, List<SourceProvider.Entry> entries) {
+        List<ModuleInfo> modules = new ArrayList<>();
+
+        try {
+            // Check if root has pom.xml (could be parent pom or single module)
+            boolean isMultiModule = false;
+            if (source.exists("pom.xml")) {
+                String content = source.readString("pom.xml");
+                isMultiModule = content.contains("<modules>") || content.contains("<module>");
+            }
+
+            // Directories that contain Java sources, collected in the same pass as the pom files
+            Set<String> sourceRoots = new HashSet<>();
+            List<SourceProvider.Entry> pomFiles = new ArrayList<>();
+            for (SourceProvider.Entry entry : entries) {
+                String path = entry.getPath();
+                if (entry.getFileName().equals("pom.xml")) {
+                    pomFiles.add(entry);
+                }
+                if (path.startsWith(SRC_MAIN_JAVA)) {
+                    sourceRoots.add("");
+                }
+                for (int i = path.indexOf("/" + SRC_MAIN_JAVA); i >= 0; i = path.indexOf("/" + SRC_MAIN_JAVA, i + 1)) {
+                    sourceRoots.add(path.substring(0, i));
+                }
+            }
+
+            for (SourceProvider.Entry entry : pomFiles) {
+                String moduleDir = parentOf(entry.getPath());
+                String moduleName = moduleDir.isEmpty() ? "root" : moduleDir;
+
+                // Skip parent pom in multi-module projects
+                if (isMultiModule && moduleDir.isEmpty()) {
+                    continue;
+                }
+
+                // Check if this module has Java source files
+                if (!isMultiModule || sourceRoots.contains(moduleDir)) {
+                    modules.add(new ModuleInfo(moduleName, moduleDir, entry.getPath()));
+                }
+            }
+
+            // If no modules found, treat as single module
+            if (modules.isEmpty()) {
+                modules.add(new ModuleInfo("main", "", source.exists("pom.xml") ? "pom.xml" : null));
+            }
+
+        } catch (IOException e) {
+            log.error("Error finding modules", e);
+            modules.add(new ModuleInfo("main", "", null));
+        }
+
+        return modules;
+    }
+
+    static String parentOf(String path) {
+        int slash = path.lastIndexOf('/');
+        return slash < 0 ? "" : path.substring(0, slash);
+    }
+
+    static String resolve(String directory, String path) {
+        return directory.isEmpty() ? path : directory + "/" + path;
+    }
+
+    /**
+     * Module information holder. Paths are relative to the project root, the root module has an empty path.
+     */
+    @lombok.Data
+    @lombok.AllArgsConstructor
+    public static class ModuleInfo {
+        private String name;
+        private String path;
+        private String pomFile;
+    }
+}
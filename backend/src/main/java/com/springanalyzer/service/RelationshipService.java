@@ -1,180 +1,108 @@
 package com.springanalyzer.service;
 
 import com.springanalyzer.entity.*;
-import com.springanalyzer.repository.AnalyzedClassRepository;
-import com.springanalyzer.repository.ClassRelationshipRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class RelationshipService {
 
-    private final AnalyzedClassRepository classRepository;
-    private final ClassRelationshipRepository relationshipRepository;
-
-    private static final Pattern INJECTION_PATTERN = Pattern.compile("@(Autowired|Inject)\\s*(?:private|protected|public)?\\s*(\\w+)\\s+(\\w+)");
-    private static final Pattern FIELD_TYPE_PATTERN = Pattern.compile("(?:private|protected|public)\\s+(?:final\\s+)?(\\w+)(?:<[^>]+>)?\\s+(\\w+)\\s*[;=]");
-    private static final Pattern JPA_RELATION_PATTERN = Pattern.compile("@(OneToOne|OneToMany|ManyToOne|ManyToMany)");
-
-    public void analyzeRelationships(Project project, List<Path> javaFiles, Map<String, AnalyzedClass> classMap) {
-        for (Path file : javaFiles) {
-            try {
-                String content = Files.readString(file);
-                String className = extractClassName(content);
-                if (className == null) continue;
-
-                AnalyzedClass sourceClass = classMap.get(className);
-                if (sourceClass == null) continue;
-
-                analyzeInheritance(content, sourceClass, classMap, project);
-                analyzeInjections(content, sourceClass, classMap, project);
-                analyzeJpaRelations(content, sourceClass, classMap, project);
-                analyzeFieldUsages(content, sourceClass, classMap, project);
-            } catch (IOException e) {
-                log.error("Failed to analyze relationships in: {}", file, e);
-            }
-        }
-    }
-
-    private void analyzeInheritance(String content, AnalyzedClass source, Map<String, AnalyzedClass> classMap, Project project) {
-        Pattern extendsPattern = Pattern.compile("class\\s+\\w+\\s+extends\\s+(\\w+)");
-        Matcher matcher = extendsPattern.matcher(content);
-        if (matcher.find()) {
-            String parentClass = matcher.group(1);
-            AnalyzedClass target = classMap.get(parentClass);
-            if (target != null) {
-                saveRelationship(project, source, target, RelationshipType.EXTENDS, null);
-            }
-        }
-
-        Pattern implementsPattern = Pattern.compile("class\\s+\\w+(?:\\s+extends\\s+\\w+)?\\s+implements\\s+([\\w,\\s]+)");
-        matcher = implementsPattern.matcher(content);
-        if (matcher.find()) {
-            String[] interfaces = matcher.group(1).split(",");
-            for (String iface : interfaces) {
-                AnalyzedClass target = classMap.get(iface.trim());
-                if (target != null) {
-                    saveRelationship(project, source, target, RelationshipType.IMPLEMENTS, null);
+    static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT_RELATIONSHIP =
+            "INSERT INTO class_relationships (project_id, source_class_id, target_class_id, type, field_name) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Resolves the type references collected while parsing against the classes of the project,
+     * each in the context of the package and imports of the class making it.
+     * Edges are collected per source class and deduplicated in memory, then written with one
+     * batched insert, so resolving takes no query per reference. A class is injected and used at
+     * most once per target, and is not used where it is related to the target in any other way;
+     * other edges are kept once per field.
+     */
+    public void analyzeRelationships(Project project, List<JavaParserService.ParsedClass> parsedClasses, SymbolTable symbols) {
+        List<ClassRelationship> relationships = new ArrayList<>();
+        Map<Long, EdgeSet> edgesBySource = new HashMap<>();
+        for (JavaParserService.ParsedClass parsed : parsedClasses) {
+            AnalyzedClass sourceClass = symbols.forPath(parsed.getFullPath());
+            if (sourceClass == null) continue;
+            SymbolTable.Scope scope = symbols.scope(parsed);
+
+            EdgeSet edges = edgesBySource.computeIfAbsent(sourceClass.getId(), id -> new EdgeSet());
+            for (JavaParserService.TypeReference reference : parsed.getReferences()) {
+                AnalyzedClass target = scope.resolve(reference.getTypeName());
+                if (target == null || sourceClass.getId().equals(target.getId())) continue;
+
+                RelationshipType type = reference.getType();
+                boolean added = switch (type) {
+                    case INJECTS -> edges.addFirst(target, type, reference.getFieldName());
+                    case USES -> !edges.relates(target) && edges.addFirst(target, type, reference.getFieldName());
+                    case ONE_TO_ONE, ONE_TO_MANY, MANY_TO_ONE, MANY_TO_MANY ->
+                            sourceClass.getType() == ClassType.ENTITY && edges.add(target, type, reference.getFieldName());
+                    default -> edges.add(target, type, reference.getFieldName());
+                };
+                if (added) {
+                    relationships.add(ClassRelationship.builder()
+                            .project(project)
+                            .sourceClass(sourceClass)
+                            .targetClass(target)
+                            .type(type)
+                            .fieldName(reference.getFieldName())
+                            .build());
                 }
             }
         }
+        insert(relationships);
+        log.debug("Resolved {} relationships of {} classes", relationships.size(), parsedClasses.size());
     }
 
-    private void analyzeInjections(String content, AnalyzedClass source, Map<String, AnalyzedClass> classMap, Project project) {
-        Matcher matcher = INJECTION_PATTERN.matcher(content);
-        Set<String> processed = new HashSet<>();
-        
-        while (matcher.find()) {
-            String typeName = matcher.group(2);
-            String fieldName = matcher.group(3);
-            
-            if (!processed.contains(typeName)) {
-                AnalyzedClass target = classMap.get(typeName);
-                if (target != null) {
-                    saveRelationship(project, source, target, RelationshipType.INJECTS, fieldName);
-                    processed.add(typeName);
-                }
-            }
-        }
-
-        Pattern constructorInjection = Pattern.compile("(?:private|protected|public)\\s+final\\s+(\\w+)\\s+(\\w+)\\s*;");
-        matcher = constructorInjection.matcher(content);
-        while (matcher.find()) {
-            String typeName = matcher.group(1);
-            String fieldName = matcher.group(2);
-            if (!processed.contains(typeName) && classMap.containsKey(typeName)) {
-                saveRelationship(project, source, classMap.get(typeName), RelationshipType.INJECTS, fieldName);
-                processed.add(typeName);
-            }
-        }
+    private void insert(List<ClassRelationship> relationships) {
+        jdbcTemplate.batchUpdate(INSERT_RELATIONSHIP, relationships, BATCH_SIZE, (statement, relationship) -> {
+            statement.setLong(1, relationship.getProject().getId());
+            statement.setLong(2, relationship.getSourceClass().getId());
+            statement.setLong(3, relationship.getTargetClass().getId());
+            statement.setString(4, relationship.getType().name());
+            statement.setString(5, relationship.getFieldName());
+        });
     }
 
-    private void analyzeJpaRelations(String content, AnalyzedClass source, Map<String, AnalyzedClass> classMap, Project project) {
-        if (source.getType() != ClassType.ENTITY) return;
-
-        String[] lines = content.split("\n");
-        for (int i = 0; i < lines.length; i++) {
-            Matcher relationMatcher = JPA_RELATION_PATTERN.matcher(lines[i]);
-            if (relationMatcher.find()) {
-                RelationshipType relType = switch (relationMatcher.group(1)) {
-                    case "OneToOne" -> RelationshipType.ONE_TO_ONE;
-                    case "OneToMany" -> RelationshipType.ONE_TO_MANY;
-                    case "ManyToOne" -> RelationshipType.MANY_TO_ONE;
-                    case "ManyToMany" -> RelationshipType.MANY_TO_MANY;
-                    default -> null;
-                };
+    /**
+     * Outgoing edges of one source class, by target class id and type, with the fields of each.
+     */
+    private static final class EdgeSet {
 
-                if (relType != null) {
-                    for (int j = i + 1; j < Math.min(i + 5, lines.length); j++) {
-                        Matcher fieldMatcher = FIELD_TYPE_PATTERN.matcher(lines[j]);
-                        if (fieldMatcher.find()) {
-                            String typeName = fieldMatcher.group(1);
-                            String fieldName = fieldMatcher.group(2);
-                            
-                            if (typeName.equals("List") || typeName.equals("Set")) {
-                                Pattern genericPattern = Pattern.compile("<(\\w+)>");
-                                Matcher genericMatcher = genericPattern.matcher(lines[j]);
-                                if (genericMatcher.find()) {
-                                    typeName = genericMatcher.group(1);
-                                }
-                            }
-                            
-                            AnalyzedClass target = classMap.get(typeName);
-                            if (target != null) {
-                                saveRelationship(project, source, target, relType, fieldName);
-                            }
-                            break;
-                        }
-                    }
-                }
-            }
+        private final Map<Long, Map<RelationshipType, Set<String>>> fieldsByTarget = new HashMap<>();
+
+        boolean relates(AnalyzedClass target) {
+            return fieldsByTarget.containsKey(target.getId());
         }
-    }
 
-    private void analyzeFieldUsages(String content, AnalyzedClass source, Map<String, AnalyzedClass> classMap, Project project) {
-        Set<String> processed = new HashSet<>();
-        Matcher matcher = FIELD_TYPE_PATTERN.matcher(content);
-        
-        while (matcher.find()) {
-            String typeName = matcher.group(1);
-            if (!processed.contains(typeName) && classMap.containsKey(typeName)) {
-                boolean alreadyExists = relationshipRepository.findBySourceClass_Id(source.getId()).stream()
-                        .anyMatch(r -> r.getTargetClass().getName().equals(typeName));
-                
-                if (!alreadyExists) {
-                    saveRelationship(project, source, classMap.get(typeName), RelationshipType.USES, matcher.group(2));
-                }
-                processed.add(typeName);
-            }
+        /**
+         * Adds the edge unless the source already has one of this type to the target.
+         */
+        boolean addFirst(AnalyzedClass target, RelationshipType type, String fieldName) {
+            Set<String> fields = fields(target, type);
+            return fields.isEmpty() && fields.add(fieldName);
         }
-    }
 
-    private void saveRelationship(Project project, AnalyzedClass source, AnalyzedClass target, RelationshipType type, String fieldName) {
-        if (source.getId().equals(target.getId())) return;
-        
-        ClassRelationship relationship = ClassRelationship.builder()
-                .project(project)
-                .sourceClass(source)
-                .targetClass(target)
-                .type(type)
-                .fieldName(fieldName)
-                .build();
-        relationshipRepository.save(relationship);
-    }
+        /**
+         * Adds the edge unless the source already has one of this type to the target through the same field.
+         */
+        boolean add(AnalyzedClass target, RelationshipType type, String fieldName) {
+            return fields(target, type).add(fieldName);
+        }
 
-    private String extractClassName(String content) {
-        Pattern pattern = Pattern.compile("(?:public\\s+)?(?:abstract\\s+)?(?:class|interface|enum)\\s+(\\w+)");
-        Matcher matcher = pattern.matcher(content);
-        return matcher.find() ? matcher.group(1) : null;
+        private Set<String> fields(AnalyzedClass target, RelationshipType type) {
+            return fieldsByTarget.computeIfAbsent(target.getId(), id -> new EnumMap<>(RelationshipType.class))
+                    .computeIfAbsent(type, key -> new HashSet<>());
+        }
     }
 }
@@ -0,0 +1,216 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.entity.SkipReason;
+import com.springanalyzer.entity.SkippedFile;
+import com.springanalyzer.exception.BudgetExceededException;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resource limits of one analysis run, created by {@link ResourceGovernor}. Files that do not fit
+ * are left out or cut short instead of failing the run, and each of them is recorded for the
+ * skipped files report. Safe to use from the parser threads.
+ */
+public class ResourceBudget {
+
+    // Clock reads while matching a guarded text, one per this many characters
+    private static final int CLOCK_CHECK_INTERVAL = 4096;
+
+    private final long maxTotalBytes;
+    private final int maxFileBytes;
+    private final int maxFiles;
+    private final long regexTimeoutNanos;
+    private final long deadline;
+
+    private final AtomicInteger admittedFiles = new AtomicInteger();
+    private final AtomicLong admittedBytes = new AtomicLong();
+    private final Set<String> admitted = ConcurrentHashMap.newKeySet();
+    private final Map<String, SkippedFile> skipped = new ConcurrentHashMap<>();
+
+    ResourceBudget(long maxTotalBytes, int maxFileBytes, int maxFiles, long regexTimeoutMs, long maxDurationSeconds) {
+        this.maxTotalBytes = maxTotalBytes > 0 ? maxTotalBytes : Long.MAX_VALUE;
+        this.maxFileBytes = maxFileBytes > 0 ? maxFileBytes : Integer.MAX_VALUE - 8;
+        this.maxFiles = maxFiles > 0 ? maxFiles : Integer.MAX_VALUE;
+        this.regexTimeoutNanos = regexTimeoutMs > 0 ? regexTimeoutMs * 1_000_000 : 0;
+        this.deadline = maxDurationSeconds > 0 ? System.nanoTime() + maxDurationSeconds * 1_000_000_000 : 0;
+    }
+
+    public long getMaxTotalBytes() {
+        return maxTotalBytes;
+    }
+
+    public int getMaxFileBytes() {
+        return maxFileBytes;
+    }
+
+    public int getMaxFiles() {
+        return maxFiles;
+    }
+
+    /**
+     * The entries that fit the file count and total size limits, in their original order. Files
+     * the analyzers read are taken in order of importance: build files first, since modules are
+     * detected from them, then configuration, then sources. Other files cost nothing and are kept.
+     */
+    public List<SourceProvider.Entry> admit(List<SourceProvider.Entry> entries) {
+        Set<String> rejected = new HashSet<>();
+        entries.stream()
+                .filter(entry -> ZipExtractionService.isAnalyzed(entry.getPath()))
+                .sorted(Comparator.comparingInt(entry -> importance(entry.getFileName())))
+                .forEach(entry -> {
+                    if (!admit(entry.getPath(), entry.getSize())) {
+                        rejected.add(entry.getPath());
+                    }
+                });
+        return rejected.isEmpty() ? entries : entries.stream().filter(entry -> !rejected.contains(entry.getPath())).toList();
+    }
+
+    /**
+     * Takes a file into the run if the file count and total size limits still allow it. A file
+     * larger than the per-file limit counts with the part of it that will be read. Admitting the
+     * same path again, as happens when an extracted archive is read, does not count it twice.
+     */
+    public boolean admit(String path, long size) {
+        if (admitted.contains(path)) return true;
+        if (isSkipped(path)) return false;
+        if (admittedFiles.incrementAndGet() > maxFiles) {
+            admittedFiles.decrementAndGet();
+            overFileLimit(path, size);
+            return false;
+        }
+        long counted = Math.min(Math.max(size, 0), maxFileBytes);
+        if (admittedBytes.addAndGet(counted) > maxTotalBytes) {
+            admittedBytes.addAndGet(-counted);
+            admittedFiles.decrementAndGet();
+            overTotalBytes(path, size);
+            return false;
+        }
+        admitted.add(path);
+        return true;
+    }
+
+    private static int importance(String fileName) {
+        if (fileName.equals("pom.xml") || fileName.startsWith("build.gradle") || fileName.startsWith("settings.gradle")) {
+            return 0;
+        }
+        return fileName.endsWith(".java") ? 2 : 1;
+    }
+
+    public void overFileLimit(String path, long size) {
+        skip(path, size, SkipReason.FILE_LIMIT, "More than " + maxFiles + " files");
+    }
+
+    public void overTotalBytes(String path, long size) {
+        skip(path, size, SkipReason.TOTAL_BYTES_LIMIT, "More than " + maxTotalBytes + " bytes in total");
+    }
+
+    public void truncated(String path, long size) {
+        skipped.putIfAbsent(path, skippedFile(path, size, SkipReason.TRUNCATED,
+                "Only the first " + maxFileBytes + " bytes were analyzed"));
+    }
+
+    public void regexTimedOut(String path, long size) {
+        skip(path, size, SkipReason.REGEX_TIMEOUT, "Pattern matching took longer than " + regexTimeoutNanos / 1_000_000 + " ms");
+    }
+
+    public boolean isExpired() {
+        return deadline != 0 && System.nanoTime() - deadline > 0;
+    }
+
+    /**
+     * Records the file as not analyzed when the time budget of the run is used up.
+     */
+    public boolean skipIfExpired(String path, long size) {
+        if (!isExpired()) return false;
+        skip(path, size, SkipReason.TIME_BUDGET, "Analysis time budget used up");
+        return true;
+    }
+
+    /**
+     * Whether the file was left out of the run, as opposed to analyzed in full or in part.
+     */
+    public boolean isSkipped(String path) {
+        SkippedFile file = skipped.get(path);
+        return file != null && file.getReason() != SkipReason.TRUNCATED;
+    }
+
+    /**
+     * Skipped and truncated files so far, by path.
+     */
+    public List<SkippedFile> getSkippedFiles() {
+        return skipped.values().stream().sorted(Comparator.comparing(SkippedFile::getPath)).toList();
+    }
+
+    /**
+     * Wraps text so that matching a pattern against it fails with {@link BudgetExceededException}
+     * once the per-file regex time or the run's time budget has run out.
+     */
+    public CharSequence guard(CharSequence text) {
+        long limit = 0;
+        if (regexTimeoutNanos > 0) {
+            limit = System.nanoTime() + regexTimeoutNanos;
+        }
+        if (deadline != 0 && (limit == 0 || deadline - limit < 0)) {
+            limit = deadline;
+        }
+        return limit == 0 ? text : new DeadlineCharSequence(text, limit);
+    }
+
+    private void skip(String path, long size, SkipReason reason, String detail) {
+        // Leaving a file out supersedes having truncated it
+        skipped.merge(path, skippedFile(path, size, reason, detail),
+                (previous, current) -> previous.getReason() == SkipReason.TRUNCATED ? current : previous);
+    }
+
+    private static SkippedFile skippedFile(String path, long size, SkipReason reason, String detail) {
+        return SkippedFile.builder().path(path).size(size).reason(reason).detail(detail).build();
+    }
+
+    /**
+     * Checks the clock every {@link #CLOCK_CHECK_INTERVAL} character reads, which bounds
+     * backtracking patterns without a separate watchdog thread.
+     */
+    private static final class DeadlineCharSequence implements CharSequence {
+        private final CharSequence text;
+        private final long deadline;
+        private int reads;
+
+        DeadlineCharSequence(CharSequence text, long deadline) {
+            this.text = text;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (++reads == CLOCK_CHECK_INTERVAL) {
+                reads = 0;
+                if (System.nanoTime() - deadline > 0) {
+                    throw new BudgetExceededException("Pattern matching exceeded its time budget");
+                }
+            }
+            return text.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new DeadlineCharSequence(text.subSequence(start, end), deadline);
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+}
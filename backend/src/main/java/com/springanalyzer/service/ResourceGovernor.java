@@ -0,0 +1,38 @@
+package com.springanalyzer.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Hands every analysis run its {@link ResourceBudget}, so one huge or hostile upload (a zip bomb,
+ * a generated source file of tens of megabytes, hundreds of thousands of files) cannot take the
+ * instance over. A limit of 0 disables it.
+ */
+@Service
+public class ResourceGovernor {
+
+    private final long maxTotalBytes;
+    private final int maxFileBytes;
+    private final int maxFiles;
+    private final long fileRegexTimeoutMs;
+    private final long maxDurationSeconds;
+
+    public ResourceGovernor(@Value("${app.analysis.limits.max-total-bytes:1073741824}") long maxTotalBytes,
+                            @Value("${app.analysis.limits.max-file-bytes:2097152}") int maxFileBytes,
+                            @Value("${app.analysis.limits.max-files:100000}") int maxFiles,
+                            @Value("${app.analysis.limits.file-regex-timeout-ms:5000}") long fileRegexTimeoutMs,
+                            @Value("${app.analysis.limits.max-duration-seconds:1800}") long maxDurationSeconds) {
+        this.maxTotalBytes = maxTotalBytes;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+        this.fileRegexTimeoutMs = fileRegexTimeoutMs;
+        this.maxDurationSeconds = maxDurationSeconds;
+    }
+
+    /**
+     * Budget for a run starting now; its time budget counts from this call.
+     */
+    public ResourceBudget newBudget() {
+        return new ResourceBudget(maxTotalBytes, maxFileBytes, maxFiles, fileRegexTimeoutMs, maxDurationSeconds);
+    }
+}
@@ -1,15 +1,15 @@
 package com.springanalyzer.service;
 
 import com.springanalyzer.entity.*;
+import com.springanalyzer.exception.BudgetExceededException;
 import com.springanalyzer.repository.SecurityIssueRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.nio.file.*;
 import java.util.*;
-import java.util.regex.*;
+import java.util.regex.Pattern;
 
 @Service
 @RequiredArgsConstructor
@@ -18,78 +18,101 @@ public class SecurityScannerService {
 
     private final SecurityIssueRepository issueRepository;
 
-    private static final Pattern PASSWORD_PATTERN = Pattern.compile(
+    private static final TrackedPattern PASSWORD_PATTERN = PatternRegistry.compile(
+        "security.password",
         "(password|passwd|pwd|secret|api[_-]?key|apikey|token|auth)\\s*=\\s*[\"'][^\"']+[\"']",
         Pattern.CASE_INSENSITIVE
     );
 
-    private static final Pattern SQL_INJECTION_PATTERN = Pattern.compile(
+    private static final TrackedPattern SQL_INJECTION_PATTERN = PatternRegistry.compile(
+        "security.sql-injection",
         "\"\\s*\\+\\s*\\w+|\\w+\\s*\\+\\s*\".*(?:SELECT|INSERT|UPDATE|DELETE|FROM|WHERE)",
         Pattern.CASE_INSENSITIVE
     );
 
-    private static final Pattern EXEC_PATTERN = Pattern.compile(
+    private static final TrackedPattern EXEC_PATTERN = PatternRegistry.compile(
+        "security.exec",
         "Runtime\\.getRuntime\\(\\)\\.exec|ProcessBuilder"
     );
 
-    private static final Pattern WEAK_CRYPTO_PATTERN = Pattern.compile(
+    private static final TrackedPattern WEAK_CRYPTO_PATTERN = PatternRegistry.compile(
+        "security.weak-crypto",
         "MD5|SHA-?1|DES|RC4",
         Pattern.CASE_INSENSITIVE
     );
 
-    public List<SecurityIssue> scanProject(Project project, Path extractedPath, Map<String, AnalyzedClass> classMap) {
+    public List<SecurityIssue> scanProject(Project project, SourceCorpus corpus, SymbolTable symbols) {
+        return scanFiles(project, corpus, corpus.files(), symbols);
+    }
+
+    /**
+     * Scans only the given files of the corpus, used when re-analyzing the files that changed.
+     * Files the run's budget left out of parsing are not scanned either, and a file whose
+     * patterns take longer than the budget allows is reported as skipped without issues.
+     * Matches that start inside a comment are not reported.
+     */
+    public List<SecurityIssue> scanFiles(Project project, SourceCorpus corpus, List<SourceCorpus.FileInfo> files,
+                                         SymbolTable symbols) {
         List<SecurityIssue> issues = new ArrayList<>();
 
-        try {
-            Files.walk(extractedPath)
-                .filter(p -> p.toString().endsWith(".java") || p.toString().endsWith(".properties") || p.toString().endsWith(".yml"))
-                .forEach(file -> {
-                    try {
-                        String content = Files.readString(file);
-                        String fileName = extractedPath.relativize(file).toString();
-                        
-                        issues.addAll(scanForHardcodedSecrets(project, content, fileName));
-                        
-                        if (fileName.endsWith(".java")) {
-                            issues.addAll(scanForSqlInjection(project, content, fileName, classMap));
-                            issues.addAll(scanForCommandInjection(project, content, fileName));
-                            issues.addAll(scanForWeakCrypto(project, content, fileName));
-                            issues.addAll(scanForMissingAuth(project, content, fileName, classMap));
-                            issues.addAll(scanForInsecureEndpoints(project, content, fileName));
-                        }
-                        
-                        if (fileName.endsWith(".properties") || fileName.endsWith(".yml")) {
-                            issues.addAll(scanConfigFile(project, content, fileName));
-                        }
-                    } catch (IOException e) {
-                        log.warn("Failed to scan file: {}", file, e);
-                    }
-                });
-        } catch (IOException e) {
-            log.error("Failed to walk project directory", e);
+        for (SourceCorpus.FileInfo file : files) {
+            String fileName = file.getPath();
+            if (!fileName.endsWith(".java") && !fileName.endsWith(".properties") && !fileName.endsWith(".yml")) {
+                continue;
+            }
+            if (corpus.getBudget().isSkipped(fileName) || corpus.getBudget().skipIfExpired(fileName, file.getSize())) {
+                continue;
+            }
+            try {
+                SourceFile source = corpus.source(fileName);
+                // Patterns run over the guarded text, so a backtracking match cannot exceed the file's time budget
+                CharSequence guarded = corpus.getBudget().guard(source.getContent());
+                List<SecurityIssue> fileIssues = new ArrayList<>(scanForHardcodedSecrets(project, source, guarded));
+
+                if (fileName.endsWith(".java")) {
+                    fileIssues.addAll(scanForSqlInjection(project, source, guarded, symbols));
+                    fileIssues.addAll(scanForCommandInjection(project, source, guarded));
+                    fileIssues.addAll(scanForWeakCrypto(project, source, guarded));
+                    fileIssues.addAll(scanForMissingAuth(project, source, symbols));
+                    fileIssues.addAll(scanForInsecureEndpoints(project, source));
+                }
+
+                if (fileName.endsWith(".properties") || fileName.endsWith(".yml")) {
+                    fileIssues.addAll(scanConfigFile(project, source));
+                }
+                issues.addAll(fileIssues);
+            } catch (IOException e) {
+                log.warn("Failed to scan file: {}", fileName, e);
+            } catch (BudgetExceededException e) {
+                log.warn("Skipped scanning {}: {}", fileName, e.getMessage());
+                if (!corpus.getBudget().skipIfExpired(fileName, file.getSize())) {
+                    corpus.getBudget().regexTimedOut(fileName, file.getSize());
+                }
+            }
         }
 
         issueRepository.saveAll(issues);
         return issues;
     }
 
-    private List<SecurityIssue> scanForHardcodedSecrets(Project project, String content, String fileName) {
+    private List<SecurityIssue> scanForHardcodedSecrets(Project project, SourceFile source, CharSequence guarded) {
         List<SecurityIssue> issues = new ArrayList<>();
-        Matcher matcher = PASSWORD_PATTERN.matcher(content);
+        TrackedMatcher matcher = PASSWORD_PATTERN.matcher(guarded);
         
         while (matcher.find()) {
+            if (source.isComment(matcher.start())) continue;
             String match = matcher.group();
             if (!isLikelyPlaceholder(match)) {
-                int lineNum = getLineNumber(content, matcher.start());
+                int lineNum = source.lineOf(matcher.start());
                 issues.add(SecurityIssue.builder()
                     .project(project)
                     .severity(IssueSeverity.HIGH)
                     .category(IssueCategory.HARDCODED_SECRET)
                     .title("Potential hardcoded secret")
                     .description("Found potential hardcoded credential or secret key")
-                    .fileName(fileName)
+                    .fileName(source.getPath())
                     .lineNumber(lineNum)
-                    .codeSnippet(truncate(match, 100))
+                    .codeSnippet(truncate(match, SourceFile.MAX_SNIPPET_LENGTH))
                     .recommendation("Use environment variables or a secrets manager")
                     .build());
             }
@@ -97,22 +120,24 @@ public class SecurityScannerService {
         return issues;
     }
 
-    private List<SecurityIssue> scanForSqlInjection(Project project, String content, String fileName, Map<String, AnalyzedClass> classMap) {
+    private List<SecurityIssue> scanForSqlInjection(Project project, SourceFile source, CharSequence guarded, SymbolTable symbols) {
         List<SecurityIssue> issues = new ArrayList<>();
         
-        if (content.contains("createQuery") || content.contains("createNativeQuery") || content.contains("executeQuery")) {
-            Matcher matcher = SQL_INJECTION_PATTERN.matcher(content);
+        if (source.containsOutsideComments("createQuery") || source.containsOutsideComments("createNativeQuery")
+                || source.containsOutsideComments("executeQuery")) {
+            TrackedMatcher matcher = SQL_INJECTION_PATTERN.matcher(guarded);
             while (matcher.find()) {
-                int lineNum = getLineNumber(content, matcher.start());
+                if (source.isComment(matcher.start())) continue;
+                int lineNum = source.lineOf(matcher.start());
                 issues.add(SecurityIssue.builder()
                     .project(project)
                     .severity(IssueSeverity.CRITICAL)
                     .category(IssueCategory.SQL_INJECTION)
                     .title("Potential SQL injection")
                     .description("String concatenation in SQL query detected")
-                    .fileName(fileName)
+                    .fileName(source.getPath())
                     .lineNumber(lineNum)
-                    .codeSnippet(truncate(matcher.group(), 100))
+                    .codeSnippet(truncate(matcher.group(), SourceFile.MAX_SNIPPET_LENGTH))
                     .recommendation("Use parameterized queries or JPA named parameters")
                     .build());
             }
@@ -120,58 +145,63 @@ public class SecurityScannerService {
         return issues;
     }
 
-    private List<SecurityIssue> scanForCommandInjection(Project project, String content, String fileName) {
+    private List<SecurityIssue> scanForCommandInjection(Project project, SourceFile source, CharSequence guarded) {
         List<SecurityIssue> issues = new ArrayList<>();
-        Matcher matcher = EXEC_PATTERN.matcher(content);
+        TrackedMatcher matcher = EXEC_PATTERN.matcher(guarded);
         
         while (matcher.find()) {
-            int lineNum = getLineNumber(content, matcher.start());
+            if (source.isComment(matcher.start())) continue;
+            int lineNum = source.lineOf(matcher.start());
             issues.add(SecurityIssue.builder()
                 .project(project)
                 .severity(IssueSeverity.HIGH)
                 .category(IssueCategory.OTHER)
                 .title("Command execution detected")
                 .description("Direct command execution can lead to command injection if user input is involved")
-                .fileName(fileName)
+                .fileName(source.getPath())
                 .lineNumber(lineNum)
+                .codeSnippet(source.snippet(matcher.start()))
                 .recommendation("Validate and sanitize all input, avoid shell commands if possible")
                 .build());
         }
         return issues;
     }
 
-    private List<SecurityIssue> scanForWeakCrypto(Project project, String content, String fileName) {
+    private List<SecurityIssue> scanForWeakCrypto(Project project, SourceFile source, CharSequence guarded) {
         List<SecurityIssue> issues = new ArrayList<>();
-        Matcher matcher = WEAK_CRYPTO_PATTERN.matcher(content);
+        TrackedMatcher matcher = WEAK_CRYPTO_PATTERN.matcher(guarded);
         
         while (matcher.find()) {
-            int lineNum = getLineNumber(content, matcher.start());
+            if (source.isComment(matcher.start())) continue;
+            int lineNum = source.lineOf(matcher.start());
             issues.add(SecurityIssue.builder()
                 .project(project)
                 .severity(IssueSeverity.MEDIUM)
                 .category(IssueCategory.WEAK_CRYPTO)
                 .title("Weak cryptographic algorithm: " + matcher.group())
                 .description("Usage of deprecated or weak cryptographic algorithm")
-                .fileName(fileName)
+                .fileName(source.getPath())
                 .lineNumber(lineNum)
+                .codeSnippet(source.snippet(matcher.start()))
                 .recommendation("Use SHA-256 or stronger algorithms, AES for encryption")
                 .build());
         }
         return issues;
     }
 
-    private List<SecurityIssue> scanForMissingAuth(Project project, String content, String fileName, Map<String, AnalyzedClass> classMap) {
+    private List<SecurityIssue> scanForMissingAuth(Project project, SourceFile source, SymbolTable symbols) {
         List<SecurityIssue> issues = new ArrayList<>();
+        String content = source.getContent();
         
-        boolean isController = content.contains("@RestController") || content.contains("@Controller");
-        boolean hasSecurityAnnotation = content.contains("@PreAuthorize") || 
-                                        content.contains("@Secured") || 
-                                        content.contains("@RolesAllowed");
+        boolean isController = source.containsOutsideComments("@RestController") || source.containsOutsideComments("@Controller");
+        boolean hasSecurityAnnotation = source.containsOutsideComments("@PreAuthorize") || 
+                                        source.containsOutsideComments("@Secured") || 
+                                        source.containsOutsideComments("@RolesAllowed");
         
         if (isController && !hasSecurityAnnotation) {
-            boolean hasSensitiveEndpoints = content.contains("@DeleteMapping") || 
-                                           content.contains("@PutMapping") ||
-                                           (content.contains("@PostMapping") && !content.contains("/login") && !content.contains("/register"));
+            boolean hasSensitiveEndpoints = source.containsOutsideComments("@DeleteMapping") || 
+                                           source.containsOutsideComments("@PutMapping") ||
+                                           (source.containsOutsideComments("@PostMapping") && !content.contains("/login") && !content.contains("/register"));
             
             if (hasSensitiveEndpoints) {
                 issues.add(SecurityIssue.builder()
@@ -180,7 +210,7 @@ public class SecurityScannerService {
                     .category(IssueCategory.MISSING_AUTH)
                     .title("Controller without security annotations")
                     .description("Controller has modifying endpoints without explicit security annotations")
-                    .fileName(fileName)
+                    .fileName(source.getPath())
                     .recommendation("Add @PreAuthorize, @Secured, or @RolesAllowed annotations")
                     .build());
             }
@@ -188,46 +218,46 @@ public class SecurityScannerService {
         return issues;
     }
 
-    private List<SecurityIssue> scanForInsecureEndpoints(Project project, String content, String fileName) {
+    private List<SecurityIssue> scanForInsecureEndpoints(Project project, SourceFile source) {
         List<SecurityIssue> issues = new ArrayList<>();
         
-        if (content.contains("@CrossOrigin") && content.contains("*")) {
+        if (source.containsOutsideComments("@CrossOrigin") && source.getContent().contains("*")) {
             issues.add(SecurityIssue.builder()
                 .project(project)
                 .severity(IssueSeverity.MEDIUM)
                 .category(IssueCategory.CORS_MISCONFIGURATION)
                 .title("Overly permissive CORS configuration")
                 .description("CORS is configured to allow all origins")
-                .fileName(fileName)
+                .fileName(source.getPath())
                 .recommendation("Restrict CORS to specific trusted origins")
                 .build());
         }
         return issues;
     }
 
-    private List<SecurityIssue> scanConfigFile(Project project, String content, String fileName) {
+    private List<SecurityIssue> scanConfigFile(Project project, SourceFile source) {
         List<SecurityIssue> issues = new ArrayList<>();
         
-        if (content.contains("debug=true") || content.contains("debug: true")) {
+        if (source.containsOutsideComments("debug=true") || source.containsOutsideComments("debug: true")) {
             issues.add(SecurityIssue.builder()
                 .project(project)
                 .severity(IssueSeverity.LOW)
                 .category(IssueCategory.DEBUG_ENABLED)
                 .title("Debug mode enabled")
                 .description("Debug mode should be disabled in production")
-                .fileName(fileName)
+                .fileName(source.getPath())
                 .recommendation("Set debug=false for production deployments")
                 .build());
         }
         
-        if (content.contains("spring.h2.console.enabled=true")) {
+        if (source.containsOutsideComments("spring.h2.console.enabled=true")) {
             issues.add(SecurityIssue.builder()
                 .project(project)
                 .severity(IssueSeverity.HIGH)
                 .category(IssueCategory.SENSITIVE_DATA_EXPOSURE)
                 .title("H2 Console enabled")
                 .description("H2 database console is enabled, exposing database access")
-                .fileName(fileName)
+                .fileName(source.getPath())
                 .recommendation("Disable H2 console in production")
                 .build());
         }
@@ -241,10 +271,6 @@ public class SecurityScannerService {
                match.contains("changeme") || match.contains("xxx");
     }
 
-    private int getLineNumber(String content, int position) {
-        return (int) content.substring(0, position).chars().filter(c -> c == '\n').count() + 1;
-    }
-
     private String truncate(String str, int maxLen) {
         return str.length() > maxLen ? str.substring(0, maxLen) + "..." : str;
     }
@@ -0,0 +1,116 @@
+package com.springanalyzer.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Raw content of one file as read by a {@link SourceProvider}: a memory-mapped region of the
+ * file or a heap buffer holding exactly its bytes. Whether the content is pure ASCII is found
+ * once, eight bytes at a time. ASCII content decodes without UTF-8 validation, and a search for
+ * ASCII text runs on the bytes without decoding at all, which is valid for any UTF-8 content
+ * since the bytes of a multi-byte character never fall in the ASCII range.
+ * <p>
+ * The buffer is never modified, so an instance can be shared between threads.
+ */
+public final class SourceBytes {
+
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private final ByteBuffer buffer;
+    private final boolean mapped;
+    private final boolean ascii;
+
+    private SourceBytes(ByteBuffer buffer, boolean mapped) {
+        this.buffer = buffer;
+        this.mapped = mapped;
+        this.ascii = isAscii(buffer);
+    }
+
+    public static SourceBytes of(byte[] bytes) {
+        return new SourceBytes(ByteBuffer.wrap(bytes), false);
+    }
+
+    static SourceBytes mapped(ByteBuffer buffer) {
+        return new SourceBytes(buffer, true);
+    }
+
+    public int size() {
+        return buffer.limit();
+    }
+
+    public boolean isAscii() {
+        return ascii;
+    }
+
+    public boolean isMapped() {
+        return mapped;
+    }
+
+    /**
+     * The first {@code size} bytes, sharing the buffer.
+     */
+    public SourceBytes truncate(int size) {
+        if (size >= size()) return this;
+        return new SourceBytes(buffer.slice(0, size), mapped);
+    }
+
+    /**
+     * The buffer itself, for readers that use absolute indices only.
+     */
+    ByteBuffer buffer() {
+        return buffer;
+    }
+
+    public byte get(int index) {
+        return buffer.get(index);
+    }
+
+    /**
+     * Whether the content contains the given text, which must be ASCII.
+     */
+    public boolean contains(String text) {
+        int length = text.length();
+        if (length == 0) return true;
+        byte first = (byte) text.charAt(0);
+        int last = buffer.limit() - length;
+        for (int i = 0; i <= last; i++) {
+            if (buffer.get(i) != first) continue;
+            int j = 1;
+            while (j < length && buffer.get(i + j) == (byte) text.charAt(j)) j++;
+            if (j == length) return true;
+        }
+        return false;
+    }
+
+    public String decode() {
+        byte[] bytes;
+        int offset;
+        if (buffer.hasArray()) {
+            bytes = buffer.array();
+            offset = buffer.arrayOffset();
+        } else {
+            bytes = new byte[size()];
+            offset = 0;
+            buffer.get(0, bytes);
+        }
+        // For ASCII content Latin-1 decoding gives the same text and is a plain copy
+        return new String(bytes, offset, size(), ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+    }
+
+    public void digest(MessageDigest digest) {
+        digest.update(buffer.duplicate());
+    }
+
+    private static boolean isAscii(ByteBuffer buffer) {
+        int size = buffer.limit();
+        int i = 0;
+        for (; i + Long.BYTES <= size; i += Long.BYTES) {
+            if ((buffer.getLong(i) & HIGH_BITS) != 0) return false;
+        }
+        for (; i < size; i++) {
+            if (buffer.get(i) < 0) return false;
+        }
+        return true;
+    }
+}
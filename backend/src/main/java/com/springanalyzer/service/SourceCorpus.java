@@ -0,0 +1,174 @@
+package com.springanalyzer.service;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snapshot of a project for one analysis run. The file list and module membership are
+ * built from a single traversal of the {@link SourceProvider}; file content is loaded on
+ * first access and shared between all analyzers as a {@link SourceFile}. Content is held
+ * through soft references so a large project can still be analyzed within a small heap.
+ * <p>
+ * Reads stop at the per-file size of the run's {@link ResourceBudget}, which applies the
+ * limit once for all analyzers. In {@link ProjectSourceService.IoMode#BYTES} mode files are
+ * decoded only when an analyzer needs their text, in {@code STRING} mode as soon as they are
+ * read.
+ */
+@Slf4j
+public class SourceCorpus implements Closeable {
+
+    private final SourceProvider provider;
+    @Getter
+    private final ResourceBudget budget;
+    private final ProjectSourceService.IoMode ioMode;
+    private final SourceIoMetrics metrics;
+    @Getter
+    private final List<ProjectSourceService.ModuleInfo> modules;
+    private final List<FileInfo> files;
+    private final List<FileInfo> javaFiles;
+    private final Map<String, FileInfo> byPath;
+    private final Map<String, SoftReference<SourceFile>> contents = new ConcurrentHashMap<>();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+
+    public SourceCorpus(SourceProvider provider, List<SourceProvider.Entry> entries,
+                        List<ProjectSourceService.ModuleInfo> modules, ResourceBudget budget,
+                        ProjectSourceService.IoMode ioMode, SourceIoMetrics metrics) {
+        this.provider = provider;
+        this.budget = budget;
+        this.ioMode = ioMode;
+        this.metrics = metrics;
+        this.modules = List.copyOf(modules);
+
+        List<FileInfo> all = new ArrayList<>(entries.size());
+        Map<String, FileInfo> index = new HashMap<>(entries.size() * 2);
+        for (SourceProvider.Entry entry : entries) {
+            FileInfo file = new FileInfo(entry.getPath(), entry.getSize(), moduleFor(entry.getPath(), modules));
+            all.add(file);
+            index.put(file.getPath(), file);
+        }
+        this.files = Collections.unmodifiableList(all);
+        this.byPath = index;
+        this.javaFiles = all.stream().filter(FileInfo::isJava).toList();
+    }
+
+    public List<FileInfo> files() {
+        return files;
+    }
+
+    public List<FileInfo> javaFiles() {
+        return javaFiles;
+    }
+
+    /**
+     * Java files below a directory relative to the project root, the empty string meaning the whole project.
+     */
+    public List<FileInfo> javaFilesUnder(String directory) {
+        if (directory.isEmpty()) {
+            return javaFiles;
+        }
+        String prefix = directory + "/";
+        return javaFiles.stream().filter(f -> f.getPath().startsWith(prefix)).toList();
+    }
+
+    public boolean exists(String path) {
+        return byPath.containsKey(path);
+    }
+
+    public String read(String path) throws IOException {
+        return source(path).getContent();
+    }
+
+    /**
+     * The file with its line table and comment regions, which are computed once for all analyzers.
+     */
+    public SourceFile source(String path) throws IOException {
+        SoftReference<SourceFile> ref = contents.get(path);
+        SourceFile source = ref != null ? ref.get() : null;
+        if (source != null) {
+            hits.incrementAndGet();
+            return source;
+        }
+        int limit = budget.getMaxFileBytes();
+        SourceBytes bytes = provider.readSource(path, limit + 1, ioMode == ProjectSourceService.IoMode.BYTES);
+        if (bytes.size() > limit) {
+            FileInfo file = byPath.get(path);
+            budget.truncated(path, file != null ? file.getSize() : bytes.size());
+            bytes = bytes.truncate(limit);
+        }
+        metrics.read(bytes);
+        source = new SourceFile(path, bytes, metrics::decoded);
+        if (ioMode == ProjectSourceService.IoMode.STRING) {
+            source.getContent();
+        }
+        loads.incrementAndGet();
+        contents.put(path, new SoftReference<>(source));
+        return source;
+    }
+
+    public long getLoadCount() {
+        return loads.get();
+    }
+
+    public long getCacheHitCount() {
+        return hits.get();
+    }
+
+    @Override
+    public void close() {
+        log.debug("Source corpus closed: {} files, {} loads, {} cache hits", files.size(), loads.get(), hits.get());
+        contents.clear();
+        provider.close();
+    }
+
+    /**
+     * Determine which module a file belongs to
+     */
+    static String moduleFor(String file, List<ProjectSourceService.ModuleInfo> modules) {
+        // Find the most specific (longest path) module that contains this file
+        ProjectSourceService.ModuleInfo bestMatch = null;
+        int bestMatchLength = -1;
+
+        for (ProjectSourceService.ModuleInfo module : modules) {
+            String modulePath = module.getPath();
+            boolean contains = modulePath.isEmpty() || file.startsWith(modulePath + "/");
+            if (contains && modulePath.length() > bestMatchLength) {
+                bestMatch = module;
+                bestMatchLength = modulePath.length();
+            }
+        }
+
+        return bestMatch != null ? bestMatch.getName() : "main";
+    }
+
+    @Getter
+    public static class FileInfo {
+        private final String path;
+        private final String fileName;
+        private final long size;
+        private final String moduleName;
+
+        FileInfo(String path, long size, String moduleName) {
+            this.path = path;
+            this.fileName = path.substring(path.lastIndexOf('/') + 1);
+            this.size = size;
+            this.moduleName = moduleName;
+        }
+
+        @Override
+        public String toString() {
+            return path;
+        }
+
+        public boolean isJava() {
+            return fileName.endsWith(".java");
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.springanalyzer.service;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.BitSet;
+import java.util.function.Consumer;
+
+/**
+ * One file of an analysis run, decoded once and shared by all analyzers through
+ * {@link SourceCorpus}. Besides the text it holds the offset at which each line starts, so an
+ * offset maps to its line by binary search, and which characters lie in comments or in string
+ * and character literals, so a pattern match can be told apart from code. For Java these
+ * regions come from {@link JavaLexer}, for {@code .properties} and YAML files whole-line
+ * {@code #} comments are recognized.
+ * <p>
+ * A file read as {@link SourceBytes} is decoded on the first call that needs its text, and
+ * {@link #contains} answers from the bytes until then, so a file that is only searched for a
+ * few names is never turned into a string. The bytes are dropped once decoded. Content, line
+ * starts and regions are computed on first use and never change afterwards, so an instance can
+ * be shared between threads.
+ */
+public final class SourceFile {
+
+    static final int MAX_SNIPPET_LENGTH = 100;
+
+    @Getter
+    private final String path;
+    private volatile String content;
+    // Until the content is decoded
+    private volatile SourceBytes bytes;
+    private final Consumer<SourceBytes> onDecode;
+    private volatile int[] lineStarts;
+    private volatile Regions regions;
+
+    public SourceFile(String path, String content) {
+        this.path = path;
+        this.content = content;
+        this.onDecode = null;
+    }
+
+    /**
+     * A file decoded on first use, {@code onDecode} being told when that happens.
+     */
+    public SourceFile(String path, SourceBytes bytes, Consumer<SourceBytes> onDecode) {
+        this.path = path;
+        this.bytes = bytes;
+        this.onDecode = onDecode;
+    }
+
+    public String getContent() {
+        String decoded = content;
+        if (decoded == null) {
+            synchronized (this) {
+                decoded = content;
+                if (decoded == null) {
+                    SourceBytes raw = bytes;
+                    decoded = raw.decode();
+                    if (onDecode != null) onDecode.accept(raw);
+                    content = decoded;
+                    bytes = null;
+                }
+            }
+        }
+        return decoded;
+    }
+
+    public boolean isDecoded() {
+        return content != null;
+    }
+
+    /**
+     * The bytes of a file not decoded yet, null once it is.
+     */
+    SourceBytes undecodedBytes() {
+        return bytes;
+    }
+
+    public int length() {
+        return getContent().length();
+    }
+
+    /**
+     * Whether the text occurs anywhere in the file. ASCII text is looked up in the bytes of a
+     * file not decoded yet.
+     */
+    public boolean contains(String text) {
+        SourceBytes raw = bytes;
+        if (raw != null && isAscii(text)) {
+            return raw.contains(text);
+        }
+        return getContent().contains(text);
+    }
+
+    /**
+     * Feeds the file's bytes to a digest. Once the content is decoded that is its UTF-8 encoding,
+     * which is the same bytes unless the file was not valid UTF-8.
+     */
+    public void digest(MessageDigest digest) {
+        SourceBytes raw = bytes;
+        if (raw != null) {
+            raw.digest(digest);
+        } else {
+            digest.update(getContent().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    public int lineCount() {
+        return lineStarts().length;
+    }
+
+    /**
+     * Line of an offset, counted from 1.
+     */
+    public int lineOf(int offset) {
+        int[] starts = lineStarts();
+        int low = 0;
+        int high = starts.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (starts[middle] <= offset) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low + 1;
+    }
+
+    public int lineStart(int line) {
+        return lineStarts()[line - 1];
+    }
+
+    /**
+     * Offset of the line terminator of a line, or the length of the content for the last line.
+     */
+    public int lineEnd(int line) {
+        int[] starts = lineStarts();
+        String content = getContent();
+        int end = line < starts.length ? starts[line] - 1 : content.length();
+        if (end > starts[line - 1] && content.charAt(end - 1) == '\r') end--;
+        return end;
+    }
+
+    public String line(int line) {
+        return getContent().substring(lineStart(line), lineEnd(line));
+    }
+
+    /**
+     * The line containing an offset, stripped and cut to {@value #MAX_SNIPPET_LENGTH} characters.
+     */
+    public String snippet(int offset) {
+        String line = line(lineOf(offset)).strip();
+        return line.length() > MAX_SNIPPET_LENGTH ? line.substring(0, MAX_SNIPPET_LENGTH) + "..." : line;
+    }
+
+    public boolean isComment(int offset) {
+        return regions().comments.get(offset);
+    }
+
+    public boolean isLiteral(int offset) {
+        return regions().literals.get(offset);
+    }
+
+    /**
+     * Whether the text occurs outside of comments. Occurrences in literals count, as several
+     * checks look for values written in them.
+     */
+    public boolean containsOutsideComments(String text) {
+        if (!contains(text)) return false;
+        String content = getContent();
+        BitSet comments = regions().comments;
+        for (int at = content.indexOf(text); at >= 0; at = content.indexOf(text, at + 1)) {
+            if (!comments.get(at)) return true;
+        }
+        return false;
+    }
+
+    private int[] lineStarts() {
+        int[] starts = lineStarts;
+        if (starts == null) {
+            String content = getContent();
+            int count = 1;
+            for (int i = content.indexOf('\n'); i >= 0; i = content.indexOf('\n', i + 1)) count++;
+            starts = new int[count];
+            int line = 1;
+            for (int i = content.indexOf('\n'); i >= 0; i = content.indexOf('\n', i + 1)) starts[line++] = i + 1;
+            lineStarts = starts;
+        }
+        return starts;
+    }
+
+    private Regions regions() {
+        Regions computed = regions;
+        if (computed == null) {
+            computed = path.endsWith(".java") ? javaRegions() : lineCommentRegions();
+            regions = computed;
+        }
+        return computed;
+    }
+
+    private Regions javaRegions() {
+        String content = getContent();
+        Regions computed = new Regions();
+        JavaLexer lexer = new JavaLexer(content);
+        JavaLexer.Token token;
+        do {
+            token = lexer.next();
+            // Between two tokens there is only whitespace and comments
+            int from = lexer.previousEnd();
+            int to = lexer.start();
+            while (from < to && Character.isWhitespace(content.charAt(from))) from++;
+            while (to > from && Character.isWhitespace(content.charAt(to - 1))) to--;
+            if (from < to) computed.comments.set(from, to);
+            if (token == JavaLexer.Token.STRING || token == JavaLexer.Token.CHARACTER) {
+                computed.literals.set(lexer.start(), lexer.end());
+            }
+        } while (token != JavaLexer.Token.EOF);
+        return computed;
+    }
+
+    private Regions lineCommentRegions() {
+        String content = getContent();
+        Regions computed = new Regions();
+        boolean properties = path.endsWith(".properties");
+        for (int line = 1; line <= lineCount(); line++) {
+            int from = lineStart(line);
+            int to = lineEnd(line);
+            while (from < to && Character.isWhitespace(content.charAt(from))) from++;
+            if (from < to && (content.charAt(from) == '#' || (properties && content.charAt(from) == '!'))) {
+                computed.comments.set(from, to);
+            }
+        }
+        return computed;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) return false;
+        }
+        return true;
+    }
+
+    private static final class Regions {
+        private final BitSet comments = new BitSet();
+        private final BitSet literals = new BitSet();
+    }
+}
@@ -0,0 +1,140 @@
+package com.springanalyzer.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Meters of the source I/O layer and of the memory analysis runs take, published through
+ * {@code /actuator/metrics} so the I/O modes can be compared on a real workload:
+ * <ul>
+ * <li>{@code analysis.source.read}: bytes read per file, tagged {@code buffer=mapped|heap}</li>
+ * <li>{@code analysis.source.decoded}: bytes decoded into strings, tagged {@code charset=ascii|utf-8}</li>
+ * <li>{@code analysis.run.allocated}: bytes allocated in the JVM during a run, tagged {@code io.mode}</li>
+ * <li>{@code analysis.run.allocation.rate}: the same per second of the run</li>
+ * <li>{@code analysis.run.heap.peak}: peak heap use during a run, tagged {@code io.mode}</li>
+ * </ul>
+ * Allocation is counted for all threads, and heap peaks are only reset when no other run is
+ * active, so runs that overlap are measured together.
+ */
+@Component
+@Slf4j
+public class SourceIoMetrics {
+
+    private static final double MB = 1024 * 1024;
+
+    private final MeterRegistry registry;
+    private final DistributionSummary mappedReads;
+    private final DistributionSummary heapReads;
+    private final DistributionSummary asciiDecodes;
+    private final DistributionSummary utf8Decodes;
+    private final com.sun.management.ThreadMXBean threads;
+    private final List<MemoryPoolMXBean> heapPools;
+    private final AtomicInteger activeRuns = new AtomicInteger();
+
+    public SourceIoMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.mappedReads = bytes("analysis.source.read", "Source bytes read per file", "buffer", "mapped");
+        this.heapReads = bytes("analysis.source.read", "Source bytes read per file", "buffer", "heap");
+        this.asciiDecodes = bytes("analysis.source.decoded", "Source bytes decoded into strings", "charset", "ascii");
+        this.utf8Decodes = bytes("analysis.source.decoded", "Source bytes decoded into strings", "charset", "utf-8");
+        this.threads = ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported() ? bean : null;
+        if (threads != null && !threads.isThreadAllocatedMemoryEnabled()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+        }
+        this.heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+    }
+
+    void read(SourceBytes bytes) {
+        (bytes.isMapped() ? mappedReads : heapReads).record(bytes.size());
+    }
+
+    void decoded(SourceBytes bytes) {
+        (bytes.isAscii() ? asciiDecodes : utf8Decodes).record(bytes.size());
+    }
+
+    /**
+     * Starts measuring one analysis run; {@link Run#finish()} records it.
+     */
+    public Run startRun(ProjectSourceService.IoMode ioMode) {
+        if (activeRuns.getAndIncrement() == 0) {
+            heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        }
+        return new Run(ioMode);
+    }
+
+    public class Run {
+        private final String ioMode;
+        private final long startNanos = System.nanoTime();
+        private final Map<Long, Long> allocatedAtStart = allocatedPerThread();
+        private boolean finished;
+
+        private Run(ProjectSourceService.IoMode ioMode) {
+            this.ioMode = ioMode.name().toLowerCase();
+        }
+
+        /**
+         * Records the run and returns a one-line summary for the log.
+         */
+        public String finish() {
+            if (finished) return "";
+            finished = true;
+            long heapPeak = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+            activeRuns.decrementAndGet();
+            double seconds = Math.max(1, System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+
+            bytes("analysis.run.heap.peak", "Peak heap use during an analysis run, upper bound", "io.mode", ioMode)
+                    .record(heapPeak);
+            if (threads == null) {
+                return String.format("heap peak %.1f MB", heapPeak / MB);
+            }
+            long allocated = 0;
+            for (Map.Entry<Long, Long> thread : allocatedPerThread().entrySet()) {
+                allocated += thread.getValue() - allocatedAtStart.getOrDefault(thread.getKey(), 0L);
+            }
+            bytes("analysis.run.allocated", "Bytes allocated during an analysis run", "io.mode", ioMode)
+                    .record(allocated);
+            DistributionSummary.builder("analysis.run.allocation.rate")
+                    .description("Bytes allocated per second of an analysis run")
+                    .baseUnit("bytes/s")
+                    .tag("io.mode", ioMode)
+                    .register(registry)
+                    .record(allocated / seconds);
+            return String.format("allocated %.1f MB at %.1f MB/s, heap peak %.1f MB",
+                    allocated / MB, allocated / MB / seconds, heapPeak / MB);
+        }
+    }
+
+    private Map<Long, Long> allocatedPerThread() {
+        Map<Long, Long> allocated = new HashMap<>();
+        if (threads == null) return allocated;
+        long[] ids = threads.getAllThreadIds();
+        long[] bytes = threads.getThreadAllocatedBytes(ids);
+        for (int i = 0; i < ids.length; i++) {
+            // -1 for a thread that ended in between
+            if (bytes[i] >= 0) allocated.put(ids[i], bytes[i]);
+        }
+        return allocated;
+    }
+
+    private DistributionSummary bytes(String name, String description, String tag, String value) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .baseUnit("bytes")
+                .tag(tag, value)
+                .register(registry);
+    }
+}
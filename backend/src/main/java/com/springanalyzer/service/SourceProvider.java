@@ -0,0 +1,48 @@
+package com.springanalyzer.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Read-only view over the files of an uploaded project.
+ * Paths are relative to the detected project root and always use '/' as separator.
+ */
+public interface SourceProvider extends Closeable {
+
+    List<Entry> listFiles();
+
+    boolean exists(String path);
+
+    String readString(String path) throws IOException;
+
+    /**
+     * The first {@code limit} bytes of the file, or all of it when it is shorter.
+     */
+    byte[] readBytes(String path, int limit) throws IOException;
+
+    /**
+     * The first {@code limit} bytes of the file for analysis. A provider that can map files into
+     * memory may do so when {@code mapped} is set, the others read them onto the heap.
+     */
+    default SourceBytes readSource(String path, int limit, boolean mapped) throws IOException {
+        return SourceBytes.of(readBytes(path, limit));
+    }
+
+    @Override
+    void close();
+
+    @Getter
+    @AllArgsConstructor
+    class Entry {
+        private final String path;
+        private final long size;
+
+        public String getFileName() {
+            return path.substring(path.lastIndexOf('/') + 1);
+        }
+    }
+}
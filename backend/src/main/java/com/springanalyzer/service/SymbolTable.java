@@ -0,0 +1,121 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.entity.AnalyzedClass;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The classes of a project by fully qualified name, for resolving the type names a class refers
+ * to the way the compiler would: a qualified name as is, then a single-type import, the class's
+ * own package and its on-demand imports. A name none of these find resolves to the project's
+ * only class of that simple name, when there is exactly one, and to nothing otherwise. Every
+ * step is a hash lookup, so resolving takes the same time whatever the size of the project.
+ * <p>
+ * Classes sharing a qualified name, such as the main class of several modules, are told apart by
+ * module: a reference resolves to the one in the referring class's module, or else to the one
+ * added last.
+ */
+public final class SymbolTable {
+
+    private final Map<String, List<AnalyzedClass>> byQualifiedName = new HashMap<>();
+    private final Map<String, List<AnalyzedClass>> bySimpleName = new HashMap<>();
+    private final Map<String, AnalyzedClass> byPath = new HashMap<>();
+
+    public void add(AnalyzedClass analyzedClass) {
+        byPath.put(analyzedClass.getFullPath(), analyzedClass);
+        List<AnalyzedClass> sameName = byQualifiedName.computeIfAbsent(
+                qualifiedName(analyzedClass.getPackageName(), analyzedClass.getName()), key -> new ArrayList<>(1));
+        List<AnalyzedClass> candidates = bySimpleName.computeIfAbsent(analyzedClass.getName(), key -> new ArrayList<>(1));
+        for (Iterator<AnalyzedClass> it = sameName.iterator(); it.hasNext(); ) {
+            AnalyzedClass existing = it.next();
+            if (sameModule(existing, analyzedClass.getModuleName())) {
+                it.remove();
+                candidates.remove(existing);
+            }
+        }
+        sameName.add(analyzedClass);
+        candidates.add(analyzedClass);
+    }
+
+    /**
+     * The class stored for a source file.
+     */
+    public AnalyzedClass forPath(String path) {
+        return byPath.get(path);
+    }
+
+    public int size() {
+        return byPath.size();
+    }
+
+    /**
+     * The context to resolve the type names of a parsed class in: its package, module and imports.
+     */
+    public Scope scope(JavaParserService.ParsedClass parsed) {
+        return new Scope(parsed);
+    }
+
+    static String qualifiedName(String packageName, String name) {
+        return packageName == null || packageName.isEmpty() ? name : packageName + "." + name;
+    }
+
+    private static boolean sameModule(AnalyzedClass analyzedClass, String moduleName) {
+        return analyzedClass.getModuleName() == null ? moduleName == null : analyzedClass.getModuleName().equals(moduleName);
+    }
+
+    private AnalyzedClass find(String qualifiedName, String moduleName) {
+        List<AnalyzedClass> classes = byQualifiedName.get(qualifiedName);
+        if (classes == null) return null;
+        for (AnalyzedClass analyzedClass : classes) {
+            if (sameModule(analyzedClass, moduleName)) return analyzedClass;
+        }
+        return classes.get(classes.size() - 1);
+    }
+
+    public final class Scope {
+
+        private final String packageName;
+        private final String moduleName;
+        // Simple name to qualified name
+        private final Map<String, String> singleTypeImports = new HashMap<>();
+        private final List<String> onDemandImports = new ArrayList<>();
+
+        private Scope(JavaParserService.ParsedClass parsed) {
+            this.packageName = parsed.getPackageName();
+            this.moduleName = parsed.getModuleName();
+            for (String name : parsed.getImports()) {
+                if (name.endsWith(".*")) {
+                    onDemandImports.add(name.substring(0, name.length() - 2));
+                } else {
+                    singleTypeImports.put(name.substring(name.lastIndexOf('.') + 1), name);
+                }
+            }
+        }
+
+        /**
+         * The project class a type name refers to, null when it names a type from outside the
+         * project or cannot be told apart from others of the same simple name.
+         */
+        public AnalyzedClass resolve(String typeName) {
+            if (typeName.indexOf('.') >= 0) {
+                return find(typeName, moduleName);
+            }
+            String imported = singleTypeImports.get(typeName);
+            if (imported != null) {
+                return find(imported, moduleName);
+            }
+            AnalyzedClass samePackage = find(qualifiedName(packageName, typeName), moduleName);
+            if (samePackage != null) return samePackage;
+            for (String onDemand : onDemandImports) {
+                AnalyzedClass found = find(onDemand + "." + typeName, moduleName);
+                if (found != null) return found;
+            }
+            List<AnalyzedClass> candidates = bySimpleName.get(typeName);
+            return candidates != null && candidates.size() == 1 ? candidates.get(0) : null;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.springanalyzer.service;
+
+import java.util.regex.Matcher;
+
+/**
+ * A {@link Matcher} of a {@link TrackedPattern} that times every search it runs. The input length
+ * recorded is the part of the input the search could still cover, from where it starts to the
+ * end of the region.
+ */
+final class TrackedMatcher {
+
+    private final TrackedPattern pattern;
+    private final Matcher matcher;
+    private int searchFrom;
+
+    TrackedMatcher(TrackedPattern pattern, Matcher matcher) {
+        this.pattern = pattern;
+        this.matcher = matcher;
+    }
+
+    boolean find() {
+        int from = searchFrom;
+        long start = System.nanoTime();
+        boolean found = false;
+        try {
+            found = matcher.find();
+            return found;
+        } finally {
+            pattern.record(start, matcher.regionEnd() - from);
+            searchFrom = found ? matcher.end() : matcher.regionEnd();
+        }
+    }
+
+    boolean matches() {
+        long start = System.nanoTime();
+        try {
+            return matcher.matches();
+        } finally {
+            pattern.record(start, matcher.regionEnd() - matcher.regionStart());
+        }
+    }
+
+    TrackedMatcher region(int start, int end) {
+        matcher.region(start, end);
+        searchFrom = start;
+        return this;
+    }
+
+    String group() {
+        return matcher.group();
+    }
+
+    String group(int group) {
+        return matcher.group(group);
+    }
+
+    int start() {
+        return matcher.start();
+    }
+
+    int end() {
+        return matcher.end();
+    }
+}
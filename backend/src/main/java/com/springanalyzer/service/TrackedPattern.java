@@ -0,0 +1,100 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.dto.PatternStatsResponse;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * A compiled {@link Pattern} from the {@link PatternRegistry} that records how often it runs, how
+ * long each run takes and the longest input it ran over. Counters are contention-free adders, as
+ * the same pattern runs on every parse thread at once.
+ */
+final class TrackedPattern {
+
+    private final String name;
+    private final Pattern pattern;
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxInputLength = new LongAccumulator(Math::max, 0);
+
+    TrackedPattern(String name, String regex, int flags) {
+        this.name = name;
+        this.pattern = Pattern.compile(regex, flags);
+    }
+
+    Pattern pattern() {
+        return pattern;
+    }
+
+    TrackedMatcher matcher(CharSequence input) {
+        return new TrackedMatcher(this, pattern.matcher(input));
+    }
+
+    boolean matches(CharSequence input) {
+        long start = System.nanoTime();
+        try {
+            return pattern.matcher(input).matches();
+        } finally {
+            record(start, input.length());
+        }
+    }
+
+    String replaceAll(CharSequence input, String replacement) {
+        long start = System.nanoTime();
+        try {
+            return pattern.matcher(input).replaceAll(replacement);
+        } finally {
+            record(start, input.length());
+        }
+    }
+
+    String replaceFirst(CharSequence input, String replacement) {
+        long start = System.nanoTime();
+        try {
+            return pattern.matcher(input).replaceFirst(replacement);
+        } finally {
+            record(start, input.length());
+        }
+    }
+
+    String[] split(CharSequence input) {
+        long start = System.nanoTime();
+        try {
+            return pattern.split(input);
+        } finally {
+            record(start, input.length());
+        }
+    }
+
+    void record(long startNanos, int inputLength) {
+        long elapsed = System.nanoTime() - startNanos;
+        invocations.increment();
+        totalNanos.add(elapsed);
+        maxNanos.accumulate(elapsed);
+        maxInputLength.accumulate(inputLength);
+    }
+
+    PatternStatsResponse.PatternInfo stats() {
+        long count = invocations.sum();
+        long nanos = totalNanos.sum();
+        return PatternStatsResponse.PatternInfo.builder()
+                .name(name)
+                .regex(pattern.pattern())
+                .invocations(count)
+                .totalNanos(nanos)
+                .maxNanos(maxNanos.get())
+                .averageNanos(count == 0 ? 0 : nanos / count)
+                .maxInputLength(maxInputLength.get())
+                .build();
+    }
+
+    void reset() {
+        invocations.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+        maxInputLength.reset();
+    }
+}
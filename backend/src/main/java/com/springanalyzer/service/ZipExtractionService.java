@@ -6,183 +6,184 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
+/**
+ * Extracts the files the analyzers read from an uploaded archive. The central directory is read
+ * first and the project's {@link PathFilter} applied to it, everything else (images, jars, build
+ * output, VCS objects, ...) is skipped without being inflated, and the kept entries are inflated
+ * in parallel on the shared worker pool through {@link ZipFile} random access. Archives without a
+ * readable central directory are streamed sequentially instead, keeping the .gitignore files so
+ * that the filter can be applied to the extracted tree.
+ * <p>
+ * The run's {@link ResourceBudget} bounds what reaches the disk: entries beyond its file count or
+ * total size are not extracted, and no entry is written past the per-file size, whatever size
+ * the archive claims for it.
+ */
 @Service
 @Slf4j
 public class ZipExtractionService {
 
     private final Path extractDir;
+    private final ParallelParseService parallelParseService;
 
-    public ZipExtractionService(@Value("${app.extract.dir:extracts}") String extractDir) {
+    public ZipExtractionService(@Value("${app.extract.dir:extracts}") String extractDir,
+                                ParallelParseService parallelParseService) {
         this.extractDir = Paths.get(extractDir).toAbsolutePath().normalize();
+        this.parallelParseService = parallelParseService;
         createDirectory(this.extractDir);
     }
 
-    public Path extract(Path zipFile, String projectName) {
+    /**
+     * Whether any analyzer reads a file of this name: sources, build files and configuration.
+     */
+    public static boolean isAnalyzed(String path) {
+        String fileName = path.substring(path.lastIndexOf('/') + 1);
+        return fileName.endsWith(".java")
+                || fileName.endsWith(".properties")
+                || fileName.endsWith(".yml")
+                || fileName.endsWith(".yaml")
+                || fileName.equals("pom.xml")
+                || fileName.startsWith("build.gradle")
+                || fileName.startsWith("settings.gradle");
+    }
+
+    public Path extract(Path zipFile, String projectName, ResourceBudget budget, PathFilter filter) {
         Path targetDir = extractDir.resolve(projectName + "_" + System.currentTimeMillis());
         createDirectory(targetDir);
 
-        try (ZipInputStream zis = new ZipInputStream(Files.newInputStream(zipFile))) {
-            ZipEntry entry;
-            while ((entry = zis.getNextEntry()) != null) {
-                Path entryPath = targetDir.resolve(entry.getName()).normalize();
-                
-                if (!entryPath.startsWith(targetDir)) {
-                    throw new SpringAnalyzerException("Invalid zip entry: " + entry.getName());
-                }
+        long start = System.nanoTime();
+        try (ZipFile zip = new ZipFile(zipFile.toFile())) {
+            List<ZipEntry> all = ZipSourceProvider.readEntries(zip);
+            // Same project root as reading the archive in place, so both modes see the same paths
+            String rootPrefix = ZipSourceProvider.findProjectRoot(all, "");
 
-                if (entry.isDirectory()) {
-                    Files.createDirectories(entryPath);
-                } else {
-                    Files.createDirectories(entryPath.getParent());
-                    Files.copy(zis, entryPath, StandardCopyOption.REPLACE_EXISTING);
-                }
-                zis.closeEntry();
+            Map<String, ZipEntry> files = new LinkedHashMap<>();
+            for (ZipEntry entry : all) {
+                if (entry.isDirectory() || !entry.getName().startsWith(rootPrefix)) continue;
+                files.put(entry.getName().substring(rootPrefix.length()), entry);
             }
-        } catch (IOException e) {
-            cleanup(targetDir);
-            throw new SpringAnalyzerException("Failed to extract ZIP: " + e.getMessage());
-        }
-
-        return findProjectRoot(targetDir);
-    }
-
-    public List<Path> findJavaFiles(Path projectRoot) {
-        List<Path> javaFiles = new ArrayList<>();
-        try {
-            Files.walkFileTree(projectRoot, new SimpleFileVisitor<>() {
-                @Override
-                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-                    if (file.toString().endsWith(".java")) {
-                        javaFiles.add(file);
-                    }
-                    return FileVisitResult.CONTINUE;
+            List<SourceProvider.Entry> selected = filter.select(files.entrySet().stream()
+                    .map(e -> new SourceProvider.Entry(e.getKey(), Math.max(e.getValue().getSize(), 0)))
+                    .toList(), path -> {
+                try (InputStream in = zip.getInputStream(files.get(path))) {
+                    return new String(in.readNBytes(PathFilter.MAX_GITIGNORE_BYTES), StandardCharsets.UTF_8);
                 }
             });
-        } catch (IOException e) {
-            log.error("Error scanning for Java files", e);
-        }
-        return javaFiles;
-    }
-
-    public Path findPomFile(Path projectRoot) {
-        try {
-            return Files.walk(projectRoot, 3)
-                    .filter(p -> p.getFileName().toString().equals("pom.xml"))
-                    .findFirst()
-                    .orElse(null);
-        } catch (IOException e) {
-            return null;
-        }
-    }
+            // The .gitignore files come along, so the extracted tree selects the same files again
+            List<ZipEntry> kept = budget.admit(selected.stream()
+                            .filter(e -> isAnalyzed(e.getPath()) || PathFilter.isGitignore(e.getPath()))
+                            .toList())
+                    .stream()
+                    .map(e -> files.get(e.getPath()))
+                    .toList();
+            Set<Path> directories = new LinkedHashSet<>();
+            for (ZipEntry entry : kept) {
+                directories.add(targetPath(targetDir, entry.getName().substring(rootPrefix.length())).getParent());
+            }
+            for (Path directory : directories) {
+                Files.createDirectories(directory);
+            }
 
-    /**
-     * Find all pom.xml files in the project (for multi-module projects)
-     */
-    public List<Path> findAllPomFiles(Path projectRoot) {
-        List<Path> pomFiles = new ArrayList<>();
-        try {
-            Files.walkFileTree(projectRoot, new SimpleFileVisitor<>() {
-                @Override
-                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-                    if (file.getFileName().toString().equals("pom.xml")) {
-                        pomFiles.add(file);
-                    }
-                    return FileVisitResult.CONTINUE;
+            List<Long> written = parallelParseService.map(kept, entry -> {
+                String path = entry.getName().substring(rootPrefix.length());
+                try (InputStream in = zip.getInputStream(entry)) {
+                    return copy(in, targetPath(targetDir, path), path, entry.getSize(), budget);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
                 }
-            });
-        } catch (IOException e) {
-            log.error("Error scanning for pom.xml files", e);
+            }, "Extracted");
+
+            long bytesWritten = written.stream().mapToLong(Long::longValue).sum();
+            long skippedBytes = all.stream().filter(entry -> !entry.isDirectory()).mapToLong(entry -> Math.max(entry.getSize(), 0)).sum() - bytesWritten;
+            log.info("Extracted {} of {} entries of project {} in {} ms: {} bytes written, {} bytes skipped",
+                    kept.size(), all.size(), projectName, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                    bytesWritten, skippedBytes);
+            return targetDir;
+        } catch (ZipException e) {
+            log.warn("Archive of project {} has no readable central directory, extracting sequentially: {}", projectName, e.getMessage());
+            return extractSequentially(zipFile, targetDir, budget, start);
+        } catch (IOException | UncheckedIOException e) {
+            cleanup(targetDir);
+            throw new SpringAnalyzerException("Failed to extract ZIP: " + e.getMessage());
+        } catch (RuntimeException e) {
+            cleanup(targetDir);
+            throw e;
         }
-        return pomFiles;
     }
 
     /**
-     * Find all modules (directories containing pom.xml or build.gradle)
+     * Streams the archive entry by entry, admitting files in archive order. The project root is
+     * only known afterwards, so files are recorded in the skipped files report under their full
+     * entry name, and the path filter is only applied when the extracted tree is read.
      */
-    public List<ModuleInfo> findModules(Path projectRoot) {
-        List<ModuleInfo> modules = new ArrayList<>();
-        
-        try {
-            // Check if root has pom.xml (could be parent pom or single module)
-            Path rootPom = projectRoot.resolve("pom.xml");
-            boolean isMultiModule = false;
-            
-            if (Files.exists(rootPom)) {
-                String content = Files.readString(rootPom);
-                isMultiModule = content.contains("<modules>") || content.contains("<module>");
-            }
-
-            // Find all pom.xml files
-            List<Path> pomFiles = findAllPomFiles(projectRoot);
-            
-            for (Path pomFile : pomFiles) {
-                Path moduleDir = pomFile.getParent();
-                String moduleName = moduleDir.equals(projectRoot) 
-                        ? "root" 
-                        : projectRoot.relativize(moduleDir).toString().replace("\\", "/");
-                
-                // Skip parent pom in multi-module projects
-                if (isMultiModule && moduleDir.equals(projectRoot)) {
-                    continue;
-                }
-                
-                // Check if this module has Java source files
-                Path srcMain = moduleDir.resolve("src/main/java");
-                if (Files.exists(srcMain) || !isMultiModule) {
-                    modules.add(new ModuleInfo(moduleName, moduleDir, pomFile));
+    private Path extractSequentially(Path zipFile, Path targetDir, ResourceBudget budget, long start) {
+        long bytesWritten = 0;
+        int extracted = 0;
+        try (ZipInputStream zis = new ZipInputStream(Files.newInputStream(zipFile))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                if (!entry.isDirectory() && (PathFilter.isGitignore(entry.getName())
+                        || isAnalyzed(entry.getName()) && budget.admit(entry.getName(), entry.getSize()))) {
+                    Path entryPath = targetPath(targetDir, entry.getName());
+                    Files.createDirectories(entryPath.getParent());
+                    bytesWritten += copy(zis, entryPath, entry.getName(), entry.getSize(), budget);
+                    extracted++;
                 }
+                zis.closeEntry();
             }
-            
-            // If no modules found, treat as single module
-            if (modules.isEmpty()) {
-                modules.add(new ModuleInfo("main", projectRoot, rootPom.toFile().exists() ? rootPom : null));
-            }
-            
-        } catch (IOException e) {
-            log.error("Error finding modules", e);
-            modules.add(new ModuleInfo("main", projectRoot, null));
+        } catch (IOException | RuntimeException e) {
+            cleanup(targetDir);
+            throw new SpringAnalyzerException("Failed to extract ZIP: " + e.getMessage());
         }
-        
-        return modules;
+
+        log.info("Extracted {} entries sequentially in {} ms: {} bytes written",
+                extracted, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), bytesWritten);
+        return findProjectRoot(targetDir);
     }
 
     /**
-     * Determine which module a file belongs to
+     * Writes at most the per-file size of the budget and records the file as truncated when the
+     * entry holds more.
      */
-    public String getModuleForFile(Path file, List<ModuleInfo> modules, Path projectRoot) {
-        String filePath = file.toAbsolutePath().toString().replace("\\", "/");
-        
-        // Find the most specific (longest path) module that contains this file
-        ModuleInfo bestMatch = null;
-        int bestMatchLength = -1;
-        
-        for (ModuleInfo module : modules) {
-            String modulePath = module.getPath().toAbsolutePath().toString().replace("\\", "/");
-            if (filePath.startsWith(modulePath) && modulePath.length() > bestMatchLength) {
-                bestMatch = module;
-                bestMatchLength = modulePath.length();
+    private static long copy(InputStream in, Path target, String path, long declaredSize, ResourceBudget budget) throws IOException {
+        int limit = budget.getMaxFileBytes();
+        long written = 0;
+        try (OutputStream out = Files.newOutputStream(target)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while (written < limit && (read = in.read(buffer, 0, (int) Math.min(buffer.length, limit - written))) > 0) {
+                out.write(buffer, 0, read);
+                written += read;
             }
         }
-        
-        return bestMatch != null ? bestMatch.getName() : "main";
+        if (written == limit && in.read() != -1) {
+            budget.truncated(path, Math.max(declaredSize, limit + 1L));
+        }
+        return written;
     }
 
-    /**
-     * Module information holder
-     */
-    @lombok.Data
-    @lombok.AllArgsConstructor
-    public static class ModuleInfo {
-        private String name;
-        private Path path;
-        private Path pomFile;
+    private static Path targetPath(Path targetDir, String name) {
+        Path entryPath = targetDir.resolve(name).normalize();
+        if (!entryPath.startsWith(targetDir)) {
+            throw new SpringAnalyzerException("Invalid zip entry: " + name);
+        }
+        return entryPath;
     }
 
     public void cleanup(Path directory) {
@@ -0,0 +1,141 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.exception.SpringAnalyzerException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Serves project files straight from the stored archive through {@link ZipFile} random access,
+ * so nothing has to be extracted to disk.
+ */
+public class ZipSourceProvider implements SourceProvider {
+
+    private final ZipFile zipFile;
+    private final String rootPrefix;
+    private final Map<String, ZipEntry> entries = new LinkedHashMap<>();
+    private final List<Entry> files = new ArrayList<>();
+
+    public ZipSourceProvider(Path archive) throws IOException {
+        this.zipFile = new ZipFile(archive.toFile());
+        try {
+            List<ZipEntry> all = readEntries(zipFile);
+            this.rootPrefix = findProjectRoot(all, "");
+            for (ZipEntry entry : all) {
+                if (entry.isDirectory() || !entry.getName().startsWith(rootPrefix)) continue;
+                String path = entry.getName().substring(rootPrefix.length());
+                entries.put(path, entry);
+                files.add(new Entry(path, Math.max(entry.getSize(), 0)));
+            }
+        } catch (RuntimeException e) {
+            zipFile.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Entry> listFiles() {
+        return Collections.unmodifiableList(files);
+    }
+
+    @Override
+    public boolean exists(String path) {
+        return entries.containsKey(path);
+    }
+
+    @Override
+    public String readString(String path) throws IOException {
+        ZipEntry entry = entries.get(path);
+        if (entry == null) {
+            throw new NoSuchFileException(path);
+        }
+        try (InputStream in = zipFile.getInputStream(entry)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Override
+    public byte[] readBytes(String path, int limit) throws IOException {
+        ZipEntry entry = entries.get(path);
+        if (entry == null) {
+            throw new NoSuchFileException(path);
+        }
+        try (InputStream in = zipFile.getInputStream(entry)) {
+            if (entry.getSize() < 0) {
+                return in.readNBytes(limit);
+            }
+            // Sized from the central directory, so the bytes are not gathered in chunks and copied
+            byte[] bytes = new byte[(int) Math.min(entry.getSize(), limit)];
+            int read = in.readNBytes(bytes, 0, bytes.length);
+            if (read < bytes.length) {
+                return Arrays.copyOf(bytes, read);
+            }
+            byte[] rest = read < limit ? in.readNBytes(limit - read) : new byte[0];
+            if (rest.length == 0) {
+                return bytes;
+            }
+            byte[] all = Arrays.copyOf(bytes, read + rest.length);
+            System.arraycopy(rest, 0, all, read, rest.length);
+            return all;
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            zipFile.close();
+        } catch (IOException e) {
+            // Nothing to recover, the archive stays on disk
+        }
+    }
+
+    /**
+     * All entries of the central directory, rejecting names that would escape the target directory.
+     */
+    static List<ZipEntry> readEntries(ZipFile zipFile) {
+        List<ZipEntry> all = new ArrayList<>();
+        Enumeration<? extends ZipEntry> enumeration = zipFile.entries();
+        while (enumeration.hasMoreElements()) {
+            ZipEntry entry = enumeration.nextElement();
+            String name = entry.getName();
+            if (name.startsWith("/") || name.equals("..") || name.startsWith("../")
+                    || name.contains("/../") || name.endsWith("/..")) {
+                throw new SpringAnalyzerException("Invalid zip entry: " + name);
+            }
+            all.add(entry);
+        }
+        return all;
+    }
+
+    /**
+     * Same rule as the extraction path: descend while the current directory has no pom.xml
+     * and contains a single sub-directory.
+     */
+    static String findProjectRoot(List<ZipEntry> all, String prefix) {
+        Set<String> children = new HashSet<>();
+        boolean childIsDirectory = false;
+        for (ZipEntry entry : all) {
+            String name = entry.getName();
+            if (!name.startsWith(prefix) || name.length() == prefix.length()) continue;
+            if (name.equals(prefix + "pom.xml")) {
+                return prefix;
+            }
+            String rest = name.substring(prefix.length());
+            int slash = rest.indexOf('/');
+            children.add(slash < 0 ? rest : rest.substring(0, slash));
+            if (slash >= 0) {
+                childIsDirectory = true;
+            }
+        }
+        if (children.size() == 1 && childIsDirectory) {
+            return findProjectRoot(all, prefix + children.iterator().next() + "/");
+        }
+        return prefix;
+    }
+}
@@ -0,0 +1,78 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.entity.AnalysisJob;
+import com.springanalyzer.entity.JobStatus;
+import com.springanalyzer.entity.Project;
+import com.springanalyzer.entity.ProjectStatus;
+import com.springanalyzer.exception.SpringAnalyzerException;
+import com.springanalyzer.repository.AnalysisJobRepository;
+import com.springanalyzer.repository.ProjectRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+
+@SpringBootTest
+class AnalysisJobServiceTest {
+
+    @Autowired
+    private AnalysisJobService analysisJobService;
+
+    @Autowired
+    private AnalysisJobRepository jobRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @MockBean
+    private AnalysisService analysisService;
+
+    @Test
+    void submitAndWait_RecordsErrorAsFailure() {
+        Project project = projectRepository.save(Project.builder().name("overflowing").status(ProjectStatus.UPLOADED).build());
+        doThrow(new StackOverflowError()).when(analysisService).analyzeProject(eq(project.getId()), any());
+
+        SpringAnalyzerException failure = assertThrows(SpringAnalyzerException.class,
+                () -> analysisJobService.submitAndWait(project.getId(), AnalysisJob.PRIORITY_NORMAL));
+
+        assertInstanceOf(StackOverflowError.class, failure.getCause());
+        List<AnalysisJob> jobs = jobRepository.findAll().stream()
+                .filter(job -> job.getProject().getId().equals(project.getId()))
+                .toList();
+        assertEquals(1, jobs.size());
+        assertEquals(JobStatus.FAILED, jobs.get(0).getStatus());
+        assertEquals(0, analysisJobService.getQueueStatus().getReservedMemory());
+    }
+
+    @Test
+    @Transactional
+    void findQueuedInRunOrder_RunsJobsThatWaitedTooLongFirst() {
+        AnalysisJob large = queuedJob("large", 60_000, 120);
+        AnalysisJob older = queuedJob("older", 90_000, 30);
+        AnalysisJob small = queuedJob("small", 1_000, 5);
+        AnalysisJob smaller = queuedJob("smaller", 500, 1);
+
+        List<AnalysisJob> order = jobRepository.findQueuedInRunOrder(LocalDateTime.now().minusMinutes(15), Pageable.unpaged());
+
+        assertEquals(List.of(large.getId(), older.getId(), smaller.getId(), small.getId()),
+                order.stream().map(AnalysisJob::getId).toList());
+    }
+
+    private AnalysisJob queuedJob(String name, long estimatedDurationMs, int minutesAgo) {
+        Project project = projectRepository.save(Project.builder().name(name).status(ProjectStatus.UPLOADED).build());
+        AnalysisJob job = jobRepository.save(AnalysisJob.builder().project(project)
+                .priority(AnalysisJob.PRIORITY_NORMAL).estimatedDurationMs(estimatedDurationMs).build());
+        job.setQueuedAt(LocalDateTime.now().minusMinutes(minutesAgo));
+        return jobRepository.saveAndFlush(job);
+    }
+}
@@ -0,0 +1,37 @@
+package com.springanalyzer.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnalysisProgressServiceTest {
+
+    @Test
+    void finish_DropsFinalEventAfterRetention() {
+        AnalysisProgressService service = new AnalysisProgressService(500, 1000, 0);
+        AnalysisProgressService.Tracker running = service.start(1L);
+        service.start(2L).finish(AnalysisProgressService.Stage.COMPLETED, "Analysis completed");
+        service.cancelledWhileQueued(3L);
+
+        assertEquals(Set.of(1L), lastEvents(service).keySet());
+        running.finish(AnalysisProgressService.Stage.FAILED, "Analysis failed");
+        assertTrue(lastEvents(service).isEmpty());
+    }
+
+    @Test
+    void finish_KeepsFinalEventForLateSubscribers() {
+        AnalysisProgressService service = new AnalysisProgressService(500, 1000, 60_000);
+        service.start(1L).finish(AnalysisProgressService.Stage.COMPLETED, "Analysis completed");
+
+        assertEquals(Set.of(1L), lastEvents(service).keySet());
+    }
+
+    private static Map<?, ?> lastEvents(AnalysisProgressService service) {
+        return (Map<?, ?>) ReflectionTestUtils.getField(service, "lastEvents");
+    }
+}
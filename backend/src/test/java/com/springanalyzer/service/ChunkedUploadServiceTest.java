@@ -0,0 +1,175 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.dto.ProjectResponse;
+import com.springanalyzer.dto.UploadInitRequest;
+import com.springanalyzer.dto.UploadSessionResponse;
+import com.springanalyzer.exception.BadRequestException;
+import com.springanalyzer.exception.SpringAnalyzerException;
+import com.springanalyzer.repository.ProjectRepository;
+import com.springanalyzer.repository.StoredBlobRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+
+@SpringBootTest
+class ChunkedUploadServiceTest {
+
+    private static final int PART_SIZE = 64 * 1024;
+
+    @TempDir
+    static Path uploadDir;
+
+    @DynamicPropertySource
+    static void uploadDir(DynamicPropertyRegistry registry) {
+        registry.add("app.upload.dir", () -> uploadDir.toString());
+    }
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private StoredBlobRepository blobRepository;
+
+    @SpyBean
+    private ProjectService projectService;
+
+    @Test
+    void complete_HashesPartsSentOutOfOrderAndAgain() throws Exception {
+        byte[] archive = archive(3 * PART_SIZE + 100);
+        String uploadId = initiate("out-of-order", archive).getUploadId();
+
+        sendPart(uploadId, archive, 3);
+        sendPart(uploadId, archive, 1);
+        sendPart(uploadId, archive, 4);
+        sendPart(uploadId, archive, 1);
+        sendPart(uploadId, archive, 2);
+        ProjectResponse project = chunkedUploadService.complete(uploadId);
+
+        assertEquals(sha256(archive), project.getArchiveHash());
+        assertArrayEquals(archive, Files.readAllBytes(fileStorageService.getFilePath(storagePath(project))));
+        assertFalse(Files.exists(fileStorageService.getPartsFile(uploadId)));
+    }
+
+    @Test
+    void complete_CanBeRetriedWhenCreatingTheProjectFails() throws Exception {
+        byte[] archive = archive(2 * PART_SIZE + 100);
+        String uploadId = initiate("retried", archive).getUploadId();
+        for (int part = 1; part <= 3; part++) sendPart(uploadId, archive, part);
+
+        doThrow(new SpringAnalyzerException("Profiling failed"))
+                .doCallRealMethod()
+                .when(projectService).createProject(any(), any(), any());
+        assertThrows(SpringAnalyzerException.class, () -> chunkedUploadService.complete(uploadId));
+
+        assertTrue(blobRepository.findByContentHash(sha256(archive)).isEmpty());
+        assertTrue(chunkedUploadService.getStatus(uploadId).getMissingParts().isEmpty());
+        assertArrayEquals(archive, Files.readAllBytes(fileStorageService.getPartsFile(uploadId)));
+
+        ProjectResponse project = chunkedUploadService.complete(uploadId);
+        assertEquals(sha256(archive), project.getArchiveHash());
+        assertEquals(1, blobRepository.findByContentHash(project.getArchiveHash()).orElseThrow().getRefCount());
+        assertArrayEquals(archive, Files.readAllBytes(fileStorageService.getFilePath(storagePath(project))));
+        assertFalse(Files.exists(fileStorageService.getPartsFile(uploadId)));
+    }
+
+    @Test
+    void uploadPart_IsRefusedWhileUploadIsBeingCompleted() throws Exception {
+        byte[] archive = archive(PART_SIZE + 100);
+        String uploadId = initiate("completing", archive).getUploadId();
+        sendPart(uploadId, archive, 1);
+        sendPart(uploadId, archive, 2);
+
+        AtomicReference<RuntimeException> refused = new AtomicReference<>();
+        doAnswer(invocation -> {
+            Thread resend = new Thread(() -> {
+                try {
+                    sendPart(uploadId, archive, 1);
+                } catch (RuntimeException e) {
+                    refused.set(e);
+                }
+            });
+            resend.start();
+            resend.join();
+            return invocation.callRealMethod();
+        }).when(projectService).createProject(any(), any(), any());
+        ProjectResponse project = chunkedUploadService.complete(uploadId);
+
+        assertInstanceOf(BadRequestException.class, refused.get());
+        assertEquals(sha256(archive), project.getArchiveHash());
+        assertArrayEquals(archive, Files.readAllBytes(fileStorageService.getFilePath(storagePath(project))));
+    }
+
+    private UploadSessionResponse initiate(String name, byte[] archive) {
+        UploadInitRequest request = new UploadInitRequest();
+        request.setName(name);
+        request.setFilename(name + ".zip");
+        request.setSize((long) archive.length);
+        request.setPartSize(PART_SIZE);
+        return chunkedUploadService.initiate(request);
+    }
+
+    private String storagePath(ProjectResponse project) {
+        return projectRepository.findById(project.getId()).orElseThrow().getStoragePath();
+    }
+
+    private void sendPart(String uploadId, byte[] archive, int partNumber) {
+        int from = (partNumber - 1) * PART_SIZE;
+        byte[] part = Arrays.copyOfRange(archive, from, Math.min(from + PART_SIZE, archive.length));
+        chunkedUploadService.uploadPart(uploadId, partNumber, sha256(part), new ByteArrayInputStream(part));
+    }
+
+    // A zip holding an incompressible entry, so the archive is about as large as asked for
+    private static byte[] archive(int size) throws IOException {
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            zip.putNextEntry(new ZipEntry("src/main/java/com/example/Order.java"));
+            zip.write("package com.example;\n\npublic class Order {}\n".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("data.bin"));
+            zip.write(content);
+            zip.closeEntry();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.entity.ClassType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JavaParserServiceTest {
+
+    private final JavaParserService parser = new JavaParserService();
+
+    @Test
+    void parseContent_MapsRequestMappingMethods() {
+        JavaParserService.ParsedClass parsed = parse("""
+                package com.example.web;
+
+                @RestController
+                @RequestMapping("/api")
+                public class OrderController {
+
+                    @RequestMapping(value = "/a", method = RequestMethod.POST)
+                    public void create() {}
+
+                    @RequestMapping(path = "/b", method = {RequestMethod.PUT, RequestMethod.DELETE})
+                    public void replace() {}
+
+                    @RequestMapping(method = RequestMethod.PATCH, value = "/c")
+                    public void patch() {}
+
+                    @RequestMapping("/d")
+                    public String list() { return null; }
+                }
+                """);
+
+        assertEquals(List.of("POST /api/a", "PUT /api/b", "DELETE /api/b", "PATCH /api/c", "GET /api/d"), endpoints(parsed));
+    }
+
+    @Test
+    void parseContent_LeavesConstantPathsOut() {
+        JavaParserService.ParsedClass parsed = parse("""
+                package com.example.web;
+
+                @RestController
+                @RequestMapping(Paths.BASE)
+                public class OrderController {
+
+                    @GetMapping(Paths.C)
+                    public String get() { return null; }
+
+                    @PostMapping(value = Paths.C, consumes = "application/json")
+                    public void post() {}
+
+                    @PutMapping("/items/" + "{id}")
+                    public void put() {}
+                }
+                """);
+
+        assertEquals(List.of("GET /", "POST /", "PUT /items/{id}"), endpoints(parsed));
+    }
+
+    @Test
+    void parseContent_IgnoresAnnotationsInCommentsAndStrings() {
+        JavaParserService.ParsedClass parsed = parse("""
+                package com.example.web;
+
+                /**
+                 * Not a @Service, see @GetMapping("/javadoc").
+                 */
+                @RestController
+                public class OrderController {
+
+                    private static final String NOTE = "@DeleteMapping(\\"/string\\") @Entity";
+                    // @PostMapping("/line")
+                    /* @PutMapping("/block") */
+
+                    @GetMapping("/real")
+                    public String get() { return "@PatchMapping(\\"/body\\")"; }
+                }
+                """);
+
+        assertEquals(ClassType.REST_CONTROLLER, parsed.getClassType());
+        assertEquals(List.of("RestController", "GetMapping"), parsed.getAnnotations());
+        assertEquals(List.of("GET /real"), endpoints(parsed));
+        assertEquals(1, parsed.getMethodCount());
+        assertEquals(1, parsed.getFieldCount());
+    }
+
+    private JavaParserService.ParsedClass parse(String source) {
+        return parser.parseContent(source, "src/main/java/com/example/web/OrderController.java", "app");
+    }
+
+    private static List<String> endpoints(JavaParserService.ParsedClass parsed) {
+        return parsed.getEndpoints().stream()
+                .map(endpoint -> endpoint.getHttpMethod() + " " + endpoint.getPath())
+                .toList();
+    }
+}
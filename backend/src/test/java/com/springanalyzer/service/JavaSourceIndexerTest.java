@@ -0,0 +1,83 @@
+package com.springanalyzer.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JavaSourceIndexerTest {
+
+    @Test
+    void index_ReadsDeclarationsAroundCommentsStringsAndBodies() {
+        JavaSourceIndex index = JavaSourceIndexer.index("""
+                package com.example /* comment */ .order;
+
+                import java.util.List;
+                import static java.util.Map.of;
+                import com.example.shared.*;
+
+                // class Commented {}
+                @Entity
+                public class Order extends Base<Order> implements Serializable, Comparable<Order> {
+                    private String note = "class InString { @Id int id; }";
+                    private char brace = '{';
+                    @Id private Long id, legacyId;
+
+                    public Order() {}
+
+                    @Override
+                    public int compareTo(Order other) {
+                        class Local { @Deprecated int ignored; }
+                        return "}".length();
+                    }
+
+                    static class Line {}
+                }
+                """);
+
+        assertEquals("com.example.order", index.getPackageName());
+        assertEquals(List.of("java.util.List", "java.util.Map.of", "com.example.shared"),
+                index.getImports().stream().map(JavaSourceIndex.ImportDeclaration::getName).toList());
+        assertEquals(List.of(false, true, false),
+                index.getImports().stream().map(JavaSourceIndex.ImportDeclaration::isStaticImport).toList());
+        assertEquals(List.of(false, false, true),
+                index.getImports().stream().map(JavaSourceIndex.ImportDeclaration::isOnDemand).toList());
+
+        assertEquals(List.of("Order", "Line"), index.getTypes().stream().map(JavaSourceIndex.TypeDeclaration::getName).toList());
+        JavaSourceIndex.TypeDeclaration order = index.primaryType("src/main/java/com/example/order/Order.java");
+        assertEquals("Base", order.getExtendsTypes().get(0).getSimpleName());
+        assertEquals(List.of("Serializable", "Comparable"),
+                order.getImplementsTypes().stream().map(JavaSourceIndex.TypeName::getSimpleName).toList());
+        assertEquals(List.of(List.of("note"), List.of("brace"), List.of("id", "legacyId")),
+                order.getFields().stream().map(JavaSourceIndex.FieldDeclaration::getNames).toList());
+        assertEquals(List.of("Order", "compareTo"),
+                order.getMethods().stream().map(JavaSourceIndex.MethodDeclaration::getName).toList());
+        assertEquals(List.of("Entity", "Id", "Override"),
+                index.getAnnotations().stream().map(JavaSourceIndex.AnnotationUse::getSimpleName).toList());
+    }
+
+    @Test
+    void annotationValues_ReadsLiteralsAndConstantsOfOneAttribute() {
+        JavaSourceIndex index = JavaSourceIndexer.index("""
+                class Mappings {
+                    @RequestMapping(value = {"/a", "/b" + "/c"}, method = RequestMethod.POST)
+                    void first() {}
+
+                    @RequestMapping(method = {RequestMethod.PUT, org.springframework.web.bind.annotation.RequestMethod.DELETE})
+                    void second() {}
+
+                    @GetMapping(Paths.C)
+                    void third() {}
+                }
+                """);
+        List<JavaSourceIndex.AnnotationUse> annotations = index.getAnnotations();
+
+        assertEquals(List.of("/a", "/b/c"), index.annotationValues(annotations.get(0), "value"));
+        assertEquals(List.of("POST"), index.annotationValues(annotations.get(0), "method"));
+        assertEquals(List.of("PUT", "DELETE"), index.annotationValues(annotations.get(1), "method"));
+        assertEquals(List.of("C"), index.annotationValues(annotations.get(2), "value"));
+        assertEquals(List.of(), index.annotationStrings(annotations.get(2), "value"));
+        assertEquals(List.of("/a", "/b/c"), index.annotationStrings(annotations.get(0), "value"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.dto.PackageDsmResponse;
+import com.springanalyzer.entity.*;
+import com.springanalyzer.repository.AnalyzedClassRepository;
+import com.springanalyzer.repository.ClassRelationshipRepository;
+import com.springanalyzer.repository.ProjectRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+@Transactional
+class PackageDsmServiceTest {
+
+    @Autowired
+    private PackageDsmService packageDsmService;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private AnalyzedClassRepository classRepository;
+
+    @Autowired
+    private ClassRelationshipRepository relationshipRepository;
+
+    @Test
+    void computeDsm_LayersPackagesAndGroupsCycles() {
+        Project project = projectRepository.save(Project.builder().name("dsm").status(ProjectStatus.ANALYZING).build());
+        AnalyzedClass controller = analyzedClass(project, "com.example.web", "OrderController");
+        AnalyzedClass orders = analyzedClass(project, "com.example.order", "OrderService");
+        AnalyzedClass billing = analyzedClass(project, "com.example.billing", "BillingService");
+        AnalyzedClass invoice = analyzedClass(project, "com.example.billing", "Invoice");
+        AnalyzedClass util = analyzedClass(project, "com.example.util", "Strings");
+        relate(project, controller, orders);
+        relate(project, orders, billing);
+        relate(project, billing, orders);
+        relate(project, invoice, orders);
+        relate(project, billing, invoice);
+        relate(project, orders, util);
+
+        packageDsmService.computeDsm(project);
+
+        PackageDsmResponse dsm = packageDsmService.getDsm(project.getId());
+        assertEquals(List.of("com.example.util", "com.example.billing", "com.example.order", "com.example.web"),
+                dsm.getPackages().stream().map(PackageDsmResponse.PackageEntry::getName).toList());
+        assertEquals(List.of(0, 1, 1, 2), dsm.getPackages().stream().map(PackageDsmResponse.PackageEntry::getLayer).toList());
+        assertNull(dsm.getPackages().get(0).getCycleGroup());
+        assertEquals(1, dsm.getPackages().get(1).getCycleGroup());
+        assertEquals(1, dsm.getPackages().get(2).getCycleGroup());
+        assertEquals(2, dsm.getPackages().get(1).getClassCount());
+        assertEquals(3, dsm.getLayerCount());
+        assertEquals(1, dsm.getCycleGroupCount());
+        assertEquals(5, dsm.getDependencyCount());
+
+        Map<String, Integer> cells = new TreeMap<>();
+        for (PackageDsmResponse.Cell cell : packageDsmService.getTile(project.getId(), 1, 0, 2).getCells()) {
+            cells.put(cell.getRow() + "," + cell.getColumn(), cell.getWeight());
+        }
+        // Billing's dependency on order lies in the column right of the tile
+        assertEquals(Map.of("1,1", 1, "2,0", 1, "2,1", 1), cells);
+    }
+
+    private AnalyzedClass analyzedClass(Project project, String packageName, String name) {
+        return classRepository.save(AnalyzedClass.builder().project(project).packageName(packageName).name(name)
+                .fullPath(packageName.replace('.', '/') + "/" + name + ".java").type(ClassType.SERVICE).build());
+    }
+
+    private void relate(Project project, AnalyzedClass source, AnalyzedClass target) {
+        relationshipRepository.save(ClassRelationship.builder().project(project)
+                .sourceClass(source).targetClass(target).type(RelationshipType.USES).build());
+    }
+}
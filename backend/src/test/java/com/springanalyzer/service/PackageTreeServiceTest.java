@@ -0,0 +1,83 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.dto.PackageTreeResponse;
+import com.springanalyzer.entity.*;
+import com.springanalyzer.repository.AnalyzedClassRepository;
+import com.springanalyzer.repository.EndpointRepository;
+import com.springanalyzer.repository.ProjectRepository;
+import com.springanalyzer.repository.SecurityIssueRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+@Transactional
+class PackageTreeServiceTest {
+
+    @Autowired
+    private PackageTreeService packageTreeService;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private AnalyzedClassRepository classRepository;
+
+    @Autowired
+    private EndpointRepository endpointRepository;
+
+    @Autowired
+    private SecurityIssueRepository securityIssueRepository;
+
+    @Test
+    void buildTree_RollsCountsUpToEveryAncestor() {
+        Project project = projectRepository.save(Project.builder().name("tree").status(ProjectStatus.ANALYZING).build());
+        AnalyzedClass controller = analyzedClass(project, "com.example.web", "OrderController");
+        analyzedClass(project, "com.example.web.admin", "AdminController");
+        analyzedClass(project, "com.example.order", "OrderService");
+        analyzedClass(project, "com.example.order", "Order");
+        endpointRepository.save(Endpoint.builder().project(project).analyzedClass(controller)
+                .httpMethod(HttpMethod.GET).path("/orders").methodName("list").build());
+        securityIssueRepository.save(SecurityIssue.builder().project(project).severity(IssueSeverity.HIGH)
+                .category(IssueCategory.HARDCODED_SECRET).title("issue").fileName("Order.java").build());
+
+        packageTreeService.buildTree(project,
+                Map.of("Order.java", "com.example.order", "OrderController.java", "com.example.web"),
+                Map.of("com.example.web", 40, "com.example.web.admin", 10, "com.example.order", 25));
+
+        PackageTreeResponse top = packageTreeService.getChildren(project.getId(), null);
+        assertNull(top.getParent());
+        assertEquals(List.of("com"), names(top));
+        PackageTreeResponse.Node com = top.getChildren().get(0);
+        assertEquals(1, com.getChildCount());
+        assertEquals(4, com.getClassCount());
+        assertEquals(75, com.getCodeLines());
+        assertEquals(1, com.getEndpointCount());
+        assertEquals(1, com.getIssueCount());
+
+        PackageTreeResponse example = packageTreeService.getChildren(project.getId(), "com.example");
+        assertEquals(List.of("com.example.order", "com.example.web"), names(example));
+        PackageTreeResponse.Node web = example.getChildren().get(1);
+        assertEquals(1, web.getChildCount());
+        assertEquals(2, web.getClassCount());
+        assertEquals(50, web.getCodeLines());
+        assertEquals(1, web.getEndpointCount());
+        assertEquals(0, web.getIssueCount());
+        assertEquals(List.of("com.example.web.admin"), names(packageTreeService.getChildren(project.getId(), "com.example.web")));
+    }
+
+    private static List<String> names(PackageTreeResponse response) {
+        return response.getChildren().stream().map(PackageTreeResponse.Node::getName).toList();
+    }
+
+    private AnalyzedClass analyzedClass(Project project, String packageName, String name) {
+        return classRepository.save(AnalyzedClass.builder().project(project).packageName(packageName).name(name)
+                .fullPath(packageName.replace('.', '/') + "/" + name + ".java").type(ClassType.OTHER).build());
+    }
+}
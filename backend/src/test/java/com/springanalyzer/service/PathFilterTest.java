@@ -0,0 +1,24 @@
+package com.springanalyzer.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PathFilterTest {
+
+    @Test
+    void select_SkipsInvalidGitignoreLines() {
+        PathFilter filter = new PathFilter(List.of(), List.of(), List.of(), List.of());
+        List<SourceProvider.Entry> entries = List.of(
+                new SourceProvider.Entry(".gitignore", 30),
+                new SourceProvider.Entry("logs/app.log", 10),
+                new SourceProvider.Entry("src/main/java/com/example/Order.java", 40));
+
+        List<SourceProvider.Entry> selected = filter.select(entries, path -> "[z-a]\nfoo[\\]\n*.log\n");
+
+        assertEquals(List.of(".gitignore", "src/main/java/com/example/Order.java"),
+                selected.stream().map(SourceProvider.Entry::getPath).toList());
+    }
+}
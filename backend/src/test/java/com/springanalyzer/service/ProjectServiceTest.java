@@ -0,0 +1,116 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.dto.ProjectRequest;
+import com.springanalyzer.dto.ProjectResponse;
+import com.springanalyzer.entity.*;
+import com.springanalyzer.repository.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ProjectServiceTest {
+
+    @TempDir
+    static Path uploadDir;
+
+    @DynamicPropertySource
+    static void uploadDir(DynamicPropertyRegistry registry) {
+        registry.add("app.upload.dir", () -> uploadDir.toString());
+    }
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private AnalyzedClassRepository classRepository;
+
+    @Autowired
+    private PackageNodeRepository packageNodeRepository;
+
+    @Autowired
+    private DsmPackageRepository dsmPackageRepository;
+
+    @Autowired
+    private StoredBlobRepository blobRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void deleteProject_RemovesAnalysisResultsAndReleasesArchiveAfterCommit() throws IOException {
+        ProjectRequest request = new ProjectRequest();
+        request.setName("delete-me");
+        ProjectResponse created = projectService.createProject(archive("Deleted"), request);
+        Project project = projectRepository.findById(created.getId()).orElseThrow();
+        classRepository.save(AnalyzedClass.builder().project(project).name("Order").packageName("com.example")
+                .fullPath("com/example/Order.java").type(ClassType.OTHER).build());
+        packageNodeRepository.save(PackageNode.builder().project(project).name("com").parentName("").simpleName("com").build());
+        dsmPackageRepository.save(DsmPackage.builder().project(project).name("com.example").build());
+
+        projectService.deleteProject(project.getId());
+
+        assertFalse(projectRepository.existsById(project.getId()));
+        assertEquals(0, classRepository.countByProjectId(project.getId()));
+        assertTrue(blobRepository.findByContentHash(created.getArchiveHash()).isEmpty());
+        assertFalse(fileStorageService.exists(project.getStoragePath()));
+    }
+
+    @Test
+    void store_DropsReferenceWhenTransactionRollsBack() throws IOException {
+        MockMultipartFile file = archive("RolledBack");
+        FileStorageService.StoredFile stored = transactionTemplate.execute(status -> {
+            FileStorageService.StoredFile result = fileStorageService.store(file);
+            status.setRollbackOnly();
+            return result;
+        });
+
+        assertTrue(blobRepository.findByContentHash(stored.getContentHash()).isEmpty());
+        assertFalse(fileStorageService.exists(stored.getFilename()));
+    }
+
+    @Test
+    void release_KeepsReferenceWhenTransactionRollsBack() throws IOException {
+        FileStorageService.StoredFile stored = fileStorageService.store(archive("Kept"));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            fileStorageService.release(stored.getFilename());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(1, blobRepository.findByContentHash(stored.getContentHash()).orElseThrow().getRefCount());
+        assertTrue(fileStorageService.exists(stored.getFilename()));
+        fileStorageService.release(stored.getFilename());
+        assertFalse(fileStorageService.exists(stored.getFilename()));
+    }
+
+    private static MockMultipartFile archive(String className) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            zip.putNextEntry(new ZipEntry("src/main/java/com/example/" + className + ".java"));
+            zip.write(("package com.example;\n\npublic class " + className + " {}\n").getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        return new MockMultipartFile("file", className + ".zip", "application/zip", bytes.toByteArray());
+    }
+}
@@ -0,0 +1,225 @@
+package com.springanalyzer.service;
+
+import com.springanalyzer.entity.*;
+import com.springanalyzer.repository.AnalyzedClassRepository;
+import com.springanalyzer.repository.ClassRelationshipRepository;
+import com.springanalyzer.repository.ProjectRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@Transactional
+class RelationshipServiceTest {
+
+    // Seven edges each, enough for several batches
+    private static final int CLASSES = 300;
+
+    @Autowired
+    private RelationshipService relationshipService;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private AnalyzedClassRepository classRepository;
+
+    @Autowired
+    private ClassRelationshipRepository relationshipRepository;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Test
+    void analyzeRelationships_WritesDeduplicatedEdgesWithoutPerFieldQueries() {
+        Project project = projectRepository.save(Project.builder().name("relationships").status(ProjectStatus.ANALYZING).build());
+        SymbolTable symbols = new SymbolTable();
+        for (String name : List.of("Base", "Item", "Owner")) {
+            symbols.add(analyzedClass(project, "com.example", name, ClassType.OTHER));
+        }
+        List<JavaParserService.ParsedClass> parsedClasses = new ArrayList<>();
+        for (int i = 0; i < CLASSES; i++) {
+            symbols.add(analyzedClass(project, "com.example", "Repo" + i, ClassType.REPOSITORY));
+            symbols.add(analyzedClass(project, "com.example", "Model" + i, ClassType.OTHER));
+            symbols.add(analyzedClass(project, "com.example", "Service" + i, ClassType.SERVICE));
+            symbols.add(analyzedClass(project, "com.example", "Entity" + i, ClassType.ENTITY));
+            // Injected once, used twice and also used where it is injected: three edges
+            parsedClasses.add(parsedClass("com.example", "Service" + i, List.of(), List.of(
+                    reference(RelationshipType.INJECTS, "Repo" + i, "repo"),
+                    reference(RelationshipType.INJECTS, "Repo" + i, "otherRepo"),
+                    reference(RelationshipType.USES, "Model" + i, "model"),
+                    reference(RelationshipType.USES, "Model" + i, "previous"),
+                    reference(RelationshipType.USES, "Repo" + i, "fallback"),
+                    reference(RelationshipType.EXTENDS, "Base", null),
+                    reference(RelationshipType.USES, "Service" + i, "self"))));
+            // Every mapped field is an edge of its own, a repeated one is not: four edges
+            parsedClasses.add(parsedClass("com.example", "Entity" + i, List.of(), List.of(
+                    reference(RelationshipType.ONE_TO_MANY, "Item", "items"),
+                    reference(RelationshipType.ONE_TO_MANY, "Item", "archivedItems"),
+                    reference(RelationshipType.ONE_TO_MANY, "Item", "items"),
+                    reference(RelationshipType.MANY_TO_ONE, "Owner", "owner"),
+                    reference(RelationshipType.MANY_TO_ONE, "Owner", "coOwner"))));
+        }
+
+        // Flush the classes first, so only the statements of resolving are counted
+        relationshipRepository.flush();
+        statementCounter.reset();
+        relationshipService.analyzeRelationships(project, parsedClasses, symbols);
+        int executions = statementCounter.executions.get();
+        int batches = statementCounter.batches.get();
+
+        int edges = 7 * CLASSES;
+        int expectedBatches = (edges + RelationshipService.BATCH_SIZE - 1) / RelationshipService.BATCH_SIZE;
+        assertEquals(expectedBatches, batches, "batches sent while resolving relationships");
+        assertEquals(expectedBatches, executions, "statements executed while resolving relationships");
+        assertEquals(edges, relationshipRepository.findByProject_Id(project.getId()).size());
+    }
+
+    @Test
+    void analyzeRelationships_ResolvesSharedSimpleNamesThroughPackageAndImports() {
+        Project project = projectRepository.save(Project.builder().name("symbols").status(ProjectStatus.ANALYZING).build());
+        SymbolTable symbols = new SymbolTable();
+        AnalyzedClass accountUser = analyzedClass(project, "com.example.account", "User", ClassType.ENTITY);
+        AnalyzedClass auditUser = analyzedClass(project, "com.example.audit", "User", ClassType.ENTITY);
+        AnalyzedClass auditLog = analyzedClass(project, "com.example.audit", "AuditLog", ClassType.OTHER);
+        for (AnalyzedClass analyzedClass : List.of(accountUser, auditUser, auditLog,
+                analyzedClass(project, "com.example.account", "AccountService", ClassType.SERVICE),
+                analyzedClass(project, "com.example.report", "ReportService", ClassType.SERVICE),
+                analyzedClass(project, "com.example.report", "ExportService", ClassType.SERVICE),
+                analyzedClass(project, "com.example.report", "LegacyService", ClassType.SERVICE))) {
+            symbols.add(analyzedClass);
+        }
+
+        relationshipService.analyzeRelationships(project, List.of(
+                // Same package
+                parsedClass("com.example.account", "AccountService", List.of(),
+                        List.of(reference(RelationshipType.INJECTS, "User", "users"))),
+                // Single-type import, ahead of the on-demand one
+                parsedClass("com.example.report", "ReportService", List.of("com.example.account.*", "com.example.audit.User"),
+                        List.of(reference(RelationshipType.INJECTS, "User", "users"))),
+                // On-demand import, and a qualified name
+                parsedClass("com.example.report", "ExportService", List.of("com.example.audit.*"),
+                        List.of(reference(RelationshipType.INJECTS, "AuditLog", "log"),
+                                reference(RelationshipType.USES, "com.example.account.User", "owner"))),
+                // No import tells the two apart, the one AuditLog is found by its simple name
+                parsedClass("com.example.report", "LegacyService", List.of(),
+                        List.of(reference(RelationshipType.USES, "User", "user"),
+                                reference(RelationshipType.USES, "AuditLog", "log")))), symbols);
+
+        Map<String, Long> targets = new TreeMap<>();
+        for (ClassRelationship relationship : relationshipRepository.findByProject_Id(project.getId())) {
+            targets.put(relationship.getSourceClass().getName() + "." + relationship.getFieldName(), relationship.getTargetClass().getId());
+        }
+        assertEquals(Map.of(
+                "AccountService.users", accountUser.getId(),
+                "ReportService.users", auditUser.getId(),
+                "ExportService.log", auditLog.getId(),
+                "ExportService.owner", accountUser.getId(),
+                "LegacyService.log", auditLog.getId()), targets);
+    }
+
+    private AnalyzedClass analyzedClass(Project project, String packageName, String name, ClassType type) {
+        return classRepository.save(AnalyzedClass.builder().project(project).packageName(packageName).name(name)
+                .fullPath(packageName.replace('.', '/') + "/" + name + ".java").type(type).build());
+    }
+
+    private static JavaParserService.ParsedClass parsedClass(String packageName, String name, List<String> imports,
+                                                             List<JavaParserService.TypeReference> references) {
+        return JavaParserService.ParsedClass.builder()
+                .packageName(packageName)
+                .name(name)
+                .fullPath(packageName.replace('.', '/') + "/" + name + ".java")
+                .imports(imports)
+                .references(references)
+                .build();
+    }
+
+    private static JavaParserService.TypeReference reference(RelationshipType type, String typeName, String fieldName) {
+        return new JavaParserService.TypeReference(type, typeName, fieldName);
+    }
+
+    /**
+     * Counts the statements sent to the database through any connection of the data source, a
+     * batch counting once, whether they come from Hibernate or from a JdbcTemplate.
+     */
+    static class StatementCounter {
+        final AtomicInteger executions = new AtomicInteger();
+        final AtomicInteger batches = new AtomicInteger();
+
+        void reset() {
+            executions.set(0);
+            batches.set(0);
+        }
+
+        DataSource wrap(DataSource dataSource) {
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return proxy(Connection.class, super.getConnection());
+                }
+
+                @Override
+                public Connection getConnection(String username, String password) throws SQLException {
+                    return proxy(Connection.class, super.getConnection(username, password));
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T proxy(Class<T> type, T target) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                String name = method.getName();
+                if (target instanceof Statement && name.startsWith("execute")) {
+                    executions.incrementAndGet();
+                    if (name.startsWith("executeBatch") || name.equals("executeLargeBatch")) batches.incrementAndGet();
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (result instanceof Statement statement && method.getReturnType().isInterface()) {
+                    return proxy((Class<Statement>) method.getReturnType(), statement);
+                }
+                return result;
+            });
+        }
+    }
+
+    @TestConfiguration
+    static class CountingDataSourceConfig {
+
+        @Bean
+        StatementCounter statementCounter() {
+            return new StatementCounter();
+        }
+
+        @Bean
+        static BeanPostProcessor countingDataSource(ObjectProvider<StatementCounter> counter) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? counter.getObject().wrap(dataSource) : bean;
+                }
+            };
+        }
+    }
+}
@@ -1,9 +1,11 @@
 import { FileCode, FileText, Code, Package } from 'lucide-react';
 import { MetricsInfo } from '../../types/dashboard.types';
 import Card from '../common/Card';
+import { PackageTree } from './PackageTree';
 import './MetricsPanel.css';
 
 interface Props {
+  projectId: number;
   metrics: MetricsInfo;
 }
 
@@ -14,7 +16,7 @@ const metricIcons = {
   packages: Package
 };
 
-export function MetricsPanel({ metrics }: Props) {
+export function MetricsPanel({ projectId, metrics }: Props) {
   const codeRatio = metrics.totalLines > 0 
     ? Math.round((metrics.codeLines / metrics.totalLines) * 100) 
     : 0;
@@ -71,13 +73,25 @@ export function MetricsPanel({ metrics }: Props) {
             <span className="detail-label">Comment Lines</span>
             <span className="detail-value">{metrics.commentLines}</span>
           </div>
+          <div className="detail-item">
+            <span className="detail-label">Public Classes</span>
+            <span className="detail-value">{metrics.publicClasses}</span>
+          </div>
+          <div className="detail-item">
+            <span className="detail-label">Public Methods</span>
+            <span className="detail-value">{metrics.publicMethods}</span>
+          </div>
+          <div className="detail-item">
+            <span className="detail-label">Private Fields</span>
+            <span className="detail-value">{metrics.privateFields}</span>
+          </div>
         </div>
       </div>
 
-      {metrics.packageStructure && (
+      {metrics.totalPackages > 0 && (
         <div className="package-tree">
           <h4>Package Structure</h4>
-          <pre>{metrics.packageStructure}</pre>
+          <PackageTree projectId={projectId} />
         </div>
       )}
     </Card>
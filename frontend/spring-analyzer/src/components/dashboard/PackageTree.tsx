@@ -0,0 +1,52 @@
+import { useEffect, useState } from 'react';
+import { ChevronDown, ChevronRight } from 'lucide-react';
+import { dashboardService } from '../../services/dashboard.service';
+import { PackageTreeNode } from '../../types/dashboard.types';
+
+interface Props {
+  projectId: number;
+  parent?: string;
+}
+
+/**
+ * Lists one level of the package tree and loads the level below a package when it is expanded.
+ */
+export function PackageTree({ projectId, parent }: Props) {
+  const [nodes, setNodes] = useState<PackageTreeNode[] | null>(null);
+  const [error, setError] = useState<string | null>(null);
+
+  useEffect(() => {
+    let active = true;
+    dashboardService.getPackages(projectId, parent)
+      .then(level => active && setNodes(level.children))
+      .catch(() => active && setError('Failed to load packages'));
+    return () => { active = false; };
+  }, [projectId, parent]);
+
+  if (error) return <div className="package-counts">{error}</div>;
+  if (!nodes) return <div className="package-counts">Loading...</div>;
+
+  return (
+    <ul className="package-tree-list">
+      {nodes.map(node => <PackageTreeItem key={node.name} projectId={projectId} node={node} />)}
+    </ul>
+  );
+}
+
+function PackageTreeItem({ projectId, node }: { projectId: number; node: PackageTreeNode }) {
+  const [expanded, setExpanded] = useState(false);
+  const Icon = expanded ? ChevronDown : ChevronRight;
+
+  return (
+    <li>
+      <button className="package-row" disabled={node.childCount === 0} onClick={() => setExpanded(!expanded)}>
+        {node.childCount > 0 ? <Icon size={14} /> : <span style={{ width: 14 }} />}
+        <span className="package-name">{node.simpleName}</span>
+        <span className="package-counts">
+          {node.classCount} classes · {node.codeLines.toLocaleString()} LOC · {node.endpointCount} endpoints · {node.issueCount} issues
+        </span>
+      </button>
+      {expanded && <PackageTree projectId={projectId} parent={node.name} />}
+    </li>
+  );
+}
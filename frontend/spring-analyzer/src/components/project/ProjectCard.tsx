@@ -1,6 +1,6 @@
 import React from 'react';
 import { useNavigate } from 'react-router-dom';
-import { FileText, HardDrive, BarChart3, Trash2 } from 'lucide-react';
+import { FileText, HardDrive, BarChart3, Trash2, Timer } from 'lucide-react';
 import { Project } from '../../types/project.types';
 import './ProjectCard.css';
 
@@ -28,6 +28,11 @@ export function ProjectCard({ project, onDelete, onClick }: ProjectCardProps) {
     return (bytes / 1024 / 1024).toFixed(1) + ' MB';
   };
 
+  const formatDuration = (ms: number): string => {
+    if (ms < 60000) return Math.max(1, Math.round(ms / 1000)) + ' s';
+    return Math.round(ms / 60000) + ' min';
+  };
+
   const getStatusColor = (status: string) => {
     switch (status) {
       case 'COMPLETED': return 'status-completed';
@@ -66,6 +71,15 @@ export function ProjectCard({ project, onDelete, onClick }: ProjectCardProps) {
           <HardDrive size={14} />
           {formatSize(project.fileSize)}
         </span>
+        {project.archiveProfile && (
+          <span
+            className="meta-item"
+            title={`${project.archiveProfile.javaFileCount} Java files in ${project.archiveProfile.moduleCount} module(s)`}
+          >
+            <Timer size={14} />
+            ~{formatDuration(project.archiveProfile.estimatedDurationMs)}
+          </span>
+        )}
       </div>
       
       <div className="project-card-footer">
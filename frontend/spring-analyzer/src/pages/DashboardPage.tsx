@@ -63,7 +63,7 @@ export function DashboardPage() {
 
       <div className="dashboard-grid">
         <div className="dashboard-section metrics-section">
-          {data.metrics && <MetricsPanel metrics={data.metrics} />}
+          {data.metrics && <MetricsPanel projectId={data.projectId} metrics={data.metrics} />}
         </div>
 
         <div className="dashboard-section security-section">
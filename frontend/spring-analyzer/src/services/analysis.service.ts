@@ -1,13 +1,37 @@
-import api from './api';
+import api, { API_BASE_URL } from './api';
 import { ApiResponse } from '../types/api.types';
-import { AnalysisResult } from '../types/analysis.types';
+import { AnalysisJob, AnalysisProgress, AnalysisQueue, AnalysisResult } from '../types/analysis.types';
 
 export const analysisService = {
-  startAnalysis: async (projectId: number): Promise<string> => {
-    const response = await api.post<ApiResponse<string>>(`/projects/${projectId}/analysis`);
+  startAnalysis: async (projectId: number, priority?: number): Promise<AnalysisJob> => {
+    const response = await api.post<ApiResponse<AnalysisJob>>(`/projects/${projectId}/analysis`, null, {
+      params: priority !== undefined ? { priority } : undefined
+    });
+    return response.data.data;
+  },
+
+  cancelAnalysis: async (projectId: number): Promise<AnalysisJob> => {
+    const response = await api.delete<ApiResponse<AnalysisJob>>(`/projects/${projectId}/analysis`);
+    return response.data.data;
+  },
+
+  getQueue: async (): Promise<AnalysisQueue> => {
+    const response = await api.get<ApiResponse<AnalysisQueue>>('/analysis/queue');
     return response.data.data;
   },
 
+  subscribeProgress: (projectId: number, onProgress: (progress: AnalysisProgress) => void): (() => void) => {
+    const source = new EventSource(`${API_BASE_URL}/projects/${projectId}/analysis/progress`);
+    source.addEventListener('progress', (event) => {
+      const progress: AnalysisProgress = JSON.parse((event as MessageEvent).data);
+      onProgress(progress);
+      if (progress.finished) {
+        source.close();
+      }
+    });
+    return () => source.close();
+  },
+
   analyzeSync: async (projectId: number): Promise<AnalysisResult> => {
     const response = await api.post<ApiResponse<AnalysisResult>>(`/projects/${projectId}/analysis/sync`);
     return response.data.data;
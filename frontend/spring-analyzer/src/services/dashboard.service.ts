@@ -1,10 +1,17 @@
 import api from './api';
 import { ApiResponse } from '../types/api.types';
-import { DashboardData } from '../types/dashboard.types';
+import { DashboardData, PackageTreeLevel } from '../types/dashboard.types';
 
 export const dashboardService = {
   getDashboard: async (projectId: number): Promise<DashboardData> => {
     const response = await api.get<ApiResponse<DashboardData>>(`/projects/${projectId}/dashboard`);
     return response.data.data;
+  },
+
+  getPackages: async (projectId: number, parent?: string): Promise<PackageTreeLevel> => {
+    const response = await api.get<ApiResponse<PackageTreeLevel>>(`/projects/${projectId}/packages`, {
+      params: parent ? { parent } : undefined
+    });
+    return response.data.data;
   }
 };
@@ -1,6 +1,11 @@
 import api from './api';
 import { ApiResponse } from '../types/api.types';
-import { Project, ProjectUploadRequest } from '../types/project.types';
+import { PathFilterRequest, Project, ProjectUploadRequest, UploadSession } from '../types/project.types';
+
+const sha256Hex = async (data: ArrayBuffer): Promise<string> => {
+  const digest = await crypto.subtle.digest('SHA-256', data);
+  return Array.from(new Uint8Array(digest)).map((b) => b.toString(16).padStart(2, '0')).join('');
+};
 
 export const projectService = {
   upload: async (data: ProjectUploadRequest): Promise<Project> => {
@@ -10,6 +15,8 @@ export const projectService = {
     if (data.description) {
       formData.append('description', data.description);
     }
+    data.includePaths?.forEach((glob) => formData.append('include', glob));
+    data.excludePaths?.forEach((glob) => formData.append('exclude', glob));
 
     const response = await api.post<ApiResponse<Project>>('/projects', formData, {
       headers: { 'Content-Type': 'multipart/form-data' }
@@ -17,6 +24,46 @@ export const projectService = {
     return response.data.data;
   },
 
+  /**
+   * Uploads the archive in parts through /uploads. Passing the uploadId of an interrupted upload
+   * resumes it and sends only the parts the server is missing.
+   */
+  uploadChunked: async (
+    data: ProjectUploadRequest,
+    options: { analyze?: boolean; uploadId?: string; onProgress?: (sent: number, total: number) => void } = {}
+  ): Promise<Project> => {
+    let session: UploadSession;
+    if (options.uploadId) {
+      session = (await api.get<ApiResponse<UploadSession>>(`/uploads/${options.uploadId}`)).data.data;
+    } else {
+      session = (await api.post<ApiResponse<UploadSession>>('/uploads', {
+        name: data.name,
+        description: data.description,
+        filename: data.file.name,
+        size: data.file.size,
+        analyze: options.analyze ?? false
+      })).data.data;
+    }
+
+    let sent = session.receivedParts.reduce((total, part) => total + part.size, 0);
+    for (const partNumber of session.missingParts) {
+      const start = (partNumber - 1) * session.partSize;
+      const part = await data.file.slice(start, Math.min(start + session.partSize, session.totalSize)).arrayBuffer();
+      await api.put(`/uploads/${session.uploadId}/parts/${partNumber}`, part, {
+        headers: { 'Content-Type': 'application/octet-stream', 'X-Checksum-SHA256': await sha256Hex(part) }
+      });
+      sent += part.byteLength;
+      options.onProgress?.(sent, session.totalSize);
+    }
+
+    const response = await api.post<ApiResponse<Project>>(`/uploads/${session.uploadId}/complete`);
+    return response.data.data;
+  },
+
+  abortUpload: async (uploadId: string): Promise<void> => {
+    await api.delete(`/uploads/${uploadId}`);
+  },
+
   getAll: async (): Promise<Project[]> => {
     const response = await api.get<ApiResponse<Project[]>>('/projects');
     return response.data.data;
@@ -27,6 +74,21 @@ export const projectService = {
     return response.data.data;
   },
 
+  replaceArchive: async (id: number, file: File): Promise<Project> => {
+    const formData = new FormData();
+    formData.append('file', file);
+
+    const response = await api.put<ApiResponse<Project>>(`/projects/${id}/file`, formData, {
+      headers: { 'Content-Type': 'multipart/form-data' }
+    });
+    return response.data.data;
+  },
+
+  updatePathFilter: async (id: number, filter: PathFilterRequest): Promise<Project> => {
+    const response = await api.put<ApiResponse<Project>>(`/projects/${id}/path-filter`, filter);
+    return response.data.data;
+  },
+
   delete: async (id: number): Promise<void> => {
     await api.delete(`/projects/${id}`);
   }
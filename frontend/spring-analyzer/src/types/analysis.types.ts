@@ -10,6 +10,7 @@ export interface AnalysisResult {
   endpoints: EndpointInfo[];
   dependencies: DependencyInfo[];
   relationships: RelationshipInfo[];
+  skippedFiles: SkippedFileInfo[];
 }
 
 export interface AnalysisSummary {
@@ -46,6 +47,15 @@ export interface RelationshipInfo {
   fieldName?: string;
 }
 
+export type SkipReason = 'FILE_LIMIT' | 'TOTAL_BYTES_LIMIT' | 'TRUNCATED' | 'REGEX_TIMEOUT' | 'TIME_BUDGET';
+
+export interface SkippedFileInfo {
+  path: string;
+  reason: SkipReason;
+  size: number;
+  detail?: string;
+}
+
 export interface ClassInfo {
   id: number;
   name: string;
@@ -77,3 +87,49 @@ export interface DependencyInfo {
   scope: string;
   moduleName?: string;
 }
+
+export type JobStatus = 'QUEUED' | 'RUNNING' | 'COMPLETED' | 'FAILED' | 'CANCELLED';
+
+export interface AnalysisJob {
+  id: number;
+  projectId: number;
+  projectName: string;
+  status: JobStatus;
+  priority: number;
+  archiveSize: number;
+  estimatedDurationMs?: number;
+  estimatedMemory?: number;
+  cancelRequested: boolean;
+  errorMessage?: string;
+  queuedAt: string;
+  startedAt?: string;
+  finishedAt?: string;
+}
+
+export interface AnalysisQueue {
+  maxConcurrent: number;
+  memoryBudget: number;
+  reservedMemory: number;
+  queueDepth: number;
+  runningCount: number;
+  running: AnalysisJob[];
+  queued: AnalysisJob[];
+}
+
+export type AnalysisStage =
+  | 'QUEUED' | 'DISCOVERY' | 'PARSING' | 'RELATIONSHIPS' | 'SECURITY'
+  | 'METRICS' | 'MICROSERVICES' | 'DEPENDENCIES' | 'COMPLETED' | 'FAILED' | 'CANCELLED';
+
+export interface AnalysisProgress {
+  projectId: number;
+  stage: AnalysisStage;
+  finished: boolean;
+  filesProcessed: number;
+  filesTotal: number;
+  bytesProcessed: number;
+  bytesTotal: number;
+  bytesPerSecond: number;
+  elapsedMillis: number;
+  etaMillis?: number;
+  message?: string;
+}
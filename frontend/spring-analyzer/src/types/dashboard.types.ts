@@ -20,7 +20,9 @@ export interface MetricsInfo {
   avgFieldsPerClass: number;
   maxMethodsInClass: number;
   maxFieldsInClass: number;
-  packageStructure?: string;
+  publicClasses: number;
+  publicMethods: number;
+  privateFields: number;
 }
 
 export interface SecuritySummary {
@@ -58,3 +60,19 @@ export interface PackageInfo {
   name: string;
   classCount: number;
 }
+
+export interface PackageTreeNode {
+  name: string;
+  simpleName: string;
+  depth: number;
+  childCount: number;
+  classCount: number;
+  codeLines: number;
+  endpointCount: number;
+  issueCount: number;
+}
+
+export interface PackageTreeLevel {
+  parent?: PackageTreeNode;
+  children: PackageTreeNode[];
+}
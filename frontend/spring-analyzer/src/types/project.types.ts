@@ -4,10 +4,28 @@ export interface Project {
   description?: string;
   originalFilename: string;
   fileSize: number;
+  archiveHash?: string;
+  analyzerVersion?: string;
+  cacheHit: boolean;
+  resultsCopiedFrom?: number;
   status: ProjectStatus;
   createdAt: string;
   updatedAt: string;
   analyzedAt?: string;
+  archiveProfile?: ArchiveProfile;
+  includePaths: string[];
+  excludePaths: string[];
+}
+
+export interface ArchiveProfile {
+  entryCount: number;
+  javaFileCount: number;
+  javaBytes: number;
+  uncompressedBytes: number;
+  moduleCount: number;
+  largestFiles: { path: string; size: number }[];
+  estimatedDurationMs: number;
+  estimatedMemoryBytes: number;
 }
 
 export type ProjectStatus = 'UPLOADED' | 'ANALYZING' | 'COMPLETED' | 'FAILED';
@@ -16,4 +34,31 @@ export interface ProjectUploadRequest {
   file: File;
   name: string;
   description?: string;
+  includePaths?: string[];
+  excludePaths?: string[];
+}
+
+export interface PathFilterRequest {
+  includePaths: string[];
+  excludePaths: string[];
+}
+
+export interface UploadPartInfo {
+  partNumber: number;
+  size: number;
+  checksum: string;
+}
+
+export interface UploadSession {
+  uploadId: string;
+  projectName: string;
+  originalFilename: string;
+  totalSize: number;
+  partSize: number;
+  partCount: number;
+  analyzeOnComplete: boolean;
+  receivedParts: UploadPartInfo[];
+  missingParts: number[];
+  createdAt: string;
+  updatedAt: string;
 }